@@ -0,0 +1,21 @@
+--
+-- Adds the optional ACCESS_PARTITION column used by the JDBC job stores when
+-- org.quartz.jobStore.triggerAccessPartitions is greater than 1
+--
+-- With this column, the triggers of each job belong to one of a number of
+-- trigger access partitions, each with its own lock, so that nodes firing
+-- and completing the triggers of different partitions do not wait on each
+-- other.  The triggers are assigned to their partitions when a scheduler
+-- starts.
+--
+-- Apply while all schedulers using the tables are stopped, then set the
+-- property to the same value on every node of the cluster.
+--
+-- For Oracle use NUMBER(10) instead of INTEGER:
+--
+--   ALTER TABLE QRTZ_TRIGGERS ADD ACCESS_PARTITION NUMBER(10) DEFAULT 0 NOT NULL;
+--
+
+ALTER TABLE QRTZ_TRIGGERS ADD ACCESS_PARTITION INTEGER DEFAULT 0 NOT NULL;
+
+commit;
@@ -0,0 +1,23 @@
+--
+-- Adds the optional REVISION columns used by the JDBC job stores when
+-- org.quartz.jobStore.useRevisionCache = true
+--
+-- With these columns, each node keeps the job details and calendars it has
+-- read, and before using one it reads only the revision of its row, instead
+-- of reading and deserializing the job data or calendar BLOB again.
+--
+-- Apply while all schedulers using the tables are stopped, then enable the
+-- property on every node of the cluster.
+--
+-- The statements below are for databases that know the BIGINT type (MySQL,
+-- PostgreSQL, SQL Server, DB2, Derby, H2, HSQLDB, Sybase, Informix ...).
+-- For Oracle use NUMBER(19) instead of BIGINT:
+--
+--   ALTER TABLE QRTZ_JOB_DETAILS ADD REVISION NUMBER(19) DEFAULT 0 NOT NULL;
+--   ALTER TABLE QRTZ_CALENDARS ADD REVISION NUMBER(19) DEFAULT 0 NOT NULL;
+--
+
+ALTER TABLE QRTZ_JOB_DETAILS ADD REVISION BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE QRTZ_CALENDARS ADD REVISION BIGINT DEFAULT 0 NOT NULL;
+
+commit;
@@ -0,0 +1,104 @@
+/* 
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved. 
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not 
+ * use this file except in compliance with the License. You may obtain a copy 
+ * of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0 
+ *   
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations 
+ * under the License.
+ * 
+ */
+
+package org.quartz.benchmarks;
+
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.quartz.CronExpression;
+import org.quartz.FireTimeIterator;
+
+/**
+ * Computation of fire times by <code>CronExpression.getTimeAfter</code> and
+ * <code>CronExpression.getFireTimesAfter</code>, for expressions whose next
+ * fire time is near and far away.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CronExpressionBenchmark {
+
+    // no commas, so that the values can also be given with -p on the command line
+    @Param({
+        "0/10 * * * * ?",
+        "0 15 10 ? * MON-FRI",
+        "0 0 12 1/5 * ?",
+        "0 15 10 L * ?",
+        "0 15 10 ? * 6#3",
+        "0 0 0 29 2 ? *"})
+    public String expression;
+
+    private CronExpression cronExpression;
+
+    private Date startTime;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        cronExpression = new CronExpression(expression);
+        cronExpression.setTimeZone(TimeZone.getTimeZone("UTC"));
+        // a fixed, non leap-year start so that the results are comparable
+        startTime = new Date(1420070400000L); // 2015-01-01T00:00:00Z
+    }
+
+    @Benchmark
+    public Date getTimeAfter() {
+        return cronExpression.getTimeAfter(startTime);
+    }
+
+    /**
+     * Enumerate the next ten fire times, the way a trigger does over
+     * consecutive firings.
+     */
+    @Benchmark
+    public Date nextTenFireTimes() {
+        Date time = startTime;
+        for (int i = 0; i < 10 && time != null; i++) {
+            time = cronExpression.getTimeAfter(time);
+        }
+        return time;
+    }
+
+    /**
+     * The same ten fire times, enumerated as primitive longs.
+     */
+    @Benchmark
+    public long nextTenFireTimesIterated() {
+        FireTimeIterator fireTimes = cronExpression.getFireTimesAfter(startTime.getTime());
+        long time = 0;
+        for (int i = 0; i < 10 && fireTimes.hasNext(); i++) {
+            time = fireTimes.next();
+        }
+        return time;
+    }
+}
@@ -0,0 +1,121 @@
+/* 
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved. 
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not 
+ * use this file except in compliance with the License. You may obtain a copy 
+ * of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0 
+ *   
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations 
+ * under the License.
+ * 
+ */
+
+package org.quartz.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.quartz.utils.ConnectionProvider;
+import org.quartz.utils.DBConnectionManager;
+
+/**
+ * An in-memory Derby database holding the Quartz tables, registered with the
+ * <code>DBConnectionManager</code> as a data source of the same name.
+ */
+public class DerbyDatabase implements ConnectionProvider {
+
+    private static final String DATABASE_DRIVER_CLASS = "org.apache.derby.jdbc.EmbeddedDriver";
+    private static final String DATABASE_CONNECTION_PREFIX = "jdbc:derby:memory:";
+
+    private final String name;
+
+    private DerbyDatabase(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Create the database, with the schema of <code>tables_derby.sql</code>,
+     * and register it as a data source.
+     */
+    public static DerbyDatabase create(String name) throws SQLException, IOException {
+        try {
+            Class.forName(DATABASE_DRIVER_CLASS);
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("Derby is not on the classpath", e);
+        }
+
+        Connection conn = DriverManager.getConnection(DATABASE_CONNECTION_PREFIX + name + ";create=true");
+        try {
+            Statement statement = conn.createStatement();
+            for (String command : readSchema().split(";")) {
+                if (!command.matches("\\s*")) {
+                    statement.addBatch(command);
+                }
+            }
+            statement.executeBatch();
+            statement.close();
+        } finally {
+            conn.close();
+        }
+
+        DerbyDatabase database = new DerbyDatabase(name);
+        DBConnectionManager.getInstance().addConnectionProvider(name, database);
+        return database;
+    }
+
+    private static String readSchema() throws IOException {
+        InputStream setupStream = DerbyDatabase.class.getClassLoader().getResourceAsStream("tables_derby.sql");
+        if (setupStream == null) {
+            throw new IOException("tables_derby.sql is not on the classpath");
+        }
+        try {
+            BufferedReader r = new BufferedReader(new InputStreamReader(setupStream, "US-ASCII"));
+            StringBuilder sb = new StringBuilder();
+            String line;
+            while ((line = r.readLine()) != null) {
+                if (!line.startsWith("--")) {
+                    sb.append(line).append("\n");
+                }
+            }
+            return sb.toString();
+        } finally {
+            setupStream.close();
+        }
+    }
+
+    /**
+     * Drop the database.
+     */
+    public void destroy() throws SQLException {
+        try {
+            DriverManager.getConnection(DATABASE_CONNECTION_PREFIX + name + ";drop=true").close();
+        } catch (SQLException e) {
+            if (!("Database 'memory:" + name + "' dropped.").equals(e.getMessage())) {
+                throw e;
+            }
+        }
+    }
+
+    public Connection getConnection() throws SQLException {
+        return DriverManager.getConnection(DATABASE_CONNECTION_PREFIX + name);
+    }
+
+    public void shutdown() throws SQLException {
+        // nothing to do
+    }
+
+    public void initialize() throws SQLException {
+        // nothing to do
+    }
+}
@@ -0,0 +1,473 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz.benchmarks;
+
+import static org.quartz.CalendarIntervalScheduleBuilder.calendarIntervalSchedule;
+import static org.quartz.CronScheduleBuilder.cronSchedule;
+import static org.quartz.JobBuilder.newJob;
+import static org.quartz.SimpleScheduleBuilder.simpleSchedule;
+import static org.quartz.TriggerBuilder.newTrigger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.derby.drda.NetworkServerControl;
+import org.quartz.Job;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.Scheduler;
+import org.quartz.ScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.impl.StdSchedulerFactory;
+import org.quartz.listeners.TriggerListenerSupport;
+import org.quartz.utils.LatencyHistogram;
+
+/**
+ * <p>
+ * A load generator that measures how late triggers fire: the time from the
+ * scheduled fire time of a trigger until <code>Job.execute</code> starts,
+ * together with the number of firings per second.
+ * </p>
+ *
+ * <p>
+ * Run it with settings given as <code>name=value</code> arguments, e.g.
+ * </p>
+ * <pre>
+ * java -cp target/benchmarks.jar org.quartz.benchmarks.FireLagLoadTest \
+ *     store=jdbc jobs=10000 interval=10 mix=simple:2,cron:1 threads=20 \
+ *     org.quartz.scheduler.batchTriggerAcquisitionMaxCount=10
+ * </pre>
+ *
+ * <table>
+ * <tr><th>Setting</th><th>Default</th><th>Meaning</th></tr>
+ * <tr><td>store</td><td>ram</td><td><code>ram</code> (RAMJobStore),
+ * <code>jdbc</code> (JobStoreTX on embedded Derby) or <code>clustered</code>
+ * (JobStoreTX instances in separate JVMs sharing a Derby network server)</td></tr>
+ * <tr><td>jobs</td><td>1000</td><td>number of jobs, each with one trigger</td></tr>
+ * <tr><td>interval</td><td>10</td><td>seconds between firings of each trigger;
+ * cron triggers need it to be below 60</td></tr>
+ * <tr><td>mix</td><td>simple:1</td><td>relative weights of <code>simple</code>,
+ * <code>cron</code> and <code>calendar</code> (calendar-interval) triggers</td></tr>
+ * <tr><td>work</td><td>0</td><td>milliseconds each job execution sleeps</td></tr>
+ * <tr><td>threads</td><td>10</td><td>size of the thread pool of each instance</td></tr>
+ * <tr><td>warmup</td><td>10</td><td>seconds of firing before measuring</td></tr>
+ * <tr><td>duration</td><td>60</td><td>seconds of measuring</td></tr>
+ * <tr><td>instances</td><td>2</td><td>number of cluster nodes (<code>clustered</code> only)</td></tr>
+ * <tr><td>derbyPort</td><td>1527</td><td>port of the Derby network server
+ * (<code>clustered</code> only)</td></tr>
+ * </table>
+ *
+ * <p>
+ * Any other setting whose name starts with <code>org.quartz.</code> is passed
+ * on as a scheduler property, which is how e.g.
+ * <code>org.quartz.scheduler.batchTriggerAcquisitionMaxCount</code> and
+ * <code>org.quartz.scheduler.batchTriggerAcquisitionFireAheadTimeWindow</code>
+ * are compared.
+ * </p>
+ */
+public class FireLagLoadTest {
+
+    private static final String DATA_SOURCE = "loadtest";
+
+    private static final String SCHEDULER_NAME = "FireLagLoadTest";
+
+    private static final double[] REPORTED_PERCENTILES = { 0.0, 50.0, 75.0, 90.0, 95.0, 99.0, 99.9, 99.99, 100.0 };
+
+    // fire lag of the jobs executed by the schedulers of this JVM, in milliseconds
+    static final LatencyHistogram FIRE_LAG = new LatencyHistogram();
+
+    static final AtomicLong MISFIRES = new AtomicLong();
+
+    private final Map<String, String> settings;
+
+    private final Properties schedulerProperties = new Properties();
+
+    public FireLagLoadTest(Map<String, String> settings) {
+        this.settings = settings;
+        for (Map.Entry<String, String> setting : settings.entrySet()) {
+            if (setting.getKey().startsWith("org.quartz.")) {
+                schedulerProperties.setProperty(setting.getKey(), setting.getValue());
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> settings = new LinkedHashMap<String, String>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                System.err.println("Settings must be given as name=value, not: " + arg);
+                System.exit(1);
+            }
+            settings.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        FireLagLoadTest test = new FireLagLoadTest(settings);
+        if (settings.containsKey("resultFile")) {
+            test.runWorker(new File(settings.get("resultFile")));
+            System.exit(0);
+        } else {
+            test.run(System.out);
+        }
+    }
+
+    /**
+     * Schedule the jobs, let them fire for the warm-up and measurement
+     * periods, and print the report.
+     */
+    public void run(PrintStream out) throws Exception {
+        String store = getString("store", "ram");
+        boolean clustered = store.equals("clustered");
+        if (!store.equals("ram") && !store.equals("jdbc") && !clustered) {
+            throw new IllegalArgumentException("Unknown store: " + store);
+        }
+
+        DerbyDatabase database = null;
+        NetworkServerControl derbyServer = null;
+        List<Process> workers = new ArrayList<Process>();
+        List<File> workerResults = new ArrayList<File>();
+        Scheduler scheduler = null;
+        try {
+            if (!store.equals("ram")) {
+                database = DerbyDatabase.create(DATA_SOURCE);
+            }
+            if (clustered) {
+                derbyServer = startDerbyServer(getInt("derbyPort", 1527));
+            }
+
+            scheduler = createScheduler(store, "node0");
+            scheduleJobs(scheduler);
+            scheduler.start();
+
+            if (clustered) {
+                for (int i = 1; i < getInt("instances", 2); i++) {
+                    File resultFile = File.createTempFile("FireLagLoadTest-node" + i, ".ser");
+                    resultFile.deleteOnExit();
+                    workerResults.add(resultFile);
+                    workers.add(startWorker(i, resultFile));
+                }
+            }
+
+            LatencyHistogram fireLag = new LatencyHistogram();
+            long misfires = measure(fireLag);
+
+            for (int i = 0; i < workers.size(); i++) {
+                if (workers.get(i).waitFor() != 0) {
+                    throw new IllegalStateException("Worker node" + (i + 1) + " failed");
+                }
+                misfires += readResult(workerResults.get(i), fireLag);
+            }
+
+            report(out, fireLag, misfires);
+        } finally {
+            for (Process worker : workers) {
+                worker.destroy();
+            }
+            if (scheduler != null) {
+                scheduler.shutdown(false);
+            }
+            if (derbyServer != null) {
+                derbyServer.shutdown();
+            }
+            if (database != null) {
+                database.destroy();
+            }
+        }
+    }
+
+    /**
+     * Run one additional node of a clustered test, and write what it measured
+     * to the given file.
+     */
+    void runWorker(File resultFile) throws Exception {
+        Scheduler scheduler = createScheduler("clustered", settings.get("instanceId"));
+        try {
+            scheduler.start();
+
+            LatencyHistogram fireLag = new LatencyHistogram();
+            long misfires = measure(fireLag);
+
+            ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(resultFile));
+            try {
+                oos.writeObject(fireLag);
+                oos.writeLong(misfires);
+            } finally {
+                oos.close();
+            }
+        } finally {
+            scheduler.shutdown(false);
+        }
+    }
+
+    private long measure(LatencyHistogram fireLag) throws InterruptedException {
+        Thread.sleep(getInt("warmup", 10) * 1000L);
+        FIRE_LAG.reset();
+        MISFIRES.set(0);
+
+        Thread.sleep(getInt("duration", 60) * 1000L);
+        fireLag.add(FIRE_LAG);
+        return MISFIRES.get();
+    }
+
+    private Scheduler createScheduler(String store, String instanceId) throws Exception {
+        Properties props = new Properties();
+        props.setProperty(StdSchedulerFactory.PROP_SCHED_INSTANCE_NAME, SCHEDULER_NAME);
+        props.setProperty(StdSchedulerFactory.PROP_SCHED_INSTANCE_ID, instanceId);
+        props.setProperty(StdSchedulerFactory.PROP_SCHED_SKIP_UPDATE_CHECK, "true");
+        props.setProperty(StdSchedulerFactory.PROP_THREAD_POOL_CLASS, "org.quartz.simpl.SimpleThreadPool");
+        props.setProperty("org.quartz.threadPool.threadCount", String.valueOf(getInt("threads", 10)));
+
+        if (store.equals("ram")) {
+            props.setProperty(StdSchedulerFactory.PROP_JOB_STORE_CLASS, "org.quartz.simpl.RAMJobStore");
+        } else {
+            props.setProperty(StdSchedulerFactory.PROP_JOB_STORE_CLASS, "org.quartz.impl.jdbcjobstore.JobStoreTX");
+            props.setProperty("org.quartz.jobStore.dataSource", DATA_SOURCE);
+            props.setProperty("org.quartz.jobStore.tablePrefix", "QRTZ_");
+            if (store.equals("clustered")) {
+                props.setProperty("org.quartz.jobStore.isClustered", "true");
+                if (!instanceId.equals("node0")) {
+                    // the first node holds the database, the others reach it through the network server
+                    String prefix = StdSchedulerFactory.PROP_DATASOURCE_PREFIX + "." + DATA_SOURCE + ".";
+                    props.setProperty(prefix + "driver", "org.apache.derby.jdbc.ClientDriver");
+                    props.setProperty(prefix + "URL", "jdbc:derby://localhost:" + getInt("derbyPort", 1527)
+                            + "/memory:" + DATA_SOURCE);
+                    props.setProperty(prefix + "maxConnections", String.valueOf(getInt("threads", 10) + 3));
+                }
+            }
+        }
+        props.putAll(schedulerProperties);
+
+        Scheduler scheduler = new StdSchedulerFactory(props).getScheduler();
+        scheduler.getListenerManager().addTriggerListener(new MisfireCounter());
+        return scheduler;
+    }
+
+    private void scheduleJobs(Scheduler scheduler) throws Exception {
+        int jobs = getInt("jobs", 1000);
+        int interval = getInt("interval", 10);
+        long work = getInt("work", 0);
+        Map<String, Integer> mix = getMix();
+
+        int totalWeight = 0;
+        for (int weight : mix.values()) {
+            totalWeight += weight;
+        }
+
+        long intervalMillis = interval * 1000L;
+        // leave time to schedule everything, then spread the firings evenly over an interval
+        long start = System.currentTimeMillis() + 5000L;
+        int jobNumber = 0;
+        for (Map.Entry<String, Integer> kind : mix.entrySet()) {
+            int count = (int) ((long) jobs * kind.getValue() / totalWeight);
+            if (kind.getKey().equals(lastKey(mix))) {
+                count = jobs - jobNumber;
+            }
+            for (int i = 0; i < count; i++, jobNumber++) {
+                long offset = jobNumber * intervalMillis / jobs;
+                JobDetail job = newJob(LagRecordingJob.class)
+                        .withIdentity("job" + jobNumber, "loadtest")
+                        .usingJobData(LagRecordingJob.WORK_MILLIS, work)
+                        .build();
+                Trigger trigger = newTrigger()
+                        .withIdentity("trigger" + jobNumber, "loadtest")
+                        .startAt(new Date(start + offset))
+                        .withSchedule(createSchedule(kind.getKey(), interval, start + offset))
+                        .build();
+                scheduler.scheduleJob(job, trigger);
+            }
+        }
+    }
+
+    private static ScheduleBuilder<? extends Trigger> createSchedule(String kind, int interval, long startTime) {
+        if (kind.equals("simple")) {
+            return simpleSchedule().withIntervalInSeconds(interval).repeatForever();
+        } else if (kind.equals("calendar")) {
+            return calendarIntervalSchedule().withIntervalInSeconds(interval);
+        } else if (kind.equals("cron")) {
+            if (interval >= 60) {
+                throw new IllegalArgumentException("Cron triggers need an interval below 60 seconds");
+            }
+            long second = (startTime / 1000L) % 60;
+            return cronSchedule((second % interval) + "/" + interval + " * * * * ?");
+        }
+        throw new IllegalArgumentException("Unknown kind of trigger: " + kind);
+    }
+
+    private Map<String, Integer> getMix() {
+        Map<String, Integer> mix = new LinkedHashMap<String, Integer>();
+        for (String part : getString("mix", "simple:1").split(",")) {
+            String[] kindAndWeight = part.split(":");
+            int weight = (kindAndWeight.length > 1) ? Integer.parseInt(kindAndWeight[1].trim()) : 1;
+            if (weight > 0) {
+                createSchedule(kindAndWeight[0].trim(), getInt("interval", 10), 0L); // validate
+                mix.put(kindAndWeight[0].trim(), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("The mix has no triggers");
+        }
+        return mix;
+    }
+
+    private static String lastKey(Map<String, Integer> map) {
+        String last = null;
+        for (String key : map.keySet()) {
+            last = key;
+        }
+        return last;
+    }
+
+    private NetworkServerControl startDerbyServer(int port) throws Exception {
+        NetworkServerControl server = new NetworkServerControl(InetAddress.getByName("localhost"), port);
+        server.start(null);
+        for (int i = 0; ; i++) {
+            try {
+                server.ping();
+                return server;
+            } catch (Exception e) {
+                if (i == 50) {
+                    throw e;
+                }
+                Thread.sleep(100L);
+            }
+        }
+    }
+
+    private Process startWorker(int node, File resultFile) throws IOException {
+        List<String> command = new ArrayList<String>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(FireLagLoadTest.class.getName());
+        for (Map.Entry<String, String> setting : settings.entrySet()) {
+            command.add(setting.getKey() + "=" + setting.getValue());
+        }
+        command.add("instanceId=node" + node);
+        command.add("resultFile=" + resultFile.getAbsolutePath());
+
+        final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        final String prefix = "[node" + node + "] ";
+        Thread pump = new Thread("FireLagLoadTest-node" + node + "-output") {
+            @Override
+            public void run() {
+                try {
+                    BufferedReader r = new BufferedReader(new InputStreamReader(process.getInputStream()));
+                    String line;
+                    while ((line = r.readLine()) != null) {
+                        System.err.println(prefix + line);
+                    }
+                } catch (IOException e) {
+                    // the worker is gone
+                }
+            }
+        };
+        pump.setDaemon(true);
+        pump.start();
+        return process;
+    }
+
+    private static long readResult(File resultFile, LatencyHistogram fireLag) throws Exception {
+        ObjectInputStream ois = new ObjectInputStream(new FileInputStream(resultFile));
+        try {
+            fireLag.add((LatencyHistogram) ois.readObject());
+            return ois.readLong();
+        } finally {
+            ois.close();
+        }
+    }
+
+    private void report(PrintStream out, LatencyHistogram fireLag, long misfires) {
+        int duration = getInt("duration", 60);
+
+        out.println();
+        out.println("Settings: " + settings);
+        out.println(String.format("Fired: %d in %d s (%.1f/s), misfired: %d",
+                fireLag.getCount(), duration, ((double) fireLag.getCount()) / duration, misfires));
+        out.println(String.format("Fire lag (ms): mean=%.2f p50=%d p99=%d p99.9=%d max=%d",
+                fireLag.getMean(),
+                fireLag.getValueAtPercentile(50.0),
+                fireLag.getValueAtPercentile(99.0),
+                fireLag.getValueAtPercentile(99.9),
+                fireLag.getMax()));
+        out.println();
+        out.println(String.format("%12s %12s", "Percentile", "Lag (ms)"));
+        for (double percentile : REPORTED_PERCENTILES) {
+            out.println(String.format("%12s %12d", percentile, fireLag.getValueAtPercentile(percentile)));
+        }
+    }
+
+    private String getString(String name, String defaultValue) {
+        String value = settings.get(name);
+        return (value != null) ? value.trim() : defaultValue;
+    }
+
+    private int getInt(String name, int defaultValue) {
+        String value = settings.get(name);
+        return (value != null) ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+
+    /**
+     * Records how late it started executing, then optionally works for a
+     * while.
+     */
+    public static class LagRecordingJob implements Job {
+
+        static final String WORK_MILLIS = "workMillis";
+
+        public void execute(JobExecutionContext context) throws JobExecutionException {
+            FIRE_LAG.record(System.currentTimeMillis() - context.getScheduledFireTime().getTime());
+
+            long work = context.getMergedJobDataMap().getLong(WORK_MILLIS);
+            if (work > 0) {
+                try {
+                    Thread.sleep(work);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    static class MisfireCounter extends TriggerListenerSupport {
+
+        public String getName() {
+            return "FireLagLoadTest.MisfireCounter";
+        }
+
+        @Override
+        public void triggerMisfired(Trigger trigger) {
+            MISFIRES.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/* 
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved. 
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not 
+ * use this file except in compliance with the License. You may obtain a copy 
+ * of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0 
+ *   
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations 
+ * under the License.
+ * 
+ */
+
+package org.quartz.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.quartz.JobDataMap;
+import org.quartz.impl.jdbcjobstore.StdJDBCDelegate;
+import org.quartz.simpl.CascadingClassLoadHelper;
+import org.quartz.spi.ClassLoadHelper;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serialization of a <code>JobDataMap</code> for storage in a BLOB column, by
+ * <code>StdJDBCDelegate.serializeJobData</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class JobDataSerializationBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int entryCount;
+
+    @Param({"false", "true"})
+    public boolean useProperties;
+
+    /** The <code>jobDataCodec</code> delegate setting, or "none". */
+    @Param({"none", "binary"})
+    public String jobDataCodec;
+
+    private SerializingDelegate delegate;
+
+    private JobDataMap jobDataMap;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ClassLoadHelper loadHelper = new CascadingClassLoadHelper();
+        loadHelper.initialize();
+        delegate = new SerializingDelegate();
+        delegate.initialize(LoggerFactory.getLogger(getClass()), "QRTZ_", "benchmark", "BENCHMARK",
+                loadHelper, useProperties, "none".equals(jobDataCodec) ? null : "jobDataCodec=" + jobDataCodec);
+
+        jobDataMap = new JobDataMap();
+        for (int i = 0; i < entryCount; i++) {
+            // strings only, so that both serialization styles apply
+            jobDataMap.put("key" + i, "value of entry " + i);
+        }
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream serializeJobData() throws IOException {
+        return delegate.serializeJobData(jobDataMap);
+    }
+
+    /**
+     * Makes the serialization of the delegate callable by the benchmark.
+     */
+    static class SerializingDelegate extends StdJDBCDelegate {
+        @Override
+        public ByteArrayOutputStream serializeJobData(JobDataMap data) throws IOException {
+            return super.serializeJobData(data);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/* 
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved. 
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not 
+ * use this file except in compliance with the License. You may obtain a copy 
+ * of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0 
+ *   
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations 
+ * under the License.
+ * 
+ */
+
+package org.quartz.benchmarks;
+
+import static org.quartz.JobBuilder.newJob;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.quartz.JobDetail;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+import org.quartz.impl.jdbcjobstore.JobStoreTX;
+import org.quartz.simpl.CascadingClassLoadHelper;
+import org.quartz.spi.ClassLoadHelper;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.TriggerFiredBundle;
+import org.quartz.spi.TriggerFiredResult;
+
+/**
+ * Acquisition and firing of triggers in a <code>JobStoreTX</code> backed by
+ * an embedded, in-memory Derby database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class JobStoreTXBenchmark {
+
+    private static final String DATA_SOURCE = "benchmarkDS";
+
+    @Param({"1000", "10000"})
+    public int triggerCount;
+
+    @Param({"1", "10"})
+    public int batchSize;
+
+    @Param({"false", "true"})
+    public boolean usePipelinedFiring;
+
+    @Param({"false", "true"})
+    public boolean cachePreparedStatements;
+
+    private DerbyDatabase database;
+
+    private JobStoreTX store;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = DerbyDatabase.create(DATA_SOURCE);
+
+        store = new JobStoreTX();
+        store.setDataSource(DATA_SOURCE);
+        store.setTablePrefix("QRTZ_");
+        store.setInstanceId("BENCHMARK");
+        store.setInstanceName("JobStoreTXBenchmark");
+        store.setUseDBLocks(true);
+        store.setUsePipelinedFiring(usePipelinedFiring);
+        if (cachePreparedStatements) {
+            store.setDriverDelegateInitString("cachePreparedStatements=true");
+        }
+
+        ClassLoadHelper loadHelper = new CascadingClassLoadHelper();
+        loadHelper.initialize();
+        store.initialize(loadHelper, new NoOpSignaler());
+        store.schedulerStarted();
+
+        JobDetail job = newJob(NoOpJob.class).withIdentity("job", "benchmark").storeDurably().build();
+        store.storeJob(job, false);
+        TriggerFixtures.storeRepeatingTriggers(store, job, triggerCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        store.shutdown();
+        database.destroy();
+    }
+
+    /**
+     * Acquire triggers, fire them and complete their jobs - the job store
+     * side of every trigger that fires.
+     */
+    @Benchmark
+    public void fireCycle(Blackhole bh) throws Exception {
+        List<OperableTrigger> triggers = store.acquireNextTriggers(TriggerFixtures.farFuture(), batchSize, 0L);
+        List<TriggerFiredResult> results = store.triggersFired(triggers);
+        for (TriggerFiredResult result : results) {
+            TriggerFiredBundle bundle = result.getTriggerFiredBundle();
+            if (bundle != null) {
+                store.triggeredJobComplete(bundle.getTrigger(), bundle.getJobDetail(), CompletedExecutionInstruction.NOOP);
+            }
+        }
+        bh.consume(results);
+    }
+}
@@ -0,0 +1,45 @@
+/* 
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved. 
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not 
+ * use this file except in compliance with the License. You may obtain a copy 
+ * of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0 
+ *   
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations 
+ * under the License.
+ * 
+ */
+
+package org.quartz.benchmarks;
+
+import org.quartz.JobKey;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.spi.SchedulerSignaler;
+
+/**
+ * A <code>SchedulerSignaler</code> for job stores that are exercised without
+ * a scheduler.
+ */
+public class NoOpSignaler implements SchedulerSignaler {
+
+    public void notifyTriggerListenersMisfired(Trigger trigger) {
+    }
+
+    public void notifySchedulerListenersFinalized(Trigger trigger) {
+    }
+
+    public void notifySchedulerListenersJobDeleted(JobKey jobKey) {
+    }
+
+    public void signalSchedulingChange(long candidateNewNextFireTime) {
+    }
+
+    public void notifySchedulerListenersError(String string, SchedulerException jpe) {
+    }
+}
@@ -0,0 +1,119 @@
+/* 
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved. 
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not 
+ * use this file except in compliance with the License. You may obtain a copy 
+ * of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0 
+ *   
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations 
+ * under the License.
+ * 
+ */
+
+package org.quartz.benchmarks;
+
+import static org.quartz.JobBuilder.newJob;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.quartz.JobDetail;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+import org.quartz.spi.JobStore;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.TriggerFiredBundle;
+import org.quartz.spi.TriggerFiredResult;
+
+/**
+ * Acquisition and firing of triggers in the RAM job stores, with stores of
+ * various sizes.
+ *
+ * <p>
+ * Each operation acquires <code>batchSize</code> triggers; run with
+ * <code>-prof gc</code> to get the allocation per operation.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RAMJobStoreBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int triggerCount;
+
+    @Param({"1", "10"})
+    public int batchSize;
+
+    @Param({"org.quartz.simpl.RAMJobStore", "org.quartz.simpl.ConcurrentRAMJobStore"})
+    public String storeClass;
+
+    private JobStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        store = (JobStore) Class.forName(storeClass).newInstance();
+        store.initialize(null, new NoOpSignaler());
+        store.schedulerStarted();
+
+        JobDetail job = newJob(NoOpJob.class).withIdentity("job", "benchmark").storeDurably().build();
+        store.storeJob(job, false);
+        TriggerFixtures.storeRepeatingTriggers(store, job, triggerCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        store.shutdown();
+    }
+
+    /**
+     * Acquire triggers and release them again, as the scheduler thread does
+     * when it is halted or finds an earlier trigger while waiting.
+     */
+    @Benchmark
+    public void acquireAndRelease(Blackhole bh) {
+        List<OperableTrigger> triggers = store.acquireNextTriggers(TriggerFixtures.farFuture(), batchSize, 0L);
+        for (OperableTrigger trigger : triggers) {
+            store.releaseAcquiredTrigger(trigger);
+        }
+        bh.consume(triggers);
+    }
+
+    /**
+     * Acquire triggers, fire them and complete their jobs - the job store
+     * side of every trigger that fires.
+     */
+    @Benchmark
+    public void fireCycle(Blackhole bh) {
+        List<OperableTrigger> triggers = store.acquireNextTriggers(TriggerFixtures.farFuture(), batchSize, 0L);
+        List<TriggerFiredResult> results = store.triggersFired(triggers);
+        for (TriggerFiredResult result : results) {
+            TriggerFiredBundle bundle = result.getTriggerFiredBundle();
+            if (bundle != null) {
+                store.triggeredJobComplete(bundle.getTrigger(), bundle.getJobDetail(), CompletedExecutionInstruction.NOOP);
+            }
+        }
+        bh.consume(results);
+    }
+}
@@ -0,0 +1,100 @@
+/* 
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved. 
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not 
+ * use this file except in compliance with the License. You may obtain a copy 
+ * of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0 
+ *   
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations 
+ * under the License.
+ * 
+ */
+
+package org.quartz.benchmarks;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.quartz.simpl.ExecutorThreadPool;
+import org.quartz.simpl.SimpleThreadPool;
+import org.quartz.spi.ThreadPool;
+
+/**
+ * Dispatch of runnables to a <code>SimpleThreadPool</code> or an
+ * <code>ExecutorThreadPool</code> the way the scheduler thread does it: wait
+ * for an available thread, then hand it the runnable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ThreadPoolBenchmark {
+
+    private static final int TASKS_PER_INVOCATION = 1000;
+
+    @Param({"1", "10", "50", "200"})
+    public int threadCount;
+
+    @Param({"simple", "executor"})
+    public String pool;
+
+    private ThreadPool threadPool;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        if ("executor".equals(pool)) {
+            ExecutorThreadPool executorThreadPool = new ExecutorThreadPool(threadCount, Thread.NORM_PRIORITY);
+            executorThreadPool.setThreadNamePrefix("ThreadPoolBenchmark");
+            executorThreadPool.setMakeThreadsDaemons(true);
+            threadPool = executorThreadPool;
+        } else {
+            SimpleThreadPool simpleThreadPool = new SimpleThreadPool(threadCount, Thread.NORM_PRIORITY);
+            simpleThreadPool.setThreadNamePrefix("ThreadPoolBenchmark");
+            simpleThreadPool.setMakeThreadsDaemons(true);
+            threadPool = simpleThreadPool;
+        }
+        threadPool.initialize();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        threadPool.shutdown(true);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS_PER_INVOCATION)
+    public void dispatch() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(TASKS_PER_INVOCATION);
+        Runnable task = new Runnable() {
+            public void run() {
+                done.countDown();
+            }
+        };
+        for (int i = 0; i < TASKS_PER_INVOCATION; i++) {
+            threadPool.blockForAvailableThreads();
+            threadPool.runInThread(task);
+        }
+        done.await();
+    }
+}
@@ -0,0 +1,71 @@
+/* 
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved. 
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not 
+ * use this file except in compliance with the License. You may obtain a copy 
+ * of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0 
+ *   
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations 
+ * under the License.
+ * 
+ */
+
+package org.quartz.benchmarks;
+
+import static org.quartz.SimpleScheduleBuilder.simpleSchedule;
+import static org.quartz.TriggerBuilder.newTrigger;
+
+import java.util.Date;
+
+import org.quartz.JobDetail;
+import org.quartz.JobPersistenceException;
+import org.quartz.spi.JobStore;
+import org.quartz.spi.OperableTrigger;
+
+/**
+ * Populates job stores with triggers that keep firing for as long as a
+ * benchmark runs.
+ */
+public final class TriggerFixtures {
+
+    private TriggerFixtures() {
+        // not instantiable
+    }
+
+    /**
+     * Store <code>count</code> triggers of the given (already stored) job,
+     * repeating forever every second and starting one millisecond apart an
+     * hour from now, so that triggers are acquired in a steady rotation when
+     * asking for those due before a far away time.  Misfires are ignored so
+     * the rotation does not depend on how fast the benchmark runs.
+     */
+    public static void storeRepeatingTriggers(JobStore store, JobDetail job, int count) throws JobPersistenceException {
+        long start = System.currentTimeMillis() + 3600000L;
+        for (int i = 0; i < count; i++) {
+            OperableTrigger trigger = (OperableTrigger) newTrigger()
+                    .withIdentity("trigger" + i, "benchmark")
+                    .forJob(job)
+                    .startAt(new Date(start + i))
+                    .withSchedule(simpleSchedule()
+                            .withIntervalInSeconds(1)
+                            .repeatForever()
+                            .withMisfireHandlingInstructionIgnoreMisfires())
+                    .build();
+            trigger.computeFirstFireTime(null);
+            store.storeTrigger(trigger, false);
+        }
+    }
+
+    /**
+     * A time beyond the next fire time of every trigger stored by
+     * <code>storeRepeatingTriggers</code>, however long the benchmark runs.
+     */
+    public static long farFuture() {
+        return Long.MAX_VALUE / 2;
+    }
+}
@@ -0,0 +1,578 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ * <p>
+ * The fields of a parsed <code>{@link CronExpression}</code>, compiled into
+ * bit masks, and the search for the next time matching them.
+ * </p>
+ *
+ * <p>
+ * The search walks the local date/time fields (year, month, day, hour,
+ * minute, second) with plain arithmetic, looking up each field in its bit
+ * mask, and only converts the candidate it finds back to an instant.  The
+ * days of a month that match the day-of-month or day-of-week rule (including
+ * 'L', 'W' and '#') are computed once per month visited.  Apart from a
+ * <code>Calendar</code> that is kept per thread, it does not allocate.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable, and can be shared by all of the
+ * <code>CronExpression</code>s that have the same expression.
+ * </p>
+ */
+final class CompiledCronExpression {
+
+    /**
+     * Returned by <code>getTimeAfter</code> when there is no next time.
+     */
+    static final long NO_TIME = Long.MIN_VALUE;
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private static final long MILLIS_PER_DAY = SECONDS_PER_DAY * MILLIS_PER_SECOND;
+
+    private static final long MILLIS_PER_MINUTE = 60 * MILLIS_PER_SECOND;
+
+    private static final long MILLIS_PER_HOUR = 60 * MILLIS_PER_MINUTE;
+
+    // the masks of a seconds or minutes field, and of an hours field, that
+    // match every value
+    private static final long ALL_SECONDS = (1L << 60) - 1;
+
+    private static final int ALL_HOURS = (1 << 24) - 1;
+
+    // longer than any daylight saving shift
+    private static final long OFFSET_CHANGE_WINDOW = 3 * 60 * 60 * MILLIS_PER_SECOND;
+
+    // the last year CronExpression ever searched
+    private static final int LAST_YEAR = 2999;
+
+    private static final int DAY_OF_MONTH_RULE = 1;
+
+    private static final int DAY_OF_WEEK_RULE = 2;
+
+    private static final ThreadLocal<GregorianCalendar> RESOLVING_CALENDAR = new ThreadLocal<GregorianCalendar>() {
+        @Override
+        protected GregorianCalendar initialValue() {
+            return new GregorianCalendar();
+        }
+    };
+
+    private final long seconds;
+
+    private final long minutes;
+
+    private final int hours;
+
+    private final int daysOfMonth;
+
+    private final int months;
+
+    private final int daysOfWeek;
+
+    // the days of a 31 day month whose day-of-week is in daysOfWeek, indexed
+    // by the day-of-week of the first of the month (Sunday = 0)
+    private final int[] daysOfWeekByFirstDay = new int[7];
+
+    private final int[] years;
+
+    private final int lastYear;
+
+    private final int dayRule;
+
+    private final boolean lastdayOfMonth;
+
+    private final int lastdayOffset;
+
+    private final boolean nearestWeekday;
+
+    private final int firstDayOfMonth;
+
+    private final boolean lastdayOfWeek;
+
+    private final int nthdayOfWeek;
+
+    private final int firstDayOfWeek;
+
+    CompiledCronExpression(CronExpression expression) {
+        seconds = toLongMask(expression.seconds, 0, 59);
+        minutes = toLongMask(expression.minutes, 0, 59);
+        hours = toIntMask(expression.hours, 0, 23);
+        daysOfMonth = toIntMask(expression.daysOfMonth, 1, 31);
+        months = toIntMask(expression.months, 1, 12);
+        daysOfWeek = toIntMask(expression.daysOfWeek, 1, 7);
+
+        years = new int[expression.years.size()];
+        int i = 0;
+        for (Integer year : expression.years) {
+            years[i++] = year;
+        }
+        lastYear = Math.min(CronExpression.MAX_YEAR, LAST_YEAR);
+
+        boolean dayOfMSpec = !expression.daysOfMonth.contains(CronExpression.NO_SPEC);
+        boolean dayOfWSpec = !expression.daysOfWeek.contains(CronExpression.NO_SPEC);
+        if (dayOfMSpec && !dayOfWSpec) {
+            dayRule = DAY_OF_MONTH_RULE;
+        } else if (dayOfWSpec && !dayOfMSpec) {
+            dayRule = DAY_OF_WEEK_RULE;
+        } else {
+            dayRule = 0;
+        }
+
+        lastdayOfMonth = expression.lastdayOfMonth;
+        lastdayOffset = expression.lastdayOffset;
+        nearestWeekday = expression.nearestWeekday;
+        firstDayOfMonth = (daysOfMonth == 0) ? 0 : Integer.numberOfTrailingZeros(daysOfMonth);
+        lastdayOfWeek = expression.lastdayOfWeek;
+        nthdayOfWeek = expression.nthdayOfWeek;
+        firstDayOfWeek = (daysOfWeek == 0) ? 0 : Integer.numberOfTrailingZeros(daysOfWeek);
+
+        for (int firstDay = 0; firstDay < 7; firstDay++) {
+            int mask = 0;
+            for (int day = 1; day <= 31; day++) {
+                if ((daysOfWeek & (1 << ((firstDay + day - 1) % 7 + 1))) != 0) {
+                    mask |= 1 << day;
+                }
+            }
+            daysOfWeekByFirstDay[firstDay] = mask;
+        }
+    }
+
+    /**
+     * Returns the first time, in milliseconds, that is at least one second
+     * after the given one and matches the expression in the given time zone,
+     * or <code>NO_TIME</code> if there is none.
+     */
+    long getTimeAfter(long afterTime, TimeZone timeZone) {
+        if (dayRule == 0) {
+            throw new UnsupportedOperationException(
+                    "Support for specifying both a day-of-week AND a day-of-month parameter is not implemented.");
+        }
+
+        // move ahead one second, since we're computing the time *after* the
+        // given time, and ignore milliseconds
+        long start = floorDiv(afterTime + MILLIS_PER_SECOND, MILLIS_PER_SECOND) * MILLIS_PER_SECOND;
+        long local = floorDiv(start + timeZone.getOffset(start), MILLIS_PER_SECOND);
+
+        while (true) {
+            long candidate = nextLocalMatch(local);
+            if (candidate == NO_TIME) {
+                return NO_TIME;
+            }
+
+            long time = toTime(candidate, timeZone);
+            long actual = floorDiv(time + timeZone.getOffset(time), MILLIS_PER_SECOND);
+            if (actual == candidate) {
+                return time;
+            }
+
+            // the candidate does not exist in the time zone (it is skipped by
+            // a daylight saving change), so carry on from the first local
+            // time after the change
+            local = (actual > candidate) ? getGapEnd(time, actual - candidate, timeZone) : candidate + 1;
+        }
+    }
+
+    /**
+     * Returns the first local date/time, in seconds since the epoch, that
+     * exists after a gap of the given number of seconds, which a daylight
+     * saving change ending at or before the given time opened.
+     */
+    private static long getGapEnd(long time, long gapSeconds, TimeZone timeZone) {
+        // the change is after time - gap, where the offset is still the old
+        // one, so find it by bisection
+        long before = time - gapSeconds * MILLIS_PER_SECOND;
+        long after = time;
+        int offset = timeZone.getOffset(after);
+        while (after - before > MILLIS_PER_SECOND) {
+            long middle = before + floorDiv(after - before, 2 * MILLIS_PER_SECOND) * MILLIS_PER_SECOND;
+            if (timeZone.getOffset(middle) == offset) {
+                after = middle;
+            } else {
+                before = middle;
+            }
+        }
+        return floorDiv(after + offset, MILLIS_PER_SECOND);
+    }
+
+    /**
+     * Same as <code>getTimeAfter</code>, for a time that matches the
+     * expression - such as the previous result of <code>getTimeAfter</code>.
+     * When the expression fires again within the same minute, the next time
+     * is found from the seconds alone.
+     */
+    long getTimeAfterMatch(long matchTime, TimeZone timeZone) {
+        int offset = timeZone.getOffset(matchTime);
+        long local = floorDiv(matchTime + offset, MILLIS_PER_SECOND);
+        int second = (int) floorMod(local, 60);
+        int nextSecond = nextBit(seconds, second + 1);
+        if (nextSecond >= 0 && nextSecond < 60 && floorMod(matchTime, MILLIS_PER_SECOND) == 0) {
+            long time = matchTime + (nextSecond - second) * MILLIS_PER_SECOND;
+            // the local time must neither be shifted nor be repeated by a
+            // daylight saving change, which no change of offset in the
+            // following hours rules out
+            if (timeZone.getOffset(time) == offset
+                    && timeZone.getOffset(time + OFFSET_CHANGE_WINDOW) == offset) {
+                return time;
+            }
+        }
+        return getTimeAfter(matchTime, timeZone);
+    }
+
+    /**
+     * Returns the first time, in milliseconds, that is at least one second
+     * after the given one and does not match the expression in the given time
+     * zone.  When every second of a minute matches as soon as its first
+     * second does - and likewise every minute of an hour, or every hour of a
+     * day - whole minutes, hours or days are skipped at once.
+     */
+    long getInvalidTimeAfter(long afterTime, TimeZone timeZone) {
+        long unit;
+        if (seconds != ALL_SECONDS) {
+            unit = MILLIS_PER_SECOND;
+        } else if (minutes != ALL_SECONDS) {
+            unit = MILLIS_PER_MINUTE;
+        } else if (hours != ALL_HOURS) {
+            unit = MILLIS_PER_HOUR;
+        } else {
+            unit = MILLIS_PER_DAY;
+        }
+
+        long time = floorDiv(afterTime, MILLIS_PER_SECOND) * MILLIS_PER_SECOND + MILLIS_PER_SECOND;
+        while (getTimeAfter(time - MILLIS_PER_SECOND, timeZone) == time) {
+            time = getNextUnitStart(time, unit, timeZone);
+        }
+        return time;
+    }
+
+    /**
+     * Returns the start of the local unit of time after the one the given
+     * time falls in, or an earlier time near a change of offset.
+     */
+    private static long getNextUnitStart(long time, long unit, TimeZone timeZone) {
+        if (unit == MILLIS_PER_SECOND) {
+            return time + MILLIS_PER_SECOND;
+        }
+        int offset = timeZone.getOffset(time);
+        long next = time + unit - floorMod(time + offset, unit);
+        // the local times shifted or repeated by a daylight saving change
+        // may not match, so it is approached an hour, and then a second, at
+        // a time
+        if (timeZone.getOffset(next + OFFSET_CHANGE_WINDOW) != offset) {
+            return getNextUnitStart(time,
+                    (unit == MILLIS_PER_DAY) ? MILLIS_PER_HOUR : MILLIS_PER_SECOND, timeZone);
+        }
+        return next;
+    }
+
+    /**
+     * Returns the first local date/time, in seconds since the epoch, that is
+     * not before the given one and matches all of the fields, or
+     * <code>NO_TIME</code>.
+     */
+    private long nextLocalMatch(long local) {
+        long epochDay = floorDiv(local, SECONDS_PER_DAY);
+        int secondOfDay = (int) (local - epochDay * SECONDS_PER_DAY);
+
+        long date = civilFromDays(epochDay);
+        int day = (int) (date & 31);
+        int month = (int) ((date >> 5) & 15);
+        long longYear = date >> 9;
+        if (longYear > lastYear) {
+            return NO_TIME;
+        }
+        int year = (int) longYear;
+
+        int hour = secondOfDay / 3600;
+        int minute = (secondOfDay / 60) % 60;
+        int second = secondOfDay % 60;
+
+        while (true) {
+            int matchingYear = nextYear(year);
+            if (matchingYear < 0 || matchingYear > lastYear) {
+                return NO_TIME;
+            }
+            if (matchingYear != year) {
+                year = matchingYear;
+                month = 1;
+                day = 1;
+                hour = minute = second = 0;
+            }
+
+            for (; month <= 12; month++) {
+                if ((months & (1 << month)) != 0) {
+                    int matchingDays = getMatchingDays(year, month);
+                    int matchingDay = nextBit(matchingDays, day);
+                    while (matchingDay > 0) {
+                        if (matchingDay != day) {
+                            day = matchingDay;
+                            hour = minute = second = 0;
+                        }
+                        int time = nextTimeOfDay(hour, minute, second);
+                        if (time >= 0) {
+                            return (daysFromCivil(year, month, day) * SECONDS_PER_DAY) + time;
+                        }
+                        day++;
+                        hour = minute = second = 0;
+                        matchingDay = nextBit(matchingDays, day);
+                    }
+                }
+                day = 1;
+                hour = minute = second = 0;
+            }
+
+            year++;
+            month = 1;
+        }
+    }
+
+    /**
+     * Returns the first second of the day, not before the given time, whose
+     * hour, minute and second match, or -1.
+     */
+    private int nextTimeOfDay(int hour, int minute, int second) {
+        int h = nextBit(hours, hour);
+        if (h < 0) {
+            return -1;
+        }
+        if (h != hour) {
+            minute = second = 0;
+        }
+
+        while (true) {
+            int m = nextBit(minutes, minute);
+            if (m < 0) {
+                h = nextBit(hours, h + 1);
+                if (h < 0) {
+                    return -1;
+                }
+                minute = second = 0;
+                continue;
+            }
+            if (m != minute) {
+                second = 0;
+            }
+
+            int s = nextBit(seconds, second);
+            if (s < 0) {
+                minute = m + 1;
+                second = 0;
+                continue;
+            }
+
+            return h * 3600 + m * 60 + s;
+        }
+    }
+
+    /**
+     * Returns the days of the given month that match the day-of-month or
+     * day-of-week field, as a bit mask.
+     */
+    private int getMatchingDays(int year, int month) {
+        int lastDay = getLastDayOfMonth(month, year);
+        // day-of-week of the first of the month, Sunday = 0
+        int firstDay = (int) floorMod(daysFromCivil(year, month, 1) + 4, 7);
+
+        if (dayRule == DAY_OF_MONTH_RULE) {
+            if (lastdayOfMonth) {
+                int day = lastDay - lastdayOffset;
+                if (nearestWeekday) {
+                    day = getNearestWeekday(day, firstDay, lastDay);
+                }
+                return dayBit(day, lastDay);
+            }
+            if (nearestWeekday) {
+                return dayBit(getNearestWeekday(firstDayOfMonth, firstDay, lastDay), lastDay);
+            }
+            return daysOfMonth & daysUpTo(lastDay);
+        }
+
+        if (lastdayOfWeek) {
+            int day = 1 + (int) floorMod(firstDayOfWeek - 1 - firstDay, 7);
+            while (day + 7 <= lastDay) {
+                day += 7;
+            }
+            return dayBit(day, lastDay);
+        }
+        if (nthdayOfWeek != 0) {
+            int day = 1 + (int) floorMod(firstDayOfWeek - 1 - firstDay, 7) + (nthdayOfWeek - 1) * 7;
+            return dayBit(day, lastDay);
+        }
+        return daysOfWeekByFirstDay[firstDay] & daysUpTo(lastDay);
+    }
+
+    /**
+     * Moves a day falling on a week-end to the nearest week day of the same
+     * month, the way the 'W' option is defined.
+     */
+    private static int getNearestWeekday(int day, int firstDay, int lastDay) {
+        int dayOfWeek = (int) floorMod(firstDay + day - 1, 7) + 1;
+        if (dayOfWeek == Calendar.SATURDAY && day == 1) {
+            return day + 2;
+        } else if (dayOfWeek == Calendar.SATURDAY) {
+            return day - 1;
+        } else if (dayOfWeek == Calendar.SUNDAY && day == lastDay) {
+            return day - 2;
+        } else if (dayOfWeek == Calendar.SUNDAY) {
+            return day + 1;
+        }
+        return day;
+    }
+
+    private int nextYear(int year) {
+        int i = Arrays.binarySearch(years, year);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return (i < years.length) ? years[i] : -1;
+    }
+
+    /**
+     * Returns the time of the given local date/time in the time zone,
+     * resolving it the way <code>java.util.Calendar</code> does when the
+     * local time is skipped or repeated by a daylight saving change.
+     */
+    private static long toTime(long local, TimeZone timeZone) {
+        long localMillis = local * MILLIS_PER_SECOND;
+        int offset = timeZone.getOffset(localMillis - MILLIS_PER_DAY);
+        if (offset == timeZone.getOffset(localMillis + MILLIS_PER_DAY)) {
+            // no offset change around this time
+            return localMillis - offset;
+        }
+
+        long epochDay = floorDiv(local, SECONDS_PER_DAY);
+        int secondOfDay = (int) (local - epochDay * SECONDS_PER_DAY);
+        long date = civilFromDays(epochDay);
+
+        GregorianCalendar cal = RESOLVING_CALENDAR.get();
+        cal.setTimeZone(timeZone);
+        cal.clear();
+        cal.set((int) (date >> 9), (int) ((date >> 5) & 15) - 1, (int) (date & 31),
+                secondOfDay / 3600, (secondOfDay / 60) % 60, secondOfDay % 60);
+        return cal.getTimeInMillis();
+    }
+
+    static int getLastDayOfMonth(int month, int year) {
+        switch (month) {
+            case 2:
+                return ((year % 4 == 0 && year % 100 != 0) || (year % 400 == 0)) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * The (proleptic Gregorian) date of the given day since the epoch, as
+     * <code>year &lt;&lt; 9 | month &lt;&lt; 5 | day</code>.
+     */
+    static long civilFromDays(long epochDay) {
+        long z = epochDay + 719468;
+        long era = floorDiv(z, 146097);
+        int dayOfEra = (int) (z - era * 146097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = (mp < 10) ? mp + 3 : mp - 9;
+        long year = era * 400 + yearOfEra + ((month <= 2) ? 1 : 0);
+        return (year << 9) | (month << 5) | day;
+    }
+
+    /**
+     * Days since the epoch of the given (proleptic Gregorian) date.
+     */
+    static long daysFromCivil(int year, int month, int day) {
+        long y = (month <= 2) ? year - 1 : year;
+        long era = floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month + ((month > 2) ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int dayBit(int day, int lastDay) {
+        return (day >= 1 && day <= lastDay) ? (1 << day) : 0;
+    }
+
+    private static int daysUpTo(int lastDay) {
+        return (int) ((1L << (lastDay + 1)) - 1);
+    }
+
+    private static int nextBit(int mask, int from) {
+        if (from > 31) {
+            return -1;
+        }
+        int remaining = mask & (-1 << from);
+        return (remaining == 0) ? -1 : Integer.numberOfTrailingZeros(remaining);
+    }
+
+    private static int nextBit(long mask, int from) {
+        if (from > 63) {
+            return -1;
+        }
+        long remaining = mask & (-1L << from);
+        return (remaining == 0) ? -1 : Long.numberOfTrailingZeros(remaining);
+    }
+
+    private static long floorDiv(long x, long y) {
+        long q = x / y;
+        if ((x % y != 0) && ((x ^ y) < 0)) {
+            q--;
+        }
+        return q;
+    }
+
+    private static long floorMod(long x, long y) {
+        return x - floorDiv(x, y) * y;
+    }
+
+    private static long toLongMask(Set<Integer> values, int min, int max) {
+        long mask = 0L;
+        for (Integer value : values) {
+            if (value >= min && value <= max) {
+                mask |= 1L << value;
+            }
+        }
+        return mask;
+    }
+
+    private static int toIntMask(Set<Integer> values, int min, int max) {
+        int mask = 0;
+        for (Integer value : values) {
+            if (value >= min && value <= max) {
+                mask |= 1 << value;
+            }
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz;
+
+/**
+ * <p>
+ * Successive fire times, in milliseconds since the epoch, in increasing
+ * order.  Unlike a <code>java.util.Iterator</code> of <code>Date</code>s,
+ * it does not allocate an object per fire time, so that many fire times can
+ * be enumerated cheaply - for instance to project the schedule of a
+ * <code>Trigger</code> over the coming weeks.
+ * </p>
+ *
+ * <p>
+ * Instances are not thread-safe.
+ * </p>
+ *
+ * @see CronExpression#getFireTimesAfter(long)
+ * @see org.quartz.impl.triggers.AbstractTrigger#getFireTimeIterator(Calendar)
+ */
+public interface FireTimeIterator {
+
+    /**
+     * Whether there is another fire time.
+     */
+    boolean hasNext();
+
+    /**
+     * Returns the next fire time.
+     *
+     * @throws java.util.NoSuchElementException
+     *           if there is no more fire time.
+     */
+    long next();
+}
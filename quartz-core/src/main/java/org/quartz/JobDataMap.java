@@ -21,6 +21,8 @@ package org.quartz;
 import java.io.Serializable;
 import java.util.Map;
 
+import org.quartz.utils.DirtyFlagMap;
+import org.quartz.utils.LayeredMap;
 import org.quartz.utils.StringKeyDirtyFlagMap;
 
 /**
@@ -87,6 +89,35 @@ public class JobDataMap extends StringKeyDirtyFlagMap implements Serializable {
         putAll(mapTyped);
     }
 
+    private JobDataMap(LayeredMap<String, Object> view) {
+        super(view);
+    }
+
+    /**
+     * <p>
+     * Create a <code>JobDataMap</code> holding the entries of the given upper
+     * map over those of the given lower map, as when merging a trigger's
+     * data over that of its job.
+     * </p>
+     * 
+     * <p>
+     * Nothing is copied until the returned map is first modified, so until
+     * then it reflects changes made to either of the given maps.  The given
+     * maps are never modified through the returned map.
+     * </p>
+     * 
+     * @see LayeredMap
+     */
+    public static JobDataMap newMergedView(Map<String, Object> lower, Map<String, Object> upper) {
+        if (lower instanceof DirtyFlagMap) {
+            lower = ((DirtyFlagMap<String, Object>) lower).getWrappedMap();
+        }
+        if (upper instanceof DirtyFlagMap) {
+            upper = ((DirtyFlagMap<String, Object>) upper).getWrappedMap();
+        }
+        return new JobDataMap(new LayeredMap<String, Object>(lower, upper));
+    }
+
     /*
      * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
      * 
@@ -0,0 +1,60 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz;
+
+import org.quartz.utils.LatencyHistogram;
+
+/**
+ * <p>
+ * Timings of the scheduling loop of a <code>{@link Scheduler}</code>, which
+ * tell whether triggers fire late because of the job store, the thread pool
+ * or the database lock.
+ * </p>
+ *
+ * @see SchedulerMetaData#getFiringStatistics()
+ */
+public interface SchedulerFiringStatistics {
+
+    /**
+     * Time spent waiting for an available thread, in microseconds.
+     */
+    LatencyHistogram getThreadWaitTime();
+
+    /**
+     * Time spent acquiring triggers, in microseconds.  Its count is the number
+     * of acquisitions.
+     */
+    LatencyHistogram getAcquisitionTime();
+
+    /**
+     * Time spent telling the job store that acquired triggers fire, in
+     * microseconds.
+     */
+    LatencyHistogram getTriggersFiredTime();
+
+    /**
+     * How late triggers were handed to the thread pool, in milliseconds.  Its
+     * count is the number of triggers fired.
+     */
+    LatencyHistogram getFireLag();
+
+    /**
+     * The number of acquisitions that returned no trigger.
+     */
+    long getEmptyAcquisitionCount();
+}
@@ -68,6 +68,8 @@ public class SchedulerMetaData implements java.io.Serializable {
 
     private String version;
 
+    private SchedulerFiringStatistics firingStatistics;
+
     /*
      * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
      * 
@@ -81,6 +83,15 @@ public class SchedulerMetaData implements java.io.Serializable {
             boolean isInStandbyMode, boolean shutdown, Date startTime, int numJobsExec,
             Class<?> jsClass, boolean jsPersistent, boolean jsClustered, Class<?> tpClass, int tpSize,
             String version) {
+        this(schedName, schedInst, schedClass, isRemote, started, isInStandbyMode, shutdown, startTime,
+                numJobsExec, jsClass, jsPersistent, jsClustered, tpClass, tpSize, version, null);
+    }
+
+    public SchedulerMetaData(String schedName, String schedInst,
+            Class<?> schedClass, boolean isRemote, boolean started,
+            boolean isInStandbyMode, boolean shutdown, Date startTime, int numJobsExec,
+            Class<?> jsClass, boolean jsPersistent, boolean jsClustered, Class<?> tpClass, int tpSize,
+            String version, SchedulerFiringStatistics firingStatistics) {
         this.schedName = schedName;
         this.schedInst = schedInst;
         this.schedClass = schedClass;
@@ -96,6 +107,7 @@ public class SchedulerMetaData implements java.io.Serializable {
         this.tpClass = tpClass;
         this.tpSize = tpSize;
         this.version = version;
+        this.firingStatistics = firingStatistics;
     }
 
     /*
@@ -253,6 +265,19 @@ public class SchedulerMetaData implements java.io.Serializable {
         return version;
     }
 
+    /**
+     * <p>
+     * Returns the timings of the scheduling loop of the <code>Scheduler</code>
+     * (fire lag, thread wait, trigger acquisition and firing), or
+     * <code>null</code> if they are not available - e.g. for remote schedulers.
+     * Each histogram is copied when it is first read, and holds what was
+     * recorded until then.
+     * </p>
+     */
+    public SchedulerFiringStatistics getFiringStatistics() {
+        return firingStatistics;
+    }
+
     /**
      * <p>
      * Return a simple string representation of this object.
@@ -349,6 +374,12 @@ public class SchedulerMetaData implements java.io.Serializable {
         }
         str.append("\n");
 
+        if (firingStatistics != null) {
+            str.append("  Fire lag (ms): ");
+            str.append(firingStatistics.getFireLag());
+            str.append("\n");
+        }
+
         return str.toString();
     }
 
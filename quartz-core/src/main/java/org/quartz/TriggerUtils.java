@@ -21,7 +21,9 @@ package org.quartz;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
 
+import org.quartz.impl.triggers.AbstractTrigger;
 import org.quartz.spi.OperableTrigger;
 
 /**
@@ -61,8 +63,7 @@ public class TriggerUtils {
     /**
      * Returns a list of Dates that are the next fire times of a 
      * <code>Trigger</code>.
-     * The input trigger will be cloned before any work is done, so you need
-     * not worry about its state being altered by this method.
+     * The input trigger's state is not altered by this method.
      * 
      * @param trigg
      *          The trigger upon which to do the work
@@ -71,25 +72,16 @@ public class TriggerUtils {
      * @param numTimes
      *          The number of next fire times to produce
      * @return List of java.util.Date objects
+     * @see AbstractTrigger#getFireTimeIterator(Calendar)
      */
     public static List<Date> computeFireTimes(OperableTrigger trigg, org.quartz.Calendar cal,
             int numTimes) {
         LinkedList<Date> lst = new LinkedList<Date>();
 
-        OperableTrigger t = (OperableTrigger) trigg.clone();
+        FireTimeIterator fireTimes = getFireTimeIterator(trigg, cal);
 
-        if (t.getNextFireTime() == null) {
-            t.computeFirstFireTime(cal);
-        }
-
-        for (int i = 0; i < numTimes; i++) {
-            Date d = t.getNextFireTime();
-            if (d != null) {
-                lst.add(d);
-                t.triggered(cal);
-            } else {
-                break;
-            }
+        for (int i = 0; i < numTimes && fireTimes.hasNext(); i++) {
+            lst.add(new Date(fireTimes.next()));
         }
 
         return java.util.Collections.unmodifiableList(lst);
@@ -100,8 +92,7 @@ public class TriggerUtils {
      * the given <code>Trigger</code>, taking the triger's associated 
      * <code>Calendar</code> into consideration.
      *  
-     * The input trigger will be cloned before any work is done, so you need
-     * not worry about its state being altered by this method.
+     * The input trigger's state is not altered by this method.
      * 
      * @param trigg
      *          The trigger upon which to do the work
@@ -114,40 +105,26 @@ public class TriggerUtils {
     public static Date computeEndTimeToAllowParticularNumberOfFirings(OperableTrigger trigg, org.quartz.Calendar cal, 
             int numTimes) {
 
-        OperableTrigger t = (OperableTrigger) trigg.clone();
+        FireTimeIterator fireTimes = getFireTimeIterator(trigg, cal);
 
-        if (t.getNextFireTime() == null) {
-            t.computeFirstFireTime(cal);
-        }
-        
         int c = 0;
-        Date endTime = null;
-        
-        for (int i = 0; i < numTimes; i++) {
-            Date d = t.getNextFireTime();
-            if (d != null) {
-                c++;
-                t.triggered(cal);
-                if(c == numTimes)
-                    endTime = d;
-            } else {
-                break;
-            }
+        long endTime = 0;
+
+        while (c < numTimes && fireTimes.hasNext()) {
+            endTime = fireTimes.next();
+            c++;
         }
-        
-        if(endTime == null)
+
+        if(numTimes < 1 || c < numTimes)
             return null;
-        
-        endTime = new Date(endTime.getTime() + 1000L);
-        
-        return endTime;
+
+        return new Date(endTime + 1000L);
     }
 
     /**
      * Returns a list of Dates that are the next fire times of a 
      * <code>Trigger</code>
-     * that fall within the given date range. The input trigger will be cloned
-     * before any work is done, so you need not worry about its state being
+     * that fall within the given date range. The input trigger's state is not
      * altered by this method.
      * 
      * <p>
@@ -170,32 +147,59 @@ public class TriggerUtils {
             org.quartz.Calendar cal, Date from, Date to) {
         LinkedList<Date> lst = new LinkedList<Date>();
 
-        OperableTrigger t = (OperableTrigger) trigg.clone();
+        OperableTrigger t = trigg;
 
         if (t.getNextFireTime() == null) {
+            t = (OperableTrigger) trigg.clone();
             t.setStartTime(from);
             t.setEndTime(to);
-            t.computeFirstFireTime(cal);
         }
 
-        while (true) {
-            Date d = t.getNextFireTime();
-            if (d != null) {
-                if (d.before(from)) {
-                    t.triggered(cal);
-                    continue;
-                }
-                if (d.after(to)) {
-                    break;
-                }
-                lst.add(d);
-                t.triggered(cal);
-            } else {
+        long fromTime = from.getTime();
+        long toTime = to.getTime();
+        FireTimeIterator fireTimes = getFireTimeIterator(t, cal);
+
+        while (fireTimes.hasNext()) {
+            long d = fireTimes.next();
+            if (d < fromTime) {
+                continue;
+            }
+            if (d > toTime) {
                 break;
             }
+            lst.add(new Date(d));
         }
 
         return java.util.Collections.unmodifiableList(lst);
     }
 
+    /**
+     * Returns the fire times of the given trigger, from the trigger itself if
+     * it is an <code>AbstractTrigger</code>, or else by firing a clone of it.
+     */
+    private static FireTimeIterator getFireTimeIterator(OperableTrigger trigg, final org.quartz.Calendar cal) {
+        if (trigg instanceof AbstractTrigger) {
+            return ((AbstractTrigger<?>) trigg).getFireTimeIterator(cal);
+        }
+
+        final OperableTrigger t = (OperableTrigger) trigg.clone();
+        if (t.getNextFireTime() == null) {
+            t.computeFirstFireTime(cal);
+        }
+        return new FireTimeIterator() {
+            public boolean hasNext() {
+                return t.getNextFireTime() != null;
+            }
+
+            public long next() {
+                Date next = t.getNextFireTime();
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                t.triggered(cal);
+                return next.getTime();
+            }
+        };
+    }
+
 }
@@ -0,0 +1,244 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz.core;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.quartz.SchedulerFiringStatistics;
+import org.quartz.utils.LatencyHistogram;
+
+/**
+ * <p>
+ * Timings of the phases of the main loop of the
+ * <code>{@link QuartzSchedulerThread}</code>, which tell whether triggers
+ * fire late because of the job store, the thread pool or the database lock:
+ * </p>
+ *
+ * <ul>
+ * <li>how long waiting for an available thread of the
+ * <code>ThreadPool</code> took (microseconds)</li>
+ * <li>how long <code>JobStore.acquireNextTriggers</code> took (microseconds),
+ * and how many of the acquisitions returned no trigger</li>
+ * <li>how long <code>JobStore.triggersFired</code> took (microseconds)</li>
+ * <li>how late each trigger was handed to the <code>ThreadPool</code>,
+ * compared to its scheduled fire time (milliseconds)</li>
+ * </ul>
+ *
+ * <p>
+ * Recording is lock-free, so it is always on.
+ * </p>
+ *
+ * @see QuartzScheduler#getFiringStatistics()
+ */
+public class FiringStatistics implements SchedulerFiringStatistics, Serializable {
+
+    private static final long serialVersionUID = -2385740212870915402L;
+
+    private final LatencyHistogram threadWaitTime = new LatencyHistogram();
+
+    private final LatencyHistogram acquisitionTime = new LatencyHistogram();
+
+    private final LatencyHistogram triggersFiredTime = new LatencyHistogram();
+
+    private final LatencyHistogram fireLag = new LatencyHistogram();
+
+    private final AtomicLong emptyAcquisitions = new AtomicLong();
+
+    public void recordThreadWait(long micros) {
+        threadWaitTime.record(micros);
+    }
+
+    public void recordAcquisition(long micros, int acquiredCount) {
+        acquisitionTime.record(micros);
+        if (acquiredCount == 0) {
+            emptyAcquisitions.incrementAndGet();
+        }
+    }
+
+    public void recordTriggersFired(long micros) {
+        triggersFiredTime.record(micros);
+    }
+
+    public void recordFireLag(long millis) {
+        fireLag.record(millis);
+    }
+
+    /**
+     * Time spent waiting for an available thread, in microseconds.
+     */
+    public LatencyHistogram getThreadWaitTime() {
+        return threadWaitTime;
+    }
+
+    /**
+     * Time spent acquiring triggers, in microseconds.  Its count is the number
+     * of acquisitions.
+     */
+    public LatencyHistogram getAcquisitionTime() {
+        return acquisitionTime;
+    }
+
+    /**
+     * Time spent telling the job store that acquired triggers fire, in
+     * microseconds.
+     */
+    public LatencyHistogram getTriggersFiredTime() {
+        return triggersFiredTime;
+    }
+
+    /**
+     * How late triggers were handed to the thread pool, in milliseconds.  Its
+     * count is the number of triggers fired.
+     */
+    public LatencyHistogram getFireLag() {
+        return fireLag;
+    }
+
+    /**
+     * The number of acquisitions that returned no trigger.
+     */
+    public long getEmptyAcquisitionCount() {
+        return emptyAcquisitions.get();
+    }
+
+    /**
+     * A copy of the statistics, which is not affected by further recording.
+     */
+    public FiringStatistics snapshot() {
+        FiringStatistics copy = new FiringStatistics();
+        copy.threadWaitTime.add(threadWaitTime);
+        copy.acquisitionTime.add(acquisitionTime);
+        copy.triggersFiredTime.add(triggersFiredTime);
+        copy.fireLag.add(fireLag);
+        copy.emptyAcquisitions.set(emptyAcquisitions.get());
+        return copy;
+    }
+
+    /**
+     * A copy of the statistics that only copies each histogram when it is
+     * first read, so that taking it is cheap when the histograms are not
+     * used.  The count of empty acquisitions is copied right away, while a
+     * histogram holds what was recorded until it was first read.
+     */
+    public SchedulerFiringStatistics lazySnapshot() {
+        return new LazySnapshot(this);
+    }
+
+    public void reset() {
+        threadWaitTime.reset();
+        acquisitionTime.reset();
+        triggersFiredTime.reset();
+        fireLag.reset();
+        emptyAcquisitions.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "fire lag (ms): " + fireLag
+            + "; thread wait (us): " + threadWaitTime
+            + "; acquisition (us): " + acquisitionTime
+            + ", empty acquisitions=" + getEmptyAcquisitionCount()
+            + "; triggers fired (us): " + triggersFiredTime;
+    }
+
+    /**
+     * @see FiringStatistics#lazySnapshot()
+     */
+    private static class LazySnapshot implements SchedulerFiringStatistics, Serializable {
+
+        private static final long serialVersionUID = 6148519462791264875L;
+
+        private final FiringStatistics source;
+
+        private final long emptyAcquisitions;
+
+        private LatencyHistogram threadWaitTime;
+
+        private LatencyHistogram acquisitionTime;
+
+        private LatencyHistogram triggersFiredTime;
+
+        private LatencyHistogram fireLag;
+
+        LazySnapshot(FiringStatistics source) {
+            this.source = source;
+            this.emptyAcquisitions = source.getEmptyAcquisitionCount();
+        }
+
+        public synchronized LatencyHistogram getThreadWaitTime() {
+            if (threadWaitTime == null) {
+                threadWaitTime = copy(source.threadWaitTime);
+            }
+            return threadWaitTime;
+        }
+
+        public synchronized LatencyHistogram getAcquisitionTime() {
+            if (acquisitionTime == null) {
+                acquisitionTime = copy(source.acquisitionTime);
+            }
+            return acquisitionTime;
+        }
+
+        public synchronized LatencyHistogram getTriggersFiredTime() {
+            if (triggersFiredTime == null) {
+                triggersFiredTime = copy(source.triggersFiredTime);
+            }
+            return triggersFiredTime;
+        }
+
+        public synchronized LatencyHistogram getFireLag() {
+            if (fireLag == null) {
+                fireLag = copy(source.fireLag);
+            }
+            return fireLag;
+        }
+
+        public long getEmptyAcquisitionCount() {
+            return emptyAcquisitions;
+        }
+
+        private static LatencyHistogram copy(LatencyHistogram histogram) {
+            LatencyHistogram copy = new LatencyHistogram();
+            copy.add(histogram);
+            return copy;
+        }
+
+        @Override
+        public String toString() {
+            return "fire lag (ms): " + getFireLag()
+                + "; thread wait (us): " + getThreadWaitTime()
+                + "; acquisition (us): " + getAcquisitionTime()
+                + ", empty acquisitions=" + getEmptyAcquisitionCount()
+                + "; triggers fired (us): " + getTriggersFiredTime();
+        }
+
+        /**
+         * Serialize the histograms rather than the live statistics.
+         */
+        private Object writeReplace() {
+            FiringStatistics copy = new FiringStatistics();
+            copy.threadWaitTime.add(getThreadWaitTime());
+            copy.acquisitionTime.add(getAcquisitionTime());
+            copy.triggersFiredTime.add(getTriggersFiredTime());
+            copy.fireLag.add(getFireLag());
+            copy.emptyAcquisitions.set(emptyAcquisitions);
+            return copy;
+        }
+    }
+}
@@ -148,7 +148,7 @@ public class JobRunShell extends SchedulerListenerSupport implements Runnable {
     }
 
     public void run() {
-        qs.addInternalSchedulerListener(this);
+        qs.addRunningShell(this);
 
         try {
             OperableTrigger trigger = (OperableTrigger) jec.getTrigger();
@@ -271,7 +271,7 @@ public class JobRunShell extends SchedulerListenerSupport implements Runnable {
             } while (true);
 
         } finally {
-            qs.removeInternalSchedulerListener(this);
+            qs.removeRunningShell(this);
         }
     }
 
@@ -29,6 +29,10 @@ public class ListenerManagerImpl implements ListenerManager {
 
     private ArrayList<SchedulerListener> schedulerListeners = new ArrayList<SchedulerListener>(10);
 
+    private volatile ListenerRoutingTable<JobKey, JobListener> jobListenerRoutes = newJobListenerRoutes();
+
+    private volatile ListenerRoutingTable<TriggerKey, TriggerListener> triggerListenerRoutes = newTriggerListenerRoutes();
+
     
     public void addJobListener(JobListener jobListener, Matcher<JobKey> ... matchers) {
         addJobListener(jobListener, Arrays.asList(matchers));
@@ -49,6 +53,7 @@ public class ListenerManagerImpl implements ListenerManager {
                 matchersL.add(EverythingMatcher.allJobs());
             
             globalJobListenersMatchers.put(jobListener.getName(), matchersL);
+            jobListenerRoutes = newJobListenerRoutes();
         }
     }
 
@@ -72,6 +77,7 @@ public class ListenerManagerImpl implements ListenerManager {
                 matchersL.add(EverythingMatcher.allJobs());
             
             globalJobListenersMatchers.put(jobListener.getName(), matchersL);
+            jobListenerRoutes = newJobListenerRoutes();
         }
     }
 
@@ -85,6 +91,7 @@ public class ListenerManagerImpl implements ListenerManager {
             if(matchers == null)
                 return false;
             matchers.add(matcher);
+            jobListenerRoutes = newJobListenerRoutes();
             return true;
         }
     }
@@ -97,7 +104,10 @@ public class ListenerManagerImpl implements ListenerManager {
             List<Matcher<JobKey>> matchers = globalJobListenersMatchers.get(listenerName);
             if(matchers == null)
                 return false;
-            return matchers.remove(matcher);
+            if(!matchers.remove(matcher))
+                return false;
+            jobListenerRoutes = newJobListenerRoutes();
+            return true;
         }
     }
 
@@ -119,6 +129,7 @@ public class ListenerManagerImpl implements ListenerManager {
             if(oldMatchers == null)
                 return false;
             globalJobListenersMatchers.put(listenerName, matchers);
+            jobListenerRoutes = newJobListenerRoutes();
             return true;
         }
     }
@@ -126,7 +137,10 @@ public class ListenerManagerImpl implements ListenerManager {
 
     public boolean removeJobListener(String name) {
         synchronized (globalJobListeners) {
-            return (globalJobListeners.remove(name) != null);
+            if(globalJobListeners.remove(name) == null)
+                return false;
+            jobListenerRoutes = newJobListenerRoutes();
+            return true;
         }
     }
     
@@ -163,6 +177,7 @@ public class ListenerManagerImpl implements ListenerManager {
                 matchersL.add(EverythingMatcher.allTriggers());
 
             globalTriggerListenersMatchers.put(triggerListener.getName(), matchersL);
+            triggerListenerRoutes = newTriggerListenerRoutes();
         }
     }
     
@@ -185,6 +200,7 @@ public class ListenerManagerImpl implements ListenerManager {
             List<Matcher<TriggerKey>> matchers = new LinkedList<Matcher<TriggerKey>>();
             matchers.add(matcher);
             globalTriggerListenersMatchers.put(triggerListener.getName(), matchers);
+            triggerListenerRoutes = newTriggerListenerRoutes();
         }
     }
 
@@ -197,6 +213,7 @@ public class ListenerManagerImpl implements ListenerManager {
             if(matchers == null)
                 return false;
             matchers.add(matcher);
+            triggerListenerRoutes = newTriggerListenerRoutes();
             return true;
         }
     }
@@ -209,7 +226,10 @@ public class ListenerManagerImpl implements ListenerManager {
             List<Matcher<TriggerKey>> matchers = globalTriggerListenersMatchers.get(listenerName);
             if(matchers == null)
                 return false;
-            return matchers.remove(matcher);
+            if(!matchers.remove(matcher))
+                return false;
+            triggerListenerRoutes = newTriggerListenerRoutes();
+            return true;
         }
     }
 
@@ -231,13 +251,17 @@ public class ListenerManagerImpl implements ListenerManager {
             if(oldMatchers == null)
                 return false;
             globalTriggerListenersMatchers.put(listenerName, matchers);
+            triggerListenerRoutes = newTriggerListenerRoutes();
             return true;
         }
     }
 
     public boolean removeTriggerListener(String name) {
         synchronized (globalTriggerListeners) {
-            return (globalTriggerListeners.remove(name) != null);
+            if(globalTriggerListeners.remove(name) == null)
+                return false;
+            triggerListenerRoutes = newTriggerListenerRoutes();
+            return true;
         }
     }
     
@@ -255,6 +279,34 @@ public class ListenerManagerImpl implements ListenerManager {
     }
     
     
+    /**
+     * Get the current routing snapshot of the registered job listeners.  The
+     * returned table is immutable and is replaced whenever a job listener or
+     * its matchers change.
+     */
+    ListenerRoutingTable<JobKey, JobListener> getJobListenerRoutes() {
+        return jobListenerRoutes;
+    }
+
+    /**
+     * Get the current routing snapshot of the registered trigger listeners.
+     * The returned table is immutable and is replaced whenever a trigger
+     * listener or its matchers change.
+     */
+    ListenerRoutingTable<TriggerKey, TriggerListener> getTriggerListenerRoutes() {
+        return triggerListenerRoutes;
+    }
+
+    // must be called while holding the lock on globalJobListeners
+    private ListenerRoutingTable<JobKey, JobListener> newJobListenerRoutes() {
+        return new ListenerRoutingTable<JobKey, JobListener>(globalJobListeners, globalJobListenersMatchers);
+    }
+
+    // must be called while holding the lock on globalTriggerListeners
+    private ListenerRoutingTable<TriggerKey, TriggerListener> newTriggerListenerRoutes() {
+        return new ListenerRoutingTable<TriggerKey, TriggerListener>(globalTriggerListeners, globalTriggerListenersMatchers);
+    }
+    
     public void addSchedulerListener(SchedulerListener schedulerListener) {
         synchronized (schedulerListeners) {
             schedulerListeners.add(schedulerListener);
@@ -0,0 +1,216 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.quartz.Matcher;
+import org.quartz.impl.matchers.EverythingMatcher;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.quartz.impl.matchers.KeyMatcher;
+import org.quartz.impl.matchers.StringMatcher.StringOperatorName;
+import org.quartz.utils.Key;
+
+/**
+ * <p>
+ * An immutable snapshot of a set of named listeners and the matchers that
+ * select which keys each of them is notified about.
+ * </p>
+ *
+ * <p>
+ * A table is built whenever the listeners or their matchers change, and is
+ * then read without locking by every dispatch.  The common matcher types -
+ * <code>{@link EverythingMatcher}</code>, <code>{@link KeyMatcher}</code>
+ * and <code>{@link GroupMatcher}</code> with the <code>EQUALS</code> or
+ * <code>ANYTHING</code> operators - are compiled into hash lookups, all
+ * other matchers are evaluated as given.  Routing a key through the table
+ * does not allocate.
+ * </p>
+ *
+ * @see ListenerManagerImpl
+ */
+final class ListenerRoutingTable<K extends Key<?>, L> {
+
+    private final Object[] listeners;
+
+    private final Route<?>[] routes;
+
+    private final Map<String, Route<K>> routesByName;
+
+    private final ListenerRoutingTable<K, L> base;
+
+    /**
+     * Create a table for the given listeners, in iteration order, each
+     * routed by the matchers registered under its name.  A listener with
+     * no registered matchers receives everything.
+     */
+    ListenerRoutingTable(Map<String, ? extends L> listeners, Map<String, ? extends List<? extends Matcher<K>>> matchers) {
+        this.routesByName = new HashMap<String, Route<K>>(matchers.size() * 2);
+        for (Map.Entry<String, ? extends List<? extends Matcher<K>>> entry : matchers.entrySet()) {
+            routesByName.put(entry.getKey(), new Route<K>(entry.getValue()));
+        }
+        this.listeners = listeners.values().toArray();
+        this.routes = new Route<?>[this.listeners.length];
+        int i = 0;
+        for (String name : listeners.keySet()) {
+            routes[i++] = getRoute(name);
+        }
+        this.base = null;
+    }
+
+    private ListenerRoutingTable(ListenerRoutingTable<K, L> base, Collection<? extends L> extras, ListenerNamer<? super L> namer) {
+        this.routesByName = base.routesByName;
+        this.listeners = new Object[base.listeners.length + extras.size()];
+        this.routes = new Route<?>[listeners.length];
+        System.arraycopy(base.listeners, 0, listeners, 0, base.listeners.length);
+        System.arraycopy(base.routes, 0, routes, 0, base.routes.length);
+        int i = base.listeners.length;
+        for (L extra : extras) {
+            listeners[i] = extra;
+            routes[i++] = getRoute(namer.getName(extra));
+        }
+        this.base = base;
+    }
+
+    /**
+     * Create a table that routes the given listeners after the ones of this
+     * table, applying any matchers this table holds for their names.
+     */
+    ListenerRoutingTable<K, L> append(Collection<? extends L> extras, ListenerNamer<? super L> namer) {
+        return new ListenerRoutingTable<K, L>(this, extras, namer);
+    }
+
+    /**
+     * The table this one was appended to, or <code>null</code>.
+     */
+    ListenerRoutingTable<K, L> getBase() {
+        return base;
+    }
+
+    int size() {
+        return listeners.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    L getListener(int index) {
+        return (L) listeners[index];
+    }
+
+    /**
+     * Whether the listener at the given index is to be notified about the
+     * given key.
+     */
+    @SuppressWarnings("unchecked")
+    boolean isMatch(int index, K key) {
+        return ((Route<K>) routes[index]).isMatch(key);
+    }
+
+    private Route<K> getRoute(String name) {
+        Route<K> route = routesByName.get(name);
+        return route == null ? Route.<K>everything() : route;
+    }
+
+    /**
+     * Supplies the name of a listener, which the listener interfaces do not
+     * share a type for.
+     */
+    interface ListenerNamer<L> {
+        String getName(L listener);
+    }
+
+    /**
+     * The compiled form of the matchers of one listener.
+     */
+    private static final class Route<K extends Key<?>> {
+
+        private static final Route<?> EVERYTHING = new Route<Key<?>>();
+
+        private final boolean everything;
+
+        private final HashSet<Object> keys;
+
+        private final HashSet<String> groups;
+
+        private final Matcher<K>[] others;
+
+        @SuppressWarnings("unchecked")
+        private Route() {
+            this.everything = true;
+            this.keys = null;
+            this.groups = null;
+            this.others = new Matcher[0];
+        }
+
+        @SuppressWarnings("unchecked")
+        Route(List<? extends Matcher<K>> matchers) {
+            boolean matchAll = false;
+            HashSet<Object> keySet = new HashSet<Object>();
+            HashSet<String> groupSet = new HashSet<String>();
+            List<Matcher<K>> otherList = new ArrayList<Matcher<K>>();
+            for (Matcher<K> matcher : matchers) {
+                // only the exact classes are compiled, a subclass may have
+                // redefined what it matches
+                if (matcher.getClass() == EverythingMatcher.class) {
+                    matchAll = true;
+                } else if (matcher.getClass() == KeyMatcher.class) {
+                    keySet.add(((KeyMatcher<?>) matcher).getCompareToValue());
+                } else if (matcher.getClass() == GroupMatcher.class
+                        && ((GroupMatcher<?>) matcher).getCompareWithOperator() == StringOperatorName.EQUALS) {
+                    groupSet.add(((GroupMatcher<?>) matcher).getCompareToValue());
+                } else if (matcher.getClass() == GroupMatcher.class
+                        && ((GroupMatcher<?>) matcher).getCompareWithOperator() == StringOperatorName.ANYTHING) {
+                    matchAll = true;
+                } else {
+                    otherList.add(matcher);
+                }
+            }
+            this.everything = matchAll;
+            this.keys = keySet.isEmpty() ? null : keySet;
+            this.groups = groupSet.isEmpty() ? null : groupSet;
+            this.others = otherList.toArray(new Matcher[otherList.size()]);
+        }
+
+        @SuppressWarnings("unchecked")
+        static <K extends Key<?>> Route<K> everything() {
+            return (Route<K>) EVERYTHING;
+        }
+
+        boolean isMatch(K key) {
+            if (everything) {
+                return true;
+            }
+            if (keys != null && keys.contains(key)) {
+                return true;
+            }
+            if (groups != null && groups.contains(key.getGroup())) {
+                return true;
+            }
+            for (int i = 0; i < others.length; i++) {
+                if (others[i].isMatch(key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
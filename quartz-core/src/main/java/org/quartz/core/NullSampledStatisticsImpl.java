@@ -1,6 +1,8 @@
 package org.quartz.core;
 
 public class NullSampledStatisticsImpl implements SampledStatistics {
+    private static final FiringStatistics NO_FIRING_STATISTICS = new FiringStatistics();
+
     public long getJobsCompletedMostRecentSample() {
         return 0;
     }
@@ -13,6 +15,10 @@ public class NullSampledStatisticsImpl implements SampledStatistics {
         return 0;
     }
 
+    public FiringStatistics getFiringStatistics() {
+        return NO_FIRING_STATISTICS;
+    }
+
     public void shutdown() {
         // nothing to do
     }
@@ -26,6 +26,7 @@ import java.rmi.registry.Registry;
 import java.rmi.server.UnicastRemoteObject;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -36,6 +37,8 @@ import java.util.Random;
 import java.util.Set;
 import java.util.Timer;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.management.MBeanServer;
@@ -108,6 +111,20 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
     private static String VERSION_MINOR = "UNKNOWN";
     private static String VERSION_ITERATION = "UNKNOWN";
 
+    private static final ListenerRoutingTable.ListenerNamer<JobListener> JOB_LISTENER_NAMER =
+        new ListenerRoutingTable.ListenerNamer<JobListener>() {
+            public String getName(JobListener listener) {
+                return listener.getName();
+            }
+        };
+
+    private static final ListenerRoutingTable.ListenerNamer<TriggerListener> TRIGGER_LISTENER_NAMER =
+        new ListenerRoutingTable.ListenerNamer<TriggerListener>() {
+            public String getName(TriggerListener listener) {
+                return listener.getName();
+            }
+        };
+
     static {
         Properties props = new Properties();
         InputStream is = null;
@@ -156,14 +173,24 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
 
     private SchedulerContext context = new SchedulerContext();
 
-    private ListenerManager listenerManager = new ListenerManagerImpl();
+    private ListenerManagerImpl listenerManager = new ListenerManagerImpl();
     
     private HashMap<String, JobListener> internalJobListeners = new HashMap<String, JobListener>(10);
 
     private HashMap<String, TriggerListener> internalTriggerListeners = new HashMap<String, TriggerListener>(10);
 
+    private volatile ListenerRoutingTable<JobKey, JobListener> jobListenerRoutes =
+            listenerManager.getJobListenerRoutes().append(internalJobListeners.values(), JOB_LISTENER_NAMER);
+
+    private volatile ListenerRoutingTable<TriggerKey, TriggerListener> triggerListenerRoutes =
+            listenerManager.getTriggerListenerRoutes().append(internalTriggerListeners.values(), TRIGGER_LISTENER_NAMER);
+
     private ArrayList<SchedulerListener> internalSchedulerListeners = new ArrayList<SchedulerListener>(10);
 
+    // the shells of the jobs now executing, which are told when the scheduler shuts down
+    private final Set<JobRunShell> runningShells =
+            Collections.newSetFromMap(new ConcurrentHashMap<JobRunShell, Boolean>(16, 0.75f, 64));
+
     private JobFactory jobFactory = new PropertySettingJobFactory();
     
     ExecutingJobsManager jobMgr = null;
@@ -634,6 +661,17 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
         return jobMgr.getNumJobsFired();
     }
 
+    /**
+     * <p>
+     * Get the timings of the main scheduling loop: waiting for threads,
+     * acquiring and firing triggers, and how late triggers were handed to the
+     * thread pool.
+     * </p>
+     */
+    public FiringStatistics getFiringStatistics() {
+        return schedThread.getFiringStatistics();
+    }
+
     public Class<?> getJobStoreClass() {
         return resources.getJobStore().getClass();
     }
@@ -819,6 +857,64 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
         return jobMgr.getExecutingJobs();
     }
 
+    /**
+     * <p>
+     * Return the number of jobs currently executing in this
+     * <code>Scheduler</code> instance.
+     * </p>
+     */
+    public int getNumJobsCurrentlyExecuting() {
+        return jobMgr.getNumJobsCurrentlyExecuting();
+    }
+
+    /**
+     * <p>
+     * Return the <code>JobExecutionContext</code> of the job with the given
+     * fire instance id, if it is currently executing in this
+     * <code>Scheduler</code> instance, or <code>null</code>.
+     * </p>
+     */
+    public JobExecutionContext getCurrentlyExecutingJob(String fireInstanceId) {
+        return jobMgr.getExecutingJob(fireInstanceId);
+    }
+
+    /**
+     * <p>
+     * Return a snap-shot of the <code>JobExecutionContext</code>s of the
+     * instances of the identified job currently executing in this
+     * <code>Scheduler</code> instance.
+     * </p>
+     */
+    public List<JobExecutionContext> getCurrentlyExecutingJobs(JobKey jobKey) {
+        return jobMgr.getExecutingJobs(jobKey);
+    }
+
+    /**
+     * <p>
+     * Return a page of the <code>JobExecutionContext</code>s of the jobs
+     * currently executing in this <code>Scheduler</code> instance, ordered
+     * by fire instance id.
+     * </p>
+     * 
+     * <p>
+     * To list all executing jobs, pass the fire instance id of the last job
+     * of each page to get the next, until a page is short.  Unlike
+     * <code>{@link #getCurrentlyExecutingJobs()}</code>, this does not copy
+     * the whole set of executing jobs, but jobs that start or complete while
+     * paging may or may not be listed.
+     * </p>
+     * 
+     * @param afterFireInstanceId the fire instance id after which to start,
+     *          or <code>null</code> to start with the first.
+     * @param maxCount the maximum number of jobs to return.
+     */
+    public List<JobExecutionContext> getCurrentlyExecutingJobs(String afterFireInstanceId, int maxCount) {
+        if (maxCount <= 0) {
+            throw new IllegalArgumentException("maxCount must be > 0");
+        }
+        return jobMgr.getExecutingJobs(afterFireInstanceId, maxCount);
+    }
+
     ///////////////////////////////////////////////////////////////////////////
     ///
     /// Scheduling-related Methods
@@ -1662,6 +1758,7 @@ J     *
         
         synchronized (internalJobListeners) {
             internalJobListeners.put(jobListener.getName(), jobListener);
+            jobListenerRoutes = listenerManager.getJobListenerRoutes().append(internalJobListeners.values(), JOB_LISTENER_NAMER);
         }
     }
 
@@ -1676,7 +1773,11 @@ J     *
      */
     public boolean removeInternalJobListener(String name) {
         synchronized (internalJobListeners) {
-            return (internalJobListeners.remove(name) != null);
+            if (internalJobListeners.remove(name) == null) {
+                return false;
+            }
+            jobListenerRoutes = listenerManager.getJobListenerRoutes().append(internalJobListeners.values(), JOB_LISTENER_NAMER);
+            return true;
         }
     }
     
@@ -1719,6 +1820,7 @@ J     *
 
         synchronized (internalTriggerListeners) {
             internalTriggerListeners.put(triggerListener.getName(), triggerListener);
+            triggerListenerRoutes = listenerManager.getTriggerListenerRoutes().append(internalTriggerListeners.values(), TRIGGER_LISTENER_NAMER);
         }
     }
 
@@ -1733,7 +1835,11 @@ J     *
      */
     public boolean removeinternalTriggerListener(String name) {
         synchronized (internalTriggerListeners) {
-            return (internalTriggerListeners.remove(name) != null);
+            if (internalTriggerListeners.remove(name) == null) {
+                return false;
+            }
+            triggerListenerRoutes = listenerManager.getTriggerListenerRoutes().append(internalTriggerListeners.values(), TRIGGER_LISTENER_NAMER);
+            return true;
         }
     }
 
@@ -1788,6 +1894,30 @@ J     *
         }
     }
 
+    /**
+     * <p>
+     * Register the shell of a job that is starting to execute, so that it is
+     * told with <code>schedulerShuttingdown()</code> if the scheduler shuts
+     * down before the job completes.
+     * </p>
+     * 
+     * <p>
+     * Unlike internal <code>SchedulerListener</code>s, running shells are not
+     * notified of any other scheduler event.
+     * </p>
+     */
+    void addRunningShell(JobRunShell shell) {
+        runningShells.add(shell);
+        if (shuttingDown) {
+            // the shutdown notification may have missed this shell
+            shell.schedulerShuttingdown();
+        }
+    }
+
+    void removeRunningShell(JobRunShell shell) {
+        runningShells.remove(shell);
+    }
+
     /**
      * <p>
      * Get a List containing all of the <i>internal</i> <code>{@link SchedulerListener}</code>s
@@ -1814,22 +1944,38 @@ J     *
         }
     }
 
-    private List<TriggerListener> buildTriggerListenerList()
-        throws SchedulerException {
-        List<TriggerListener> allListeners = new LinkedList<TriggerListener>();
-        allListeners.addAll(getListenerManager().getTriggerListeners());
-        allListeners.addAll(getInternalTriggerListeners());
-
-        return allListeners;
+    /**
+     * Get the routing table of the registered and the internal trigger
+     * listeners, rebuilding it if the <code>ListenerManager</code> has
+     * published a new snapshot since it was last built.
+     */
+    private ListenerRoutingTable<TriggerKey, TriggerListener> getTriggerListenerRoutes() {
+        ListenerRoutingTable<TriggerKey, TriggerListener> routes = triggerListenerRoutes;
+        ListenerRoutingTable<TriggerKey, TriggerListener> registered = listenerManager.getTriggerListenerRoutes();
+        if (routes.getBase() != registered) {
+            synchronized (internalTriggerListeners) {
+                routes = registered.append(internalTriggerListeners.values(), TRIGGER_LISTENER_NAMER);
+                triggerListenerRoutes = routes;
+            }
+        }
+        return routes;
     }
 
-    private List<JobListener> buildJobListenerList()
-        throws SchedulerException {
-        List<JobListener> allListeners = new LinkedList<JobListener>();
-        allListeners.addAll(getListenerManager().getJobListeners());
-        allListeners.addAll(getInternalJobListeners());
-
-        return allListeners;
+    /**
+     * Get the routing table of the registered and the internal job
+     * listeners, rebuilding it if the <code>ListenerManager</code> has
+     * published a new snapshot since it was last built.
+     */
+    private ListenerRoutingTable<JobKey, JobListener> getJobListenerRoutes() {
+        ListenerRoutingTable<JobKey, JobListener> routes = jobListenerRoutes;
+        ListenerRoutingTable<JobKey, JobListener> registered = listenerManager.getJobListenerRoutes();
+        if (routes.getBase() != registered) {
+            synchronized (internalJobListeners) {
+                routes = registered.append(internalJobListeners.values(), JOB_LISTENER_NAMER);
+                jobListenerRoutes = routes;
+            }
+        }
+        return routes;
     }
 
     private List<SchedulerListener> buildSchedulerListenerList() {
@@ -1840,40 +1986,20 @@ J     *
         return allListeners;
     }
     
-    private boolean matchJobListener(JobListener listener, JobKey key) {
-        List<Matcher<JobKey>> matchers = getListenerManager().getJobListenerMatchers(listener.getName());
-        if(matchers == null)
-            return true;
-        for(Matcher<JobKey> matcher: matchers) {
-            if(matcher.isMatch(key))
-                return true;
-        }
-        return false;
-    }
-
-    private boolean matchTriggerListener(TriggerListener listener, TriggerKey key) {
-        List<Matcher<TriggerKey>> matchers = getListenerManager().getTriggerListenerMatchers(listener.getName());
-        if(matchers == null)
-            return true;
-        for(Matcher<TriggerKey> matcher: matchers) {
-            if(matcher.isMatch(key))
-                return true;
-        }
-        return false;
-    }
-
     public boolean notifyTriggerListenersFired(JobExecutionContext jec)
         throws SchedulerException {
 
         boolean vetoedExecution = false;
         
-        // build a list of all trigger listeners that are to be notified...
-        List<TriggerListener> triggerListeners = buildTriggerListenerList();
+        // get the routes of all trigger listeners that may be notified...
+        ListenerRoutingTable<TriggerKey, TriggerListener> triggerListeners = getTriggerListenerRoutes();
+        TriggerKey key = jec.getTrigger().getKey();
 
-        // notify all trigger listeners in the list
-        for(TriggerListener tl: triggerListeners) {
+        // notify all matching trigger listeners
+        for(int i = 0; i < triggerListeners.size(); i++) {
+            TriggerListener tl = triggerListeners.getListener(i);
             try {
-                if(!matchTriggerListener(tl, jec.getTrigger().getKey()))
+                if(!triggerListeners.isMatch(i, key))
                     continue;
                 tl.triggerFired(jec.getTrigger(), jec);
                 
@@ -1894,13 +2020,15 @@ J     *
 
     public void notifyTriggerListenersMisfired(Trigger trigger)
         throws SchedulerException {
-        // build a list of all trigger listeners that are to be notified...
-        List<TriggerListener> triggerListeners = buildTriggerListenerList();
+        // get the routes of all trigger listeners that may be notified...
+        ListenerRoutingTable<TriggerKey, TriggerListener> triggerListeners = getTriggerListenerRoutes();
+        TriggerKey key = trigger.getKey();
 
-        // notify all trigger listeners in the list
-        for(TriggerListener tl: triggerListeners) {
+        // notify all matching trigger listeners
+        for(int i = 0; i < triggerListeners.size(); i++) {
+            TriggerListener tl = triggerListeners.getListener(i);
             try {
-                if(!matchTriggerListener(tl, trigger.getKey()))
+                if(!triggerListeners.isMatch(i, key))
                     continue;
                 tl.triggerMisfired(trigger);
             } catch (Exception e) {
@@ -1914,13 +2042,15 @@ J     *
 
     public void notifyTriggerListenersComplete(JobExecutionContext jec,
             CompletedExecutionInstruction instCode) throws SchedulerException {
-        // build a list of all trigger listeners that are to be notified...
-        List<TriggerListener> triggerListeners = buildTriggerListenerList();
+        // get the routes of all trigger listeners that may be notified...
+        ListenerRoutingTable<TriggerKey, TriggerListener> triggerListeners = getTriggerListenerRoutes();
+        TriggerKey key = jec.getTrigger().getKey();
 
-        // notify all trigger listeners in the list
-        for(TriggerListener tl: triggerListeners) {
+        // notify all matching trigger listeners
+        for(int i = 0; i < triggerListeners.size(); i++) {
+            TriggerListener tl = triggerListeners.getListener(i);
             try {
-                if(!matchTriggerListener(tl, jec.getTrigger().getKey()))
+                if(!triggerListeners.isMatch(i, key))
                     continue;
                 tl.triggerComplete(jec.getTrigger(), jec, instCode);
             } catch (Exception e) {
@@ -1934,13 +2064,15 @@ J     *
 
     public void notifyJobListenersToBeExecuted(JobExecutionContext jec)
         throws SchedulerException {
-        // build a list of all job listeners that are to be notified...
-        List<JobListener> jobListeners = buildJobListenerList();
+        // get the routes of all job listeners that may be notified...
+        ListenerRoutingTable<JobKey, JobListener> jobListeners = getJobListenerRoutes();
+        JobKey key = jec.getJobDetail().getKey();
 
-        // notify all job listeners
-        for(JobListener jl: jobListeners) {
+        // notify all matching job listeners
+        for(int i = 0; i < jobListeners.size(); i++) {
+            JobListener jl = jobListeners.getListener(i);
             try {
-                if(!matchJobListener(jl, jec.getJobDetail().getKey()))
+                if(!jobListeners.isMatch(i, key))
                     continue;
                 jl.jobToBeExecuted(jec);
             } catch (Exception e) {
@@ -1954,13 +2086,15 @@ J     *
 
     public void notifyJobListenersWasVetoed(JobExecutionContext jec)
         throws SchedulerException {
-        // build a list of all job listeners that are to be notified...
-        List<JobListener> jobListeners = buildJobListenerList();
+        // get the routes of all job listeners that may be notified...
+        ListenerRoutingTable<JobKey, JobListener> jobListeners = getJobListenerRoutes();
+        JobKey key = jec.getJobDetail().getKey();
 
-        // notify all job listeners
-        for(JobListener jl: jobListeners) {
+        // notify all matching job listeners
+        for(int i = 0; i < jobListeners.size(); i++) {
+            JobListener jl = jobListeners.getListener(i);
             try {
-                if(!matchJobListener(jl, jec.getJobDetail().getKey()))
+                if(!jobListeners.isMatch(i, key))
                     continue;
                 jl.jobExecutionVetoed(jec);
             } catch (Exception e) {
@@ -1974,13 +2108,15 @@ J     *
 
     public void notifyJobListenersWasExecuted(JobExecutionContext jec,
             JobExecutionException je) throws SchedulerException {
-        // build a list of all job listeners that are to be notified...
-        List<JobListener> jobListeners = buildJobListenerList();
+        // get the routes of all job listeners that may be notified...
+        ListenerRoutingTable<JobKey, JobListener> jobListeners = getJobListenerRoutes();
+        JobKey key = jec.getJobDetail().getKey();
 
-        // notify all job listeners
-        for(JobListener jl: jobListeners) {
+        // notify all matching job listeners
+        for(int i = 0; i < jobListeners.size(); i++) {
+            JobListener jl = jobListeners.getListener(i);
             try {
-                if(!matchJobListener(jl, jec.getJobDetail().getKey()))
+                if(!jobListeners.isMatch(i, key))
                     continue;
                 jl.jobWasExecuted(jec, je);
             } catch (Exception e) {
@@ -2268,6 +2404,17 @@ J     *
                         e);
             }
         }
+
+        // and the jobs still executing
+        for(JobRunShell shell: runningShells) {
+            try {
+                shell.schedulerShuttingdown();
+            } catch (Exception e) {
+                getLog().error(
+                        "Error while notifying JobRunShell of shutdown.",
+                        e);
+            }
+        }
     }
     
     public void notifySchedulerListenersJobAdded(JobDetail jobDetail) {
@@ -2332,27 +2479,23 @@ J     *
      */
     public boolean interrupt(JobKey jobKey) throws UnableToInterruptJobException {
 
-        List<JobExecutionContext> jobs = getCurrentlyExecutingJobs();
+        List<JobExecutionContext> jobs = getCurrentlyExecutingJobs(jobKey);
         
-        JobDetail jobDetail = null;
         Job job = null;
         
         boolean interrupted = false;
         
         for(JobExecutionContext jec : jobs) {
-            jobDetail = jec.getJobDetail();
-            if (jobKey.equals(jobDetail.getKey())) {
-                job = jec.getJobInstance();
-                if (job instanceof InterruptableJob) {
-                    ((InterruptableJob)job).interrupt();
-                    interrupted = true;
-                } else {
-                    throw new UnableToInterruptJobException(
-                            "Job " + jobDetail.getKey() +
-                            " can not be interrupted, since it does not implement " +                        
-                            InterruptableJob.class.getName());
-                }
-            }                        
+            job = jec.getJobInstance();
+            if (job instanceof InterruptableJob) {
+                ((InterruptableJob)job).interrupt();
+                interrupted = true;
+            } else {
+                throw new UnableToInterruptJobException(
+                        "Job " + jec.getJobDetail().getKey() +
+                        " can not be interrupted, since it does not implement " +                        
+                        InterruptableJob.class.getName());
+            }
         }
         
         return interrupted;
@@ -2370,26 +2513,21 @@ J     *
      * @see org.quartz.core.RemotableQuartzScheduler#interrupt(JobKey)
      */
     public boolean interrupt(String fireInstanceId) throws UnableToInterruptJobException {
-        List<JobExecutionContext> jobs = getCurrentlyExecutingJobs();
-        
-        Job job = null;
-        
-        for(JobExecutionContext jec : jobs) {
-            if (jec.getFireInstanceId().equals(fireInstanceId)) {
-                job = jec.getJobInstance();
-                if (job instanceof InterruptableJob) {
-                    ((InterruptableJob)job).interrupt();
-                    return true;
-                } else {
-                    throw new UnableToInterruptJobException(
-                        "Job " + jec.getJobDetail().getKey() +
-                        " can not be interrupted, since it does not implement " +                        
-                        InterruptableJob.class.getName());
-                }
-            }                        
+        JobExecutionContext jec = getCurrentlyExecutingJob(fireInstanceId);
+        if (jec == null) {
+            return false;
         }
         
-        return false;
+        Job job = jec.getJobInstance();
+        if (job instanceof InterruptableJob) {
+            ((InterruptableJob)job).interrupt();
+            return true;
+        } else {
+            throw new UnableToInterruptJobException(
+                "Job " + jec.getJobDetail().getKey() +
+                " can not be interrupted, since it does not implement " +                        
+                InterruptableJob.class.getName());
+        }
     }
     
     private void shutdownPlugins() {
@@ -2434,7 +2572,12 @@ class ErrorLogger extends SchedulerListenerSupport {
 /////////////////////////////////////////////////////////////////////////////
 
 class ExecutingJobsManager implements JobListener {
-    HashMap<String, JobExecutionContext> executingJobs = new HashMap<String, JobExecutionContext>();
+    // ordered by fire instance id, so that the jobs can be listed a page at a time
+    ConcurrentSkipListMap<String, JobExecutionContext> executingJobs = new ConcurrentSkipListMap<String, JobExecutionContext>();
+
+    ConcurrentHashMap<JobKey, ExecutingInstances> executingJobsByKey = new ConcurrentHashMap<JobKey, ExecutingInstances>();
+
+    AtomicInteger numJobsExecuting = new AtomicInteger(0);
 
     AtomicInteger numJobsFired = new AtomicInteger(0);
 
@@ -2446,24 +2589,43 @@ class ExecutingJobsManager implements JobListener {
     }
 
     public int getNumJobsCurrentlyExecuting() {
-        synchronized (executingJobs) {
-            return executingJobs.size();
-        }
+        return numJobsExecuting.get();
     }
 
     public void jobToBeExecuted(JobExecutionContext context) {
         numJobsFired.incrementAndGet();
 
-        synchronized (executingJobs) {
-            executingJobs
-                    .put(((OperableTrigger)context.getTrigger()).getFireInstanceId(), context);
+        if (executingJobs.put(((OperableTrigger)context.getTrigger()).getFireInstanceId(), context) == null) {
+            numJobsExecuting.incrementAndGet();
+        }
+
+        JobKey jobKey = context.getJobDetail().getKey();
+        while (true) {
+            ExecutingInstances instances = executingJobsByKey.get(jobKey);
+            if (instances == null) {
+                ExecutingInstances created = new ExecutingInstances();
+                instances = executingJobsByKey.putIfAbsent(jobKey, created);
+                if (instances == null) {
+                    instances = created;
+                }
+            }
+            if (instances.add(context)) {
+                break;
+            }
+            // the instances were just emptied and unmapped, try again
         }
     }
 
     public void jobWasExecuted(JobExecutionContext context,
             JobExecutionException jobException) {
-        synchronized (executingJobs) {
-            executingJobs.remove(((OperableTrigger)context.getTrigger()).getFireInstanceId());
+        if (executingJobs.remove(((OperableTrigger)context.getTrigger()).getFireInstanceId()) != null) {
+            numJobsExecuting.decrementAndGet();
+        }
+
+        JobKey jobKey = context.getJobDetail().getKey();
+        ExecutingInstances instances = executingJobsByKey.get(jobKey);
+        if (instances != null && instances.remove(context)) {
+            executingJobsByKey.remove(jobKey, instances);
         }
     }
 
@@ -2472,13 +2634,70 @@ class ExecutingJobsManager implements JobListener {
     }
 
     public List<JobExecutionContext> getExecutingJobs() {
-        synchronized (executingJobs) {
-            return java.util.Collections.unmodifiableList(new ArrayList<JobExecutionContext>(
-                    executingJobs.values()));
+        return java.util.Collections.unmodifiableList(new ArrayList<JobExecutionContext>(
+                executingJobs.values()));
+    }
+
+    public JobExecutionContext getExecutingJob(String fireInstanceId) {
+        return executingJobs.get(fireInstanceId);
+    }
+
+    public List<JobExecutionContext> getExecutingJobs(JobKey jobKey) {
+        ExecutingInstances instances = executingJobsByKey.get(jobKey);
+        if (instances == null) {
+            return java.util.Collections.emptyList();
         }
+        return instances.getContexts();
+    }
+
+    public List<JobExecutionContext> getExecutingJobs(String afterFireInstanceId, int maxCount) {
+        Collection<JobExecutionContext> jobs = (afterFireInstanceId == null) ? 
+                executingJobs.values() : executingJobs.tailMap(afterFireInstanceId, false).values();
+        List<JobExecutionContext> page = new ArrayList<JobExecutionContext>(Math.min(maxCount, 64));
+        for (JobExecutionContext jec : jobs) {
+            if (page.size() >= maxCount) {
+                break;
+            }
+            page.add(jec);
+        }
+        return java.util.Collections.unmodifiableList(page);
     }
 
     public void jobExecutionVetoed(JobExecutionContext context) {
         
     }
+
+    /**
+     * The executing instances of one job.  Once emptied, the instances are
+     * removed from the index and refuse further contexts, so that a job that
+     * starts concurrently maps a fresh instance.
+     */
+    static class ExecutingInstances {
+        private final ArrayList<JobExecutionContext> contexts = new ArrayList<JobExecutionContext>(2);
+
+        private boolean unmapped = false;
+
+        synchronized boolean add(JobExecutionContext context) {
+            if (unmapped) {
+                return false;
+            }
+            contexts.add(context);
+            return true;
+        }
+
+        /**
+         * @return true if the instances are now empty, and must be unmapped.
+         */
+        synchronized boolean remove(JobExecutionContext context) {
+            contexts.remove(context);
+            if (contexts.isEmpty()) {
+                unmapped = true;
+            }
+            return unmapped;
+        }
+
+        synchronized List<JobExecutionContext> getContexts() {
+            return java.util.Collections.unmodifiableList(new ArrayList<JobExecutionContext>(contexts));
+        }
+    }
 }
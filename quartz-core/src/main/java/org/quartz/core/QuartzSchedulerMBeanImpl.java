@@ -13,6 +13,7 @@ import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -48,6 +49,7 @@ import org.quartz.core.jmx.TriggerSupport;
 import org.quartz.impl.matchers.GroupMatcher;
 import org.quartz.impl.triggers.AbstractTrigger;
 import org.quartz.spi.OperableTrigger;
+import org.quartz.utils.LatencyHistogram;
 
 public class QuartzSchedulerMBeanImpl extends StandardMBean implements
         NotificationEmitter, QuartzSchedulerMBean, JobListener,
@@ -103,6 +105,26 @@ public class QuartzSchedulerMBeanImpl extends StandardMBean implements
         }
     }
 
+    public TabularData getCurrentlyExecutingJobs(String afterFireInstanceId, int maxCount) throws Exception {
+        try {
+            List<JobExecutionContext> currentlyExecutingJobs = 
+                scheduler.getCurrentlyExecutingJobs(afterFireInstanceId, maxCount);
+            return JobExecutionContextSupport.toTabularData(currentlyExecutingJobs);
+        } catch (Exception e) {
+            throw newPlainException(e);
+        }
+    }
+
+    public TabularData getCurrentlyExecutingJobsOfJob(String jobName, String jobGroupName) throws Exception {
+        try {
+            List<JobExecutionContext> currentlyExecutingJobs = 
+                scheduler.getCurrentlyExecutingJobs(jobKey(jobName, jobGroupName));
+            return JobExecutionContextSupport.toTabularData(currentlyExecutingJobs);
+        } catch (Exception e) {
+            throw newPlainException(e);
+        }
+    }
+
     public TabularData getAllJobDetails() throws Exception {
         try {
             List<JobDetail> detailList = new ArrayList<JobDetail>();
@@ -998,6 +1020,29 @@ public class QuartzSchedulerMBeanImpl extends StandardMBean implements
         return this.sampledStatistics.getJobsScheduledMostRecentSample();
     }
 
+    public Map<String, Long> getFiringLatencyMetrics() {
+        FiringStatistics stats = scheduler.getFiringStatistics();
+        Map<String, Long> result = new LinkedHashMap<String, Long>();
+        putPercentiles(result, "FireLag", stats.getFireLag());
+        putPercentiles(result, "ThreadWait", stats.getThreadWaitTime());
+        putPercentiles(result, "Acquisition", stats.getAcquisitionTime());
+        putPercentiles(result, "TriggersFired", stats.getTriggersFiredTime());
+        result.put("Acquisitions", Long.valueOf(stats.getAcquisitionTime().getCount()));
+        result.put("EmptyAcquisitions", Long.valueOf(stats.getEmptyAcquisitionCount()));
+        return result;
+    }
+
+    private static void putPercentiles(Map<String, Long> result, String name, LatencyHistogram histogram) {
+        result.put(name + "P50", Long.valueOf(histogram.getValueAtPercentile(50.0)));
+        result.put(name + "P99", Long.valueOf(histogram.getValueAtPercentile(99.0)));
+        result.put(name + "P999", Long.valueOf(histogram.getValueAtPercentile(99.9)));
+        result.put(name + "Max", Long.valueOf(histogram.getMax()));
+    }
+
+    public void resetFiringLatencyMetrics() {
+        scheduler.getFiringStatistics().reset();
+    }
+
     public Map<String, Long> getPerformanceMetrics() {
         Map<String, Long> result = new HashMap<String, Long>();
         result.put("JobsCompleted", Long
@@ -76,6 +76,8 @@ public class QuartzSchedulerThread extends Thread {
 
     private int idleWaitVariablness = 7 * 1000;
 
+    private final FiringStatistics firingStatistics = new FiringStatistics();
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     /*
@@ -196,6 +198,13 @@ public class QuartzSchedulerThread extends Thread {
         return paused;
     }
 
+    /**
+     * The timings of the phases of the main processing loop.
+     */
+    FiringStatistics getFiringStatistics() {
+        return firingStatistics;
+    }
+
     /**
      * <p>
      * Signals the main processing loop that a change in scheduling has been
@@ -260,7 +269,9 @@ public class QuartzSchedulerThread extends Thread {
                     }
                 }
 
+                long waitStart = System.nanoTime();
                 int availThreadCount = qsRsrcs.getThreadPool().blockForAvailableThreads();
+                firingStatistics.recordThreadWait(microsSince(waitStart));
                 if(availThreadCount > 0) { // will always be true, due to semantics of blockForAvailableThreads...
 
                     List<OperableTrigger> triggers = null;
@@ -269,8 +280,10 @@ public class QuartzSchedulerThread extends Thread {
 
                     clearSignaledSchedulingChange();
                     try {
+                        long acquireStart = System.nanoTime();
                         triggers = qsRsrcs.getJobStore().acquireNextTriggers(
                                 now + idleWaitTime, Math.min(availThreadCount, qsRsrcs.getMaxBatchSize()), qsRsrcs.getBatchTimeWindow());
+                        firingStatistics.recordAcquisition(microsSince(acquireStart), triggers == null ? 0 : triggers.size());
                         lastAcquireFailed = false;
                         if (log.isDebugEnabled()) 
                             log.debug("batch acquisition of " + (triggers == null ? 0 : triggers.size()) + " triggers");
@@ -333,7 +346,9 @@ public class QuartzSchedulerThread extends Thread {
                         }
                         if(goAhead) {
                             try {
+                                long firedStart = System.nanoTime();
                                 List<TriggerFiredResult> res = qsRsrcs.getJobStore().triggersFired(triggers);
+                                firingStatistics.recordTriggersFired(microsSince(firedStart));
                                 if(res != null)
                                     bndles = res;
                             } catch (SchedulerException se) {
@@ -378,6 +393,9 @@ public class QuartzSchedulerThread extends Thread {
                                 continue;
                             }
 
+                            if (bndle.getScheduledFireTime() != null) {
+                                firingStatistics.recordFireLag(System.currentTimeMillis() - bndle.getScheduledFireTime().getTime());
+                            }
                             if (qsRsrcs.getThreadPool().runInThread(shell) == false) {
                                 // this case should never happen, as it is indicative of the
                                 // scheduler being shutdown or a bug in the thread pool or
@@ -424,6 +442,10 @@ public class QuartzSchedulerThread extends Thread {
         qsRsrcs = null;
     }
 
+    private static long microsSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1000L;
+    }
+
     private boolean releaseIfScheduleChangedSignificantly(
             List<OperableTrigger> triggers, long triggerTime) {
         if (isCandidateNewTimeEarlierWithinReason(triggerTime, true)) {
@@ -4,5 +4,9 @@ public interface SampledStatistics {
     long getJobsScheduledMostRecentSample();
     long getJobsExecutingMostRecentSample();
     long getJobsCompletedMostRecentSample();
+    /**
+     * The timings of the main scheduling loop of the scheduler.
+     */
+    FiringStatistics getFiringStatistics();
     void shutdown();
 }
@@ -17,7 +17,6 @@ import org.quartz.utils.counter.sampled.SampledCounterConfig;
 import org.quartz.utils.counter.sampled.SampledRateCounterConfig;
 
 public class SampledStatisticsImpl extends SchedulerListenerSupport implements SampledStatistics, JobListener, SchedulerListener {
-    @SuppressWarnings("unused")
     private final QuartzScheduler scheduler;
     
     private static final String NAME = "QuartzSampledStatistics";
@@ -76,6 +75,10 @@ public class SampledStatisticsImpl extends SchedulerListenerSupport implements S
         return jobsScheduledCount.getMostRecentSample().getCounterValue();
     }
 
+    public FiringStatistics getFiringStatistics() {
+        return scheduler.getFiringStatistics();
+    }
+
     public String getName() {
         return NAME;
     }
@@ -60,12 +60,38 @@ public interface QuartzSchedulerMBean {
 
     Map<String, Long> getPerformanceMetrics();
 
+    /**
+     * Percentiles of how late triggers were handed to the thread pool (in
+     * milliseconds), and of how long waiting for a thread, acquiring triggers
+     * and firing them took (in microseconds), along with the number of
+     * acquisitions and of those that found no trigger.
+     */
+    Map<String, Long> getFiringLatencyMetrics();
+
+    void resetFiringLatencyMetrics();
+
     /**
      * @return TabularData of CompositeData:JobExecutionContext
      * @throws Exception
      */
     TabularData getCurrentlyExecutingJobs() throws Exception;
 
+    /**
+     * A page of the currently executing jobs, ordered by fire instance id.
+     * 
+     * @param afterFireInstanceId the fire instance id of the last job of the
+     *          previous page, or null for the first page.
+     * @return TabularData of CompositeData:JobExecutionContext
+     * @throws Exception
+     */
+    TabularData getCurrentlyExecutingJobs(String afterFireInstanceId, int maxCount) throws Exception;
+
+    /**
+     * @return TabularData of CompositeData:JobExecutionContext
+     * @throws Exception
+     */
+    TabularData getCurrentlyExecutingJobsOfJob(String jobName, String jobGroupName) throws Exception;
+
     /**
      * @return TabularData of CompositeData:JobDetail
      * @throws Exception
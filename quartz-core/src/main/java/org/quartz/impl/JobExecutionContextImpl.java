@@ -101,9 +101,7 @@ public class JobExecutionContextImpl implements java.io.Serializable, JobExecuti
         this.prevFireTime = firedBundle.getPrevFireTime();
         this.nextFireTime = firedBundle.getNextFireTime();
         
-        this.jobDataMap = new JobDataMap();
-        this.jobDataMap.putAll(jobDetail.getJobDataMap());
-        this.jobDataMap.putAll(trigger.getJobDataMap());
+        this.jobDataMap = JobDataMap.newMergedView(jobDetail.getJobDataMap(), trigger.getJobDataMap());
     }
 
     /*
@@ -114,7 +114,8 @@ public class StdScheduler implements Scheduler {
                 isInStandbyMode(), isShutdown(), sched.runningSince(), 
                 sched.numJobsExecuted(), sched.getJobStoreClass(), 
                 sched.supportsPersistence(), sched.isClustered(), sched.getThreadPoolClass(), 
-                sched.getThreadPoolSize(), sched.getVersion());
+                sched.getThreadPoolSize(), sched.getVersion(),
+                sched.getFiringStatistics().lazySnapshot());
 
     }
 
@@ -29,6 +29,7 @@ import org.quartz.impl.jdbcjobstore.Semaphore;
 import org.quartz.impl.jdbcjobstore.TablePrefixAware;
 import org.quartz.impl.matchers.EverythingMatcher;
 import org.quartz.management.ManagementRESTServiceConfiguration;
+import org.quartz.simpl.ExecutorThreadPool;
 import org.quartz.simpl.RAMJobStore;
 import org.quartz.simpl.SimpleThreadPool;
 import org.quartz.spi.*;
@@ -1273,6 +1274,10 @@ public class StdSchedulerFactory implements SchedulerFactory {
                 if(threadsInheritInitalizersClassLoader)
                     ((SimpleThreadPool)tp).setThreadsInheritContextClassLoaderOfInitializingThread(threadsInheritInitalizersClassLoader);
             }
+            if(tp instanceof ExecutorThreadPool) {
+                if(threadsInheritInitalizersClassLoader)
+                    ((ExecutorThreadPool)tp).setThreadsInheritContextClassLoaderOfInitializingThread(threadsInheritInitalizersClassLoader);
+            }
             tp.initialize();
             tpInited = true;
     
@@ -42,11 +42,19 @@ public class AnnualCalendar extends BaseCalendar implements Calendar,
 
     static final long serialVersionUID = 7346867105876610961L;
 
+    private static final long NO_DAY = Long.MIN_VALUE;
+
+    private static final int MONTHS_TO_SEARCH = 8 * 12;
+
     private ArrayList<java.util.Calendar> excludeDays = new ArrayList<java.util.Calendar>();
 
     // true, if excludeDays is sorted
     private boolean dataSorted = false;
 
+    // the excluded days of each month (0-11) as bits (1-31), built from
+    // excludeDays when first needed
+    private transient int[] excludedDaysByMonth;
+
     public AnnualCalendar() {
     }
 
@@ -66,6 +74,7 @@ public class AnnualCalendar extends BaseCalendar implements Calendar,
     public Object clone() {
         AnnualCalendar clone = (AnnualCalendar) super.clone();
         clone.excludeDays = new ArrayList<java.util.Calendar>(excludeDays);
+        clone.excludedDaysByMonth = null;
         return clone;
     }
 
@@ -98,32 +107,24 @@ public class AnnualCalendar extends BaseCalendar implements Calendar,
         int dmonth = day.get(java.util.Calendar.MONTH);
         int dday = day.get(java.util.Calendar.DAY_OF_MONTH);
 
-        if (dataSorted == false) {
-            Collections.sort(excludeDays, new CalendarComparator());
-            dataSorted = true;
-        }
-
-        Iterator<java.util.Calendar> iter = excludeDays.iterator();
-        while (iter.hasNext()) {
-            java.util.Calendar cl = (java.util.Calendar) iter.next();
-
-            // remember, the list is sorted
-            if (dmonth < cl.get(java.util.Calendar.MONTH)) {
-                return false;
-            }
+        return (getExcludedDaysByMonth()[dmonth] & (1 << dday)) != 0;
+    }
 
-            if (dday != cl.get(java.util.Calendar.DAY_OF_MONTH)) {
-                continue;
+    private int[] getExcludedDaysByMonth() {
+        int[] excluded = excludedDaysByMonth;
+        if (excluded == null) {
+            if (dataSorted == false) {
+                Collections.sort(excludeDays, new CalendarComparator());
+                dataSorted = true;
             }
 
-            if (dmonth != cl.get(java.util.Calendar.MONTH)) {
-                continue;
+            excluded = new int[12];
+            for (java.util.Calendar cl : excludeDays) {
+                excluded[cl.get(java.util.Calendar.MONTH)] |= 1 << cl.get(java.util.Calendar.DAY_OF_MONTH);
             }
-
-            return true;
+            excludedDaysByMonth = excluded;
         }
-
-        return false;
+        return excluded;
     }
 
     /**
@@ -140,6 +141,7 @@ public class AnnualCalendar extends BaseCalendar implements Calendar,
         }
 
         dataSorted = false;
+        excludedDaysByMonth = null;
     }
 
     /**
@@ -155,6 +157,7 @@ public class AnnualCalendar extends BaseCalendar implements Calendar,
 
             excludeDays.add(day);
             dataSorted = false;
+            excludedDaysByMonth = null;
         } else {
             if (!isDayExcluded(day)) {
                 return;
@@ -179,6 +182,8 @@ public class AnnualCalendar extends BaseCalendar implements Calendar,
             return;
         }
         
+        excludedDaysByMonth = null;
+
         // Fast way, see if exact day object was already in list
         if (this.excludeDays.remove(day)) {
             return;
@@ -225,9 +230,14 @@ public class AnnualCalendar extends BaseCalendar implements Calendar,
         // excludes the time/date, continue evaluating this calendar instance.
         if (super.isTimeIncluded(timeStamp) == false) { return false; }
 
-        java.util.Calendar day = createJavaCalendar(timeStamp);
+        TimeZone timeZone = LocalDays.resolve(getTimeZone());
+
+        return !isDayExcluded(LocalDays.toDate(LocalDays.getDay(timeStamp, timeZone)));
+    }
 
-        return !(isDayExcluded(day));
+    private boolean isDayExcluded(long date) {
+        int month = LocalDays.getMonth(date) - 1;
+        return (getExcludedDaysByMonth()[month] & (1 << LocalDays.getDayOfMonth(date))) != 0;
     }
 
     /**
@@ -249,17 +259,67 @@ public class AnnualCalendar extends BaseCalendar implements Calendar,
             timeStamp = baseTime;
         }
 
-        // Get timestamp for 00:00:00
-        java.util.Calendar day = getStartOfDayJavaCalendar(timeStamp);
-        if (isDayExcluded(day) == false) { 
+        TimeZone timeZone = LocalDays.resolve(getTimeZone());
+        long day = LocalDays.getDay(timeStamp, timeZone);
+        if (!isDayExcluded(LocalDays.toDate(day))
+                && super.isTimeIncluded(getStartOfDay(day, timeZone))) {
             return timeStamp; // return the original value
         }
 
-        while (isDayExcluded(day) == true) {
-            day.add(java.util.Calendar.DATE, 1);
+        // skip the excluded days of each month, then check the base calendar
+        // at the start of the day, or else at the next time it includes that
+        // day
+        while (true) {
+            day = getNextIncludedDay(day);
+            if (day == NO_DAY) {
+                return 0;
+            }
+            long startOfDay = getStartOfDay(day, timeZone);
+            if (super.isTimeIncluded(startOfDay)) {
+                return startOfDay;
+            }
+            long includedTime = super.getNextIncludedTime(startOfDay);
+            if (includedTime > startOfDay) {
+                long baseDay = LocalDays.getDay(includedTime, timeZone);
+                if (baseDay == day) {
+                    return Math.max(includedTime, timeStamp);
+                }
+                day = baseDay;
+            } else {
+                day++;
+            }
         }
+    }
 
-        return day.getTime().getTime();
+    private long getStartOfDay(long day, TimeZone timeZone) {
+        return getStartOfDayJavaCalendar(LocalDays.getTimeOnDay(day, timeZone)).getTime().getTime();
+    }
+
+    /**
+     * The first day from the given one that is not excluded by this calendar
+     * (regardless of the base calendar), or <code>NO_DAY</code>.
+     */
+    private long getNextIncludedDay(long day) {
+        int[] excluded = getExcludedDaysByMonth();
+        long date = LocalDays.toDate(day);
+        int year = LocalDays.getYear(date);
+        int month = LocalDays.getMonth(date);
+        int dayOfMonth = LocalDays.getDayOfMonth(date);
+
+        // long enough to come across a February 29th
+        for (int i = 0; i <= MONTHS_TO_SEARCH; i++) {
+            int lastDay = LocalDays.getLastDayOfMonth(month, year);
+            int included = ~excluded[month - 1] & (-1 << dayOfMonth) & (-1 >>> (31 - lastDay));
+            if (included != 0) {
+                return LocalDays.toDay(year, month, Integer.numberOfTrailingZeros(included));
+            }
+            dayOfMonth = 1;
+            if (++month > 12) {
+                month = 1;
+                year++;
+            }
+        }
+        return NO_DAY;
     }
 }
 
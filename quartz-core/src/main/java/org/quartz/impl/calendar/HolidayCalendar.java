@@ -18,6 +18,7 @@
 package org.quartz.impl.calendar;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.SortedSet;
@@ -48,6 +49,10 @@ public class HolidayCalendar extends BaseCalendar implements Calendar,
     // A sorted set to store the holidays
     private TreeSet<Date> dates = new TreeSet<Date>();
 
+    // the holidays as runs of consecutive local days, built from dates when
+    // first needed
+    private transient Holidays holidays;
+
     public HolidayCalendar() {
     }
 
@@ -67,6 +72,7 @@ public class HolidayCalendar extends BaseCalendar implements Calendar,
     public Object clone() {
         HolidayCalendar clone = (HolidayCalendar) super.clone();
         clone.dates = new TreeSet<Date>(dates);
+        clone.holidays = null;
         return clone;
     }
     
@@ -86,9 +92,9 @@ public class HolidayCalendar extends BaseCalendar implements Calendar,
             return false;
         }
 
-        Date lookFor = getStartOfDayJavaCalendar(timeStamp).getTime();
+        TimeZone timeZone = LocalDays.resolve(getTimeZone());
 
-        return !(dates.contains(lookFor));
+        return !getHolidays(timeZone).contains(LocalDays.getDay(timeStamp, timeZone));
     }
 
     /**
@@ -110,13 +116,29 @@ public class HolidayCalendar extends BaseCalendar implements Calendar,
             timeStamp = baseTime;
         }
 
-        // Get timestamp for 00:00:00
-        java.util.Calendar day = getStartOfDayJavaCalendar(timeStamp);
-        while (isTimeIncluded(day.getTime().getTime()) == false) {
-            day.add(java.util.Calendar.DATE, 1);
+        // skip whole runs of holidays, then check the base calendar at the
+        // start of the day, or else at the next time it includes that day
+        TimeZone timeZone = LocalDays.resolve(getTimeZone());
+        Holidays holidays = getHolidays(timeZone);
+        long day = LocalDays.getDay(timeStamp, timeZone);
+        while (true) {
+            day = holidays.getNextIncludedDay(day);
+            long startOfDay = getStartOfDayJavaCalendar(
+                    LocalDays.getTimeOnDay(day, timeZone)).getTime().getTime();
+            if (super.isTimeIncluded(startOfDay)) {
+                return startOfDay;
+            }
+            long includedTime = super.getNextIncludedTime(startOfDay);
+            if (includedTime > startOfDay) {
+                long baseDay = LocalDays.getDay(includedTime, timeZone);
+                if (baseDay == day) {
+                    return includedTime;
+                }
+                day = baseDay;
+            } else {
+                day++;
+            }
         }
-
-        return day.getTime().getTime();
     }
 
     /**
@@ -132,11 +154,13 @@ public class HolidayCalendar extends BaseCalendar implements Calendar,
          * excludedDate.toLocaleString());
          */
         this.dates.add(date);
+        holidays = null;
     }
 
     public void removeExcludedDate(Date dateToRemove) {
         Date date = getStartOfDayJavaCalendar(dateToRemove.getTime()).getTime();
         dates.remove(date);
+        holidays = null;
     }
 
     /**
@@ -149,4 +173,81 @@ public class HolidayCalendar extends BaseCalendar implements Calendar,
     public SortedSet<Date> getExcludedDates() {
         return Collections.unmodifiableSortedSet(dates);
     }
+
+    private Holidays getHolidays(TimeZone timeZone) {
+        Holidays current = holidays;
+        if (current == null || !current.timeZone.equals(timeZone)) {
+            current = new Holidays(timeZone);
+            holidays = current;
+        }
+        return current;
+    }
+
+    /**
+     * The holidays, as sorted runs of consecutive local days in a time zone.
+     * Immutable, so that it can be shared by the threads that fire triggers.
+     */
+    private class Holidays {
+
+        private final TimeZone timeZone;
+
+        private final long[] firstDays;
+
+        private final long[] lastDays;
+
+        Holidays(TimeZone timeZone) {
+            this.timeZone = timeZone;
+
+            long[] days = new long[dates.size()];
+            int count = 0;
+            for (Date date : dates) {
+                // a date that is not the start of a day in this time zone is
+                // never looked up
+                long time = date.getTime();
+                if (getStartOfDayJavaCalendar(time).getTime().getTime() == time) {
+                    days[count++] = LocalDays.getDay(time, timeZone);
+                }
+            }
+
+            long[] first = new long[count];
+            long[] last = new long[count];
+            int runs = 0;
+            for (int i = 0; i < count; i++) {
+                if (runs > 0 && days[i] <= last[runs - 1] + 1) {
+                    last[runs - 1] = Math.max(last[runs - 1], days[i]);
+                } else {
+                    first[runs] = days[i];
+                    last[runs] = days[i];
+                    runs++;
+                }
+            }
+            this.firstDays = Arrays.copyOf(first, runs);
+            this.lastDays = Arrays.copyOf(last, runs);
+        }
+
+        /**
+         * The index of the run that contains the given day, or -1.
+         */
+        private int indexOf(long day) {
+            int i = Arrays.binarySearch(firstDays, day);
+            if (i < 0) {
+                // the run starting before the day
+                i = -i - 2;
+            }
+            return (i >= 0 && day <= lastDays[i]) ? i : -1;
+        }
+
+        boolean contains(long day) {
+            return indexOf(day) >= 0;
+        }
+
+        /**
+         * The given day if it is not a holiday, else the day following the
+         * run of holidays it is in.
+         */
+        long getNextIncludedDay(long day) {
+            int i = indexOf(day);
+            return (i < 0) ? day : lastDays[i] + 1;
+        }
+    }
 }
@@ -0,0 +1,123 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz.impl.calendar;
+
+import java.util.TimeZone;
+
+/**
+ * <p>
+ * Arithmetic on local days - the number of days since 1970-01-01 of the
+ * date a time falls on in a given time zone - which lets the full-day
+ * calendars look up and step through days without building a
+ * <code>java.util.Calendar</code> per day.
+ * </p>
+ */
+final class LocalDays {
+
+    static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private LocalDays() {
+    }
+
+    /**
+     * The time zone a calendar resolves its days in.
+     */
+    static TimeZone resolve(TimeZone timeZone) {
+        return (timeZone == null) ? TimeZone.getDefault() : timeZone;
+    }
+
+    /**
+     * The local day the given time falls on.
+     */
+    static long getDay(long time, TimeZone timeZone) {
+        return floorDiv(time + timeZone.getOffset(time), MILLIS_PER_DAY);
+    }
+
+    /**
+     * A time on the given local day - its noon, unless a change of offset
+     * moves it.
+     */
+    static long getTimeOnDay(long day, TimeZone timeZone) {
+        long noon = day * MILLIS_PER_DAY + MILLIS_PER_DAY / 2;
+        return noon - timeZone.getOffset(noon);
+    }
+
+    /**
+     * Returns the year, month (1-12) and day of the month of the given day,
+     * packed as <code>year &lt;&lt; 9 | month &lt;&lt; 5 | day</code>.
+     */
+    static long toDate(long day) {
+        // the days of the 400 year eras starting on March 1st
+        long z = day + 719468;
+        long era = floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153;
+        long dayOfMonth = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+        long month = (monthIndex < 10) ? monthIndex + 3 : monthIndex - 9;
+        long year = yearOfEra + era * 400 + ((month <= 2) ? 1 : 0);
+        return (year << 9) | (month << 5) | dayOfMonth;
+    }
+
+    static int getYear(long date) {
+        return (int) (date >> 9);
+    }
+
+    static int getMonth(long date) {
+        return (int) ((date >> 5) & 15);
+    }
+
+    static int getDayOfMonth(long date) {
+        return (int) (date & 31);
+    }
+
+    /**
+     * The inverse of <code>toDate</code>.
+     */
+    static long toDay(int year, int month, int dayOfMonth) {
+        long y = (month <= 2) ? year - 1 : year;
+        long era = floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * ((month > 2) ? month - 3 : month + 9) + 2) / 5 + dayOfMonth - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    static int getLastDayOfMonth(int month, int year) {
+        switch (month) {
+            case 2:
+                return ((year % 4 == 0 && year % 100 != 0) || year % 400 == 0) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static long floorDiv(long x, long y) {
+        long q = x / y;
+        if ((x % y != 0) && ((x ^ y) < 0)) {
+            q--;
+        }
+        return q;
+    }
+}
@@ -0,0 +1,52 @@
+package org.quartz.impl.jdbcjobstore;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import org.quartz.TriggerKey;
+import org.quartz.spi.OperableTrigger;
+
+/**
+ * An optional extension of <code>{@link TriggerPersistenceDelegate}</code>
+ * for delegates that can load or update the extended properties of several
+ * triggers with a single query or JDBC batch.
+ *
+ * <p>
+ * The <code>{@link StdJDBCDelegate}</code> uses it when selecting triggers
+ * in bulk (e.g. during batch acquisition). Delegates that do not implement
+ * it are asked for each trigger in turn.
+ * </p>
+ *
+ * @see StdJDBCDelegate#selectTriggers(Connection, List, String)
+ */
+public interface BatchTriggerPersistenceDelegate extends TriggerPersistenceDelegate {
+
+    /**
+     * Load the extended properties of all of the given triggers.
+     *
+     * @return a (never null) map of the properties found, keyed by trigger.
+     * Triggers without an extended properties record are absent from the map.
+     */
+    public Map<TriggerKey, TriggerPropertyBundle> loadExtendedTriggerProperties(Connection conn, List<TriggerKey> triggerKeys) throws SQLException;
+
+    /**
+     * Update the extended properties of all of the given triggers, which
+     * must all be of the type handled by this delegate.
+     *
+     * @return the number of rows updated.
+     */
+    public int updateExtendedTriggerProperties(Connection conn, List<OperableTrigger> triggers, String state) throws SQLException, IOException;
+
+    /**
+     * Update only those extended properties of the given triggers that
+     * <code>{@link OperableTrigger#triggered(org.quartz.Calendar)}</code>
+     * may have changed, such as the number of times a trigger has fired.
+     *
+     * @return the number of rows updated.
+     * @see StdJDBCDelegate#updateTriggerFireTimes(Connection, List, String, Map)
+     */
+    public int updateFiredTriggerProperties(Connection conn, List<OperableTrigger> triggers) throws SQLException, IOException;
+}
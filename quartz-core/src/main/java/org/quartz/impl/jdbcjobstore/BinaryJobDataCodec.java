@@ -0,0 +1,358 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz.impl.jdbcjobstore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * <p>
+ * The default <code>{@link JobDataCodec}</code>: a compact, tagged binary
+ * encoding.
+ * </p>
+ *
+ * <p>
+ * The encoding starts with a four byte header - the characters
+ * <code>QJ</code>, the format version and a flags byte - followed by the
+ * number of entries and the entries themselves, each key and value being a
+ * one byte type tag and its content.  Strings, the primitive wrappers,
+ * <code>java.util.Date</code>, <code>byte[]</code>, and <code>HashMap</code>s
+ * and <code>ArrayList</code>s of these are encoded directly, any other value
+ * is Java serialized on its own.  Values decode to the exact classes they were
+ * encoded from.
+ * </p>
+ *
+ * <p>
+ * If the encoded entries exceed the compression threshold they are deflated.
+ * </p>
+ */
+public class BinaryJobDataCodec implements JobDataCodec {
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Constants.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+
+    static final int MAGIC_0 = 'Q';
+
+    static final int MAGIC_1 = 'J';
+
+    static final int FORMAT_VERSION = 1;
+
+    static final int FLAG_DEFLATED = 0x01;
+
+    private static final int TAG_NULL = 0;
+    private static final int TAG_STRING = 1;
+    private static final int TAG_INTEGER = 2;
+    private static final int TAG_LONG = 3;
+    private static final int TAG_TRUE = 4;
+    private static final int TAG_FALSE = 5;
+    private static final int TAG_DOUBLE = 6;
+    private static final int TAG_FLOAT = 7;
+    private static final int TAG_DATE = 8;
+    private static final int TAG_MAP = 9;
+    private static final int TAG_LIST = 10;
+    private static final int TAG_SHORT = 11;
+    private static final int TAG_BYTE = 12;
+    private static final int TAG_CHARACTER = 13;
+    private static final int TAG_BYTES = 14;
+    private static final int TAG_SERIALIZED = 15;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Data members.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Interface.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * Set the number of bytes of encoded entries above which they are
+     * deflated.  A negative value disables compression.
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public void encode(Map<?, ?> data, OutputStream out) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(64 + data.size() * 32);
+        DataOutputStream dos = new DataOutputStream(body);
+        writeEntries(data, dos);
+        dos.flush();
+
+        boolean deflate = compressionThreshold >= 0 && body.size() > compressionThreshold;
+        out.write(MAGIC_0);
+        out.write(MAGIC_1);
+        out.write(FORMAT_VERSION);
+        out.write(deflate ? FLAG_DEFLATED : 0);
+        if (deflate) {
+            DeflaterOutputStream deflater = new DeflaterOutputStream(out);
+            body.writeTo(deflater);
+            deflater.finish();
+        } else {
+            body.writeTo(out);
+        }
+        out.flush();
+    }
+
+    public Map<?, ?> decode(InputStream in) throws IOException, ClassNotFoundException {
+        if (in.read() != MAGIC_0 || in.read() != MAGIC_1) {
+            throw new StreamCorruptedException("Not a binary encoded JobDataMap");
+        }
+        int version = in.read();
+        if (version != FORMAT_VERSION) {
+            throw new StreamCorruptedException("Unsupported JobDataMap format version: " + version);
+        }
+        int flags = in.read();
+        if (flags < 0) {
+            throw new EOFException();
+        }
+        if ((flags & FLAG_DEFLATED) != 0) {
+            in = new InflaterInputStream(in);
+        }
+        return readEntries(new DataInputStream(in));
+    }
+
+    private void writeEntries(Map<?, ?> data, DataOutputStream out) throws IOException {
+        writeVarInt(data.size(), out);
+        for (Map.Entry<?, ?> entry : data.entrySet()) {
+            writeValue(entry.getKey(), out);
+            try {
+                writeValue(entry.getValue(), out);
+            } catch (NotSerializableException e) {
+                throw new NotSerializableException(
+                    "Value of key '" + entry.getKey() + "' is not serializable: " + e.getMessage());
+            }
+        }
+    }
+
+    private HashMap<Object, Object> readEntries(DataInputStream in) throws IOException, ClassNotFoundException {
+        int size = readVarInt(in);
+        HashMap<Object, Object> map = new HashMap<Object, Object>(Math.max(16, (int) (size / .75f) + 1));
+        for (int i = 0; i < size; i++) {
+            Object key = readValue(in);
+            map.put(key, readValue(in));
+        }
+        return map;
+    }
+
+    private void writeValue(Object value, DataOutputStream out) throws IOException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+            return;
+        }
+
+        // exact classes only, so that every value decodes to its own class
+        Class<?> type = value.getClass();
+        if (type == String.class) {
+            out.writeByte(TAG_STRING);
+            writeBytes(((String) value).getBytes(UTF8), out);
+        } else if (type == Integer.class) {
+            out.writeByte(TAG_INTEGER);
+            writeVarLong(zigZag(((Integer) value).intValue()), out);
+        } else if (type == Long.class) {
+            out.writeByte(TAG_LONG);
+            writeVarLong(zigZag(((Long) value).longValue()), out);
+        } else if (type == Boolean.class) {
+            out.writeByte(((Boolean) value).booleanValue() ? TAG_TRUE : TAG_FALSE);
+        } else if (type == Double.class) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeLong(Double.doubleToRawLongBits(((Double) value).doubleValue()));
+        } else if (type == Float.class) {
+            out.writeByte(TAG_FLOAT);
+            out.writeInt(Float.floatToRawIntBits(((Float) value).floatValue()));
+        } else if (type == Date.class) {
+            out.writeByte(TAG_DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (type == HashMap.class) {
+            out.writeByte(TAG_MAP);
+            writeEntries((Map<?, ?>) value, out);
+        } else if (type == ArrayList.class) {
+            out.writeByte(TAG_LIST);
+            List<?> list = (List<?>) value;
+            writeVarInt(list.size(), out);
+            for (int i = 0; i < list.size(); i++) {
+                writeValue(list.get(i), out);
+            }
+        } else if (type == Short.class) {
+            out.writeByte(TAG_SHORT);
+            out.writeShort(((Short) value).shortValue());
+        } else if (type == Byte.class) {
+            out.writeByte(TAG_BYTE);
+            out.writeByte(((Byte) value).byteValue());
+        } else if (type == Character.class) {
+            out.writeByte(TAG_CHARACTER);
+            out.writeChar(((Character) value).charValue());
+        } else if (type == byte[].class) {
+            out.writeByte(TAG_BYTES);
+            writeBytes((byte[]) value, out);
+        } else {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ObjectOutputStream oos = new ObjectOutputStream(baos);
+            oos.writeObject(value);
+            oos.close();
+            out.writeByte(TAG_SERIALIZED);
+            writeVarInt(baos.size(), out);
+            baos.writeTo(out);
+        }
+    }
+
+    private Object readValue(DataInputStream in) throws IOException, ClassNotFoundException {
+        int tag = in.read();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_STRING:
+                return new String(readBytes(in), UTF8);
+            case TAG_INTEGER:
+                return Integer.valueOf((int) unZigZag(readVarLong(in)));
+            case TAG_LONG:
+                return Long.valueOf(unZigZag(readVarLong(in)));
+            case TAG_TRUE:
+                return Boolean.TRUE;
+            case TAG_FALSE:
+                return Boolean.FALSE;
+            case TAG_DOUBLE:
+                return Double.valueOf(Double.longBitsToDouble(in.readLong()));
+            case TAG_FLOAT:
+                return Float.valueOf(Float.intBitsToFloat(in.readInt()));
+            case TAG_DATE:
+                return new Date(in.readLong());
+            case TAG_MAP:
+                return readEntries(in);
+            case TAG_LIST: {
+                int size = readVarInt(in);
+                ArrayList<Object> list = new ArrayList<Object>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            case TAG_SHORT:
+                return Short.valueOf(in.readShort());
+            case TAG_BYTE:
+                return Byte.valueOf(in.readByte());
+            case TAG_CHARACTER:
+                return Character.valueOf(in.readChar());
+            case TAG_BYTES:
+                return readBytes(in);
+            case TAG_SERIALIZED: {
+                ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(readBytes(in)));
+                try {
+                    return ois.readObject();
+                } finally {
+                    ois.close();
+                }
+            }
+            case -1:
+                throw new EOFException();
+            default:
+                throw new StreamCorruptedException("Unknown JobDataMap value tag: " + tag);
+        }
+    }
+
+    private static void writeBytes(byte[] bytes, DataOutputStream out) throws IOException {
+        writeVarInt(bytes.length, out);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarInt(int value, DataOutputStream out) throws IOException {
+        writeVarLong(value & 0xFFFFFFFFL, out);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        long value = readVarLong(in);
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new StreamCorruptedException("Invalid JobDataMap length: " + value);
+        }
+        return (int) value;
+    }
+
+    private static void writeVarLong(long value, DataOutputStream out) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Malformed JobDataMap variable length number");
+    }
+}
@@ -100,7 +100,7 @@ public class CacheDelegate extends StdJDBCDelegate {
      */
     @Override
     protected Object getJobDataFromBlob(ResultSet rs, String colName) throws ClassNotFoundException, IOException, SQLException {
-        if (canUseProperties()) {
+        if (isJobDataReadAsStream()) {
             Blob blob = rs.getBlob(colName);
             if (blob == null) {
                 return null;
@@ -78,6 +78,12 @@ public interface Constants {
 
     String COL_JOB_DATAMAP = "JOB_DATA";
 
+    // optional TABLE_JOB_DETAILS and TABLE_CALENDARS column
+    String COL_REVISION = "REVISION";
+
+    // optional TABLE_TRIGGERS column
+    String COL_ACCESS_PARTITION = "ACCESS_PARTITION";
+
     String COL_JOB_CLASS = "JOB_CLASS_NAME";
 
     String COL_DESCRIPTION = "DESCRIPTION";
@@ -0,0 +1,364 @@
+/* 
+ * Copyright 2001-2009 Terracotta, Inc. 
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not 
+ * use this file except in compliance with the License. You may obtain a copy 
+ * of the License at 
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0 
+ *   
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations 
+ * under the License.
+ * 
+ */
+
+package org.quartz.impl.jdbcjobstore;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.JobPersistenceException;
+import org.quartz.TriggerKey;
+import org.quartz.spi.ClassLoadHelper;
+import org.quartz.spi.OperableTrigger;
+
+/**
+ * <p>
+ * The set-based and revision-aware operations that the optional features of
+ * <code>{@link JobStoreSupport}</code> rely on: batch trigger acquisition,
+ * pipelined firing, batch misfire recovery, the revision cache and trigger
+ * access partitions, as well as the lighter update of a fired trigger.
+ * </p>
+ * 
+ * <p>
+ * <code>{@link StdJDBCDelegate}</code>, and so every delegate extending it,
+ * implements this interface.  A delegate that only implements
+ * <code>{@link DriverDelegate}</code> can still be used: the job store then
+ * turns these features off, and falls back to the operations of
+ * <code>DriverDelegate</code> where it has to.
+ * </p>
+ * 
+ * @see JobStoreSupport#getExtendedDelegate()
+ */
+public interface ExtendedDriverDelegate extends DriverDelegate {
+
+    /**
+     * <p>
+     * Release any resources the delegate holds for the given connection,
+     * which is about to be closed.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     */
+    void closeCachedStatements(Connection conn);
+
+    /**
+     * <p>
+     * Select the JobDetail objects for the given job keys, using as few
+     * queries as possible.  Jobs whose class cannot be loaded, or whose
+     * data cannot be deserialized, are left out of the result.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * 
+     * @return a (never null) map of the JobDetails found, keyed by JobKey
+     */
+    Map<JobKey, JobDetail> selectJobDetails(Connection conn, Set<JobKey> jobKeys,
+        ClassLoadHelper loadHelper) throws SQLException;
+
+    /**
+     * <p>
+     * Select the revision of the given job, which changes whenever
+     * <code>{@link #updateJobDetailRevision(Connection, JobKey)}</code> is
+     * called for it.  Requires the optional <code>REVISION</code> column.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @return the revision, or -1 if there is no such job
+     */
+    long selectJobDetailRevision(Connection conn, JobKey jobKey)
+        throws SQLException;
+
+    /**
+     * <p>
+     * Select the revisions of the given jobs, using as few queries as
+     * possible.  Requires the optional <code>REVISION</code> column.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @return a (never null) map of the revisions of the jobs found, keyed
+     *         by JobKey
+     */
+    Map<JobKey, Long> selectJobDetailRevisions(Connection conn, Set<JobKey> jobKeys)
+        throws SQLException;
+
+    /**
+     * <p>
+     * Give the given job a new revision.  Requires the optional
+     * <code>REVISION</code> column.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @return the number of rows updated
+     */
+    int updateJobDetailRevision(Connection conn, JobKey jobKey)
+        throws SQLException;
+
+    /**
+     * <p>
+     * Update all of the given triggers, which are to be stored in the same
+     * state.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @param triggers
+     *          the triggers to update
+     * @param state
+     *          the state that the triggers should be stored in
+     * @param jobs
+     *          the JobDetails of the triggers, keyed by JobKey
+     * @return the number of rows updated
+     */
+    int updateTriggers(Connection conn, List<OperableTrigger> triggers, String state,
+        Map<JobKey, JobDetail> jobs) throws SQLException, IOException;
+
+    /**
+     * <p>
+     * Update all of the given triggers, which are to be stored in the same
+     * state, after they have fired - writing only the fire times, the
+     * state, and the extended properties that firing changes.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @param triggers
+     *          the fired triggers to update
+     * @param state
+     *          the state that the triggers should be stored in
+     * @param jobs
+     *          the JobDetails of the triggers, keyed by JobKey
+     * @return the number of rows updated
+     */
+    int updateTriggerFireTimes(Connection conn, List<OperableTrigger> triggers, String state,
+        Map<JobKey, JobDetail> jobs) throws SQLException, IOException;
+
+    /**
+     * <p>
+     * Update all of the given triggers to the given new state, if they are in
+     * the given old state, using as few statements as possible.
+     * </p>
+     * 
+     * @param conn
+     *          the DB connection
+     * 
+     * @param newState
+     *          the new state for the triggers
+     * @param oldState
+     *          the old state the triggers must be in
+     * @return int the number of rows updated
+     * @throws SQLException
+     */
+    int updateTriggerStatesFromOtherState(Connection conn,
+        List<TriggerKey> triggerKeys, String newState, String oldState) throws SQLException;
+
+    /**
+     * <p>
+     * Update the states of the triggers of all of the given jobs that are in
+     * the given old state.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @param jobKeys
+     *          the keys of the jobs whose triggers are to be updated
+     * @param state
+     *          the new state for the triggers
+     * @param oldState
+     *          the old state the triggers must be in
+     * @return the number of rows updated
+     */
+    int updateTriggerStatesForJobsFromOtherState(Connection conn,
+        Collection<JobKey> jobKeys, String state, String oldState)
+        throws SQLException;
+
+    /**
+     * <p>
+     * Select the given triggers, using as few queries as possible.  Triggers
+     * that no longer exist, or that are not in the given state, are left out
+     * of the result.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @param state
+     *          the state the triggers must be in, or <code>null</code> for any
+     * 
+     * @return the triggers found, in the order of the given keys
+     */
+    List<OperableTrigger> selectTriggers(Connection conn, List<TriggerKey> triggerKeys, String state)
+        throws SQLException, ClassNotFoundException, IOException, JobPersistenceException;
+
+    /**
+     * <p>
+     * Select the states of all of the given triggers.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @return a (never null) map of the states found, keyed by trigger.
+     *         Triggers that do not exist are absent from the map.
+     */
+    Map<TriggerKey, String> selectTriggerStates(Connection conn, List<TriggerKey> triggerKeys)
+        throws SQLException;
+
+    /**
+     * <p>
+     * Select the next fire times of those of the given triggers that are in
+     * the given state.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @return a (never null) map of the next fire times found, keyed by
+     *         trigger.  Triggers that do not exist, or that are in another
+     *         state, are absent from the map.
+     */
+    Map<TriggerKey, Long> selectTriggerNextFireTimes(Connection conn, List<TriggerKey> triggerKeys,
+        String state) throws SQLException;
+
+    /**
+     * <p>
+     * Select the revision of the given calendar, which changes whenever
+     * <code>{@link #updateCalendarRevision(Connection, String)}</code> is
+     * called for it.  Requires the optional <code>REVISION</code> column.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @param calendarName
+     *          the name of the calendar
+     * @return the revision, or -1 if there is no such calendar
+     */
+    long selectCalendarRevision(Connection conn, String calendarName)
+        throws SQLException;
+
+    /**
+     * <p>
+     * Give the given calendar a new revision.  Requires the optional
+     * <code>REVISION</code> column.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @param calendarName
+     *          the name of the calendar
+     * @return the number of rows updated
+     */
+    int updateCalendarRevision(Connection conn, String calendarName)
+        throws SQLException;
+
+    /**
+     * <p>
+     * Select the next triggers of the given trigger access partition to
+     * fire between the two given timestamps, like
+     * <code>{@link #selectTriggerToAcquire(Connection, long, long, int)}</code>,
+     * or those of all partitions if the partition is negative.
+     * </p>
+     * 
+     * @see JobStoreSupport#setTriggerAccessPartitions(int)
+     */
+    public List<TriggerKey> selectTriggerToAcquire(Connection conn, long noLaterThan, long noEarlierThan, int maxCount,
+        int partition) throws SQLException;
+
+    /**
+     * <p>
+     * Select the earliest next fire time of the triggers of each trigger
+     * access partition that are waiting to fire between the two given
+     * timestamps.
+     * </p>
+     * 
+     * @return a (never null) map of the next fire times found, keyed by
+     *         partition.  Partitions without such triggers are absent.
+     * @see JobStoreSupport#setTriggerAccessPartitions(int)
+     */
+    public Map<Integer, Long> selectNextFireTimesByAccessPartition(Connection conn, long noLaterThan, long noEarlierThan)
+        throws SQLException;
+
+    /**
+     * <p>
+     * Assign the triggers of each of the given jobs to the job's trigger
+     * access partition, as a single JDBC batch.
+     * </p>
+     * 
+     * @return the number of triggers that changed partition, if known
+     * @see JobStoreSupport#setTriggerAccessPartitions(int)
+     */
+    public int updateTriggerAccessPartitions(Connection conn, Map<JobKey, Integer> partitions)
+        throws SQLException;
+
+    /**
+     * <p>
+     * Insert fired trigger records for all of the given triggers, as a
+     * single JDBC batch.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @param triggers
+     *          the triggers
+     * @param state
+     *          the state that the triggers should be stored in
+     * @return the number of rows inserted
+     */
+    int insertFiredTriggers(Connection conn, List<OperableTrigger> triggers,
+        String state) throws SQLException;
+
+    /**
+     * <p>
+     * Update the fired trigger records of all of the given triggers, in the
+     * manner of <code>{@link #updateFiredTrigger(Connection, OperableTrigger, String, JobDetail)}</code>.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @param triggers
+     *          the triggers
+     * @param state
+     *          the state that the fired triggers should be stored in
+     * @param jobs
+     *          the JobDetails of the triggers, keyed by JobKey
+     * @return the number of rows updated
+     */
+    int updateFiredTriggers(Connection conn, List<OperableTrigger> triggers,
+        String state, Map<JobKey, JobDetail> jobs) throws SQLException;
+
+    /**
+     * <p>
+     * Delete the fired trigger records with the given entry ids.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @param entryIds
+     *          the fired trigger entry ids
+     * @return the number of rows deleted
+     */
+    int deleteFiredTriggerEntries(Connection conn, List<String> entryIds)
+        throws SQLException;
+}
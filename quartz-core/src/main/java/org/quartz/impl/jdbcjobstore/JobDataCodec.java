@@ -0,0 +1,55 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz.impl.jdbcjobstore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * <p>
+ * Encodes the content of a <code>{@link org.quartz.JobDataMap}</code> for
+ * storage in a BLOB column, in place of Java serialization.
+ * </p>
+ *
+ * <p>
+ * A codec is selected with the <code>jobDataCodec</code> setting of the
+ * driver delegate's init string.  Because BLOBs written before a codec was
+ * selected remain Java serialized, the delegate reads any BLOB that starts
+ * with the Java serialization stream header itself, so an encoding must not
+ * start with the bytes <code>0xAC 0xED</code>.
+ * </p>
+ *
+ * @see BinaryJobDataCodec
+ * @see StdJDBCDelegate#initialize(org.slf4j.Logger, String, String, String, org.quartz.spi.ClassLoadHelper, boolean, String)
+ */
+public interface JobDataCodec {
+
+    /**
+     * Write the entries of the given map to the stream.
+     *
+     * @throws java.io.NotSerializableException if a value cannot be encoded.
+     */
+    public void encode(Map<?, ?> data, OutputStream out) throws IOException;
+
+    /**
+     * Read back a map written by <code>{@link #encode(Map, OutputStream)}</code>.
+     */
+    public Map<?, ?> decode(InputStream in) throws IOException, ClassNotFoundException;
+}
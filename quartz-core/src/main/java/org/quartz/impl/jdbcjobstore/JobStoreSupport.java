@@ -23,13 +23,19 @@ import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.quartz.Calendar;
 import org.quartz.Job;
@@ -142,6 +148,37 @@ public abstract class JobStoreSupport implements JobStore, Constants {
     private boolean setTxIsolationLevelSequential = false;
     
     private boolean acquireTriggersWithinLock = false;
+
+    private boolean useBatchAcquisitionQueries = false;
+
+    private boolean useRevisionCache = false;
+
+    private boolean useBatchMisfireRecovery = false;
+
+    private final AtomicLong recoveredMisfireCount = new AtomicLong();
+
+    private volatile int pendingMisfireCount = -1;
+
+    private int triggerAccessPartitions = 1;
+
+    // the lock of each trigger access partition, set in initialize() when partitioned
+    private String[] triggerAccessPartitionLocks;
+
+    private final AtomicInteger acquisitionRotation = new AtomicInteger();
+
+    private final RevisionCache<JobKey, JobDetail> jobRevisionCache = new RevisionCache<JobKey, JobDetail>();
+
+    private final RevisionCache<String, Calendar> calendarRevisionCache = new RevisionCache<String, Calendar>();
+
+    private boolean usePipelinedFiring = false;
+
+    private long pipelinedCompletionWindow = 0L;
+
+    private final Object completionLock = new Object();
+
+    private List<PendingCompletion> pendingCompletions = new ArrayList<PendingCompletion>();
+
+    private boolean completionFlushInProgress = false;
     
     private long dbRetryInterval = 15000L; // 15 secs
     
@@ -348,6 +385,125 @@ public abstract class JobStoreSupport implements JobStore, Constants {
         this.maxToRecoverAtATime = maxToRecoverAtATime;
     }
 
+    /**
+     * Whether misfired triggers are recovered in batches, with set-based
+     * queries and JDBC batches.
+     */
+    public boolean getUseBatchMisfireRecovery() {
+        return useBatchMisfireRecovery;
+    }
+
+    /**
+     * <p>
+     * Set whether misfired triggers are recovered in batches.  The misfire
+     * handler then loads each batch of misfired triggers, and applies their
+     * misfire instructions, before it obtains the trigger access lock.
+     * Holding the lock, it only checks with a single query that the
+     * triggers have not changed meanwhile, and stores them with one JDBC
+     * batch per resulting trigger state.
+     * </p>
+     * 
+     * <p>
+     * As the lock is then held for a few statements per batch rather than
+     * several per trigger, <code>maxMisfiresToHandleAtATime</code> can be
+     * set far higher than its default of 20 (e.g. 1000), which shortens
+     * the recovery of a large backlog of misfires.
+     * </p>
+     */
+    @SuppressWarnings("UnusedDeclaration") /* called reflectively */
+    public void setUseBatchMisfireRecovery(boolean useBatchMisfireRecovery) {
+        this.useBatchMisfireRecovery = useBatchMisfireRecovery;
+    }
+
+    /**
+     * Get the number of misfired triggers recovered since this job store
+     * was created.
+     */
+    public long getRecoveredMisfireCount() {
+        return recoveredMisfireCount.get();
+    }
+
+    /**
+     * Get the number of misfired triggers that the misfire handler found
+     * still waiting for recovery after its last scan, or -1 if it does not
+     * know (see <code>{@link #setDoubleCheckLockMisfireHandler(boolean)}</code>).
+     */
+    public int getPendingMisfireCount() {
+        return pendingMisfireCount;
+    }
+
+    public int getTriggerAccessPartitions() {
+        return triggerAccessPartitions;
+    }
+
+    /**
+     * <p>
+     * Split the trigger access lock into the given number of partitions, so
+     * that nodes of a cluster (or threads of one scheduler) working on the
+     * triggers of different partitions do not wait on each other.
+     * </p>
+     * 
+     * <p>
+     * Each job, along with all of its triggers, belongs to one partition,
+     * chosen from its key.  Acquiring, firing, releasing and completing
+     * triggers lock only their partition, each node acquiring from the
+     * partitions with triggers due in rotation.  All other work, such as
+     * storing, pausing or removing triggers, recovering misfires and
+     * acquiring batches of more than one trigger, still locks all
+     * partitions.  Because a job's triggers share one partition,
+     * the blocking of triggers of jobs that disallow concurrent execution
+     * works as before.
+     * </p>
+     * 
+     * <p>
+     * Requires the <code>ACCESS_PARTITION</code> column added to the triggers
+     * table by <code>docs/dbTables/upgrade_access_partition_column.sql</code>.
+     * The triggers are assigned to their partitions when the scheduler
+     * starts, so all nodes of a cluster must be configured with the same
+     * number of partitions.  Defaults to 1, which disables partitioning.
+     * </p>
+     */
+    @SuppressWarnings("UnusedDeclaration") /* called reflectively */
+    public void setTriggerAccessPartitions(int triggerAccessPartitions) {
+        if (triggerAccessPartitions < 1) {
+            throw new IllegalArgumentException("triggerAccessPartitions must be >= 1");
+        }
+        this.triggerAccessPartitions = triggerAccessPartitions;
+    }
+
+    /**
+     * Get the trigger access partition of the given job and its triggers.
+     */
+    protected int getTriggerAccessPartition(JobKey jobKey) {
+        // computed from the strings, so that every node agrees
+        int hash = 31 * jobKey.getGroup().hashCode() + jobKey.getName().hashCode();
+        return (hash & Integer.MAX_VALUE) % triggerAccessPartitions;
+    }
+
+    /**
+     * Get the name of the lock that guards work on the triggers of the given
+     * jobs: the lock of their trigger access partition if they share one,
+     * otherwise the trigger access lock.
+     */
+    protected String getTriggerAccessLock(Collection<JobKey> jobKeys) {
+        if (triggerAccessPartitionLocks == null || jobKeys.isEmpty()) {
+            return LOCK_TRIGGER_ACCESS;
+        }
+        int partition = -1;
+        for (JobKey jobKey : jobKeys) {
+            int p = getTriggerAccessPartition(jobKey);
+            if (partition >= 0 && p != partition) {
+                return LOCK_TRIGGER_ACCESS;
+            }
+            partition = p;
+        }
+        return triggerAccessPartitionLocks[partition];
+    }
+
+    protected String getTriggerAccessLock(JobKey jobKey) {
+        return getTriggerAccessLock(Collections.singleton(jobKey));
+    }
+
     /**
      * @return Returns the dbRetryInterval.
      */
@@ -482,6 +638,102 @@ public abstract class JobStoreSupport implements JobStore, Constants {
         this.acquireTriggersWithinLock = acquireTriggersWithinLock;
     }
 
+    /**
+     * Whether triggers acquired within the lock should be loaded, marked as
+     * acquired and recorded as fired with set-based queries (a few statements
+     * per batch) rather than with several statements per trigger.
+     */
+    public boolean getUseBatchAcquisitionQueries() {
+        return useBatchAcquisitionQueries;
+    }
+
+    /**
+     * Set whether triggers acquired within the lock should be loaded, marked
+     * as acquired and recorded as fired with set-based queries.  This reduces
+     * the number of database round trips made while holding the trigger
+     * access lock from several per trigger to a handful per batch, which
+     * matters most with large values of
+     * <code>org.quartz.scheduler.batchTriggerAcquisitionMaxCount</code>
+     * against a remote database.
+     */
+    @SuppressWarnings("UnusedDeclaration") /* called reflectively */
+    public void setUseBatchAcquisitionQueries(boolean useBatchAcquisitionQueries) {
+        this.useBatchAcquisitionQueries = useBatchAcquisitionQueries;
+    }
+
+    /**
+     * Whether job details and calendars are cached, and revalidated against
+     * the <code>REVISION</code> column of their row before each use.
+     */
+    public boolean getUseRevisionCache() {
+        return useRevisionCache;
+    }
+
+    /**
+     * <p>
+     * Set whether job details and calendars are cached, and revalidated
+     * against the <code>REVISION</code> column of their row before each use.
+     * Reading the revision is a narrow, primary key query; the job data or
+     * calendar BLOB is only read and deserialized again after the row has
+     * been changed - by any node of a cluster.
+     * </p>
+     * 
+     * <p>
+     * This requires the optional <code>REVISION</code> column of the
+     * <code>JOB_DETAILS</code> and <code>CALENDARS</code> tables (see
+     * <code>docs/dbTables/upgrade_revision_columns.sql</code>), and that
+     * every node of a cluster enables it, so that all changes update the
+     * revision.  Each use gets its own copy of a cached job detail, but the
+     * values of its <code>JobDataMap</code> are shared, as they are with the
+     * <code>RAMJobStore</code>.
+     * </p>
+     */
+    @SuppressWarnings("UnusedDeclaration") /* called reflectively */
+    public void setUseRevisionCache(boolean useRevisionCache) {
+        this.useRevisionCache = useRevisionCache;
+    }
+
+    /**
+     * Whether the statements issued when firing a batch of triggers, and when
+     * completing their jobs, are grouped into JDBC batches, with concurrent
+     * completions sharing a single transaction.
+     */
+    public boolean getUsePipelinedFiring() {
+        return usePipelinedFiring;
+    }
+
+    /**
+     * Set whether the statements issued when firing a batch of triggers are
+     * grouped into JDBC batches (one <code>executeBatch()</code> per kind of
+     * statement rather than several statements per trigger), and whether jobs
+     * that complete concurrently have their completion recorded in a single,
+     * shared transaction.  Both reduce the time the trigger access lock is
+     * held per fired trigger.
+     */
+    @SuppressWarnings("UnusedDeclaration") /* called reflectively */
+    public void setUsePipelinedFiring(boolean usePipelinedFiring) {
+        this.usePipelinedFiring = usePipelinedFiring;
+    }
+
+    /**
+     * The number of milliseconds a job completion waits for others to join
+     * its transaction, when pipelined firing is used.
+     */
+    public long getPipelinedCompletionWindow() {
+        return pipelinedCompletionWindow;
+    }
+
+    /**
+     * Set the number of milliseconds a job completion waits for others to
+     * join its transaction, when pipelined firing is used.  Defaults to zero,
+     * in which case only completions that arrive while a previous group is
+     * being committed are grouped together.
+     */
+    @SuppressWarnings("UnusedDeclaration") /* called reflectively */
+    public void setPipelinedCompletionWindow(long pipelinedCompletionWindow) {
+        this.pipelinedCompletionWindow = pipelinedCompletionWindow;
+    }
+
     
     /**
      * <p>
@@ -673,13 +925,81 @@ public abstract class JobStoreSupport implements JobStore, Constants {
             }
         }
 
+        disableFeaturesNeedingExtendedDelegate();
+
+        if (getTriggerAccessPartitions() > 1) {
+            triggerAccessPartitionLocks = new String[getTriggerAccessPartitions()];
+            for (int i = 0; i < triggerAccessPartitionLocks.length; i++) {
+                triggerAccessPartitionLocks[i] = LOCK_TRIGGER_ACCESS + "_" + i;
+            }
+            getLog().info("Using " + triggerAccessPartitionLocks.length + " trigger access partitions.");
+            setLockHandler(new PartitionedTriggerAccessSemaphore(
+                    getLockHandler(), LOCK_TRIGGER_ACCESS, triggerAccessPartitionLocks));
+            // nodes start their rotation through the partitions at different points
+            acquisitionRotation.set(getInstanceId() == null ? 0 : getInstanceId().hashCode() & Integer.MAX_VALUE);
+        }
     }
    
+    /**
+     * <p>
+     * Turn off the features that need an <code>{@link ExtendedDriverDelegate}</code>
+     * if the delegate is not one, so that delegates written against
+     * <code>{@link DriverDelegate}</code> alone keep working.
+     * </p>
+     */
+    private void disableFeaturesNeedingExtendedDelegate() {
+        DriverDelegate driverDelegate;
+        try {
+            driverDelegate = getDelegate();
+        } catch (NoSuchDelegateException e) {
+            // reported again when the delegate is first used
+            return;
+        }
+        if (driverDelegate instanceof ExtendedDriverDelegate) {
+            return;
+        }
+
+        List<String> disabled = new ArrayList<String>();
+        if (useBatchAcquisitionQueries) {
+            useBatchAcquisitionQueries = false;
+            disabled.add("useBatchAcquisitionQueries");
+        }
+        if (useBatchMisfireRecovery) {
+            useBatchMisfireRecovery = false;
+            disabled.add("useBatchMisfireRecovery");
+        }
+        if (useRevisionCache) {
+            useRevisionCache = false;
+            disabled.add("useRevisionCache");
+        }
+        if (usePipelinedFiring) {
+            usePipelinedFiring = false;
+            disabled.add("usePipelinedFiring");
+        }
+        if (triggerAccessPartitions > 1) {
+            triggerAccessPartitions = 1;
+            disabled.add("triggerAccessPartitions");
+        }
+        if (!disabled.isEmpty()) {
+            getLog().warn("Delegate " + driverDelegate.getClass().getName() + " does not implement "
+                    + ExtendedDriverDelegate.class.getName() + ", ignoring " + disabled + ".");
+        }
+    }
+
     /**
      * @see org.quartz.spi.JobStore#schedulerStarted()
      */
     public void schedulerStarted() throws SchedulerException {
 
+        if (triggerAccessPartitionLocks != null) {
+            try {
+                assignTriggerAccessPartitions();
+            } catch (SchedulerException se) {
+                throw new SchedulerConfigException(
+                        "Failure assigning triggers to trigger access partitions.", se);
+            }
+        }
+
         if (isClustered()) {
             clusterManagementThread = new ClusterManager();
             if(initializersLoader != null)
@@ -839,6 +1159,35 @@ public abstract class JobStoreSupport implements JobStore, Constants {
                 }
             }, null);
     }
+
+    /**
+     * Assign the triggers of every job to the job's trigger access
+     * partition, in case they were stored with a different number of
+     * partitions, or none.
+     * 
+     * @see #setTriggerAccessPartitions(int)
+     */
+    protected void assignTriggerAccessPartitions() throws JobPersistenceException {
+        executeInNonManagedTXLock(
+            LOCK_TRIGGER_ACCESS,
+            new VoidTransactionCallback() {
+                public void executeVoid(Connection conn) throws JobPersistenceException {
+                    try {
+                        Map<JobKey, Integer> partitions = new HashMap<JobKey, Integer>();
+                        for (JobKey jobKey : getDelegate().selectJobsInGroup(conn, GroupMatcher.anyJobGroup())) {
+                            partitions.put(jobKey, getTriggerAccessPartition(jobKey));
+                        }
+                        int rows = getExtendedDelegate().updateTriggerAccessPartitions(conn, partitions);
+                        if (rows > 0) {
+                            getLog().info("Assigned " + rows + " triggers to their trigger access partitions.");
+                        }
+                    } catch (SQLException e) {
+                        throw new JobPersistenceException("Couldn't assign triggers to trigger access partitions: "
+                                + e.getMessage(), e);
+                    }
+                }
+            }, null);
+    }
     
     /**
      * <p>
@@ -945,6 +1294,19 @@ public abstract class JobStoreSupport implements JobStore, Constants {
         Connection conn, boolean recovering)
         throws JobPersistenceException, SQLException {
 
+        if (getUseBatchMisfireRecovery()) {
+            MisfireBatch batch = prepareMisfireBatch(conn, recovering);
+            if (batch != null) {
+                return recoverMisfireBatch(conn, batch, recovering);
+            }
+        }
+        return recoverMisfiredJobsOneByOne(conn, recovering);
+    }
+
+    private RecoverMisfiredJobsResult recoverMisfiredJobsOneByOne(
+        Connection conn, boolean recovering)
+        throws JobPersistenceException, SQLException {
+
         // If recovering, we want to handle all of the misfired
         // triggers right away.
         int maxMisfiresToHandleAtATime = 
@@ -989,10 +1351,209 @@ public abstract class JobStoreSupport implements JobStore, Constants {
                 earliestNewTime = trig.getNextFireTime().getTime();
         }
 
+        recoveredMisfireCount.addAndGet(misfiredTriggers.size());
         return new RecoverMisfiredJobsResult(
                 hasMoreMisfiredTriggers, misfiredTriggers.size(), earliestNewTime);
     }
 
+    /**
+     * A batch of misfired triggers, loaded and updated in memory by
+     * <code>{@link JobStoreSupport#prepareMisfireBatch(Connection, boolean)}</code>
+     * but not yet stored.
+     */
+    protected static class MisfireBatch {
+        private final boolean hasMoreMisfiredTriggers;
+        private final int misfiredTriggerCount;
+        private final List<OperableTrigger> misfiredTriggers;
+        private final List<OperableTrigger> updatedTriggers;
+
+        MisfireBatch(boolean hasMoreMisfiredTriggers, int misfiredTriggerCount,
+                List<OperableTrigger> misfiredTriggers, List<OperableTrigger> updatedTriggers) {
+            this.hasMoreMisfiredTriggers = hasMoreMisfiredTriggers;
+            this.misfiredTriggerCount = misfiredTriggerCount;
+            this.misfiredTriggers = misfiredTriggers;
+            this.updatedTriggers = updatedTriggers;
+        }
+    }
+
+    /**
+     * <p>
+     * Find the next batch of misfired triggers, load them with set-based
+     * queries, and apply their misfire instructions to copies of them.
+     * Nothing is written, so this does not need the trigger access lock.
+     * </p>
+     * 
+     * @return the batch, or <code>null</code> if some of the triggers could
+     *         not be loaded in bulk, in which case they are to be recovered
+     *         one by one.
+     */
+    protected MisfireBatch prepareMisfireBatch(Connection conn, boolean recovering)
+        throws JobPersistenceException, SQLException {
+        int maxMisfiresToHandleAtATime = 
+            (recovering) ? -1 : getMaxMisfiresToHandleAtATime();
+
+        List<TriggerKey> misfiredKeys = new ArrayList<TriggerKey>();
+        boolean hasMoreMisfiredTriggers =
+            getDelegate().hasMisfiredTriggersInState(
+                conn, STATE_WAITING, getMisfireTime(), 
+                maxMisfiresToHandleAtATime, misfiredKeys);
+
+        List<OperableTrigger> misfiredTriggers;
+        try {
+            misfiredTriggers = getExtendedDelegate().selectTriggers(conn, misfiredKeys, STATE_WAITING);
+        } catch (ClassNotFoundException e) {
+            getLog().debug("Recovering misfired triggers one by one, as a class could not be found: " + e.getMessage());
+            return null;
+        } catch (IOException e) {
+            getLog().debug("Recovering misfired triggers one by one, as a trigger could not be deserialized: " + e.getMessage());
+            return null;
+        }
+
+        Map<String, Calendar> calendars = new HashMap<String, Calendar>();
+        List<OperableTrigger> updatedTriggers = new ArrayList<OperableTrigger>(misfiredTriggers.size());
+        for (OperableTrigger trigger : misfiredTriggers) {
+            Calendar cal = null;
+            if (trigger.getCalendarName() != null) {
+                cal = calendars.get(trigger.getCalendarName());
+                if (cal == null) {
+                    cal = retrieveCalendar(conn, trigger.getCalendarName());
+                    calendars.put(trigger.getCalendarName(), cal);
+                }
+            }
+
+            // the listeners are told about the trigger as it was when it misfired
+            OperableTrigger updated = (OperableTrigger) trigger.clone();
+            updated.updateAfterMisfire(cal);
+            updatedTriggers.add(updated);
+        }
+
+        return new MisfireBatch(hasMoreMisfiredTriggers, misfiredKeys.size(),
+                misfiredTriggers, updatedTriggers);
+    }
+
+    /**
+     * <p>
+     * Store the triggers of the given batch, in the manner of
+     * <code>{@link #doUpdateOfMisfiredTrigger(Connection, OperableTrigger, boolean, String, boolean)}</code>,
+     * if they have not changed since the batch was prepared.  Must be called
+     * while holding the trigger access lock.
+     * </p>
+     */
+    protected RecoverMisfiredJobsResult recoverMisfireBatch(Connection conn,
+            MisfireBatch batch, boolean recovering)
+        throws JobPersistenceException, SQLException {
+        if (batch.misfiredTriggerCount == 0) {
+            getLog().debug(
+                "Found 0 triggers that missed their scheduled fire-time.");
+            return RecoverMisfiredJobsResult.NO_OP;
+        }
+
+        List<TriggerKey> triggerKeys = new ArrayList<TriggerKey>(batch.misfiredTriggers.size());
+        Set<JobKey> jobKeys = new HashSet<JobKey>();
+        for (OperableTrigger trigger : batch.misfiredTriggers) {
+            triggerKeys.add(trigger.getKey());
+            jobKeys.add(trigger.getJobKey());
+        }
+        Map<TriggerKey, Long> nextFireTimes = getExtendedDelegate().selectTriggerNextFireTimes(conn, triggerKeys, STATE_WAITING);
+        Map<JobKey, JobDetail> jobs = retrieveJobs(conn, jobKeys);
+
+        Set<String> pausedGroups = getDelegate().selectPausedTriggerGroups(conn);
+        Map<JobKey, Boolean> blockedJobs = new HashMap<JobKey, Boolean>();
+        Map<String, List<OperableTrigger>> triggersByState = new HashMap<String, List<OperableTrigger>>();
+        List<OperableTrigger> completedTriggers = new ArrayList<OperableTrigger>();
+        long earliestNewTime = Long.MAX_VALUE;
+        int recovered = 0;
+
+        for (int i = 0; i < batch.misfiredTriggers.size(); i++) {
+            OperableTrigger trigger = batch.misfiredTriggers.get(i);
+            OperableTrigger updated = batch.updatedTriggers.get(i);
+
+            // left to a later pass if fired, paused or changed meanwhile
+            Long nextFireTime = nextFireTimes.get(trigger.getKey());
+            if (nextFireTime == null || trigger.getNextFireTime() == null
+                    || nextFireTime.longValue() != trigger.getNextFireTime().getTime()) {
+                continue;
+            }
+            recovered++;
+
+            JobDetail job = jobs.get(trigger.getJobKey());
+            if (job == null) {
+                // fails or recovers as it would have without batching
+                doUpdateOfMisfiredTrigger(conn, trigger, false, STATE_WAITING, recovering);
+                if (trigger.getNextFireTime() != null && trigger.getNextFireTime().getTime() < earliestNewTime) {
+                    earliestNewTime = trigger.getNextFireTime().getTime();
+                }
+                continue;
+            }
+
+            schedSignaler.notifyTriggerListenersMisfired(trigger);
+
+            // as storeTrigger() would, when not forcing the state
+            String state = (updated.getNextFireTime() == null) ? STATE_COMPLETE : STATE_WAITING;
+            String group = updated.getKey().getGroup();
+            if (!pausedGroups.contains(group) && pausedGroups.contains(ALL_GROUPS_PAUSED)) {
+                getDelegate().insertPausedTriggerGroup(conn, group);
+                pausedGroups.add(group);
+            }
+            if (pausedGroups.contains(group) && state.equals(STATE_WAITING)) {
+                state = STATE_PAUSED;
+            }
+            // when recovering, the fired records are those of the previous
+            // run, as in doUpdateOfMisfiredTrigger()
+            if (job.isConcurrentExectionDisallowed() && !recovering && !state.equals(STATE_COMPLETE)) {
+                Boolean blocked = blockedJobs.get(job.getKey());
+                if (blocked == null) {
+                    blocked = Boolean.valueOf(!STATE_WAITING.equals(checkBlockedState(conn, job.getKey(), STATE_WAITING)));
+                    blockedJobs.put(job.getKey(), blocked);
+                }
+                if (blocked.booleanValue()) {
+                    state = state.equals(STATE_PAUSED) ? STATE_PAUSED_BLOCKED : STATE_BLOCKED;
+                }
+            }
+
+            List<OperableTrigger> stateTriggers = triggersByState.get(state);
+            if (stateTriggers == null) {
+                stateTriggers = new ArrayList<OperableTrigger>();
+                triggersByState.put(state, stateTriggers);
+            }
+            stateTriggers.add(updated);
+
+            if (updated.getNextFireTime() == null) {
+                completedTriggers.add(updated);
+            } else if (updated.getNextFireTime().getTime() < earliestNewTime) {
+                earliestNewTime = updated.getNextFireTime().getTime();
+            }
+        }
+
+        try {
+            for (Map.Entry<String, List<OperableTrigger>> entry : triggersByState.entrySet()) {
+                getExtendedDelegate().updateTriggers(conn, entry.getValue(), entry.getKey(), jobs);
+            }
+        } catch (IOException e) {
+            throw new JobPersistenceException("Couldn't store misfired triggers: "
+                    + e.getMessage(), e);
+        }
+
+        for (OperableTrigger trigger : completedTriggers) {
+            schedSignaler.notifySchedulerListenersFinalized(trigger);
+        }
+
+        if (batch.hasMoreMisfiredTriggers) {
+            getLog().info(
+                "Handled the first " + recovered + " of " + batch.misfiredTriggerCount +
+                " triggers that missed their scheduled fire-time.  " +
+                "More misfired triggers remain to be processed.");
+        } else {
+            getLog().info(
+                "Handled " + recovered + " of " + batch.misfiredTriggerCount +
+                " trigger(s) that missed their scheduled fire-time.");
+        }
+
+        recoveredMisfireCount.addAndGet(recovered);
+        return new RecoverMisfiredJobsResult(
+                batch.hasMoreMisfiredTriggers, recovered, earliestNewTime);
+    }
+
     protected boolean updateMisfiredTrigger(Connection conn,
             TriggerKey triggerKey, String newStateIfNotComplete, boolean forceState)
         throws JobPersistenceException {
@@ -1034,8 +1595,11 @@ public abstract class JobStoreSupport implements JobStore, Constants {
                 null, true, STATE_COMPLETE, forceState, recovering);
             schedSignaler.notifySchedulerListenersFinalized(trig);
         } else {
+            // when recovering, the fired records are those of the previous
+            // run, which recoverJobs() deletes once misfires are handled, so
+            // they must not leave the trigger blocked
             storeTrigger(conn, trig, null, true, newStateIfNotComplete,
-                    forceState, false);
+                    forceState, recovering);
         }
     }
 
@@ -1111,6 +1675,7 @@ public abstract class JobStoreSupport implements JobStore, Constants {
             } else {
                 getDelegate().insertJobDetail(conn, newJob);
             }
+            jobDetailChanged(conn, newJob.getKey());
         } catch (IOException e) {
             throw new JobPersistenceException("Couldn't store job: "
                     + e.getMessage(), e);
@@ -1219,6 +1784,10 @@ public abstract class JobStoreSupport implements JobStore, Constants {
             } else {
                 getDelegate().insertTrigger(conn, newTrigger, state, job);
             }
+            if (triggerAccessPartitionLocks != null) {
+                getExtendedDelegate().updateTriggerAccessPartitions(conn, 
+                        Collections.singletonMap(job.getKey(), getTriggerAccessPartition(job.getKey())));
+            }
         } catch (Exception e) {
             throw new JobPersistenceException("Couldn't store trigger '" + newTrigger.getKey() + "' for '" 
                     + newTrigger.getJobKey() + "' job:" + e.getMessage(), e);
@@ -1346,6 +1915,7 @@ public abstract class JobStoreSupport implements JobStore, Constants {
     private boolean deleteJobAndChildren(Connection conn, JobKey key)
         throws NoSuchDelegateException, SQLException {
 
+        jobRevisionCache.remove(key);
         return (getDelegate().deleteJobDetail(conn, key) > 0);
     }
     
@@ -1381,9 +1951,26 @@ public abstract class JobStoreSupport implements JobStore, Constants {
     
     protected JobDetail retrieveJob(Connection conn, JobKey key) throws JobPersistenceException {
         try {
+            if (!useRevisionCache) {
+                return getDelegate().selectJobDetail(conn, key,
+                        getClassLoadHelper());
+            }
 
-            return getDelegate().selectJobDetail(conn, key,
-                    getClassLoadHelper());
+            long revision = getExtendedDelegate().selectJobDetailRevision(conn, key);
+            if (revision < 0) {
+                jobRevisionCache.remove(key);
+                return null;
+            }
+            JobDetail job = jobRevisionCache.get(key, revision);
+            if (job == null) {
+                job = getDelegate().selectJobDetail(conn, key,
+                        getClassLoadHelper());
+                if (job == null) {
+                    return null;
+                }
+                jobRevisionCache.put(key, revision, job);
+            }
+            return (JobDetail) job.clone();
         } catch (ClassNotFoundException e) {
             throw new JobPersistenceException(
                     "Couldn't retrieve job because a required class was not found: "
@@ -1399,14 +1986,76 @@ public abstract class JobStoreSupport implements JobStore, Constants {
     }
 
     /**
-     * <p>
-     * Remove (delete) the <code>{@link org.quartz.Trigger}</code> with the
-     * given name.
-     * </p>
-     * 
-     * <p>
-     * If removal of the <code>Trigger</code> results in an empty group, the
-     * group should be removed from the <code>JobStore</code>'s list of
+     * Retrieve the job details of the given jobs, using set-based queries.
+     * Jobs that could not be loaded in bulk are left out of the result, to
+     * be retried individually via <code>{@link #retrieveJob(Connection, JobKey)}</code>.
+     */
+    private Map<JobKey, JobDetail> retrieveJobs(Connection conn, Set<JobKey> jobKeys)
+        throws NoSuchDelegateException, SQLException {
+        if (!useRevisionCache) {
+            return getExtendedDelegate().selectJobDetails(conn, jobKeys, getClassLoadHelper());
+        }
+
+        Map<JobKey, Long> revisions = getExtendedDelegate().selectJobDetailRevisions(conn, jobKeys);
+        Map<JobKey, JobDetail> jobs = new HashMap<JobKey, JobDetail>();
+        Set<JobKey> changedKeys = new HashSet<JobKey>();
+        for (JobKey jobKey : jobKeys) {
+            Long revision = revisions.get(jobKey);
+            if (revision == null) {
+                jobRevisionCache.remove(jobKey);
+                continue;
+            }
+            JobDetail job = jobRevisionCache.get(jobKey, revision.longValue());
+            if (job == null) {
+                changedKeys.add(jobKey);
+            } else {
+                jobs.put(jobKey, (JobDetail) job.clone());
+            }
+        }
+
+        if (!changedKeys.isEmpty()) {
+            Map<JobKey, JobDetail> loaded = getExtendedDelegate().selectJobDetails(conn, changedKeys, getClassLoadHelper());
+            for (JobDetail job : loaded.values()) {
+                jobRevisionCache.put(job.getKey(), revisions.get(job.getKey()).longValue(), job);
+                jobs.put(job.getKey(), (JobDetail) job.clone());
+            }
+        }
+        return jobs;
+    }
+
+    /**
+     * Give the job a new revision, if revisions are in use, after its row
+     * has been inserted or updated.
+     */
+    private void jobDetailChanged(Connection conn, JobKey key)
+        throws NoSuchDelegateException, SQLException {
+        if (useRevisionCache) {
+            jobRevisionCache.remove(key);
+            getExtendedDelegate().updateJobDetailRevision(conn, key);
+        }
+    }
+
+    /**
+     * Give the calendar a new revision, if revisions are in use, after its
+     * row has been inserted or updated.
+     */
+    private void calendarChanged(Connection conn, String calName)
+        throws NoSuchDelegateException, SQLException {
+        if (useRevisionCache) {
+            calendarRevisionCache.remove(calName);
+            getExtendedDelegate().updateCalendarRevision(conn, calName);
+        }
+    }
+
+    /**
+     * <p>
+     * Remove (delete) the <code>{@link org.quartz.Trigger}</code> with the
+     * given name.
+     * </p>
+     * 
+     * <p>
+     * If removal of the <code>Trigger</code> results in an empty group, the
+     * group should be removed from the <code>JobStore</code>'s list of
      * known group names.
      * </p>
      * 
@@ -1655,6 +2304,7 @@ public abstract class JobStoreSupport implements JobStore, Constants {
                         "Couldn't store calendar.  Insert failed."); 
                 }
             }
+            calendarChanged(conn, calName);
 
             if (!isClustered) {
                 calendarCache.put(calName, calendar); // lazy-cache
@@ -1722,6 +2372,7 @@ public abstract class JobStoreSupport implements JobStore, Constants {
             if (!isClustered) {
                 calendarCache.remove(calName);
             }
+            calendarRevisionCache.remove(calName);
 
             return (getDelegate().deleteCalendar(conn, calName) > 0);
         } catch (SQLException e) {
@@ -1753,6 +2404,10 @@ public abstract class JobStoreSupport implements JobStore, Constants {
     protected Calendar retrieveCalendar(Connection conn,
             String calName)
         throws JobPersistenceException {
+        if (useRevisionCache) {
+            return retrieveRevisionCachedCalendar(conn, calName);
+        }
+
         // all calendars are persistent, but we can lazy-cache them during run
         // time as long as we aren't running clustered.
         Calendar cal = (isClustered) ? null : calendarCache.get(calName);
@@ -1780,6 +2435,36 @@ public abstract class JobStoreSupport implements JobStore, Constants {
         }
     }
 
+    private Calendar retrieveRevisionCachedCalendar(Connection conn, String calName)
+        throws JobPersistenceException {
+        try {
+            long revision = getExtendedDelegate().selectCalendarRevision(conn, calName);
+            if (revision < 0) {
+                calendarRevisionCache.remove(calName);
+                return null;
+            }
+            Calendar cal = calendarRevisionCache.get(calName, revision);
+            if (cal == null) {
+                cal = getDelegate().selectCalendar(conn, calName);
+                if (cal != null) {
+                    calendarRevisionCache.put(calName, revision, cal);
+                }
+            }
+            return cal;
+        } catch (ClassNotFoundException e) {
+            throw new JobPersistenceException(
+                    "Couldn't retrieve calendar because a required class was not found: "
+                            + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new JobPersistenceException(
+                    "Couldn't retrieve calendar because the BLOB couldn't be deserialized: "
+                            + e.getMessage(), e);
+        } catch (SQLException e) {
+            throw new JobPersistenceException("Couldn't retrieve calendar: "
+                    + e.getMessage(), e);
+        }
+    }
+
     /**
      * <p>
      * Get the number of <code>{@link org.quartz.Job}</code> s that are
@@ -2747,6 +3432,10 @@ public abstract class JobStoreSupport implements JobStore, Constants {
     public List<OperableTrigger> acquireNextTriggers(final long noLaterThan, final int maxCount, final long timeWindow)
         throws JobPersistenceException {
         
+        if (triggerAccessPartitionLocks != null && maxCount <= 1) {
+            return acquireNextTriggerFromPartitions(noLaterThan, timeWindow);
+        }
+
         String lockName;
         if(isAcquireTriggersWithinLock() || maxCount > 1) { 
             lockName = LOCK_TRIGGER_ACCESS;
@@ -2759,34 +3448,138 @@ public abstract class JobStoreSupport implements JobStore, Constants {
                         return acquireNextTrigger(conn, noLaterThan, maxCount, timeWindow);
                     }
                 },
-                new TransactionValidator<List<OperableTrigger>>() {
-                    public Boolean validate(Connection conn, List<OperableTrigger> result) throws JobPersistenceException {
+                new AcquiredTriggersValidator());
+    }
+
+    /**
+     * <p>
+     * Acquire the next trigger from one trigger access partition at a time,
+     * holding only that partition's lock.
+     * </p>
+     * 
+     * <p>
+     * The earliest fire time of each partition is read without a lock, and
+     * only serves to skip partitions with nothing due.  Partitions with
+     * triggers due within the time window of the earliest one are tried in
+     * rotation, so that the nodes of a cluster spread over them, then the
+     * remaining ones in order of their earliest trigger.  (Batches of more
+     * than one trigger are still acquired holding the locks of all
+     * partitions, so that they are chosen in order across all jobs.)
+     * </p>
+     * 
+     * @see #setTriggerAccessPartitions(int)
+     */
+    protected List<OperableTrigger> acquireNextTriggerFromPartitions(final long noLaterThan, final long timeWindow)
+        throws JobPersistenceException {
+        final Map<Integer, Long> nextFireTimes = executeWithoutLock(
+                new TransactionCallback<Map<Integer, Long>>() {
+                    public Map<Integer, Long> execute(Connection conn) throws JobPersistenceException {
                         try {
-                            List<FiredTriggerRecord> acquired = getDelegate().selectInstancesFiredTriggerRecords(conn, getInstanceId());
-                            Set<String> fireInstanceIds = new HashSet<String>();
-                            for (FiredTriggerRecord ft : acquired) {
-                                fireInstanceIds.add(ft.getFireInstanceId());
-                            }
-                            for (OperableTrigger tr : result) {
-                                if (fireInstanceIds.contains(tr.getFireInstanceId())) {
-                                    return true;
-                                }
-                            }
-                            return false;
+                            return getExtendedDelegate().selectNextFireTimesByAccessPartition(
+                                    conn, noLaterThan + timeWindow, getMisfireTime());
                         } catch (SQLException e) {
-                            throw new JobPersistenceException("error validating trigger acquisition", e);
+                            throw new JobPersistenceException("Couldn't select the next fire times of the trigger access partitions: "
+                                    + e.getMessage(), e);
                         }
                     }
                 });
+
+        List<Integer> partitions = new ArrayList<Integer>();
+        long earliest = Long.MAX_VALUE;
+        for (Map.Entry<Integer, Long> entry : nextFireTimes.entrySet()) {
+            int partition = entry.getKey();
+            if (partition >= 0 && partition < triggerAccessPartitionLocks.length) {
+                partitions.add(partition);
+                earliest = Math.min(earliest, entry.getValue());
+            }
+        }
+        if (partitions.isEmpty()) {
+            return new ArrayList<OperableTrigger>();
+        }
+
+        final int rotation = acquisitionRotation.getAndIncrement() & Integer.MAX_VALUE;
+        final long dueBy = earliest + timeWindow;
+        final int partitionCount = triggerAccessPartitionLocks.length;
+        Collections.sort(partitions, new Comparator<Integer>() {
+            public int compare(Integer p1, Integer p2) {
+                long t1 = nextFireTimes.get(p1);
+                long t2 = nextFireTimes.get(p2);
+                boolean due1 = t1 <= dueBy;
+                boolean due2 = t2 <= dueBy;
+                if (due1 != due2) {
+                    return due1 ? -1 : 1;
+                }
+                if (due1) {
+                    int r1 = (p1 - rotation % partitionCount + partitionCount) % partitionCount;
+                    int r2 = (p2 - rotation % partitionCount + partitionCount) % partitionCount;
+                    return r1 - r2;
+                }
+                return t1 < t2 ? -1 : (t1 == t2 ? 0 : 1);
+            }
+        });
+
+        for (final int partition : partitions) {
+            List<OperableTrigger> acquired = executeInNonManagedTXLock(
+                    isAcquireTriggersWithinLock() ? triggerAccessPartitionLocks[partition] : null,
+                    new TransactionCallback<List<OperableTrigger>>() {
+                        public List<OperableTrigger> execute(Connection conn) throws JobPersistenceException {
+                            return acquireNextTrigger(conn, noLaterThan, 1, timeWindow, partition);
+                        }
+                    },
+                    new AcquiredTriggersValidator());
+            if (!acquired.isEmpty()) {
+                return acquired;
+            }
+        }
+        return new ArrayList<OperableTrigger>();
+    }
+
+    /**
+     * Determines whether triggers were acquired by a transaction whose
+     * commit failed, from the fired trigger records of this instance.
+     */
+    private class AcquiredTriggersValidator implements TransactionValidator<List<OperableTrigger>> {
+        public Boolean validate(Connection conn, List<OperableTrigger> result) throws JobPersistenceException {
+            try {
+                List<FiredTriggerRecord> acquired = getDelegate().selectInstancesFiredTriggerRecords(conn, getInstanceId());
+                Set<String> fireInstanceIds = new HashSet<String>();
+                for (FiredTriggerRecord ft : acquired) {
+                    fireInstanceIds.add(ft.getFireInstanceId());
+                }
+                for (OperableTrigger tr : result) {
+                    if (fireInstanceIds.contains(tr.getFireInstanceId())) {
+                        return true;
+                    }
+                }
+                return false;
+            } catch (SQLException e) {
+                throw new JobPersistenceException("error validating trigger acquisition", e);
+            }
+        }
     }
     
     // FUTURE_TODO: this really ought to return something like a FiredTriggerBundle,
     // so that the fireInstanceId doesn't have to be on the trigger...
     protected List<OperableTrigger> acquireNextTrigger(Connection conn, long noLaterThan, int maxCount, long timeWindow)
         throws JobPersistenceException {
+        return acquireNextTrigger(conn, noLaterThan, maxCount, timeWindow, -1);
+    }
+
+    /**
+     * Acquire the next triggers of the given trigger access partition, or of
+     * all partitions if it is negative.
+     */
+    protected List<OperableTrigger> acquireNextTrigger(Connection conn, long noLaterThan, int maxCount, long timeWindow,
+            int partition) throws JobPersistenceException {
         if (timeWindow < 0) {
           throw new IllegalArgumentException();
         }
+
+        // Set-based acquisition relies on the trigger access lock being held,
+        // so that selected triggers cannot change state before they're updated.
+        if (getUseBatchAcquisitionQueries() && (isAcquireTriggersWithinLock() || maxCount > 1)) {
+            return acquireNextTriggersInBatch(conn, noLaterThan, maxCount, timeWindow, partition);
+        }
         
         List<OperableTrigger> acquiredTriggers = new ArrayList<OperableTrigger>();
         Set<JobKey> acquiredJobKeysForNoConcurrentExec = new HashSet<JobKey>();
@@ -2797,7 +3590,9 @@ public abstract class JobStoreSupport implements JobStore, Constants {
         do {
             currentLoopCount ++;
             try {
-                List<TriggerKey> keys = getDelegate().selectTriggerToAcquire(conn, noLaterThan + timeWindow, getMisfireTime(), maxCount);
+                List<TriggerKey> keys = partition < 0
+                    ? getDelegate().selectTriggerToAcquire(conn, noLaterThan + timeWindow, getMisfireTime(), maxCount)
+                    : getExtendedDelegate().selectTriggerToAcquire(conn, noLaterThan + timeWindow, getMisfireTime(), maxCount, partition);
                 
                 // No trigger is ready to fire yet.
                 if (keys == null || keys.size() == 0)
@@ -2865,6 +3660,112 @@ public abstract class JobStoreSupport implements JobStore, Constants {
         // Return the acquired trigger list
         return acquiredTriggers;
     }
+
+    /**
+     * Acquire the next triggers using set-based queries: the candidate
+     * triggers and their jobs are each loaded with one query, the whole
+     * batch is moved to the ACQUIRED state with one update, and the fired
+     * trigger records are inserted as a single JDBC batch.
+     * 
+     * @see #setUseBatchAcquisitionQueries(boolean)
+     */
+    protected List<OperableTrigger> acquireNextTriggersInBatch(Connection conn, long noLaterThan, int maxCount, long timeWindow,
+            int partition) throws JobPersistenceException {
+        List<OperableTrigger> acquiredTriggers = new ArrayList<OperableTrigger>();
+        Set<JobKey> acquiredJobKeysForNoConcurrentExec = new HashSet<JobKey>();
+        final int MAX_DO_LOOP_RETRY = 3;
+        int currentLoopCount = 0;
+
+        do {
+            currentLoopCount ++;
+            try {
+                List<TriggerKey> keys = getExtendedDelegate().selectTriggerToAcquire(conn, noLaterThan + timeWindow, getMisfireTime(), maxCount, partition);
+                
+                // No trigger is ready to fire yet.
+                if (keys == null || keys.size() == 0)
+                    return acquiredTriggers;
+
+                // Triggers no longer waiting (or no longer present) are left out.
+                List<OperableTrigger> candidates = getExtendedDelegate().selectTriggers(conn, keys, STATE_WAITING);
+
+                Set<JobKey> jobKeys = new HashSet<JobKey>();
+                for (OperableTrigger candidate : candidates) {
+                    jobKeys.add(candidate.getJobKey());
+                }
+                Map<JobKey, JobDetail> jobs = retrieveJobs(conn, jobKeys);
+
+                List<OperableTrigger> toAcquire = new ArrayList<OperableTrigger>(candidates.size());
+                List<TriggerKey> toAcquireKeys = new ArrayList<TriggerKey>(candidates.size());
+                for (OperableTrigger nextTrigger : candidates) {
+                    JobKey jobKey = nextTrigger.getJobKey();
+                    JobDetail job = jobs.get(jobKey);
+                    if (job == null) {
+                        // Jobs that could not be loaded in bulk are retried
+                        // individually, so that failures are handled as usual.
+                        try {
+                            job = retrieveJob(conn, jobKey);
+                        } catch (JobPersistenceException jpe) {
+                            try {
+                                getLog().error("Error retrieving job, setting trigger state to ERROR.", jpe);
+                                getDelegate().updateTriggerState(conn, nextTrigger.getKey(), STATE_ERROR);
+                            } catch (SQLException sqle) {
+                                getLog().error("Unable to set trigger state to ERROR.", sqle);
+                            }
+                            continue;
+                        }
+                        if (job == null) {
+                            continue; // next trigger
+                        }
+                    }
+
+                    if (job.isConcurrentExectionDisallowed()) {
+                        if (acquiredJobKeysForNoConcurrentExec.contains(jobKey)) {
+                            continue; // next trigger
+                        } else {
+                            acquiredJobKeysForNoConcurrentExec.add(jobKey);
+                        }
+                    }
+
+                    toAcquire.add(nextTrigger);
+                    toAcquireKeys.add(nextTrigger.getKey());
+                }
+
+                if (!toAcquire.isEmpty()) {
+                    int rowsUpdated = getExtendedDelegate().updateTriggerStatesFromOtherState(conn, toAcquireKeys, STATE_ACQUIRED, STATE_WAITING);
+                    if (rowsUpdated != toAcquire.size()) {
+                        // Some triggers changed state after they were selected,
+                        // keep only those that we actually moved to ACQUIRED.
+                        for (Iterator<OperableTrigger> it = toAcquire.iterator(); it.hasNext(); ) {
+                            if (!STATE_ACQUIRED.equals(getDelegate().selectTriggerState(conn, it.next().getKey()))) {
+                                it.remove();
+                            }
+                        }
+                    }
+
+                    for (OperableTrigger nextTrigger : toAcquire) {
+                        nextTrigger.setFireInstanceId(getFiredTriggerRecordId());
+                    }
+                    getExtendedDelegate().insertFiredTriggers(conn, toAcquire, STATE_ACQUIRED);
+
+                    acquiredTriggers.addAll(toAcquire);
+                }
+
+                // if we didn't end up with any trigger to fire from that first
+                // batch, try again for another batch. We allow with a max retry count.
+                if(acquiredTriggers.size() == 0 && currentLoopCount < MAX_DO_LOOP_RETRY) {
+                    continue;
+                }
+                
+                // We are done with the while loop.
+                break;
+            } catch (Exception e) {
+                throw new JobPersistenceException(
+                          "Couldn't acquire next trigger: " + e.getMessage(), e);
+            }
+        } while (true);
+        
+        return acquiredTriggers;
+    }
     
     /**
      * <p>
@@ -2875,7 +3776,7 @@ public abstract class JobStoreSupport implements JobStore, Constants {
      */
     public void releaseAcquiredTrigger(final OperableTrigger trigger) {
         retryExecuteInNonManagedTXLock(
-            LOCK_TRIGGER_ACCESS,
+            getTriggerAccessLock(trigger.getJobKey()),
             new VoidTransactionCallback() {
                 public void executeVoid(Connection conn) throws JobPersistenceException {
                     releaseAcquiredTrigger(conn, trigger);
@@ -2909,9 +3810,17 @@ public abstract class JobStoreSupport implements JobStore, Constants {
      */
     @SuppressWarnings("unchecked")
     public List<TriggerFiredResult> triggersFired(final List<OperableTrigger> triggers) throws JobPersistenceException {
-        return executeInNonManagedTXLock(LOCK_TRIGGER_ACCESS,
+        Set<JobKey> jobKeys = new HashSet<JobKey>();
+        for (OperableTrigger trigger : triggers) {
+            jobKeys.add(trigger.getJobKey());
+        }
+        return executeInNonManagedTXLock(getTriggerAccessLock(jobKeys),
                 new TransactionCallback<List<TriggerFiredResult>>() {
                     public List<TriggerFiredResult> execute(Connection conn) throws JobPersistenceException {
+                        if (getUsePipelinedFiring()) {
+                            return triggersFiredInBatch(conn, triggers);
+                        }
+
                         List<TriggerFiredResult> results = new ArrayList<TriggerFiredResult>();
 
                         TriggerFiredResult result;
@@ -3028,7 +3937,11 @@ public abstract class JobStoreSupport implements JobStore, Constants {
             force = true;
         }
 
-        storeTrigger(conn, trigger, job, true, state, force, false);
+        if (getDelegate() instanceof ExtendedDriverDelegate) {
+            storeFiredTrigger(conn, trigger, job, state, force);
+        } else {
+            storeTrigger(conn, trigger, job, true, state, force, false);
+        }
 
         job.getJobDataMap().clearDirtyFlag();
 
@@ -3037,6 +3950,205 @@ public abstract class JobStoreSupport implements JobStore, Constants {
                 .getPreviousFireTime(), prevFireTime, trigger.getNextFireTime());
     }
 
+    /**
+     * <p>
+     * Store the given trigger after it has fired, in the manner of
+     * <code>{@link #storeTrigger(Connection, OperableTrigger, JobDetail, boolean, String, boolean, boolean)}</code>,
+     * but writing only what firing changed: the trigger is known to exist,
+     * and to be in a state that <code>storeTrigger()</code> would leave as is.
+     * </p>
+     */
+    private void storeFiredTrigger(Connection conn, OperableTrigger trigger, JobDetail job,
+            String state, boolean force) throws JobPersistenceException {
+        try {
+            if (!force && !getDelegate().isTriggerGroupPaused(conn, trigger.getKey().getGroup())
+                    && getDelegate().isTriggerGroupPaused(conn, ALL_GROUPS_PAUSED)) {
+                getDelegate().insertPausedTriggerGroup(conn, trigger.getKey().getGroup());
+            }
+            getExtendedDelegate().updateTriggerFireTimes(conn, Collections.singletonList(trigger), state,
+                    Collections.singletonMap(job.getKey(), job));
+        } catch (SQLException e) {
+            throw new JobPersistenceException("Couldn't store trigger '" + trigger.getKey() + "' for '" 
+                    + trigger.getJobKey() + "' job:" + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new JobPersistenceException("Couldn't store trigger '" + trigger.getKey() + "' for '" 
+                    + trigger.getJobKey() + "' job:" + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * <p>
+     * Fire all of the given triggers in the manner of
+     * <code>{@link #triggerFired(Connection, OperableTrigger)}</code>, but
+     * with the reads and writes of the whole batch grouped into a few
+     * set-based queries and JDBC batches.
+     * </p>
+     * 
+     * @return the results, in the order of the given triggers
+     */
+    protected List<TriggerFiredResult> triggersFiredInBatch(Connection conn,
+            List<OperableTrigger> triggers)
+        throws JobPersistenceException {
+        int count = triggers.size();
+        TriggerFiredResult[] results = new TriggerFiredResult[count];
+        JobDetail[] firedJobs = new JobDetail[count];
+        Calendar[] firedCals = new Calendar[count];
+
+        try {
+            List<TriggerKey> triggerKeys = new ArrayList<TriggerKey>(count);
+            Set<JobKey> jobKeys = new HashSet<JobKey>();
+            for (OperableTrigger trigger : triggers) {
+                triggerKeys.add(trigger.getKey());
+                jobKeys.add(trigger.getJobKey());
+            }
+
+            // Make sure triggers weren't deleted, paused, or completed...
+            Map<TriggerKey, String> triggerStates = getExtendedDelegate().selectTriggerStates(conn, triggerKeys);
+            Map<JobKey, JobDetail> jobs = retrieveJobs(conn, jobKeys);
+            Map<String, Calendar> calendars = new HashMap<String, Calendar>();
+            Set<JobKey> blockedJobKeys = new HashSet<JobKey>();
+
+            List<OperableTrigger> firedTriggers = new ArrayList<OperableTrigger>(count);
+            for (int i = 0; i < count; i++) {
+                OperableTrigger trigger = triggers.get(i);
+                try {
+                    if (!STATE_ACQUIRED.equals(triggerStates.get(trigger.getKey()))) {
+                        results[i] = new TriggerFiredResult((TriggerFiredBundle) null);
+                        continue;
+                    }
+
+                    JobDetail job = jobs.get(trigger.getJobKey());
+                    if (job == null) {
+                        try {
+                            job = retrieveJob(conn, trigger.getJobKey());
+                        } catch (JobPersistenceException jpe) {
+                            try {
+                                getLog().error("Error retrieving job, setting trigger state to ERROR.", jpe);
+                                getDelegate().updateTriggerState(conn, trigger.getKey(),
+                                        STATE_ERROR);
+                            } catch (SQLException sqle) {
+                                getLog().error("Unable to set trigger state to ERROR.", sqle);
+                            }
+                            throw jpe;
+                        }
+                        if (job == null) {
+                            results[i] = new TriggerFiredResult((TriggerFiredBundle) null);
+                            continue;
+                        }
+                        jobs.put(job.getKey(), job);
+                    }
+
+                    // an earlier trigger of the batch has blocked this one
+                    if (job.isConcurrentExectionDisallowed() && !blockedJobKeys.add(job.getKey())) {
+                        results[i] = new TriggerFiredResult((TriggerFiredBundle) null);
+                        continue;
+                    }
+
+                    Calendar cal = null;
+                    if (trigger.getCalendarName() != null) {
+                        cal = calendars.get(trigger.getCalendarName());
+                        if (cal == null) {
+                            cal = retrieveCalendar(conn, trigger.getCalendarName());
+                            if (cal == null) {
+                                results[i] = new TriggerFiredResult((TriggerFiredBundle) null);
+                                continue;
+                            }
+                            calendars.put(trigger.getCalendarName(), cal);
+                        }
+                    }
+
+                    // each bundle gets its own copy, as the job may change its data map
+                    firedJobs[i] = (JobDetail) job.clone();
+                    firedCals[i] = cal;
+                    firedTriggers.add(trigger);
+                } catch (JobPersistenceException jpe) {
+                    results[i] = new TriggerFiredResult(jpe);
+                } catch (RuntimeException re) {
+                    results[i] = new TriggerFiredResult(re);
+                }
+            }
+
+            // must precede triggered(), as the record takes the scheduled fire time
+            getExtendedDelegate().updateFiredTriggers(conn, firedTriggers, STATE_EXECUTING, jobs);
+
+            Map<String, List<OperableTrigger>> triggersByState = new HashMap<String, List<OperableTrigger>>();
+            Set<String> pausedGroups = null;
+            for (int i = 0; i < count; i++) {
+                if (results[i] != null) {
+                    continue;
+                }
+                OperableTrigger trigger = triggers.get(i);
+                JobDetail job = firedJobs[i];
+                Calendar cal = firedCals[i];
+                try {
+                    Date prevFireTime = trigger.getPreviousFireTime();
+
+                    // call triggered - to update the trigger's next-fire-time state...
+                    trigger.triggered(cal);
+
+                    String state = job.isConcurrentExectionDisallowed() ? STATE_BLOCKED : STATE_WAITING;
+                    if (trigger.getNextFireTime() == null) {
+                        state = STATE_COMPLETE;
+                    } else if (STATE_BLOCKED.equals(state)) {
+                        // as storeTrigger() would, when not forcing the state
+                        if (pausedGroups == null) {
+                            pausedGroups = getDelegate().selectPausedTriggerGroups(conn);
+                        }
+                        String group = trigger.getKey().getGroup();
+                        if (!pausedGroups.contains(group) && pausedGroups.contains(ALL_GROUPS_PAUSED)) {
+                            getDelegate().insertPausedTriggerGroup(conn, group);
+                            pausedGroups.add(group);
+                        }
+                    }
+
+                    List<OperableTrigger> stateTriggers = triggersByState.get(state);
+                    if (stateTriggers == null) {
+                        stateTriggers = new ArrayList<OperableTrigger>();
+                        triggersByState.put(state, stateTriggers);
+                    }
+                    stateTriggers.add(trigger);
+
+                    results[i] = new TriggerFiredResult(new TriggerFiredBundle(job, trigger, cal, trigger.getKey().getGroup()
+                            .equals(Scheduler.DEFAULT_RECOVERY_GROUP), new Date(), trigger
+                            .getPreviousFireTime(), prevFireTime, trigger.getNextFireTime()));
+                } catch (RuntimeException re) {
+                    results[i] = new TriggerFiredResult(re);
+                }
+            }
+
+            if (!blockedJobKeys.isEmpty()) {
+                getExtendedDelegate().updateTriggerStatesForJobsFromOtherState(conn, blockedJobKeys,
+                        STATE_BLOCKED, STATE_WAITING);
+                getExtendedDelegate().updateTriggerStatesForJobsFromOtherState(conn, blockedJobKeys,
+                        STATE_BLOCKED, STATE_ACQUIRED);
+                getExtendedDelegate().updateTriggerStatesForJobsFromOtherState(conn, blockedJobKeys,
+                        STATE_PAUSED_BLOCKED, STATE_PAUSED);
+            }
+
+            for (Map.Entry<String, List<OperableTrigger>> entry : triggersByState.entrySet()) {
+                getExtendedDelegate().updateTriggerFireTimes(conn, entry.getValue(), entry.getKey(), jobs);
+            }
+        } catch (SQLException e) {
+            throw new JobPersistenceException("Couldn't update fired triggers: "
+                    + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new JobPersistenceException("Couldn't update fired triggers: "
+                    + e.getMessage(), e);
+        }
+
+        for (JobDetail job : firedJobs) {
+            if (job != null) {
+                job.getJobDataMap().clearDirtyFlag();
+            }
+        }
+
+        List<TriggerFiredResult> resultList = new ArrayList<TriggerFiredResult>(count);
+        for (TriggerFiredResult result : results) {
+            resultList.add(result);
+        }
+        return resultList;
+    }
+
     /**
      * <p>
      * Inform the <code>JobStore</code> that the scheduler has completed the
@@ -3048,8 +4160,13 @@ public abstract class JobStoreSupport implements JobStore, Constants {
      */
     public void triggeredJobComplete(final OperableTrigger trigger,
             final JobDetail jobDetail, final CompletedExecutionInstruction triggerInstCode) {
+        if (getUsePipelinedFiring()) {
+            triggeredJobCompleteInGroup(new PendingCompletion(trigger, jobDetail, triggerInstCode));
+            return;
+        }
+
         retryExecuteInNonManagedTXLock(
-            LOCK_TRIGGER_ACCESS,
+            getTriggerAccessLock(jobDetail.getKey()),
             new VoidTransactionCallback() {
                 public void executeVoid(Connection conn) throws JobPersistenceException {
                     triggeredJobComplete(conn, trigger, jobDetail,triggerInstCode);
@@ -3057,43 +4174,178 @@ public abstract class JobStoreSupport implements JobStore, Constants {
             });    
     }
     
-    protected void triggeredJobComplete(Connection conn,
-            OperableTrigger trigger, JobDetail jobDetail,
-            CompletedExecutionInstruction triggerInstCode) throws JobPersistenceException {
+    /**
+     * <p>
+     * Record the given completion together with any others that arrive while
+     * a previous group is being committed (or within the
+     * <code>pipelinedCompletionWindow</code>).  The first thread to find no
+     * group in progress commits the pending completions in one transaction,
+     * while the others wait for it to do so (one transaction per trigger
+     * access partition, when partitions are used).  If the group can't be
+     * committed, each thread records its own completion in a transaction of
+     * its own instead, so that one failing completion holds up no others.
+     * </p>
+     */
+    private void triggeredJobCompleteInGroup(final PendingCompletion completion) {
+        boolean interrupted = false;
         try {
-            if (triggerInstCode == CompletedExecutionInstruction.DELETE_TRIGGER) {
-                if(trigger.getNextFireTime() == null) { 
-                    // double check for possible reschedule within job 
-                    // execution, which would cancel the need to delete...
-                    TriggerStatus stat = getDelegate().selectTriggerStatus(
-                            conn, trigger.getKey());
-                    if(stat != null && stat.getNextFireTime() == null) {
-                        removeTrigger(conn, trigger.getKey());
+            boolean flush;
+            synchronized (completionLock) {
+                pendingCompletions.add(completion);
+                while (completionFlushInProgress && !completion.done) {
+                    try {
+                        completionLock.wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
                     }
-                } else{
-                    removeTrigger(conn, trigger.getKey());
-                    signalSchedulingChangeOnTxCompletion(0L);
                 }
-            } else if (triggerInstCode == CompletedExecutionInstruction.SET_TRIGGER_COMPLETE) {
-                getDelegate().updateTriggerState(conn, trigger.getKey(),
-                        STATE_COMPLETE);
-                signalSchedulingChangeOnTxCompletion(0L);
-            } else if (triggerInstCode == CompletedExecutionInstruction.SET_TRIGGER_ERROR) {
-                getLog().info("Trigger " + trigger.getKey() + " set to ERROR state.");
-                getDelegate().updateTriggerState(conn, trigger.getKey(),
-                        STATE_ERROR);
-                signalSchedulingChangeOnTxCompletion(0L);
-            } else if (triggerInstCode == CompletedExecutionInstruction.SET_ALL_JOB_TRIGGERS_COMPLETE) {
-                getDelegate().updateTriggerStatesForJob(conn,
-                        trigger.getJobKey(), STATE_COMPLETE);
-                signalSchedulingChangeOnTxCompletion(0L);
-            } else if (triggerInstCode == CompletedExecutionInstruction.SET_ALL_JOB_TRIGGERS_ERROR) {
-                getLog().info("All triggers of Job " + 
-                        trigger.getKey() + " set to ERROR state.");
-                getDelegate().updateTriggerStatesForJob(conn,
-                        trigger.getJobKey(), STATE_ERROR);
+                flush = !completion.done;
+                if (flush) {
+                    completionFlushInProgress = true;
+                }
+            }
+
+            if (flush) {
+                if (getPipelinedCompletionWindow() > 0) {
+                    try {
+                        Thread.sleep(getPipelinedCompletionWindow());
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+
+                final List<PendingCompletion> completions;
+                synchronized (completionLock) {
+                    completions = pendingCompletions;
+                    pendingCompletions = new ArrayList<PendingCompletion>();
+                }
+
+                // one transaction per trigger access partition, so that no
+                // more than one partition lock is held at a time
+                Map<String, List<PendingCompletion>> completionsByLock =
+                    new HashMap<String, List<PendingCompletion>>();
+                for (PendingCompletion pending : completions) {
+                    String lockName = getTriggerAccessLock(pending.jobDetail.getKey());
+                    List<PendingCompletion> lockCompletions = completionsByLock.get(lockName);
+                    if (lockCompletions == null) {
+                        lockCompletions = new ArrayList<PendingCompletion>();
+                        completionsByLock.put(lockName, lockCompletions);
+                    }
+                    lockCompletions.add(pending);
+                }
+
+                List<PendingCompletion> committed = new ArrayList<PendingCompletion>(completions.size());
+                try {
+                    for (Map.Entry<String, List<PendingCompletion>> entry : completionsByLock.entrySet()) {
+                        final List<PendingCompletion> lockCompletions = entry.getValue();
+                        try {
+                            executeInNonManagedTXLock(
+                                entry.getKey(),
+                                new VoidTransactionCallback() {
+                                    public void executeVoid(Connection conn) throws JobPersistenceException {
+                                        triggeredJobsComplete(conn, lockCompletions);
+                                    }
+                                }, null);
+                            committed.addAll(lockCompletions);
+                        } catch (JobPersistenceException jpe) {
+                            getLog().warn("Couldn't record the completion of " + lockCompletions.size()
+                                    + " jobs together, recording them one at a time.", jpe);
+                        }
+                    }
+                } finally {
+                    synchronized (completionLock) {
+                        for (PendingCompletion pending : completions) {
+                            pending.done = true;
+                        }
+                        for (PendingCompletion pending : committed) {
+                            pending.committed = true;
+                        }
+                        completionFlushInProgress = false;
+                        completionLock.notifyAll();
+                    }
+                }
+            }
+
+            if (!completion.committed) {
+                retryExecuteInNonManagedTXLock(
+                    getTriggerAccessLock(completion.jobDetail.getKey()),
+                    new VoidTransactionCallback() {
+                        public void executeVoid(Connection conn) throws JobPersistenceException {
+                            triggeredJobComplete(conn, completion.trigger,
+                                    completion.jobDetail, completion.triggerInstCode);
+                        }
+                    });
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * Record the completion of all of the given jobs in the manner of
+     * <code>{@link #triggeredJobComplete(Connection, OperableTrigger, JobDetail, CompletedExecutionInstruction)}</code>,
+     * with the unblocking of triggers and the deletion of fired trigger
+     * records each done as a single JDBC batch.
+     * </p>
+     */
+    private void triggeredJobsComplete(Connection conn,
+            List<PendingCompletion> completions) throws JobPersistenceException {
+        Set<JobKey> unblockedJobKeys = new HashSet<JobKey>();
+        List<String> firedTriggerIds = new ArrayList<String>(completions.size());
+        try {
+            for (PendingCompletion completion : completions) {
+                applyCompletedExecutionInstruction(conn, completion.trigger, completion.triggerInstCode);
+
+                JobDetail jobDetail = completion.jobDetail;
+                if (jobDetail.isConcurrentExectionDisallowed()) {
+                    unblockedJobKeys.add(jobDetail.getKey());
+                }
+                if (jobDetail.isPersistJobDataAfterExecution()) {
+                    try {
+                        if (jobDetail.getJobDataMap().isDirty()) {
+                            getDelegate().updateJobData(conn, jobDetail);
+                            jobDetailChanged(conn, jobDetail.getKey());
+                        }
+                    } catch (IOException e) {
+                        throw new JobPersistenceException(
+                                "Couldn't serialize job data: " + e.getMessage(), e);
+                    } catch (SQLException e) {
+                        throw new JobPersistenceException(
+                                "Couldn't update job data: " + e.getMessage(), e);
+                    }
+                }
+                firedTriggerIds.add(completion.trigger.getFireInstanceId());
+            }
+
+            if (!unblockedJobKeys.isEmpty()) {
+                getExtendedDelegate().updateTriggerStatesForJobsFromOtherState(conn,
+                        unblockedJobKeys, STATE_WAITING, STATE_BLOCKED);
+                getExtendedDelegate().updateTriggerStatesForJobsFromOtherState(conn,
+                        unblockedJobKeys, STATE_PAUSED, STATE_PAUSED_BLOCKED);
+
                 signalSchedulingChangeOnTxCompletion(0L);
             }
+        } catch (SQLException e) {
+            throw new JobPersistenceException(
+                    "Couldn't update trigger state(s): " + e.getMessage(), e);
+        }
+
+        try {
+            getExtendedDelegate().deleteFiredTriggerEntries(conn, firedTriggerIds);
+        } catch (SQLException e) {
+            throw new JobPersistenceException("Couldn't delete fired triggers: "
+                    + e.getMessage(), e);
+        }
+    }
+
+    protected void triggeredJobComplete(Connection conn,
+            OperableTrigger trigger, JobDetail jobDetail,
+            CompletedExecutionInstruction triggerInstCode) throws JobPersistenceException {
+        try {
+            applyCompletedExecutionInstruction(conn, trigger, triggerInstCode);
 
             if (jobDetail.isConcurrentExectionDisallowed()) {
                 getDelegate().updateTriggerStatesForJobFromOtherState(conn,
@@ -3110,6 +4362,7 @@ public abstract class JobStoreSupport implements JobStore, Constants {
                 try {
                     if (jobDetail.getJobDataMap().isDirty()) {
                         getDelegate().updateJobData(conn, jobDetail);
+                        jobDetailChanged(conn, jobDetail.getKey());
                     }
                 } catch (IOException e) {
                     throw new JobPersistenceException(
@@ -3132,6 +4385,55 @@ public abstract class JobStoreSupport implements JobStore, Constants {
         }
     }
 
+    /**
+     * <p>
+     * Apply the given <code>CompletedExecutionInstruction</code> to the
+     * trigger of a completed job.
+     * </p>
+     */
+    private void applyCompletedExecutionInstruction(Connection conn,
+            OperableTrigger trigger, CompletedExecutionInstruction triggerInstCode)
+        throws JobPersistenceException {
+        try {
+            if (triggerInstCode == CompletedExecutionInstruction.DELETE_TRIGGER) {
+                if(trigger.getNextFireTime() == null) { 
+                    // double check for possible reschedule within job 
+                    // execution, which would cancel the need to delete...
+                    TriggerStatus stat = getDelegate().selectTriggerStatus(
+                            conn, trigger.getKey());
+                    if(stat != null && stat.getNextFireTime() == null) {
+                        removeTrigger(conn, trigger.getKey());
+                    }
+                } else{
+                    removeTrigger(conn, trigger.getKey());
+                    signalSchedulingChangeOnTxCompletion(0L);
+                }
+            } else if (triggerInstCode == CompletedExecutionInstruction.SET_TRIGGER_COMPLETE) {
+                getDelegate().updateTriggerState(conn, trigger.getKey(),
+                        STATE_COMPLETE);
+                signalSchedulingChangeOnTxCompletion(0L);
+            } else if (triggerInstCode == CompletedExecutionInstruction.SET_TRIGGER_ERROR) {
+                getLog().info("Trigger " + trigger.getKey() + " set to ERROR state.");
+                getDelegate().updateTriggerState(conn, trigger.getKey(),
+                        STATE_ERROR);
+                signalSchedulingChangeOnTxCompletion(0L);
+            } else if (triggerInstCode == CompletedExecutionInstruction.SET_ALL_JOB_TRIGGERS_COMPLETE) {
+                getDelegate().updateTriggerStatesForJob(conn,
+                        trigger.getJobKey(), STATE_COMPLETE);
+                signalSchedulingChangeOnTxCompletion(0L);
+            } else if (triggerInstCode == CompletedExecutionInstruction.SET_ALL_JOB_TRIGGERS_ERROR) {
+                getLog().info("All triggers of Job " + 
+                        trigger.getKey() + " set to ERROR state.");
+                getDelegate().updateTriggerStatesForJob(conn,
+                        trigger.getJobKey(), STATE_ERROR);
+                signalSchedulingChangeOnTxCompletion(0L);
+            }
+        } catch (SQLException e) {
+            throw new JobPersistenceException(
+                    "Couldn't update trigger state(s): " + e.getMessage(), e);
+        }
+    }
+
     /**
      * <P>
      * Get the driver delegate for DB operations.
@@ -3164,6 +4466,23 @@ public abstract class JobStoreSupport implements JobStore, Constants {
         }
     }
 
+    /**
+     * <p>
+     * Get the driver delegate, for the operations that only an
+     * <code>{@link ExtendedDriverDelegate}</code> provides.  These are only
+     * used by the features that <code>initialize()</code> leaves on when the
+     * configured delegate is one.
+     * </p>
+     */
+    protected ExtendedDriverDelegate getExtendedDelegate() throws NoSuchDelegateException {
+        DriverDelegate driverDelegate = getDelegate();
+        if (!(driverDelegate instanceof ExtendedDriverDelegate)) {
+            throw new NoSuchDelegateException("Delegate " + driverDelegate.getClass().getName()
+                    + " does not implement " + ExtendedDriverDelegate.class.getName());
+        }
+        return (ExtendedDriverDelegate) driverDelegate;
+    }
+
     protected Semaphore getLockHandler() {
         return lockHandler;
     }
@@ -3193,6 +4512,13 @@ public abstract class JobStoreSupport implements JobStore, Constants {
             if (misfireCount == 0) {
                 getLog().debug(
                     "Found 0 triggers that missed their scheduled fire-time.");
+            } else if (getUseBatchMisfireRecovery()) {
+                // load and update the triggers before taking the lock
+                MisfireBatch batch = prepareMisfireBatch(conn, false);
+
+                transOwner = getLockHandler().obtainLock(conn, LOCK_TRIGGER_ACCESS);
+
+                result = (batch != null) ? recoverMisfireBatch(conn, batch, false) : recoverMisfiredJobsOneByOne(conn, false);
             } else {
                 transOwner = getLockHandler().obtainLock(conn, LOCK_TRIGGER_ACCESS);
                 
@@ -3200,6 +4526,12 @@ public abstract class JobStoreSupport implements JobStore, Constants {
             }
             
             commitConnection(conn);
+
+            if (misfireCount != Integer.MAX_VALUE) {
+                pendingMisfireCount = Math.max(0, misfireCount - result.getProcessedMisfiredTriggerCount());
+            } else {
+                pendingMisfireCount = result.hasMoreMisfiredTriggers() ? -1 : 0;
+            }
             return result;
         } catch (JobPersistenceException e) {
             rollbackConnection(conn);
@@ -3633,6 +4965,9 @@ public abstract class JobStoreSupport implements JobStore, Constants {
      */
     protected void closeConnection(Connection conn) {
         if (conn != null) {
+            if (delegate instanceof ExtendedDriverDelegate) {
+                ((ExtendedDriverDelegate) delegate).closeCachedStatements(conn);
+            }
             try {
                 conn.close();
             } catch (SQLException e) {
@@ -3703,6 +5038,25 @@ public abstract class JobStoreSupport implements JobStore, Constants {
     protected interface TransactionValidator<T> {
         Boolean validate(Connection conn, T result) throws JobPersistenceException;
     }
+
+    /**
+     * A job completion waiting to be recorded as part of a group, when
+     * pipelined firing is used.
+     */
+    private static class PendingCompletion {
+        final OperableTrigger trigger;
+        final JobDetail jobDetail;
+        final CompletedExecutionInstruction triggerInstCode;
+        boolean done;
+        boolean committed;
+
+        PendingCompletion(OperableTrigger trigger, JobDetail jobDetail,
+                CompletedExecutionInstruction triggerInstCode) {
+            this.trigger = trigger;
+            this.jobDetail = jobDetail;
+            this.triggerInstCode = triggerInstCode;
+        }
+    }
     
     /**
      * Implement this interface to provide the code to execute within
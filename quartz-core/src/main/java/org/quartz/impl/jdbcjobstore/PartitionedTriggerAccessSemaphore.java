@@ -0,0 +1,85 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz.impl.jdbcjobstore;
+
+import java.sql.Connection;
+
+/**
+ * <p>
+ * A <code>Semaphore</code> that splits the trigger access lock of another
+ * semaphore into one lock per trigger access partition.
+ * </p>
+ *
+ * <p>
+ * Work on the triggers of a single partition obtains that partition's lock
+ * only.  Obtaining the trigger access lock itself obtains the locks of all
+ * partitions, always in the same order, so that it still excludes all other
+ * trigger access.  Any other lock is passed through unchanged.
+ * </p>
+ *
+ * @see JobStoreSupport#setTriggerAccessPartitions(int)
+ */
+final class PartitionedTriggerAccessSemaphore implements Semaphore {
+
+    private final Semaphore semaphore;
+
+    private final String triggerAccessLock;
+
+    private final String[] partitionLocks;
+
+    PartitionedTriggerAccessSemaphore(Semaphore semaphore, String triggerAccessLock, String[] partitionLocks) {
+        this.semaphore = semaphore;
+        this.triggerAccessLock = triggerAccessLock;
+        this.partitionLocks = partitionLocks.clone();
+    }
+
+    public boolean obtainLock(Connection conn, String lockName) throws LockException {
+        if (!triggerAccessLock.equals(lockName)) {
+            return semaphore.obtainLock(conn, lockName);
+        }
+
+        int obtained = 0;
+        try {
+            for (; obtained < partitionLocks.length; obtained++) {
+                semaphore.obtainLock(conn, partitionLocks[obtained]);
+            }
+        } finally {
+            if (obtained < partitionLocks.length) {
+                for (int i = obtained - 1; i >= 0; i--) {
+                    semaphore.releaseLock(partitionLocks[i]);
+                }
+            }
+        }
+        return true;
+    }
+
+    public void releaseLock(String lockName) throws LockException {
+        if (!triggerAccessLock.equals(lockName)) {
+            semaphore.releaseLock(lockName);
+            return;
+        }
+
+        for (int i = partitionLocks.length - 1; i >= 0; i--) {
+            semaphore.releaseLock(partitionLocks[i]);
+        }
+    }
+
+    public boolean requiresConnection() {
+        return semaphore.requiresConnection();
+    }
+}
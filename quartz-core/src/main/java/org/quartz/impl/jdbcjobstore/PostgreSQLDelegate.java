@@ -83,7 +83,7 @@ public class PostgreSQLDelegate extends StdJDBCDelegate {
     @Override           
     protected Object getJobDataFromBlob(ResultSet rs, String colName)
         throws ClassNotFoundException, IOException, SQLException {
-        if (canUseProperties()) {
+        if (isJobDataReadAsStream()) {
             InputStream binaryInput = null;
             byte[] bytes = rs.getBytes(colName);
             if(bytes == null || bytes.length == 0) {
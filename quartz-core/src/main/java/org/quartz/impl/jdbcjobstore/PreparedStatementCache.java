@@ -0,0 +1,164 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz.impl.jdbcjobstore;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * Caches the <code>{@link java.sql.PreparedStatement}</code>s prepared on
+ * each <code>{@link java.sql.Connection}</code>, so that statements issued
+ * repeatedly while the connection is in use are prepared only once.
+ * </p>
+ *
+ * <p>
+ * The statements handed out are wrappers whose <code>close()</code> returns
+ * them to the cache (clearing their parameters and batch) rather than
+ * closing them.  A statement that is requested again before it has been
+ * returned is prepared afresh and not cached.  The cached statements of a
+ * connection are actually closed by
+ * <code>{@link #closeStatements(Connection)}</code>, which must be called
+ * before the connection is closed.
+ * </p>
+ *
+ * @see StdJDBCDelegate#prepareStatement(Connection, String)
+ */
+public class PreparedStatementCache {
+
+    private final Map<Connection, Map<String, CachedStatement>> statements =
+        new IdentityHashMap<Connection, Map<String, CachedStatement>>();
+
+    /**
+     * Get a statement for the given (already expanded) SQL, reusing the one
+     * cached for the connection if it is not currently in use.
+     */
+    public PreparedStatement prepareStatement(Connection conn, String sql) throws SQLException {
+        Map<String, CachedStatement> connStatements;
+        synchronized (statements) {
+            connStatements = statements.get(conn);
+            if (connStatements == null) {
+                connStatements = new HashMap<String, CachedStatement>();
+                statements.put(conn, connStatements);
+            }
+        }
+
+        synchronized (connStatements) {
+            CachedStatement cached = connStatements.get(sql);
+            if (cached == null) {
+                cached = new CachedStatement(conn.prepareStatement(sql));
+                connStatements.put(sql, cached);
+            } else if (cached.inUse) {
+                return conn.prepareStatement(sql);
+            }
+            cached.inUse = true;
+            return cached.proxy;
+        }
+    }
+
+    /**
+     * Close all of the statements cached for the given connection, and
+     * forget them.
+     */
+    public void closeStatements(Connection conn) {
+        Map<String, CachedStatement> connStatements;
+        synchronized (statements) {
+            connStatements = statements.remove(conn);
+        }
+        if (connStatements == null) {
+            return;
+        }
+
+        synchronized (connStatements) {
+            for (CachedStatement cached : connStatements.values()) {
+                Util.closeStatement(cached.statement);
+            }
+            connStatements.clear();
+        }
+    }
+
+    /**
+     * Restores a statement to its initial state when it is "closed", and
+     * marks it as available for reuse.
+     */
+    private static class CachedStatement implements InvocationHandler {
+        private final PreparedStatement statement;
+        private final PreparedStatement proxy;
+        private volatile boolean inUse;
+
+        // Set if the max rows or fetch size of the statement were changed
+        private boolean overwroteLimits;
+        private int originalMaxRows;
+        private int originalFetchSize;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatementCache.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class },
+                    this);
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args)
+            throws Throwable {
+            String name = method.getName();
+            if (name.equals("close")) {
+                release();
+                return null;
+            } else if (name.equals("isClosed")) {
+                return !inUse;
+            } else if (name.equals("equals")) {
+                return proxy == args[0];
+            } else if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            } else if ((name.equals("setMaxRows") || name.equals("setFetchSize")) && !overwroteLimits) {
+                originalMaxRows = statement.getMaxRows();
+                originalFetchSize = statement.getFetchSize();
+                overwroteLimits = true;
+            }
+
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException ite) {
+                throw (ite.getCause() != null ? ite.getCause() : ite);
+            }
+        }
+
+        private void release() throws SQLException {
+            if (!inUse) {
+                return;
+            }
+            statement.clearParameters();
+            statement.clearBatch();
+            if (overwroteLimits) {
+                statement.setMaxRows(originalMaxRows);
+                statement.setFetchSize(originalFetchSize);
+                overwroteLimits = false;
+            }
+            inUse = false;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz.impl.jdbcjobstore;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ * A cache of objects deserialized from the database, each remembered with
+ * the value of the <code>REVISION</code> column of its row at the time it
+ * was read.
+ * </p>
+ *
+ * <p>
+ * An entry is only handed out for the revision it was cached with, so a
+ * node that reads the (narrow) revision column first can tell whether its
+ * copy is still current, even if another node of the cluster has since
+ * changed the row.
+ * </p>
+ *
+ * @see JobStoreSupport#setUseRevisionCache(boolean)
+ */
+final class RevisionCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<K, Entry<V>>();
+
+    /**
+     * Get the value cached for the given key, if it was cached with the
+     * given revision.
+     */
+    V get(K key, long revision) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || entry.revision != revision) {
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Cache the given value, which must have been read after (or in the
+     * same transaction as) the given revision.
+     */
+    void put(K key, long revision, V value) {
+        entries.put(key, new Entry<V>(revision, value));
+    }
+
+    void remove(K key) {
+        entries.remove(key);
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static final class Entry<V> {
+
+        final long revision;
+
+        final V value;
+
+        Entry(long revision, V value) {
+            this.revision = revision;
+            this.value = value;
+        }
+    }
+}
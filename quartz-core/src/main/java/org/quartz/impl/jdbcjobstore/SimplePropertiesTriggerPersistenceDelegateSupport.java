@@ -5,6 +5,9 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.quartz.JobDetail;
 import org.quartz.ScheduleBuilder;
@@ -22,7 +25,7 @@ import org.quartz.spi.OperableTrigger;
  * 
  * @author jhouse
  */
-public abstract class SimplePropertiesTriggerPersistenceDelegateSupport implements TriggerPersistenceDelegate, StdJDBCConstants {
+public abstract class SimplePropertiesTriggerPersistenceDelegateSupport implements BatchTriggerPersistenceDelegate, StdJDBCConstants {
 
     protected static final String TABLE_SIMPLE_PROPERTIES_TRIGGERS = "SIMPROP_TRIGGERS";
     
@@ -43,6 +46,10 @@ public abstract class SimplePropertiesTriggerPersistenceDelegateSupport implemen
         + COL_SCHEDULER_NAME + " = " + SCHED_NAME_SUBST
         + " AND " + COL_TRIGGER_NAME + " = ? AND " + COL_TRIGGER_GROUP + " = ?";
 
+    protected static final String SELECT_SIMPLE_PROPS_TRIGGERS_FOR_KEYS = "SELECT * FROM "
+        + TABLE_PREFIX_SUBST + TABLE_SIMPLE_PROPERTIES_TRIGGERS + " WHERE "
+        + COL_SCHEDULER_NAME + " = " + SCHED_NAME_SUBST + " AND ";
+
     protected static final String DELETE_SIMPLE_PROPS_TRIGGER = "DELETE FROM "
         + TABLE_PREFIX_SUBST + TABLE_SIMPLE_PROPERTIES_TRIGGERS + " WHERE "
         + COL_SCHEDULER_NAME + " = " + SCHED_NAME_SUBST
@@ -137,21 +144,7 @@ public abstract class SimplePropertiesTriggerPersistenceDelegateSupport implemen
             rs = ps.executeQuery();
     
             if (rs.next()) {
-                SimplePropertiesTriggerProperties properties = new SimplePropertiesTriggerProperties();
-                    
-                properties.setString1(rs.getString(COL_STR_PROP_1));
-                properties.setString2(rs.getString(COL_STR_PROP_2));
-                properties.setString3(rs.getString(COL_STR_PROP_3));
-                properties.setInt1(rs.getInt(COL_INT_PROP_1));
-                properties.setInt2(rs.getInt(COL_INT_PROP_2));
-                properties.setLong1(rs.getInt(COL_LONG_PROP_1));
-                properties.setLong2(rs.getInt(COL_LONG_PROP_2));
-                properties.setDecimal1(rs.getBigDecimal(COL_DEC_PROP_1));
-                properties.setDecimal2(rs.getBigDecimal(COL_DEC_PROP_2));
-                properties.setBoolean1(rs.getBoolean(COL_BOOL_PROP_1));
-                properties.setBoolean2(rs.getBoolean(COL_BOOL_PROP_2));
-                
-                return getTriggerPropertyBundle(properties);
+                return getTriggerPropertyBundle(readTriggerProperties(rs));
             }
             
             throw new IllegalStateException("No record found for selection of Trigger with key: '" + triggerKey + "' and statement: " + Util.rtp(SELECT_SIMPLE_TRIGGER, tablePrefix, schedNameLiteral));
@@ -161,6 +154,55 @@ public abstract class SimplePropertiesTriggerPersistenceDelegateSupport implemen
         }
     }
 
+    public Map<TriggerKey, TriggerPropertyBundle> loadExtendedTriggerProperties(Connection conn, List<TriggerKey> triggerKeys) throws SQLException {
+
+        Map<TriggerKey, TriggerPropertyBundle> bundles = new HashMap<TriggerKey, TriggerPropertyBundle>();
+        if (triggerKeys.isEmpty()) {
+            return bundles;
+        }
+
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        
+        try {
+            ps = conn.prepareStatement(Util.rtp(SELECT_SIMPLE_PROPS_TRIGGERS_FOR_KEYS, tablePrefix, schedNameLiteral)
+                    + Util.keysPredicate(COL_TRIGGER_NAME, COL_TRIGGER_GROUP, triggerKeys.size()));
+            int index = 1;
+            for (TriggerKey triggerKey : triggerKeys) {
+                ps.setString(index++, triggerKey.getName());
+                ps.setString(index++, triggerKey.getGroup());
+            }
+            rs = ps.executeQuery();
+
+            while (rs.next()) {
+                TriggerKey triggerKey = new TriggerKey(rs.getString(COL_TRIGGER_NAME), rs.getString(COL_TRIGGER_GROUP));
+                bundles.put(triggerKey, getTriggerPropertyBundle(readTriggerProperties(rs)));
+            }
+            return bundles;
+        } finally {
+            Util.closeResultSet(rs);
+            Util.closeStatement(ps);
+        }
+    }
+
+    private SimplePropertiesTriggerProperties readTriggerProperties(ResultSet rs) throws SQLException {
+        SimplePropertiesTriggerProperties properties = new SimplePropertiesTriggerProperties();
+            
+        properties.setString1(rs.getString(COL_STR_PROP_1));
+        properties.setString2(rs.getString(COL_STR_PROP_2));
+        properties.setString3(rs.getString(COL_STR_PROP_3));
+        properties.setInt1(rs.getInt(COL_INT_PROP_1));
+        properties.setInt2(rs.getInt(COL_INT_PROP_2));
+        properties.setLong1(rs.getInt(COL_LONG_PROP_1));
+        properties.setLong2(rs.getInt(COL_LONG_PROP_2));
+        properties.setDecimal1(rs.getBigDecimal(COL_DEC_PROP_1));
+        properties.setDecimal2(rs.getBigDecimal(COL_DEC_PROP_2));
+        properties.setBoolean1(rs.getBoolean(COL_BOOL_PROP_1));
+        properties.setBoolean2(rs.getBoolean(COL_BOOL_PROP_2));
+        
+        return properties;
+    }
+
     public int updateExtendedTriggerProperties(Connection conn, OperableTrigger trigger, String state, JobDetail jobDetail) throws SQLException, IOException {
 
         SimplePropertiesTriggerProperties properties = getTriggerProperties(trigger);
@@ -169,19 +211,7 @@ public abstract class SimplePropertiesTriggerPersistenceDelegateSupport implemen
 
         try {
             ps = conn.prepareStatement(Util.rtp(UPDATE_SIMPLE_PROPS_TRIGGER, tablePrefix, schedNameLiteral));
-            ps.setString(1, properties.getString1());
-            ps.setString(2, properties.getString2());
-            ps.setString(3, properties.getString3());
-            ps.setInt(4, properties.getInt1());
-            ps.setInt(5, properties.getInt2());
-            ps.setLong(6, properties.getLong1());
-            ps.setLong(7, properties.getLong2());
-            ps.setBigDecimal(8, properties.getDecimal1());
-            ps.setBigDecimal(9, properties.getDecimal2());
-            ps.setBoolean(10, properties.isBoolean1());
-            ps.setBoolean(11, properties.isBoolean2());
-            ps.setString(12, trigger.getKey().getName());
-            ps.setString(13, trigger.getKey().getGroup());
+            setUpdateParameters(ps, trigger, properties);
 
             return ps.executeUpdate();
         } finally {
@@ -189,4 +219,45 @@ public abstract class SimplePropertiesTriggerPersistenceDelegateSupport implemen
         }
     }
 
+    public int updateExtendedTriggerProperties(Connection conn, List<OperableTrigger> triggers, String state) throws SQLException, IOException {
+
+        PreparedStatement ps = null;
+
+        try {
+            ps = conn.prepareStatement(Util.rtp(UPDATE_SIMPLE_PROPS_TRIGGER, tablePrefix, schedNameLiteral));
+            for (OperableTrigger trigger : triggers) {
+                setUpdateParameters(ps, trigger, getTriggerProperties(trigger));
+                ps.addBatch();
+            }
+
+            return Util.sumBatchUpdateCounts(ps.executeBatch());
+        } finally {
+            Util.closeStatement(ps);
+        }
+    }
+
+    /**
+     * Which of the simple properties firing changes is up to the subclass,
+     * so all of them are rewritten - the row holds no BLOB.
+     */
+    public int updateFiredTriggerProperties(Connection conn, List<OperableTrigger> triggers) throws SQLException, IOException {
+        return updateExtendedTriggerProperties(conn, triggers, null);
+    }
+
+    private void setUpdateParameters(PreparedStatement ps, OperableTrigger trigger, SimplePropertiesTriggerProperties properties) throws SQLException {
+        ps.setString(1, properties.getString1());
+        ps.setString(2, properties.getString2());
+        ps.setString(3, properties.getString3());
+        ps.setInt(4, properties.getInt1());
+        ps.setInt(5, properties.getInt2());
+        ps.setLong(6, properties.getLong1());
+        ps.setLong(7, properties.getLong2());
+        ps.setBigDecimal(8, properties.getDecimal1());
+        ps.setBigDecimal(9, properties.getDecimal2());
+        ps.setBoolean(10, properties.isBoolean1());
+        ps.setBoolean(11, properties.isBoolean2());
+        ps.setString(12, trigger.getKey().getName());
+        ps.setString(13, trigger.getKey().getGroup());
+    }
+
 }
@@ -6,6 +6,9 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.quartz.JobDetail;
 import org.quartz.SimpleScheduleBuilder;
@@ -14,7 +17,7 @@ import org.quartz.TriggerKey;
 import org.quartz.impl.triggers.SimpleTriggerImpl;
 import org.quartz.spi.OperableTrigger;
 
-public class SimpleTriggerPersistenceDelegate implements TriggerPersistenceDelegate, StdJDBCConstants {
+public class SimpleTriggerPersistenceDelegate implements BatchTriggerPersistenceDelegate, StdJDBCConstants {
 
     protected String tablePrefix;
     protected String schedNameLiteral;
@@ -78,18 +81,7 @@ public class SimpleTriggerPersistenceDelegate implements TriggerPersistenceDeleg
             rs = ps.executeQuery();
     
             if (rs.next()) {
-                int repeatCount = rs.getInt(COL_REPEAT_COUNT);
-                long repeatInterval = rs.getLong(COL_REPEAT_INTERVAL);
-                int timesTriggered = rs.getInt(COL_TIMES_TRIGGERED);
-
-                SimpleScheduleBuilder sb = SimpleScheduleBuilder.simpleSchedule()
-                    .withRepeatCount(repeatCount)
-                    .withIntervalInMilliseconds(repeatInterval);
-                
-                String[] statePropertyNames = { "timesTriggered" };
-                Object[] statePropertyValues = { timesTriggered };
-                
-                return new TriggerPropertyBundle(sb, statePropertyNames, statePropertyValues);
+                return readTriggerPropertyBundle(rs);
             }
             
             throw new IllegalStateException("No record found for selection of Trigger with key: '" + triggerKey + "' and statement: " + Util.rtp(SELECT_SIMPLE_TRIGGER, tablePrefix, schedNameLiteral));
@@ -99,6 +91,52 @@ public class SimpleTriggerPersistenceDelegate implements TriggerPersistenceDeleg
         }
     }
 
+    public Map<TriggerKey, TriggerPropertyBundle> loadExtendedTriggerProperties(Connection conn, List<TriggerKey> triggerKeys) throws SQLException {
+
+        Map<TriggerKey, TriggerPropertyBundle> bundles = new HashMap<TriggerKey, TriggerPropertyBundle>();
+        if (triggerKeys.isEmpty()) {
+            return bundles;
+        }
+
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        
+        try {
+            ps = conn.prepareStatement(Util.rtp(SELECT_SIMPLE_TRIGGERS_FOR_KEYS, tablePrefix, schedNameLiteral)
+                    + Util.keysPredicate(COL_TRIGGER_NAME, COL_TRIGGER_GROUP, triggerKeys.size()));
+            int index = 1;
+            for (TriggerKey triggerKey : triggerKeys) {
+                ps.setString(index++, triggerKey.getName());
+                ps.setString(index++, triggerKey.getGroup());
+            }
+            rs = ps.executeQuery();
+
+            while (rs.next()) {
+                TriggerKey triggerKey = new TriggerKey(rs.getString(COL_TRIGGER_NAME), rs.getString(COL_TRIGGER_GROUP));
+                bundles.put(triggerKey, readTriggerPropertyBundle(rs));
+            }
+            return bundles;
+        } finally {
+            Util.closeResultSet(rs);
+            Util.closeStatement(ps);
+        }
+    }
+
+    private TriggerPropertyBundle readTriggerPropertyBundle(ResultSet rs) throws SQLException {
+        int repeatCount = rs.getInt(COL_REPEAT_COUNT);
+        long repeatInterval = rs.getLong(COL_REPEAT_INTERVAL);
+        int timesTriggered = rs.getInt(COL_TIMES_TRIGGERED);
+
+        SimpleScheduleBuilder sb = SimpleScheduleBuilder.simpleSchedule()
+            .withRepeatCount(repeatCount)
+            .withIntervalInMilliseconds(repeatInterval);
+        
+        String[] statePropertyNames = { "timesTriggered" };
+        Object[] statePropertyValues = { timesTriggered };
+        
+        return new TriggerPropertyBundle(sb, statePropertyNames, statePropertyValues);
+    }
+
     public int updateExtendedTriggerProperties(Connection conn, OperableTrigger trigger, String state, JobDetail jobDetail) throws SQLException, IOException {
 
         SimpleTrigger simpleTrigger = (SimpleTrigger)trigger;
@@ -107,12 +145,7 @@ public class SimpleTriggerPersistenceDelegate implements TriggerPersistenceDeleg
 
         try {
             ps = conn.prepareStatement(Util.rtp(UPDATE_SIMPLE_TRIGGER, tablePrefix, schedNameLiteral));
-
-            ps.setInt(1, simpleTrigger.getRepeatCount());
-            ps.setBigDecimal(2, new BigDecimal(String.valueOf(simpleTrigger.getRepeatInterval())));
-            ps.setInt(3, simpleTrigger.getTimesTriggered());
-            ps.setString(4, simpleTrigger.getKey().getName());
-            ps.setString(5, simpleTrigger.getKey().getGroup());
+            setUpdateParameters(ps, simpleTrigger);
 
             return ps.executeUpdate();
         } finally {
@@ -120,4 +153,48 @@ public class SimpleTriggerPersistenceDelegate implements TriggerPersistenceDeleg
         }
     }
 
+    public int updateExtendedTriggerProperties(Connection conn, List<OperableTrigger> triggers, String state) throws SQLException, IOException {
+
+        PreparedStatement ps = null;
+
+        try {
+            ps = conn.prepareStatement(Util.rtp(UPDATE_SIMPLE_TRIGGER, tablePrefix, schedNameLiteral));
+            for (OperableTrigger trigger : triggers) {
+                setUpdateParameters(ps, (SimpleTrigger)trigger);
+                ps.addBatch();
+            }
+
+            return Util.sumBatchUpdateCounts(ps.executeBatch());
+        } finally {
+            Util.closeStatement(ps);
+        }
+    }
+
+    public int updateFiredTriggerProperties(Connection conn, List<OperableTrigger> triggers) throws SQLException, IOException {
+
+        PreparedStatement ps = null;
+
+        try {
+            ps = conn.prepareStatement(Util.rtp(UPDATE_SIMPLE_TRIGGER_TIMES_TRIGGERED, tablePrefix, schedNameLiteral));
+            for (OperableTrigger trigger : triggers) {
+                ps.setInt(1, ((SimpleTrigger)trigger).getTimesTriggered());
+                ps.setString(2, trigger.getKey().getName());
+                ps.setString(3, trigger.getKey().getGroup());
+                ps.addBatch();
+            }
+
+            return Util.sumBatchUpdateCounts(ps.executeBatch());
+        } finally {
+            Util.closeStatement(ps);
+        }
+    }
+
+    private void setUpdateParameters(PreparedStatement ps, SimpleTrigger simpleTrigger) throws SQLException {
+        ps.setInt(1, simpleTrigger.getRepeatCount());
+        ps.setBigDecimal(2, new BigDecimal(String.valueOf(simpleTrigger.getRepeatInterval())));
+        ps.setInt(3, simpleTrigger.getTimesTriggered());
+        ps.setString(4, simpleTrigger.getKey().getName());
+        ps.setString(5, simpleTrigger.getKey().getGroup());
+    }
+
 }
@@ -260,6 +260,12 @@ public interface StdJDBCConstants extends Constants {
         + COL_SCHEDULER_NAME + " = " + SCHED_NAME_SUBST
         + " AND " + COL_TRIGGER_NAME + " = ? AND " + COL_TRIGGER_GROUP + " = ?";
     
+    String UPDATE_TRIGGER_FIRE_TIMES = "UPDATE " + TABLE_PREFIX_SUBST
+        + TABLE_TRIGGERS + " SET " + COL_NEXT_FIRE_TIME + " = ?, "
+        + COL_PREV_FIRE_TIME + " = ?, " + COL_TRIGGER_STATE + " = ? WHERE "
+        + COL_SCHEDULER_NAME + " = " + SCHED_NAME_SUBST
+        + " AND " + COL_TRIGGER_NAME + " = ? AND " + COL_TRIGGER_GROUP + " = ?";
+
     String UPDATE_SIMPLE_TRIGGER = "UPDATE "
             + TABLE_PREFIX_SUBST + TABLE_SIMPLE_TRIGGERS + " SET "
             + COL_REPEAT_COUNT + " = ?, " + COL_REPEAT_INTERVAL + " = ?, "
@@ -268,6 +274,13 @@ public interface StdJDBCConstants extends Constants {
             + " AND " + COL_TRIGGER_NAME
             + " = ? AND " + COL_TRIGGER_GROUP + " = ?";
 
+    String UPDATE_SIMPLE_TRIGGER_TIMES_TRIGGERED = "UPDATE "
+            + TABLE_PREFIX_SUBST + TABLE_SIMPLE_TRIGGERS + " SET "
+            + COL_TIMES_TRIGGERED + " = ? WHERE " 
+            + COL_SCHEDULER_NAME + " = " + SCHED_NAME_SUBST
+            + " AND " + COL_TRIGGER_NAME
+            + " = ? AND " + COL_TRIGGER_GROUP + " = ?";
+
     String UPDATE_CRON_TRIGGER = "UPDATE "
             + TABLE_PREFIX_SUBST + TABLE_CRON_TRIGGERS + " SET "
             + COL_CRON_EXPRESSION + " = ?, " + COL_TIME_ZONE_ID  
@@ -662,6 +675,94 @@ public interface StdJDBCConstants extends Constants {
             + TABLE_PREFIX_SUBST + TABLE_PAUSED_TRIGGERS
             + " WHERE " + COL_SCHEDULER_NAME + " = " + SCHED_NAME_SUBST;
 
+    // Set-based statements. Each of these ends with " AND ", and is completed
+    // by appending a Util.keysPredicate(...) for the number of keys bound.
+
+    String SELECT_TRIGGERS_FOR_KEYS = "SELECT * FROM "
+            + TABLE_PREFIX_SUBST + TABLE_TRIGGERS + " WHERE "
+            + COL_SCHEDULER_NAME + " = " + SCHED_NAME_SUBST + " AND ";
+
+    String SELECT_SIMPLE_TRIGGERS_FOR_KEYS = "SELECT * FROM "
+            + TABLE_PREFIX_SUBST + TABLE_SIMPLE_TRIGGERS + " WHERE "
+            + COL_SCHEDULER_NAME + " = " + SCHED_NAME_SUBST + " AND ";
+
+    String SELECT_CRON_TRIGGERS_FOR_KEYS = "SELECT * FROM "
+            + TABLE_PREFIX_SUBST + TABLE_CRON_TRIGGERS + " WHERE "
+            + COL_SCHEDULER_NAME + " = " + SCHED_NAME_SUBST + " AND ";
+
+    String SELECT_JOB_DETAILS_FOR_KEYS = "SELECT * FROM "
+            + TABLE_PREFIX_SUBST + TABLE_JOB_DETAILS + " WHERE "
+            + COL_SCHEDULER_NAME + " = " + SCHED_NAME_SUBST + " AND ";
+
+    String SELECT_JOB_DETAIL_REVISIONS_FOR_KEYS = "SELECT "
+            + COL_JOB_NAME + ", " + COL_JOB_GROUP + ", " + COL_REVISION
+            + " FROM " + TABLE_PREFIX_SUBST + TABLE_JOB_DETAILS + " WHERE "
+            + COL_SCHEDULER_NAME + " = " + SCHED_NAME_SUBST + " AND ";
+
+    String SELECT_JOB_DETAIL_REVISION = "SELECT " + COL_REVISION
+            + " FROM " + TABLE_PREFIX_SUBST + TABLE_JOB_DETAILS + " WHERE "
+            + COL_SCHEDULER_NAME + " = " + SCHED_NAME_SUBST
+            + " AND " + COL_JOB_NAME + " = ? AND " + COL_JOB_GROUP + " = ?";
+
+    // the revision becomes the current time, or the next number if that is
+    // not greater, so that a re-created row does not repeat a revision
+    String UPDATE_JOB_DETAIL_REVISION = "UPDATE "
+            + TABLE_PREFIX_SUBST + TABLE_JOB_DETAILS + " SET " + COL_REVISION
+            + " = CASE WHEN " + COL_REVISION + " < ? THEN ? ELSE " + COL_REVISION + " + 1 END"
+            + " WHERE " + COL_SCHEDULER_NAME + " = " + SCHED_NAME_SUBST
+            + " AND " + COL_JOB_NAME + " = ? AND " + COL_JOB_GROUP + " = ?";
+
+    String SELECT_CALENDAR_REVISION = "SELECT " + COL_REVISION
+            + " FROM " + TABLE_PREFIX_SUBST + TABLE_CALENDARS + " WHERE "
+            + COL_SCHEDULER_NAME + " = " + SCHED_NAME_SUBST
+            + " AND " + COL_CALENDAR_NAME + " = ?";
+
+    String UPDATE_CALENDAR_REVISION = "UPDATE "
+            + TABLE_PREFIX_SUBST + TABLE_CALENDARS + " SET " + COL_REVISION
+            + " = CASE WHEN " + COL_REVISION + " < ? THEN ? ELSE " + COL_REVISION + " + 1 END"
+            + " WHERE " + COL_SCHEDULER_NAME + " = " + SCHED_NAME_SUBST
+            + " AND " + COL_CALENDAR_NAME + " = ?";
+
+    String SELECT_TRIGGER_STATES_FOR_KEYS = "SELECT "
+            + COL_TRIGGER_NAME + ", " + COL_TRIGGER_GROUP + ", " + COL_TRIGGER_STATE
+            + " FROM " + TABLE_PREFIX_SUBST + TABLE_TRIGGERS + " WHERE "
+            + COL_SCHEDULER_NAME + " = " + SCHED_NAME_SUBST + " AND ";
+
+    String SELECT_NEXT_TRIGGER_TO_ACQUIRE_IN_PARTITION = "SELECT "
+        + COL_TRIGGER_NAME + ", " + COL_TRIGGER_GROUP + ", "
+        + COL_NEXT_FIRE_TIME + ", " + COL_PRIORITY + " FROM "
+        + TABLE_PREFIX_SUBST + TABLE_TRIGGERS + " WHERE "
+        + COL_SCHEDULER_NAME + " = " + SCHED_NAME_SUBST
+        + " AND " + COL_TRIGGER_STATE + " = ? AND " + COL_NEXT_FIRE_TIME + " <= ? " 
+        + "AND (" + COL_MISFIRE_INSTRUCTION + " = -1 OR (" +COL_MISFIRE_INSTRUCTION+ " != -1 AND "+ COL_NEXT_FIRE_TIME + " >= ?)) "
+        + "AND " + COL_ACCESS_PARTITION + " = ? "
+        + "ORDER BY "+ COL_NEXT_FIRE_TIME + " ASC, " + COL_PRIORITY + " DESC";
+
+    String SELECT_NEXT_FIRE_TIMES_BY_ACCESS_PARTITION = "SELECT "
+        + COL_ACCESS_PARTITION + ", MIN(" + COL_NEXT_FIRE_TIME + ") FROM "
+        + TABLE_PREFIX_SUBST + TABLE_TRIGGERS + " WHERE "
+        + COL_SCHEDULER_NAME + " = " + SCHED_NAME_SUBST
+        + " AND " + COL_TRIGGER_STATE + " = ? AND " + COL_NEXT_FIRE_TIME + " <= ? " 
+        + "AND (" + COL_MISFIRE_INSTRUCTION + " = -1 OR (" +COL_MISFIRE_INSTRUCTION+ " != -1 AND "+ COL_NEXT_FIRE_TIME + " >= ?)) "
+        + "GROUP BY " + COL_ACCESS_PARTITION;
+
+    String UPDATE_TRIGGER_ACCESS_PARTITION_FOR_JOB = "UPDATE "
+        + TABLE_PREFIX_SUBST + TABLE_TRIGGERS + " SET " + COL_ACCESS_PARTITION
+        + " = ? WHERE " + COL_SCHEDULER_NAME + " = " + SCHED_NAME_SUBST
+        + " AND " + COL_JOB_NAME + " = ? AND " + COL_JOB_GROUP + " = ? AND "
+        + COL_ACCESS_PARTITION + " <> ?";
+
+    String SELECT_TRIGGER_NEXT_FIRE_TIMES_FOR_KEYS = "SELECT "
+            + COL_TRIGGER_NAME + ", " + COL_TRIGGER_GROUP + ", " + COL_NEXT_FIRE_TIME
+            + " FROM " + TABLE_PREFIX_SUBST + TABLE_TRIGGERS + " WHERE "
+            + COL_SCHEDULER_NAME + " = " + SCHED_NAME_SUBST
+            + " AND " + COL_TRIGGER_STATE + " = ? AND ";
+
+    String UPDATE_TRIGGER_STATES_FROM_STATE_FOR_KEYS = "UPDATE "
+            + TABLE_PREFIX_SUBST + TABLE_TRIGGERS + " SET " + COL_TRIGGER_STATE
+            + " = ? WHERE " + COL_SCHEDULER_NAME + " = " + SCHED_NAME_SUBST
+            + " AND " + COL_TRIGGER_STATE + " = ? AND ";
+
     //  CREATE TABLE qrtz_scheduler_state(INSTANCE_NAME VARCHAR2(80) NOT NULL,
     // LAST_CHECKIN_TIME NUMBER(13) NOT NULL, CHECKIN_INTERVAL NUMBER(13) NOT
     // NULL, PRIMARY KEY (INSTANCE_NAME));
@@ -21,6 +21,7 @@ import static org.quartz.JobKey.jobKey;
 import static org.quartz.TriggerBuilder.newTrigger;
 import static org.quartz.TriggerKey.triggerKey;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -28,6 +29,7 @@ import java.io.InputStream;
 import java.io.NotSerializableException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.PushbackInputStream;
 import java.math.BigDecimal;
 import java.sql.Blob;
 import java.sql.Connection;
@@ -35,6 +37,8 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -44,6 +48,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.quartz.Calendar;
 import org.quartz.Job;
@@ -76,7 +81,7 @@ import org.slf4j.Logger;
  * @author James House
  * @author Eric Mueller
  */
-public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
+public class StdJDBCDelegate implements ExtendedDriverDelegate, StdJDBCConstants {
 
     /*
      * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
@@ -100,6 +105,22 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
 
     protected List<TriggerPersistenceDelegate> triggerPersistenceDelegates = new LinkedList<TriggerPersistenceDelegate>();
 
+    /**
+     * The most keys bound into a single set-based statement; larger sets are
+     * split into several statements.
+     */
+    protected static final int MAX_KEYS_PER_STATEMENT = 100;
+
+    /**
+     * The statements, expanded by <code>{@link #rtp(String)}</code>, keyed by
+     * their unexpanded form.
+     */
+    private final Map<String, String> expandedQueries = new ConcurrentHashMap<String, String>();
+
+    private PreparedStatementCache statementCache;
+
+    private JobDataCodec jobDataCodec;
+
     
     /*
      * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
@@ -126,6 +147,20 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
      */
     
     /**
+     * <p>
+     * The recognized settings are <code>triggerPersistenceDelegateClasses</code>
+     * (a comma-separated list of <code>TriggerPersistenceDelegate</code> class
+     * names), <code>cachePreparedStatements</code> (whether the statements
+     * prepared on a connection are cached until the connection is closed,
+     * for use where the connection pool does not cache statements itself),
+     * <code>jobDataCodec</code> (<code>binary</code> for the
+     * <code>{@link BinaryJobDataCodec}</code>, or the class name of another
+     * <code>{@link JobDataCodec}</code>, to store <code>JobDataMap</code>s
+     * with instead of Java serialization) and
+     * <code>jobDataCompressionThreshold</code> (the encoded size, in bytes,
+     * above which the binary codec deflates a <code>JobDataMap</code>).
+     * </p>
+     * 
      * @param initString of the format: settingName=settingValue|otherSettingName=otherSettingValue|...
      * @throws NoSuchDelegateException 
      */
@@ -137,11 +172,15 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         this.instanceId = instanceId;
         this.useProperties = useProperties;
         this.classLoadHelper = classLoadHelper;
+        this.expandedQueries.clear();
+        this.jobDataCodec = null;
         addDefaultTriggerPersistenceDelegates();
 
         if(initString == null)
             return;
 
+        Integer compressionThreshold = null;
+
         String[] settings = initString.split("\\|");
         
         for(String setting: settings) {
@@ -163,9 +202,36 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
                     } 
                 }
             }
+            else if(name.equals("cachePreparedStatements")) {
+                if(Boolean.valueOf(parts[1]))
+                    statementCache = new PreparedStatementCache();
+            }
+            else if(name.equals("jobDataCodec")) {
+                if(parts[1].equals("binary")) {
+                    jobDataCodec = new BinaryJobDataCodec();
+                } else {
+                    try {
+                        Class<?> codecClass = classLoadHelper.loadClass(parts[1]);
+                        jobDataCodec = (JobDataCodec) codecClass.newInstance();
+                    } catch (Exception e) {
+                        throw new NoSuchDelegateException("Error instantiating JobDataCodec of type: " + parts[1], e);
+                    }
+                }
+            }
+            else if(name.equals("jobDataCompressionThreshold")) {
+                try {
+                    compressionThreshold = Integer.valueOf(parts[1].trim());
+                } catch (NumberFormatException e) {
+                    throw new NoSuchDelegateException("Invalid jobDataCompressionThreshold: '" + parts[1] + "'");
+                }
+            }
             else
                 throw new NoSuchDelegateException("Unknown setting: '" + name + "'");
         }
+
+        if(compressionThreshold != null && jobDataCodec instanceof BinaryJobDataCodec) {
+            ((BinaryJobDataCodec) jobDataCodec).setCompressionThreshold(compressionThreshold.intValue());
+        }
     }
 
     protected void addDefaultTriggerPersistenceDelegates() {
@@ -178,6 +244,24 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
     protected boolean canUseProperties() {
         return useProperties;
     }
+
+    /**
+     * Get the codec <code>JobDataMap</code>s are stored with, or
+     * <code>null</code> if they are Java serialized.
+     */
+    protected JobDataCodec getJobDataCodec() {
+        return jobDataCodec;
+    }
+
+    /**
+     * Whether <code>{@link #getJobDataFromBlob(ResultSet, String)}</code>
+     * is to return the raw <code>InputStream</code> of the BLOB, rather than
+     * the deserialized object - which is the case when the data is stored
+     * as properties, or with a <code>{@link JobDataCodec}</code>.
+     */
+    protected boolean isJobDataReadAsStream() {
+        return canUseProperties() || jobDataCodec != null;
+    }
     
     public void addTriggerPersistenceDelegate(TriggerPersistenceDelegate delegate) {
         logger.debug("Adding TriggerPersistenceDelegate of type: " + delegate.getClass().getCanonicalName());
@@ -228,8 +312,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
 
         try {
-            ps = conn
-                    .prepareStatement(rtp(UPDATE_TRIGGER_STATES_FROM_OTHER_STATES));
+            ps = prepareStatement(conn, rtp(UPDATE_TRIGGER_STATES_FROM_OTHER_STATES));
             ps.setString(1, newState);
             ps.setString(2, oldState1);
             ps.setString(3, oldState2);
@@ -255,7 +338,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn.prepareStatement(rtp(SELECT_MISFIRED_TRIGGERS));
+            ps = prepareStatement(conn, rtp(SELECT_MISFIRED_TRIGGERS));
             ps.setBigDecimal(1, new BigDecimal(String.valueOf(ts)));
             rs = ps.executeQuery();
 
@@ -289,7 +372,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn.prepareStatement(rtp(SELECT_TRIGGERS_IN_STATE));
+            ps = prepareStatement(conn, rtp(SELECT_TRIGGERS_IN_STATE));
             ps.setString(1, state);
             rs = ps.executeQuery();
 
@@ -311,7 +394,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn.prepareStatement(rtp(SELECT_MISFIRED_TRIGGERS_IN_STATE));
+            ps = prepareStatement(conn, rtp(SELECT_MISFIRED_TRIGGERS_IN_STATE));
             ps.setBigDecimal(1, new BigDecimal(String.valueOf(ts)));
             ps.setString(2, state);
             rs = ps.executeQuery();
@@ -350,7 +433,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn.prepareStatement(rtp(SELECT_HAS_MISFIRED_TRIGGERS_IN_STATE));
+            ps = prepareStatement(conn, rtp(SELECT_HAS_MISFIRED_TRIGGERS_IN_STATE));
             ps.setBigDecimal(1, new BigDecimal(String.valueOf(ts)));
             ps.setString(2, state1);
             rs = ps.executeQuery();
@@ -387,7 +470,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn.prepareStatement(rtp(COUNT_MISFIRED_TRIGGERS_IN_STATE));
+            ps = prepareStatement(conn, rtp(COUNT_MISFIRED_TRIGGERS_IN_STATE));
             ps.setBigDecimal(1, new BigDecimal(String.valueOf(ts)));
             ps.setString(2, state1);
             rs = ps.executeQuery();
@@ -420,8 +503,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn
-                    .prepareStatement(rtp(SELECT_MISFIRED_TRIGGERS_IN_GROUP_IN_STATE));
+            ps = prepareStatement(conn, rtp(SELECT_MISFIRED_TRIGGERS_IN_GROUP_IN_STATE));
             ps.setBigDecimal(1, new BigDecimal(String.valueOf(ts)));
             ps.setString(2, groupName);
             ps.setString(3, state);
@@ -466,8 +548,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn
-                    .prepareStatement(rtp(SELECT_INSTANCES_RECOVERABLE_FIRED_TRIGGERS));
+            ps = prepareStatement(conn, rtp(SELECT_INSTANCES_RECOVERABLE_FIRED_TRIGGERS));
             ps.setString(1, instanceId);
             setBoolean(ps, 2, true);
             rs = ps.executeQuery();
@@ -520,7 +601,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
 
         try {
-            ps = conn.prepareStatement(rtp(DELETE_FIRED_TRIGGERS));
+            ps = prepareStatement(conn, rtp(DELETE_FIRED_TRIGGERS));
 
             return ps.executeUpdate();
         } finally {
@@ -533,7 +614,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
 
         try {
-            ps = conn.prepareStatement(rtp(DELETE_INSTANCES_FIRED_TRIGGERS));
+            ps = prepareStatement(conn, rtp(DELETE_INSTANCES_FIRED_TRIGGERS));
             ps.setString(1, theInstanceId);
 
             return ps.executeUpdate();
@@ -555,28 +636,28 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
 
         try {
-            ps = conn.prepareStatement(rtp(DELETE_ALL_SIMPLE_TRIGGERS));
+            ps = prepareStatement(conn, rtp(DELETE_ALL_SIMPLE_TRIGGERS));
             ps.executeUpdate();
             ps.close();
-            ps = conn.prepareStatement(rtp(DELETE_ALL_SIMPROP_TRIGGERS));
+            ps = prepareStatement(conn, rtp(DELETE_ALL_SIMPROP_TRIGGERS));
             ps.executeUpdate();
             ps.close();
-            ps = conn.prepareStatement(rtp(DELETE_ALL_CRON_TRIGGERS));
+            ps = prepareStatement(conn, rtp(DELETE_ALL_CRON_TRIGGERS));
             ps.executeUpdate();
             ps.close();
-            ps = conn.prepareStatement(rtp(DELETE_ALL_BLOB_TRIGGERS));
+            ps = prepareStatement(conn, rtp(DELETE_ALL_BLOB_TRIGGERS));
             ps.executeUpdate();
             ps.close();
-            ps = conn.prepareStatement(rtp(DELETE_ALL_TRIGGERS));
+            ps = prepareStatement(conn, rtp(DELETE_ALL_TRIGGERS));
             ps.executeUpdate();
             ps.close();
-            ps = conn.prepareStatement(rtp(DELETE_ALL_JOB_DETAILS));
+            ps = prepareStatement(conn, rtp(DELETE_ALL_JOB_DETAILS));
             ps.executeUpdate();
             ps.close();
-            ps = conn.prepareStatement(rtp(DELETE_ALL_CALENDARS));
+            ps = prepareStatement(conn, rtp(DELETE_ALL_CALENDARS));
             ps.executeUpdate();
             ps.close();
-            ps = conn.prepareStatement(rtp(DELETE_ALL_PAUSED_TRIGGER_GRPS));
+            ps = prepareStatement(conn, rtp(DELETE_ALL_PAUSED_TRIGGER_GRPS));
             ps.executeUpdate();
         } finally {
             closeStatement(ps);
@@ -610,7 +691,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         int insertResult = 0;
 
         try {
-            ps = conn.prepareStatement(rtp(INSERT_JOB_DETAIL));
+            ps = prepareStatement(conn, rtp(INSERT_JOB_DETAIL));
             ps.setString(1, job.getKey().getName());
             ps.setString(2, job.getKey().getGroup());
             ps.setString(3, job.getDescription());
@@ -651,7 +732,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         int insertResult = 0;
 
         try {
-            ps = conn.prepareStatement(rtp(UPDATE_JOB_DETAIL));
+            ps = prepareStatement(conn, rtp(UPDATE_JOB_DETAIL));
             ps.setString(1, job.getDescription());
             ps.setString(2, job.getJobClass().getName());
             setBoolean(ps, 3, job.isDurable());
@@ -685,7 +766,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn.prepareStatement(rtp(SELECT_TRIGGERS_FOR_JOB));
+            ps = prepareStatement(conn, rtp(SELECT_TRIGGERS_FOR_JOB));
             ps.setString(1, jobKey.getName());
             ps.setString(2, jobKey.getGroup());
             rs = ps.executeQuery();
@@ -720,7 +801,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
             if (logger.isDebugEnabled()) {
                 logger.debug("Deleting job: " + jobKey);
             }
-            ps = conn.prepareStatement(rtp(DELETE_JOB_DETAIL));
+            ps = prepareStatement(conn, rtp(DELETE_JOB_DETAIL));
             ps.setString(1, jobKey.getName());
             ps.setString(2, jobKey.getGroup());
             return ps.executeUpdate();
@@ -743,7 +824,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn.prepareStatement(rtp(SELECT_JOB_NONCONCURRENT));
+            ps = prepareStatement(conn, rtp(SELECT_JOB_NONCONCURRENT));
             ps.setString(1, jobKey.getName());
             ps.setString(2, jobKey.getGroup());
             rs = ps.executeQuery();
@@ -770,7 +851,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn.prepareStatement(rtp(SELECT_JOB_EXISTENCE));
+            ps = prepareStatement(conn, rtp(SELECT_JOB_EXISTENCE));
             ps.setString(1, jobKey.getName());
             ps.setString(2, jobKey.getGroup());
             rs = ps.executeQuery();
@@ -804,7 +885,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
 
         try {
-            ps = conn.prepareStatement(rtp(UPDATE_JOB_DATA));
+            ps = prepareStatement(conn, rtp(UPDATE_JOB_DATA));
             setBytes(ps, 1, baos);
             ps.setString(2, job.getKey().getName());
             ps.setString(3, job.getKey().getGroup());
@@ -836,7 +917,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn.prepareStatement(rtp(SELECT_JOB_DETAIL));
+            ps = prepareStatement(conn, rtp(SELECT_JOB_DETAIL));
             ps.setString(1, jobKey.getName());
             ps.setString(2, jobKey.getGroup());
             rs = ps.executeQuery();
@@ -844,34 +925,247 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
             JobDetailImpl job = null;
 
             if (rs.next()) {
-                job = new JobDetailImpl();
-
-                job.setName(rs.getString(COL_JOB_NAME));
-                job.setGroup(rs.getString(COL_JOB_GROUP));
-                job.setDescription(rs.getString(COL_DESCRIPTION));
-                job.setJobClass( loadHelper.loadClass(rs.getString(COL_JOB_CLASS), Job.class));
-                job.setDurability(getBoolean(rs, COL_IS_DURABLE));
-                job.setRequestsRecovery(getBoolean(rs, COL_REQUESTS_RECOVERY));
-
-                Map<?, ?> map = null;
-                if (canUseProperties()) {
-                    map = getMapFromProperties(rs);
-                } else {
-                    map = (Map<?, ?>) getObjectFromBlob(rs, COL_JOB_DATAMAP);
+                job = readJobDetail(rs, loadHelper);
+            }
+
+            return job;
+        } finally {
+            closeResultSet(rs);
+            closeStatement(ps);
+        }
+    }
+
+    /**
+     * <p>
+     * Select the JobDetail objects for the given job keys, using as few
+     * queries as possible.
+     * </p>
+     * 
+     * <p>
+     * Jobs whose class cannot be loaded, or whose data map cannot be
+     * deserialized, are left out of the result so that callers can handle
+     * them individually via <code>{@link #selectJobDetail(Connection, JobKey, ClassLoadHelper)}</code>.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @return a (never null) map of the JobDetails found, keyed by JobKey
+     */
+    public Map<JobKey, JobDetail> selectJobDetails(Connection conn, Set<JobKey> jobKeys,
+            ClassLoadHelper loadHelper) throws SQLException {
+        Map<JobKey, JobDetail> jobs = new HashMap<JobKey, JobDetail>();
+        List<JobKey> keys = new ArrayList<JobKey>(jobKeys);
+
+        for (int from = 0; from < keys.size(); from += MAX_KEYS_PER_STATEMENT) {
+            List<JobKey> chunk = keys.subList(from, Math.min(keys.size(), from + MAX_KEYS_PER_STATEMENT));
+            PreparedStatement ps = null;
+            ResultSet rs = null;
+
+            try {
+                ps = prepareStatement(conn, rtp(SELECT_JOB_DETAILS_FOR_KEYS)
+                        + Util.keysPredicate(COL_JOB_NAME, COL_JOB_GROUP, chunk.size()));
+                int index = 1;
+                for (JobKey jobKey : chunk) {
+                    ps.setString(index++, jobKey.getName());
+                    ps.setString(index++, jobKey.getGroup());
                 }
+                rs = ps.executeQuery();
 
-                if (null != map) {
-                    job.setJobDataMap(new JobDataMap(map));
+                while (rs.next()) {
+                    try {
+                        JobDetail job = readJobDetail(rs, loadHelper);
+                        jobs.put(job.getKey(), job);
+                    } catch (ClassNotFoundException e) {
+                        logger.debug("Skipping job in set-based select, its class could not be loaded: " + e.getMessage());
+                    } catch (IOException e) {
+                        logger.debug("Skipping job in set-based select, its data could not be deserialized: " + e.getMessage());
+                    }
                 }
+            } finally {
+                closeResultSet(rs);
+                closeStatement(ps);
             }
+        }
 
-            return job;
+        return jobs;
+    }
+
+    /**
+     * <p>
+     * Select the revision of the given job, which changes whenever
+     * <code>{@link #updateJobDetailRevision(Connection, JobKey)}</code> is
+     * called for it.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @return the revision, or -1 if there is no such job
+     */
+    public long selectJobDetailRevision(Connection conn, JobKey jobKey)
+        throws SQLException {
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+
+        try {
+            ps = prepareStatement(conn, rtp(SELECT_JOB_DETAIL_REVISION));
+            ps.setString(1, jobKey.getName());
+            ps.setString(2, jobKey.getGroup());
+            rs = ps.executeQuery();
+
+            if (rs.next()) {
+                return rs.getLong(COL_REVISION);
+            }
+            return -1;
         } finally {
             closeResultSet(rs);
             closeStatement(ps);
         }
     }
 
+    /**
+     * <p>
+     * Select the revisions of the given jobs, using as few queries as
+     * possible.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @return a (never null) map of the revisions of the jobs found, keyed
+     *         by JobKey
+     */
+    public Map<JobKey, Long> selectJobDetailRevisions(Connection conn, Set<JobKey> jobKeys)
+        throws SQLException {
+        Map<JobKey, Long> revisions = new HashMap<JobKey, Long>();
+        List<JobKey> keys = new ArrayList<JobKey>(jobKeys);
+
+        for (int from = 0; from < keys.size(); from += MAX_KEYS_PER_STATEMENT) {
+            List<JobKey> chunk = keys.subList(from, Math.min(keys.size(), from + MAX_KEYS_PER_STATEMENT));
+            PreparedStatement ps = null;
+            ResultSet rs = null;
+
+            try {
+                ps = prepareStatement(conn, rtp(SELECT_JOB_DETAIL_REVISIONS_FOR_KEYS)
+                        + Util.keysPredicate(COL_JOB_NAME, COL_JOB_GROUP, chunk.size()));
+                int index = 1;
+                for (JobKey jobKey : chunk) {
+                    ps.setString(index++, jobKey.getName());
+                    ps.setString(index++, jobKey.getGroup());
+                }
+                rs = ps.executeQuery();
+
+                while (rs.next()) {
+                    revisions.put(new JobKey(rs.getString(COL_JOB_NAME), rs.getString(COL_JOB_GROUP)),
+                            Long.valueOf(rs.getLong(COL_REVISION)));
+                }
+            } finally {
+                closeResultSet(rs);
+                closeStatement(ps);
+            }
+        }
+
+        return revisions;
+    }
+
+    /**
+     * <p>
+     * Give the given job a new revision.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @return the number of rows updated
+     */
+    public int updateJobDetailRevision(Connection conn, JobKey jobKey)
+        throws SQLException {
+        PreparedStatement ps = null;
+
+        try {
+            ps = prepareStatement(conn, rtp(UPDATE_JOB_DETAIL_REVISION));
+            long now = System.currentTimeMillis();
+            ps.setLong(1, now);
+            ps.setLong(2, now);
+            ps.setString(3, jobKey.getName());
+            ps.setString(4, jobKey.getGroup());
+
+            return ps.executeUpdate();
+        } finally {
+            closeStatement(ps);
+        }
+    }
+
+    private JobDetailImpl readJobDetail(ResultSet rs, ClassLoadHelper loadHelper)
+        throws ClassNotFoundException, IOException, SQLException {
+        JobDetailImpl job = new JobDetailImpl();
+
+        job.setName(rs.getString(COL_JOB_NAME));
+        job.setGroup(rs.getString(COL_JOB_GROUP));
+        job.setDescription(rs.getString(COL_DESCRIPTION));
+        job.setJobClass( loadHelper.loadClass(rs.getString(COL_JOB_CLASS), Job.class));
+        job.setDurability(getBoolean(rs, COL_IS_DURABLE));
+        job.setRequestsRecovery(getBoolean(rs, COL_REQUESTS_RECOVERY));
+
+        Map<?, ?> map = readJobDataMap(rs);
+
+        if (null != map) {
+            job.setJobDataMap(new JobDataMap(map));
+        }
+        return job;
+    }
+
+    /**
+     * Read the <code>JobDataMap</code> column of the current row, in
+     * whichever form it is stored.
+     */
+    private Map<?, ?> readJobDataMap(ResultSet rs)
+        throws ClassNotFoundException, IOException, SQLException {
+        if (canUseProperties()) {
+            return getMapFromProperties(rs);
+        }
+        if (jobDataCodec == null) {
+            return (Map<?, ?>) getObjectFromBlob(rs, COL_JOB_DATAMAP);
+        }
+
+        Object data = getJobDataFromBlob(rs, COL_JOB_DATAMAP);
+        if (!(data instanceof InputStream)) {
+            // a delegate that deserialized the BLOB itself
+            return (Map<?, ?>) data;
+        }
+        InputStream is = (InputStream) data;
+        try {
+            return decodeJobData(is);
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * Decode a <code>JobDataMap</code> with the <code>{@link JobDataCodec}</code>,
+     * or, if it was stored before the codec was configured, by Java
+     * deserialization.
+     * 
+     * @return the decoded Map, or null if the stream is empty
+     */
+    protected Map<?, ?> decodeJobData(InputStream is)
+        throws ClassNotFoundException, IOException {
+        PushbackInputStream in = new PushbackInputStream(new BufferedInputStream(is), 2);
+        int b0 = in.read();
+        if (b0 == -1) {
+            return null;
+        }
+        int b1 = in.read();
+        if (b1 != -1) {
+            in.unread(b1);
+        }
+        in.unread(b0);
+
+        if (b0 == 0xAC && b1 == 0xED) {
+            // the Java serialization stream header
+            ObjectInputStream ois = new ObjectInputStream(in);
+            return (Map<?, ?>) ois.readObject();
+        }
+        return jobDataCodec.decode(in);
+    }
+
     /**
      * build Map from java.util.Properties encoding.
      */
@@ -909,7 +1203,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
 
         try {
             int count = 0;
-            ps = conn.prepareStatement(rtp(SELECT_NUM_JOBS));
+            ps = prepareStatement(conn, rtp(SELECT_NUM_JOBS));
             rs = ps.executeQuery();
 
             if (rs.next()) {
@@ -937,7 +1231,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn.prepareStatement(rtp(SELECT_JOB_GROUPS));
+            ps = prepareStatement(conn, rtp(SELECT_JOB_GROUPS));
             rs = ps.executeQuery();
 
             LinkedList<String> list = new LinkedList<String>();
@@ -970,11 +1264,11 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
 
         try {
             if(isMatcherEquals(matcher)) {
-                ps = conn.prepareStatement(rtp(SELECT_JOBS_IN_GROUP));
+                ps = prepareStatement(conn, rtp(SELECT_JOBS_IN_GROUP));
                 ps.setString(1, toSqlEqualsClause(matcher));
             }
             else {
-                ps = conn.prepareStatement(rtp(SELECT_JOBS_IN_GROUP_LIKE));
+                ps = prepareStatement(conn, rtp(SELECT_JOBS_IN_GROUP_LIKE));
                 ps.setString(1, toSqlLikeClause(matcher));
             }
             rs = ps.executeQuery();
@@ -1053,7 +1347,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         int insertResult = 0;
 
         try {
-            ps = conn.prepareStatement(rtp(INSERT_TRIGGER));
+            ps = prepareStatement(conn, rtp(INSERT_TRIGGER));
             ps.setString(1, trigger.getKey().getName());
             ps.setString(2, trigger.getKey().getGroup());
             ps.setString(3, trigger.getJobKey().getName());
@@ -1130,7 +1424,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
             byte[] buf = os.toByteArray();
             ByteArrayInputStream is = new ByteArrayInputStream(buf);
 
-            ps = conn.prepareStatement(rtp(INSERT_BLOB_TRIGGER));
+            ps = prepareStatement(conn, rtp(INSERT_BLOB_TRIGGER));
             ps.setString(1, trigger.getKey().getName());
             ps.setString(2, trigger.getKey().getGroup());
             ps.setBinaryStream(3, is, buf.length);
@@ -1171,44 +1465,13 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
 
         try {
             if(updateJobData) {
-                ps = conn.prepareStatement(rtp(UPDATE_TRIGGER));
+                ps = prepareStatement(conn, rtp(UPDATE_TRIGGER));
             } else {
-                ps = conn.prepareStatement(rtp(UPDATE_TRIGGER_SKIP_DATA));
+                ps = prepareStatement(conn, rtp(UPDATE_TRIGGER_SKIP_DATA));
             }
                 
-            ps.setString(1, trigger.getJobKey().getName());
-            ps.setString(2, trigger.getJobKey().getGroup());
-            ps.setString(3, trigger.getDescription());
-            long nextFireTime = -1;
-            if (trigger.getNextFireTime() != null) {
-                nextFireTime = trigger.getNextFireTime().getTime();
-            }
-            ps.setBigDecimal(4, new BigDecimal(String.valueOf(nextFireTime)));
-            long prevFireTime = -1;
-            if (trigger.getPreviousFireTime() != null) {
-                prevFireTime = trigger.getPreviousFireTime().getTime();
-            }
-            ps.setBigDecimal(5, new BigDecimal(String.valueOf(prevFireTime)));
-            ps.setString(6, state);
-            
             TriggerPersistenceDelegate tDel = findTriggerPersistenceDelegate(trigger);
-            
-            String type = TTYPE_BLOB;
-            if(tDel != null)
-                type = tDel.getHandledTriggerTypeDiscriminator();
-
-            ps.setString(7, type);
-            
-            ps.setBigDecimal(8, new BigDecimal(String.valueOf(trigger
-                    .getStartTime().getTime())));
-            long endTime = 0;
-            if (trigger.getEndTime() != null) {
-                endTime = trigger.getEndTime().getTime();
-            }
-            ps.setBigDecimal(9, new BigDecimal(String.valueOf(endTime)));
-            ps.setString(10, trigger.getCalendarName());
-            ps.setInt(11, trigger.getMisfireInstruction());
-            ps.setInt(12, trigger.getPriority());
+            setTriggerUpdateParameters(ps, trigger, state, tDel);
 
             if(updateJobData) {
                 setBytes(ps, 13, baos);
@@ -1233,6 +1496,202 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         return insertResult;
     }
 
+    /**
+     * <p>
+     * Update all of the given triggers, which are to be stored in the same
+     * state, batching the statements where possible.
+     * </p>
+     * 
+     * <p>
+     * Triggers whose job data is dirty, and triggers whose type is not handled
+     * by a <code>{@link BatchTriggerPersistenceDelegate}</code>, are updated
+     * one by one via <code>{@link #updateTrigger(Connection, OperableTrigger, String, JobDetail)}</code>,
+     * so any special BLOB handling of subclasses is preserved.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @param triggers
+     *          the triggers to update
+     * @param state
+     *          the state that the triggers should be stored in
+     * @param jobs
+     *          the JobDetails of the triggers, keyed by JobKey
+     * @return the number of rows updated
+     */
+    public int updateTriggers(Connection conn, List<OperableTrigger> triggers, String state,
+            Map<JobKey, JobDetail> jobs) throws SQLException, IOException {
+        int updated = 0;
+
+        List<OperableTrigger> unbatched = new ArrayList<OperableTrigger>();
+        Map<BatchTriggerPersistenceDelegate, List<OperableTrigger>> batched = groupForBatchUpdate(triggers, unbatched);
+        for (OperableTrigger trigger : unbatched) {
+            updated += updateTrigger(conn, trigger, state, jobs.get(trigger.getJobKey()));
+        }
+
+        if (batched.isEmpty()) {
+            return updated;
+        }
+
+        PreparedStatement ps = null;
+        try {
+            ps = prepareStatement(conn, rtp(UPDATE_TRIGGER_SKIP_DATA));
+            for (Map.Entry<BatchTriggerPersistenceDelegate, List<OperableTrigger>> entry : batched.entrySet()) {
+                for (OperableTrigger trigger : entry.getValue()) {
+                    setTriggerUpdateParameters(ps, trigger, state, entry.getKey());
+                    ps.setString(13, trigger.getKey().getName());
+                    ps.setString(14, trigger.getKey().getGroup());
+                    ps.addBatch();
+                }
+            }
+            updated += Util.sumBatchUpdateCounts(ps.executeBatch());
+        } finally {
+            closeStatement(ps);
+        }
+
+        for (Map.Entry<BatchTriggerPersistenceDelegate, List<OperableTrigger>> entry : batched.entrySet()) {
+            entry.getKey().updateExtendedTriggerProperties(conn, entry.getValue(), state);
+        }
+
+        return updated;
+    }
+
+    /**
+     * <p>
+     * Update all of the given triggers, which are to be stored in the same
+     * state, after they have fired.
+     * </p>
+     * 
+     * <p>
+     * Firing a trigger changes only its fire times, its state, and the
+     * extended properties written by
+     * <code>{@link BatchTriggerPersistenceDelegate#updateFiredTriggerProperties(Connection, List)}</code>,
+     * so only those columns are written, and the job data BLOB is left
+     * alone.  Triggers that <code>{@link #updateTriggers(Connection, List, String, Map)}</code>
+     * would update one by one are fully updated.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @param triggers
+     *          the fired triggers to update
+     * @param state
+     *          the state that the triggers should be stored in
+     * @param jobs
+     *          the JobDetails of the triggers, keyed by JobKey
+     * @return the number of rows updated
+     */
+    public int updateTriggerFireTimes(Connection conn, List<OperableTrigger> triggers, String state,
+            Map<JobKey, JobDetail> jobs) throws SQLException, IOException {
+        int updated = 0;
+
+        List<OperableTrigger> unbatched = new ArrayList<OperableTrigger>();
+        Map<BatchTriggerPersistenceDelegate, List<OperableTrigger>> batched = groupForBatchUpdate(triggers, unbatched);
+        for (OperableTrigger trigger : unbatched) {
+            updated += updateTrigger(conn, trigger, state, jobs.get(trigger.getJobKey()));
+        }
+
+        if (batched.isEmpty()) {
+            return updated;
+        }
+
+        PreparedStatement ps = null;
+        try {
+            ps = prepareStatement(conn, rtp(UPDATE_TRIGGER_FIRE_TIMES));
+            for (List<OperableTrigger> list : batched.values()) {
+                for (OperableTrigger trigger : list) {
+                    long nextFireTime = -1;
+                    if (trigger.getNextFireTime() != null) {
+                        nextFireTime = trigger.getNextFireTime().getTime();
+                    }
+                    ps.setBigDecimal(1, new BigDecimal(String.valueOf(nextFireTime)));
+                    long prevFireTime = -1;
+                    if (trigger.getPreviousFireTime() != null) {
+                        prevFireTime = trigger.getPreviousFireTime().getTime();
+                    }
+                    ps.setBigDecimal(2, new BigDecimal(String.valueOf(prevFireTime)));
+                    ps.setString(3, state);
+                    ps.setString(4, trigger.getKey().getName());
+                    ps.setString(5, trigger.getKey().getGroup());
+                    ps.addBatch();
+                }
+            }
+            updated += Util.sumBatchUpdateCounts(ps.executeBatch());
+        } finally {
+            closeStatement(ps);
+        }
+
+        for (Map.Entry<BatchTriggerPersistenceDelegate, List<OperableTrigger>> entry : batched.entrySet()) {
+            entry.getKey().updateFiredTriggerProperties(conn, entry.getValue());
+        }
+
+        return updated;
+    }
+
+    /**
+     * Group the given triggers by the batch persistence delegate handling
+     * them, adding the triggers that must be updated one by one - those
+     * with dirty job data, or not handled by a batch delegate - to
+     * <code>unbatched</code>.
+     */
+    private Map<BatchTriggerPersistenceDelegate, List<OperableTrigger>> groupForBatchUpdate(
+            List<OperableTrigger> triggers, List<OperableTrigger> unbatched) {
+        Map<BatchTriggerPersistenceDelegate, List<OperableTrigger>> batched =
+            new HashMap<BatchTriggerPersistenceDelegate, List<OperableTrigger>>();
+        for (OperableTrigger trigger : triggers) {
+            TriggerPersistenceDelegate tDel = findTriggerPersistenceDelegate(trigger);
+            if (trigger.getJobDataMap().isDirty() || !(tDel instanceof BatchTriggerPersistenceDelegate)) {
+                unbatched.add(trigger);
+                continue;
+            }
+            List<OperableTrigger> list = batched.get(tDel);
+            if (list == null) {
+                list = new ArrayList<OperableTrigger>();
+                batched.put((BatchTriggerPersistenceDelegate) tDel, list);
+            }
+            list.add(trigger);
+        }
+        return batched;
+    }
+
+    /**
+     * Bind the first twelve parameters of the UPDATE_TRIGGER statements.
+     */
+    private void setTriggerUpdateParameters(PreparedStatement ps, OperableTrigger trigger,
+            String state, TriggerPersistenceDelegate tDel) throws SQLException {
+        ps.setString(1, trigger.getJobKey().getName());
+        ps.setString(2, trigger.getJobKey().getGroup());
+        ps.setString(3, trigger.getDescription());
+        long nextFireTime = -1;
+        if (trigger.getNextFireTime() != null) {
+            nextFireTime = trigger.getNextFireTime().getTime();
+        }
+        ps.setBigDecimal(4, new BigDecimal(String.valueOf(nextFireTime)));
+        long prevFireTime = -1;
+        if (trigger.getPreviousFireTime() != null) {
+            prevFireTime = trigger.getPreviousFireTime().getTime();
+        }
+        ps.setBigDecimal(5, new BigDecimal(String.valueOf(prevFireTime)));
+        ps.setString(6, state);
+        
+        String type = TTYPE_BLOB;
+        if(tDel != null)
+            type = tDel.getHandledTriggerTypeDiscriminator();
+
+        ps.setString(7, type);
+        
+        ps.setBigDecimal(8, new BigDecimal(String.valueOf(trigger
+                .getStartTime().getTime())));
+        long endTime = 0;
+        if (trigger.getEndTime() != null) {
+            endTime = trigger.getEndTime().getTime();
+        }
+        ps.setBigDecimal(9, new BigDecimal(String.valueOf(endTime)));
+        ps.setString(10, trigger.getCalendarName());
+        ps.setInt(11, trigger.getMisfireInstruction());
+        ps.setInt(12, trigger.getPriority());
+    }
+
     /**
      * <p>
      * Update the blob trigger data.
@@ -1259,7 +1718,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
             byte[] buf = os.toByteArray();
             ByteArrayInputStream is = new ByteArrayInputStream(buf);
 
-            ps = conn.prepareStatement(rtp(UPDATE_BLOB_TRIGGER));
+            ps = prepareStatement(conn, rtp(UPDATE_BLOB_TRIGGER));
             ps.setBinaryStream(1, is, buf.length);
             ps.setString(2, trigger.getKey().getName());
             ps.setString(3, trigger.getKey().getGroup());
@@ -1287,7 +1746,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn.prepareStatement(rtp(SELECT_TRIGGER_EXISTENCE));
+            ps = prepareStatement(conn, rtp(SELECT_TRIGGER_EXISTENCE));
             ps.setString(1, triggerKey.getName());
             ps.setString(2, triggerKey.getGroup());
             rs = ps.executeQuery();
@@ -1319,7 +1778,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
 
         try {
-            ps = conn.prepareStatement(rtp(UPDATE_TRIGGER_STATE));
+            ps = prepareStatement(conn, rtp(UPDATE_TRIGGER_STATE));
             ps.setString(1, state);
             ps.setString(2, triggerKey.getName());
             ps.setString(3, triggerKey.getGroup());
@@ -1355,7 +1814,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
 
         try {
-            ps = conn.prepareStatement(rtp(UPDATE_TRIGGER_STATE_FROM_STATES));
+            ps = prepareStatement(conn, rtp(UPDATE_TRIGGER_STATE_FROM_STATES));
             ps.setString(1, newState);
             ps.setString(2, triggerKey.getName());
             ps.setString(3, triggerKey.getGroup());
@@ -1396,8 +1855,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
 
         try {
-            ps = conn
-                    .prepareStatement(rtp(UPDATE_TRIGGER_GROUP_STATE_FROM_STATES));
+            ps = prepareStatement(conn, rtp(UPDATE_TRIGGER_GROUP_STATE_FROM_STATES));
             ps.setString(1, newState);
             ps.setString(2, toSqlLikeClause(matcher));
             ps.setString(3, oldState1);
@@ -1430,7 +1888,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
 
         try {
-            ps = conn.prepareStatement(rtp(UPDATE_TRIGGER_STATE_FROM_STATE));
+            ps = prepareStatement(conn, rtp(UPDATE_TRIGGER_STATE_FROM_STATE));
             ps.setString(1, newState);
             ps.setString(2, triggerKey.getName());
             ps.setString(3, triggerKey.getGroup());
@@ -1442,6 +1900,49 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         }
     }
 
+    /**
+     * <p>
+     * Update the state of all of the given triggers that are in the given
+     * old state, with one statement per chunk of keys.
+     * </p>
+     * 
+     * @param conn
+     *          the DB connection
+     * @param newState
+     *          the new state for the triggers
+     * @param oldState
+     *          the old state the triggers must be in
+     * @return int the number of rows updated
+     * @throws SQLException
+     */
+    public int updateTriggerStatesFromOtherState(Connection conn,
+            List<TriggerKey> triggerKeys, String newState, String oldState) throws SQLException {
+        int updated = 0;
+
+        for (int from = 0; from < triggerKeys.size(); from += MAX_KEYS_PER_STATEMENT) {
+            List<TriggerKey> chunk = triggerKeys.subList(from, Math.min(triggerKeys.size(), from + MAX_KEYS_PER_STATEMENT));
+            PreparedStatement ps = null;
+
+            try {
+                ps = prepareStatement(conn, rtp(UPDATE_TRIGGER_STATES_FROM_STATE_FOR_KEYS)
+                        + Util.keysPredicate(COL_TRIGGER_NAME, COL_TRIGGER_GROUP, chunk.size()));
+                ps.setString(1, newState);
+                ps.setString(2, oldState);
+                int index = 3;
+                for (TriggerKey triggerKey : chunk) {
+                    ps.setString(index++, triggerKey.getName());
+                    ps.setString(index++, triggerKey.getGroup());
+                }
+
+                updated += ps.executeUpdate();
+            } finally {
+                closeStatement(ps);
+            }
+        }
+
+        return updated;
+    }
+
     /**
      * <p>
      * Update all of the triggers of the given group to the given new state, if
@@ -1465,8 +1966,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
 
         try {
-            ps = conn
-                    .prepareStatement(rtp(UPDATE_TRIGGER_GROUP_STATE_FROM_STATE));
+            ps = prepareStatement(conn, rtp(UPDATE_TRIGGER_GROUP_STATE_FROM_STATE));
             ps.setString(1, newState);
             ps.setString(2, toSqlLikeClause(matcher));
             ps.setString(3, oldState);
@@ -1493,7 +1993,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
 
         try {
-            ps = conn.prepareStatement(rtp(UPDATE_JOB_TRIGGER_STATES));
+            ps = prepareStatement(conn, rtp(UPDATE_JOB_TRIGGER_STATES));
             ps.setString(1, state);
             ps.setString(2, jobKey.getName());
             ps.setString(3, jobKey.getGroup());
@@ -1510,8 +2010,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
 
         try {
-            ps = conn
-                    .prepareStatement(rtp(UPDATE_JOB_TRIGGER_STATES_FROM_OTHER_STATE));
+            ps = prepareStatement(conn, rtp(UPDATE_JOB_TRIGGER_STATES_FROM_OTHER_STATE));
             ps.setString(1, state);
             ps.setString(2, jobKey.getName());
             ps.setString(3, jobKey.getGroup());
@@ -1523,6 +2022,45 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         }
     }
 
+    /**
+     * <p>
+     * Update the states of the triggers of all of the given jobs that are in
+     * the given old state, as a single JDBC batch.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @param state
+     *          the new state for the triggers
+     * @param oldState
+     *          the old state the triggers must be in
+     * @return the number of rows updated
+     */
+    public int updateTriggerStatesForJobsFromOtherState(Connection conn,
+            Collection<JobKey> jobKeys, String state, String oldState)
+        throws SQLException {
+        if (jobKeys.isEmpty()) {
+            return 0;
+        }
+
+        PreparedStatement ps = null;
+
+        try {
+            ps = prepareStatement(conn, rtp(UPDATE_JOB_TRIGGER_STATES_FROM_OTHER_STATE));
+            for (JobKey jobKey : jobKeys) {
+                ps.setString(1, state);
+                ps.setString(2, jobKey.getName());
+                ps.setString(3, jobKey.getGroup());
+                ps.setString(4, oldState);
+                ps.addBatch();
+            }
+
+            return Util.sumBatchUpdateCounts(ps.executeBatch());
+        } finally {
+            closeStatement(ps);
+        }
+    }
+
     /**
      * <p>
      * Delete the cron trigger data for a trigger.
@@ -1536,7 +2074,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
 
         try {
-            ps = conn.prepareStatement(rtp(DELETE_BLOB_TRIGGER));
+            ps = prepareStatement(conn, rtp(DELETE_BLOB_TRIGGER));
             ps.setString(1, triggerKey.getName());
             ps.setString(2, triggerKey.getGroup());
 
@@ -1561,7 +2099,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         deleteTriggerExtension(conn, triggerKey);
         
         try {
-            ps = conn.prepareStatement(rtp(DELETE_TRIGGER));
+            ps = prepareStatement(conn, rtp(DELETE_TRIGGER));
             ps.setString(1, triggerKey.getName());
             ps.setString(2, triggerKey.getGroup());
 
@@ -1595,7 +2133,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn.prepareStatement(rtp(SELECT_NUM_TRIGGERS_FOR_JOB));
+            ps = prepareStatement(conn, rtp(SELECT_NUM_TRIGGERS_FOR_JOB));
             ps.setString(1, jobKey.getName());
             ps.setString(2, jobKey.getGroup());
             rs = ps.executeQuery();
@@ -1648,7 +2186,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn.prepareStatement(rtp(SELECT_JOB_FOR_TRIGGER));
+            ps = prepareStatement(conn, rtp(SELECT_JOB_FOR_TRIGGER));
             ps.setString(1, triggerKey.getName());
             ps.setString(2, triggerKey.getGroup());
             rs = ps.executeQuery();
@@ -1695,7 +2233,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn.prepareStatement(rtp(SELECT_TRIGGERS_FOR_JOB));
+            ps = prepareStatement(conn, rtp(SELECT_TRIGGERS_FOR_JOB));
             ps.setString(1, jobKey.getName());
             ps.setString(2, jobKey.getGroup());
             rs = ps.executeQuery();
@@ -1722,7 +2260,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn.prepareStatement(rtp(SELECT_TRIGGERS_FOR_CALENDAR));
+            ps = prepareStatement(conn, rtp(SELECT_TRIGGERS_FOR_CALENDAR));
             ps.setString(1, calName);
             rs = ps.executeQuery();
 
@@ -1755,51 +2293,19 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         try {
             OperableTrigger trigger = null;
 
-            ps = conn.prepareStatement(rtp(SELECT_TRIGGER));
+            ps = prepareStatement(conn, rtp(SELECT_TRIGGER));
             ps.setString(1, triggerKey.getName());
             ps.setString(2, triggerKey.getGroup());
             rs = ps.executeQuery();
 
             if (rs.next()) {
-                String jobName = rs.getString(COL_JOB_NAME);
-                String jobGroup = rs.getString(COL_JOB_GROUP);
-                String description = rs.getString(COL_DESCRIPTION);
-                long nextFireTime = rs.getLong(COL_NEXT_FIRE_TIME);
-                long prevFireTime = rs.getLong(COL_PREV_FIRE_TIME);
-                String triggerType = rs.getString(COL_TRIGGER_TYPE);
-                long startTime = rs.getLong(COL_START_TIME);
-                long endTime = rs.getLong(COL_END_TIME);
-                String calendarName = rs.getString(COL_CALENDAR_NAME);
-                int misFireInstr = rs.getInt(COL_MISFIRE_INSTRUCTION);
-                int priority = rs.getInt(COL_PRIORITY);
-
-                Map<?, ?> map = null;
-                if (canUseProperties()) {
-                    map = getMapFromProperties(rs);
-                } else {
-                    map = (Map<?, ?>) getObjectFromBlob(rs, COL_JOB_DATAMAP);
-                }
-                
-                Date nft = null;
-                if (nextFireTime > 0) {
-                    nft = new Date(nextFireTime);
-                }
+                TriggerRow row = readTriggerRow(rs);
 
-                Date pft = null;
-                if (prevFireTime > 0) {
-                    pft = new Date(prevFireTime);
-                }
-                Date startTimeD = new Date(startTime);
-                Date endTimeD = null;
-                if (endTime > 0) {
-                    endTimeD = new Date(endTime);
-                }
-
-                if (triggerType.equals(TTYPE_BLOB)) {
+                if (row.triggerType.equals(TTYPE_BLOB)) {
                     rs.close(); rs = null;
                     ps.close(); ps = null;
 
-                    ps = conn.prepareStatement(rtp(SELECT_BLOB_TRIGGER));
+                    ps = prepareStatement(conn, rtp(SELECT_BLOB_TRIGGER));
                     ps.setString(1, triggerKey.getName());
                     ps.setString(2, triggerKey.getGroup());
                     rs = ps.executeQuery();
@@ -1809,10 +2315,10 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
                     }
                 }
                 else {
-                    TriggerPersistenceDelegate tDel = findTriggerPersistenceDelegate(triggerType);
+                    TriggerPersistenceDelegate tDel = findTriggerPersistenceDelegate(row.triggerType);
                     
                     if(tDel == null)
-                        throw new JobPersistenceException("No TriggerPersistenceDelegate for trigger discriminator type: " + triggerType);
+                        throw new JobPersistenceException("No TriggerPersistenceDelegate for trigger discriminator type: " + row.triggerType);
 
                     TriggerPropertyBundle triggerProps = null;
                     try {
@@ -1826,35 +2332,190 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
                         }
                     }
 
-                    TriggerBuilder<?> tb = newTrigger()
-                        .withDescription(description)
-                        .withPriority(priority)
-                        .startAt(startTimeD)
-                        .endAt(endTimeD)
-                        .withIdentity(triggerKey)
-                        .modifiedByCalendar(calendarName)
-                        .withSchedule(triggerProps.getScheduleBuilder())
-                        .forJob(jobKey(jobName, jobGroup));
-    
-                    if (null != map) {
-                        tb.usingJobData(new JobDataMap(map));
-                    }
-    
-                    trigger = (OperableTrigger) tb.build();
-                    
-                    trigger.setMisfireInstruction(misFireInstr);
-                    trigger.setNextFireTime(nft);
-                    trigger.setPreviousFireTime(pft);
-                    
-                    setTriggerStateProperties(trigger, triggerProps);
-                }                
+                    trigger = buildTrigger(triggerKey, row, triggerProps);
+                }                
+            }
+
+            return trigger;
+        } finally {
+            closeResultSet(rs);
+            closeStatement(ps);
+        }
+    }
+
+    /**
+     * <p>
+     * Select the given triggers, using as few queries as possible: the
+     * trigger rows and the extended properties of each trigger type are
+     * each loaded with a single query per chunk of keys.
+     * </p>
+     * 
+     * <p>
+     * Triggers that no longer exist, or that are not in the given state,
+     * are left out of the result.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @param state
+     *          the state the triggers must be in, or <code>null</code> to
+     *          select triggers in any state
+     * @return the triggers found, in the order of the given keys
+     */
+    public List<OperableTrigger> selectTriggers(Connection conn, List<TriggerKey> triggerKeys, String state)
+        throws SQLException, ClassNotFoundException, IOException, JobPersistenceException {
+        List<OperableTrigger> triggers = new ArrayList<OperableTrigger>(triggerKeys.size());
+
+        for (int from = 0; from < triggerKeys.size(); from += MAX_KEYS_PER_STATEMENT) {
+            List<TriggerKey> chunk = triggerKeys.subList(from, Math.min(triggerKeys.size(), from + MAX_KEYS_PER_STATEMENT));
+
+            Map<TriggerKey, TriggerRow> rows = new HashMap<TriggerKey, TriggerRow>();
+            PreparedStatement ps = null;
+            ResultSet rs = null;
+
+            try {
+                ps = prepareStatement(conn, rtp(SELECT_TRIGGERS_FOR_KEYS)
+                        + Util.keysPredicate(COL_TRIGGER_NAME, COL_TRIGGER_GROUP, chunk.size()));
+                int index = 1;
+                for (TriggerKey triggerKey : chunk) {
+                    ps.setString(index++, triggerKey.getName());
+                    ps.setString(index++, triggerKey.getGroup());
+                }
+                rs = ps.executeQuery();
+
+                while (rs.next()) {
+                    if (state != null && !state.equals(rs.getString(COL_TRIGGER_STATE))) {
+                        continue;
+                    }
+                    TriggerKey triggerKey = triggerKey(rs.getString(COL_TRIGGER_NAME), rs.getString(COL_TRIGGER_GROUP));
+                    rows.put(triggerKey, readTriggerRow(rs));
+                }
+            } finally {
+                closeResultSet(rs);
+                closeStatement(ps);
+            }
+
+            // Load the extended properties, one query per trigger type.
+            Map<String, List<TriggerKey>> keysByType = new HashMap<String, List<TriggerKey>>();
+            for (Map.Entry<TriggerKey, TriggerRow> entry : rows.entrySet()) {
+                List<TriggerKey> keys = keysByType.get(entry.getValue().triggerType);
+                if (keys == null) {
+                    keys = new ArrayList<TriggerKey>();
+                    keysByType.put(entry.getValue().triggerType, keys);
+                }
+                keys.add(entry.getKey());
+            }
+
+            Map<TriggerKey, TriggerPropertyBundle> props = new HashMap<TriggerKey, TriggerPropertyBundle>();
+            for (Map.Entry<String, List<TriggerKey>> entry : keysByType.entrySet()) {
+                TriggerPersistenceDelegate tDel = findTriggerPersistenceDelegate(entry.getKey());
+                if (tDel instanceof BatchTriggerPersistenceDelegate) {
+                    props.putAll(((BatchTriggerPersistenceDelegate) tDel).loadExtendedTriggerProperties(conn, entry.getValue()));
+                }
+            }
+
+            for (TriggerKey triggerKey : chunk) {
+                TriggerRow row = rows.get(triggerKey);
+                if (row == null) {
+                    continue;
+                }
+
+                OperableTrigger trigger;
+                TriggerPropertyBundle triggerProps = props.get(triggerKey);
+                if (triggerProps != null) {
+                    trigger = buildTrigger(triggerKey, row, triggerProps);
+                } else {
+                    // blob triggers, delegates without set-based loading, and
+                    // triggers deleted in the meantime are selected one by one.
+                    trigger = selectTrigger(conn, triggerKey);
+                }
+
+                if (trigger != null) {
+                    triggers.add(trigger);
+                }
             }
+        }
 
-            return trigger;
-        } finally {
-            closeResultSet(rs);
-            closeStatement(ps);
+        return triggers;
+    }
+
+    /**
+     * The columns of a trigger row, read before the extended properties of
+     * the trigger are loaded.
+     */
+    private static class TriggerRow {
+        String jobName;
+        String jobGroup;
+        String description;
+        long nextFireTime;
+        long prevFireTime;
+        String triggerType;
+        long startTime;
+        long endTime;
+        String calendarName;
+        int misFireInstr;
+        int priority;
+        Map<?, ?> map;
+    }
+
+    private TriggerRow readTriggerRow(ResultSet rs)
+        throws ClassNotFoundException, IOException, SQLException {
+        TriggerRow row = new TriggerRow();
+        row.jobName = rs.getString(COL_JOB_NAME);
+        row.jobGroup = rs.getString(COL_JOB_GROUP);
+        row.description = rs.getString(COL_DESCRIPTION);
+        row.nextFireTime = rs.getLong(COL_NEXT_FIRE_TIME);
+        row.prevFireTime = rs.getLong(COL_PREV_FIRE_TIME);
+        row.triggerType = rs.getString(COL_TRIGGER_TYPE);
+        row.startTime = rs.getLong(COL_START_TIME);
+        row.endTime = rs.getLong(COL_END_TIME);
+        row.calendarName = rs.getString(COL_CALENDAR_NAME);
+        row.misFireInstr = rs.getInt(COL_MISFIRE_INSTRUCTION);
+        row.priority = rs.getInt(COL_PRIORITY);
+
+        row.map = readJobDataMap(rs);
+        return row;
+    }
+
+    private OperableTrigger buildTrigger(TriggerKey triggerKey, TriggerRow row, TriggerPropertyBundle triggerProps)
+        throws JobPersistenceException {
+        Date nft = null;
+        if (row.nextFireTime > 0) {
+            nft = new Date(row.nextFireTime);
+        }
+
+        Date pft = null;
+        if (row.prevFireTime > 0) {
+            pft = new Date(row.prevFireTime);
         }
+        Date startTimeD = new Date(row.startTime);
+        Date endTimeD = null;
+        if (row.endTime > 0) {
+            endTimeD = new Date(row.endTime);
+        }
+
+        TriggerBuilder<?> tb = newTrigger()
+            .withDescription(row.description)
+            .withPriority(row.priority)
+            .startAt(startTimeD)
+            .endAt(endTimeD)
+            .withIdentity(triggerKey)
+            .modifiedByCalendar(row.calendarName)
+            .withSchedule(triggerProps.getScheduleBuilder())
+            .forJob(jobKey(row.jobName, row.jobGroup));
+
+        if (null != row.map) {
+            tb.usingJobData(new JobDataMap(row.map));
+        }
+
+        OperableTrigger trigger = (OperableTrigger) tb.build();
+        
+        trigger.setMisfireInstruction(row.misFireInstr);
+        trigger.setNextFireTime(nft);
+        trigger.setPreviousFireTime(pft);
+        
+        setTriggerStateProperties(trigger, triggerProps);
+        return trigger;
     }
 
     private boolean isTriggerStillPresent(PreparedStatement ps) throws SQLException {
@@ -1897,19 +2558,14 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn.prepareStatement(rtp(SELECT_TRIGGER_DATA));
+            ps = prepareStatement(conn, rtp(SELECT_TRIGGER_DATA));
             ps.setString(1, triggerName);
             ps.setString(2, groupName);
             rs = ps.executeQuery();
 
             if (rs.next()) {
 
-                Map<?, ?> map = null;
-                if (canUseProperties()) { 
-                    map = getMapFromProperties(rs);
-                } else {
-                    map = (Map<?, ?>) getObjectFromBlob(rs, COL_JOB_DATAMAP);
-                }
+                Map<?, ?> map = readJobDataMap(rs);
                 
                 rs.close();
                 ps.close();
@@ -1943,7 +2599,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         try {
             String state = null;
 
-            ps = conn.prepareStatement(rtp(SELECT_TRIGGER_STATE));
+            ps = prepareStatement(conn, rtp(SELECT_TRIGGER_STATE));
             ps.setString(1, triggerKey.getName());
             ps.setString(2, triggerKey.getGroup());
             rs = ps.executeQuery();
@@ -1962,6 +2618,94 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
 
     }
 
+    /**
+     * <p>
+     * Select the states of all of the given triggers, with one query per
+     * chunk of keys.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @return a (never null) map of the states found, keyed by trigger.
+     *         Triggers that do not exist are absent from the map.
+     */
+    public Map<TriggerKey, String> selectTriggerStates(Connection conn,
+            List<TriggerKey> triggerKeys) throws SQLException {
+        Map<TriggerKey, String> states = new HashMap<TriggerKey, String>();
+
+        for (int from = 0; from < triggerKeys.size(); from += MAX_KEYS_PER_STATEMENT) {
+            List<TriggerKey> chunk = triggerKeys.subList(from, Math.min(triggerKeys.size(), from + MAX_KEYS_PER_STATEMENT));
+            PreparedStatement ps = null;
+            ResultSet rs = null;
+
+            try {
+                ps = prepareStatement(conn, rtp(SELECT_TRIGGER_STATES_FOR_KEYS)
+                        + Util.keysPredicate(COL_TRIGGER_NAME, COL_TRIGGER_GROUP, chunk.size()));
+                int index = 1;
+                for (TriggerKey triggerKey : chunk) {
+                    ps.setString(index++, triggerKey.getName());
+                    ps.setString(index++, triggerKey.getGroup());
+                }
+                rs = ps.executeQuery();
+
+                while (rs.next()) {
+                    states.put(triggerKey(rs.getString(COL_TRIGGER_NAME), rs.getString(COL_TRIGGER_GROUP)),
+                            rs.getString(COL_TRIGGER_STATE).intern());
+                }
+            } finally {
+                closeResultSet(rs);
+                closeStatement(ps);
+            }
+        }
+
+        return states;
+    }
+
+    /**
+     * <p>
+     * Select the next fire times of those of the given triggers that are in
+     * the given state, with one query per chunk of keys.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @return a (never null) map of the next fire times found, keyed by
+     *         trigger.  Triggers that do not exist, or that are in another
+     *         state, are absent from the map.
+     */
+    public Map<TriggerKey, Long> selectTriggerNextFireTimes(Connection conn,
+            List<TriggerKey> triggerKeys, String state) throws SQLException {
+        Map<TriggerKey, Long> nextFireTimes = new HashMap<TriggerKey, Long>();
+
+        for (int from = 0; from < triggerKeys.size(); from += MAX_KEYS_PER_STATEMENT) {
+            List<TriggerKey> chunk = triggerKeys.subList(from, Math.min(triggerKeys.size(), from + MAX_KEYS_PER_STATEMENT));
+            PreparedStatement ps = null;
+            ResultSet rs = null;
+
+            try {
+                ps = prepareStatement(conn, rtp(SELECT_TRIGGER_NEXT_FIRE_TIMES_FOR_KEYS)
+                        + Util.keysPredicate(COL_TRIGGER_NAME, COL_TRIGGER_GROUP, chunk.size()));
+                ps.setString(1, state);
+                int index = 2;
+                for (TriggerKey triggerKey : chunk) {
+                    ps.setString(index++, triggerKey.getName());
+                    ps.setString(index++, triggerKey.getGroup());
+                }
+                rs = ps.executeQuery();
+
+                while (rs.next()) {
+                    nextFireTimes.put(triggerKey(rs.getString(COL_TRIGGER_NAME), rs.getString(COL_TRIGGER_GROUP)),
+                            Long.valueOf(rs.getLong(COL_NEXT_FIRE_TIME)));
+                }
+            } finally {
+                closeResultSet(rs);
+                closeStatement(ps);
+            }
+        }
+
+        return nextFireTimes;
+    }
+
     /**
      * <p>
      * Select a trigger' status (state & next fire time).
@@ -1979,7 +2723,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         try {
             TriggerStatus status = null;
 
-            ps = conn.prepareStatement(rtp(SELECT_TRIGGER_STATUS));
+            ps = prepareStatement(conn, rtp(SELECT_TRIGGER_STATUS));
             ps.setString(1, triggerKey.getName());
             ps.setString(2, triggerKey.getGroup());
             rs = ps.executeQuery();
@@ -2023,7 +2767,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
 
         try {
             int count = 0;
-            ps = conn.prepareStatement(rtp(SELECT_NUM_TRIGGERS));
+            ps = prepareStatement(conn, rtp(SELECT_NUM_TRIGGERS));
             rs = ps.executeQuery();
 
             if (rs.next()) {
@@ -2051,7 +2795,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn.prepareStatement(rtp(SELECT_TRIGGER_GROUPS));
+            ps = prepareStatement(conn, rtp(SELECT_TRIGGER_GROUPS));
             rs = ps.executeQuery();
 
             LinkedList<String> list = new LinkedList<String>();
@@ -2071,7 +2815,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn.prepareStatement(rtp(SELECT_TRIGGER_GROUPS_FILTERED));
+            ps = prepareStatement(conn, rtp(SELECT_TRIGGER_GROUPS_FILTERED));
             ps.setString(1, toSqlLikeClause(matcher));
             rs = ps.executeQuery();
 
@@ -2105,11 +2849,11 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
 
         try {
             if(isMatcherEquals(matcher)) {
-                ps = conn.prepareStatement(rtp(SELECT_TRIGGERS_IN_GROUP));
+                ps = prepareStatement(conn, rtp(SELECT_TRIGGERS_IN_GROUP));
                 ps.setString(1, toSqlEqualsClause(matcher));
             }
             else {
-                ps = conn.prepareStatement(rtp(SELECT_TRIGGERS_IN_GROUP_LIKE));
+                ps = prepareStatement(conn, rtp(SELECT_TRIGGERS_IN_GROUP_LIKE));
                 ps.setString(1, toSqlLikeClause(matcher));
             }
             rs = ps.executeQuery();
@@ -2131,7 +2875,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
 
         try {
-            ps = conn.prepareStatement(rtp(INSERT_PAUSED_TRIGGER_GROUP));
+            ps = prepareStatement(conn, rtp(INSERT_PAUSED_TRIGGER_GROUP));
             ps.setString(1, groupName);
             int rows = ps.executeUpdate();
 
@@ -2146,7 +2890,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
 
         try {
-            ps = conn.prepareStatement(rtp(DELETE_PAUSED_TRIGGER_GROUP));
+            ps = prepareStatement(conn, rtp(DELETE_PAUSED_TRIGGER_GROUP));
             ps.setString(1, groupName);
             int rows = ps.executeUpdate();
 
@@ -2161,7 +2905,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
 
         try {
-            ps = conn.prepareStatement(rtp(DELETE_PAUSED_TRIGGER_GROUP));
+            ps = prepareStatement(conn, rtp(DELETE_PAUSED_TRIGGER_GROUP));
             ps.setString(1, toSqlLikeClause(matcher));
             int rows = ps.executeUpdate();
 
@@ -2176,7 +2920,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
 
         try {
-            ps = conn.prepareStatement(rtp(DELETE_PAUSED_TRIGGER_GROUPS));
+            ps = prepareStatement(conn, rtp(DELETE_PAUSED_TRIGGER_GROUPS));
             int rows = ps.executeUpdate();
 
             return rows;
@@ -2191,7 +2935,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn.prepareStatement(rtp(SELECT_PAUSED_TRIGGER_GROUP));
+            ps = prepareStatement(conn, rtp(SELECT_PAUSED_TRIGGER_GROUP));
             ps.setString(1, groupName);
             rs = ps.executeQuery();
 
@@ -2208,7 +2952,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn.prepareStatement(rtp(SELECT_NUM_TRIGGERS_IN_GROUP));
+            ps = prepareStatement(conn, rtp(SELECT_NUM_TRIGGERS_IN_GROUP));
             ps.setString(1, groupName);
             rs = ps.executeQuery();
 
@@ -2249,7 +2993,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
 
         try {
-            ps = conn.prepareStatement(rtp(INSERT_CALENDAR));
+            ps = prepareStatement(conn, rtp(INSERT_CALENDAR));
             ps.setString(1, calendarName);
             setBytes(ps, 2, baos);
 
@@ -2281,7 +3025,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
 
         try {
-            ps = conn.prepareStatement(rtp(UPDATE_CALENDAR));
+            ps = prepareStatement(conn, rtp(UPDATE_CALENDAR));
             setBytes(ps, 1, baos);
             ps.setString(2, calendarName);
 
@@ -2308,7 +3052,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn.prepareStatement(rtp(SELECT_CALENDAR_EXISTENCE));
+            ps = prepareStatement(conn, rtp(SELECT_CALENDAR_EXISTENCE));
             ps.setString(1, calendarName);
             rs = ps.executeQuery();
 
@@ -2345,7 +3089,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
         try {
             String selCal = rtp(SELECT_CALENDAR);
-            ps = conn.prepareStatement(selCal);
+            ps = prepareStatement(conn, selCal);
             ps.setString(1, calendarName);
             rs = ps.executeQuery();
 
@@ -2380,7 +3124,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
         ResultSet rs = null;
         try {
-            ps = conn.prepareStatement(rtp(SELECT_REFERENCED_CALENDAR));
+            ps = prepareStatement(conn, rtp(SELECT_REFERENCED_CALENDAR));
             ps.setString(1, calendarName);
             rs = ps.executeQuery();
 
@@ -2411,8 +3155,69 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
 
         try {
-            ps = conn.prepareStatement(rtp(DELETE_CALENDAR));
+            ps = prepareStatement(conn, rtp(DELETE_CALENDAR));
+            ps.setString(1, calendarName);
+
+            return ps.executeUpdate();
+        } finally {
+            closeStatement(ps);
+        }
+    }
+
+    /**
+     * <p>
+     * Select the revision of the given calendar, which changes whenever
+     * <code>{@link #updateCalendarRevision(Connection, String)}</code> is
+     * called for it.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @param calendarName
+     *          the name of the calendar
+     * @return the revision, or -1 if there is no such calendar
+     */
+    public long selectCalendarRevision(Connection conn, String calendarName)
+        throws SQLException {
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+
+        try {
+            ps = prepareStatement(conn, rtp(SELECT_CALENDAR_REVISION));
             ps.setString(1, calendarName);
+            rs = ps.executeQuery();
+
+            if (rs.next()) {
+                return rs.getLong(COL_REVISION);
+            }
+            return -1;
+        } finally {
+            closeResultSet(rs);
+            closeStatement(ps);
+        }
+    }
+
+    /**
+     * <p>
+     * Give the given calendar a new revision.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @param calendarName
+     *          the name of the calendar
+     * @return the number of rows updated
+     */
+    public int updateCalendarRevision(Connection conn, String calendarName)
+        throws SQLException {
+        PreparedStatement ps = null;
+
+        try {
+            ps = prepareStatement(conn, rtp(UPDATE_CALENDAR_REVISION));
+            long now = System.currentTimeMillis();
+            ps.setLong(1, now);
+            ps.setLong(2, now);
+            ps.setString(3, calendarName);
 
             return ps.executeUpdate();
         } finally {
@@ -2435,7 +3240,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
 
         try {
             int count = 0;
-            ps = conn.prepareStatement(rtp(SELECT_NUM_CALENDARS));
+            ps = prepareStatement(conn, rtp(SELECT_NUM_CALENDARS));
 
             rs = ps.executeQuery();
 
@@ -2464,7 +3269,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         ResultSet rs = null;
 
         try {
-            ps = conn.prepareStatement(rtp(SELECT_CALENDARS));
+            ps = prepareStatement(conn, rtp(SELECT_CALENDARS));
             rs = ps.executeQuery();
 
             LinkedList<String> list = new LinkedList<String>();
@@ -2498,7 +3303,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
         ResultSet rs = null;
         try {
-            ps = conn.prepareStatement(rtp(SELECT_NEXT_FIRE_TIME));
+            ps = prepareStatement(conn, rtp(SELECT_NEXT_FIRE_TIME));
             ps.setString(1, STATE_WAITING);
             rs = ps.executeQuery();
 
@@ -2531,7 +3336,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
         ResultSet rs = null;
         try {
-            ps = conn.prepareStatement(rtp(SELECT_TRIGGER_FOR_FIRE_TIME));
+            ps = prepareStatement(conn, rtp(SELECT_TRIGGER_FOR_FIRE_TIME));
             ps.setString(1, STATE_WAITING);
             ps.setBigDecimal(2, new BigDecimal(String.valueOf(fireTime)));
             rs = ps.executeQuery();
@@ -2592,11 +3397,24 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
      */
     public List<TriggerKey> selectTriggerToAcquire(Connection conn, long noLaterThan, long noEarlierThan, int maxCount)
         throws SQLException {
+        return selectTriggerToAcquire(conn, rtp(SELECT_NEXT_TRIGGER_TO_ACQUIRE), noLaterThan, noEarlierThan, maxCount, -1);
+    }
+
+    public List<TriggerKey> selectTriggerToAcquire(Connection conn, long noLaterThan, long noEarlierThan, int maxCount,
+        int partition) throws SQLException {
+        if (partition < 0) {
+            return selectTriggerToAcquire(conn, noLaterThan, noEarlierThan, maxCount);
+        }
+        return selectTriggerToAcquire(conn, rtp(SELECT_NEXT_TRIGGER_TO_ACQUIRE_IN_PARTITION), noLaterThan, noEarlierThan, maxCount, partition);
+    }
+
+    private List<TriggerKey> selectTriggerToAcquire(Connection conn, String sql, long noLaterThan, long noEarlierThan, 
+        int maxCount, int partition) throws SQLException {
         PreparedStatement ps = null;
         ResultSet rs = null;
         List<TriggerKey> nextTriggers = new LinkedList<TriggerKey>();
         try {
-            ps = conn.prepareStatement(rtp(SELECT_NEXT_TRIGGER_TO_ACQUIRE));
+            ps = prepareStatement(conn, sql);
             
             // Set max rows to retrieve
             if (maxCount < 1)
@@ -2610,6 +3428,9 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
             ps.setString(1, STATE_WAITING);
             ps.setBigDecimal(2, new BigDecimal(String.valueOf(noLaterThan)));
             ps.setBigDecimal(3, new BigDecimal(String.valueOf(noEarlierThan)));
+            if (partition >= 0) {
+                ps.setInt(4, partition);
+            }
             rs = ps.executeQuery();
             
             while (rs.next() && nextTriggers.size() <= maxCount) {
@@ -2625,6 +3446,52 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         }      
     }
 
+    public Map<Integer, Long> selectNextFireTimesByAccessPartition(Connection conn, long noLaterThan, long noEarlierThan)
+        throws SQLException {
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        Map<Integer, Long> nextFireTimes = new HashMap<Integer, Long>();
+        try {
+            ps = prepareStatement(conn, rtp(SELECT_NEXT_FIRE_TIMES_BY_ACCESS_PARTITION));
+            ps.setString(1, STATE_WAITING);
+            ps.setBigDecimal(2, new BigDecimal(String.valueOf(noLaterThan)));
+            ps.setBigDecimal(3, new BigDecimal(String.valueOf(noEarlierThan)));
+            rs = ps.executeQuery();
+
+            while (rs.next()) {
+                nextFireTimes.put(Integer.valueOf(rs.getInt(1)), Long.valueOf(rs.getLong(2)));
+            }
+
+            return nextFireTimes;
+        } finally {
+            closeResultSet(rs);
+            closeStatement(ps);
+        }
+    }
+
+    public int updateTriggerAccessPartitions(Connection conn, Map<JobKey, Integer> partitions)
+        throws SQLException {
+        if (partitions.isEmpty()) {
+            return 0;
+        }
+
+        PreparedStatement ps = null;
+        try {
+            ps = prepareStatement(conn, rtp(UPDATE_TRIGGER_ACCESS_PARTITION_FOR_JOB));
+            for (Map.Entry<JobKey, Integer> entry : partitions.entrySet()) {
+                ps.setInt(1, entry.getValue().intValue());
+                ps.setString(2, entry.getKey().getName());
+                ps.setString(3, entry.getKey().getGroup());
+                ps.setInt(4, entry.getValue().intValue());
+                ps.addBatch();
+            }
+
+            return Util.sumBatchUpdateCounts(ps.executeBatch());
+        } finally {
+            closeStatement(ps);
+        }
+    }
+
     /**
      * <p>
      * Insert a fired trigger.
@@ -2642,26 +3509,8 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
             String state, JobDetail job) throws SQLException {
         PreparedStatement ps = null;
         try {
-            ps = conn.prepareStatement(rtp(INSERT_FIRED_TRIGGER));
-            ps.setString(1, trigger.getFireInstanceId());
-            ps.setString(2, trigger.getKey().getName());
-            ps.setString(3, trigger.getKey().getGroup());
-            ps.setString(4, instanceId);
-            ps.setBigDecimal(5, new BigDecimal(String.valueOf(System.currentTimeMillis())));
-            ps.setBigDecimal(6, new BigDecimal(String.valueOf(trigger.getNextFireTime().getTime())));
-            ps.setString(7, state);
-            if (job != null) {
-                ps.setString(8, trigger.getJobKey().getName());
-                ps.setString(9, trigger.getJobKey().getGroup());
-                setBoolean(ps, 10, job.isConcurrentExectionDisallowed());
-                setBoolean(ps, 11, job.requestsRecovery());
-            } else {
-                ps.setString(8, null);
-                ps.setString(9, null);
-                setBoolean(ps, 10, false);
-                setBoolean(ps, 11, false);
-            }
-            ps.setInt(12, trigger.getPriority());
+            ps = prepareStatement(conn, rtp(INSERT_FIRED_TRIGGER));
+            setFiredTriggerParameters(ps, trigger, state, job);
 
             return ps.executeUpdate();
         } finally {
@@ -2669,6 +3518,63 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         }
     }
 
+    /**
+     * <p>
+     * Insert fired trigger records for all of the given triggers, as a single
+     * JDBC batch.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @param triggers
+     *          the triggers, which must already have their fire instance ids set
+     * @param state
+     *          the state that the triggers should be stored in
+     * @return the number of rows inserted
+     */
+    public int insertFiredTriggers(Connection conn, List<OperableTrigger> triggers,
+            String state) throws SQLException {
+        if (triggers.isEmpty()) {
+            return 0;
+        }
+
+        PreparedStatement ps = null;
+        try {
+            ps = prepareStatement(conn, rtp(INSERT_FIRED_TRIGGER));
+            for (OperableTrigger trigger : triggers) {
+                setFiredTriggerParameters(ps, trigger, state, null);
+                ps.addBatch();
+            }
+
+            return Util.sumBatchUpdateCounts(ps.executeBatch());
+        } finally {
+            closeStatement(ps);
+        }
+    }
+
+    private void setFiredTriggerParameters(PreparedStatement ps, OperableTrigger trigger,
+            String state, JobDetail job) throws SQLException {
+        ps.setString(1, trigger.getFireInstanceId());
+        ps.setString(2, trigger.getKey().getName());
+        ps.setString(3, trigger.getKey().getGroup());
+        ps.setString(4, instanceId);
+        ps.setBigDecimal(5, new BigDecimal(String.valueOf(System.currentTimeMillis())));
+        ps.setBigDecimal(6, new BigDecimal(String.valueOf(trigger.getNextFireTime().getTime())));
+        ps.setString(7, state);
+        if (job != null) {
+            ps.setString(8, trigger.getJobKey().getName());
+            ps.setString(9, trigger.getJobKey().getGroup());
+            setBoolean(ps, 10, job.isConcurrentExectionDisallowed());
+            setBoolean(ps, 11, job.requestsRecovery());
+        } else {
+            ps.setString(8, null);
+            ps.setString(9, null);
+            setBoolean(ps, 10, false);
+            setBoolean(ps, 11, false);
+        }
+        ps.setInt(12, trigger.getPriority());
+    }
+
     /**
      * <p>
      * Update a fired trigger.
@@ -2686,34 +3592,73 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
             String state, JobDetail job) throws SQLException {
         PreparedStatement ps = null;
         try {
-            ps = conn.prepareStatement(rtp(UPDATE_FIRED_TRIGGER));
-            
-            ps.setString(1, instanceId);
-
-            ps.setBigDecimal(2, new BigDecimal(String.valueOf(System.currentTimeMillis())));
-            ps.setBigDecimal(3, new BigDecimal(String.valueOf(trigger.getNextFireTime().getTime())));
-            ps.setString(4, state);
+            ps = prepareStatement(conn, rtp(UPDATE_FIRED_TRIGGER));
+            setFiredTriggerUpdateParameters(ps, trigger, state, job);
 
-            if (job != null) {
-                ps.setString(5, trigger.getJobKey().getName());
-                ps.setString(6, trigger.getJobKey().getGroup());
-                setBoolean(ps, 7, job.isConcurrentExectionDisallowed());
-                setBoolean(ps, 8, job.requestsRecovery());
-            } else {
-                ps.setString(5, null);
-                ps.setString(6, null);
-                setBoolean(ps, 7, false);
-                setBoolean(ps, 8, false);
-            }
+            return ps.executeUpdate();
+        } finally {
+            closeStatement(ps);
+        }
+    }
 
-            ps.setString(9, trigger.getFireInstanceId());
+    /**
+     * <p>
+     * Update the fired trigger records of all of the given triggers, as a
+     * single JDBC batch.
+     * </p>
+     * 
+     * @param conn
+     *          the DB Connection
+     * @param triggers
+     *          the triggers
+     * @param state
+     *          the state that the fired triggers should be stored in
+     * @param jobs
+     *          the JobDetails of the triggers, keyed by JobKey
+     * @return the number of rows updated
+     */
+    public int updateFiredTriggers(Connection conn, List<OperableTrigger> triggers,
+            String state, Map<JobKey, JobDetail> jobs) throws SQLException {
+        if (triggers.isEmpty()) {
+            return 0;
+        }
 
+        PreparedStatement ps = null;
+        try {
+            ps = prepareStatement(conn, rtp(UPDATE_FIRED_TRIGGER));
+            for (OperableTrigger trigger : triggers) {
+                setFiredTriggerUpdateParameters(ps, trigger, state, jobs.get(trigger.getJobKey()));
+                ps.addBatch();
+            }
 
-            return ps.executeUpdate();
+            return Util.sumBatchUpdateCounts(ps.executeBatch());
         } finally {
             closeStatement(ps);
         }
     }
+
+    private void setFiredTriggerUpdateParameters(PreparedStatement ps, OperableTrigger trigger,
+            String state, JobDetail job) throws SQLException {
+        ps.setString(1, instanceId);
+
+        ps.setBigDecimal(2, new BigDecimal(String.valueOf(System.currentTimeMillis())));
+        ps.setBigDecimal(3, new BigDecimal(String.valueOf(trigger.getNextFireTime().getTime())));
+        ps.setString(4, state);
+
+        if (job != null) {
+            ps.setString(5, trigger.getJobKey().getName());
+            ps.setString(6, trigger.getJobKey().getGroup());
+            setBoolean(ps, 7, job.isConcurrentExectionDisallowed());
+            setBoolean(ps, 8, job.requestsRecovery());
+        } else {
+            ps.setString(5, null);
+            ps.setString(6, null);
+            setBoolean(ps, 7, false);
+            setBoolean(ps, 8, false);
+        }
+
+        ps.setString(9, trigger.getFireInstanceId());
+    }
     
     /**
      * <p>
@@ -2730,11 +3675,11 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
             List<FiredTriggerRecord> lst = new LinkedList<FiredTriggerRecord>();
 
             if (triggerName != null) {
-                ps = conn.prepareStatement(rtp(SELECT_FIRED_TRIGGER));
+                ps = prepareStatement(conn, rtp(SELECT_FIRED_TRIGGER));
                 ps.setString(1, triggerName);
                 ps.setString(2, groupName);
             } else {
-                ps = conn.prepareStatement(rtp(SELECT_FIRED_TRIGGER_GROUP));
+                ps = prepareStatement(conn, rtp(SELECT_FIRED_TRIGGER_GROUP));
                 ps.setString(1, groupName);
             }
             rs = ps.executeQuery();
@@ -2782,12 +3727,11 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
             List<FiredTriggerRecord> lst = new LinkedList<FiredTriggerRecord>();
 
             if (jobName != null) {
-                ps = conn.prepareStatement(rtp(SELECT_FIRED_TRIGGERS_OF_JOB));
+                ps = prepareStatement(conn, rtp(SELECT_FIRED_TRIGGERS_OF_JOB));
                 ps.setString(1, jobName);
                 ps.setString(2, groupName);
             } else {
-                ps = conn
-                        .prepareStatement(rtp(SELECT_FIRED_TRIGGERS_OF_JOB_GROUP));
+                ps = prepareStatement(conn, rtp(SELECT_FIRED_TRIGGERS_OF_JOB_GROUP));
                 ps.setString(1, groupName);
             }
             rs = ps.executeQuery();
@@ -2828,7 +3772,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         try {
             List<FiredTriggerRecord> lst = new LinkedList<FiredTriggerRecord>();
 
-            ps = conn.prepareStatement(rtp(SELECT_INSTANCES_FIRED_TRIGGERS));
+            ps = prepareStatement(conn, rtp(SELECT_INSTANCES_FIRED_TRIGGERS));
             ps.setString(1, instanceName);
             rs = ps.executeQuery();
 
@@ -2879,7 +3823,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         try {
             Set<String> instanceNames = new HashSet<String>();
 
-            ps = conn.prepareStatement(rtp(SELECT_FIRED_TRIGGER_INSTANCE_NAMES));
+            ps = prepareStatement(conn, rtp(SELECT_FIRED_TRIGGER_INSTANCE_NAMES));
             rs = ps.executeQuery();
 
             while (rs.next()) {
@@ -2908,7 +3852,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         throws SQLException {
         PreparedStatement ps = null;
         try {
-            ps = conn.prepareStatement(rtp(DELETE_FIRED_TRIGGER));
+            ps = prepareStatement(conn, rtp(DELETE_FIRED_TRIGGER));
             ps.setString(1, entryId);
 
             return ps.executeUpdate();
@@ -2917,12 +3861,40 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         }
     }
 
+    /**
+     * <p>
+     * Delete the fired trigger records with the given entry ids, as a single
+     * JDBC batch.
+     * </p>
+     * 
+     * @return the number of rows deleted
+     */
+    public int deleteFiredTriggerEntries(Connection conn, List<String> entryIds)
+        throws SQLException {
+        if (entryIds.isEmpty()) {
+            return 0;
+        }
+
+        PreparedStatement ps = null;
+        try {
+            ps = prepareStatement(conn, rtp(DELETE_FIRED_TRIGGER));
+            for (String entryId : entryIds) {
+                ps.setString(1, entryId);
+                ps.addBatch();
+            }
+
+            return Util.sumBatchUpdateCounts(ps.executeBatch());
+        } finally {
+            closeStatement(ps);
+        }
+    }
+
     public int selectJobExecutionCount(Connection conn, JobKey jobKey) throws SQLException {
         PreparedStatement ps = null;
         ResultSet rs = null;
 
         try {
-            ps = conn.prepareStatement(rtp(SELECT_JOB_EXECUTION_COUNT));
+            ps = prepareStatement(conn, rtp(SELECT_JOB_EXECUTION_COUNT));
             ps.setString(1, jobKey.getName());
             ps.setString(2, jobKey.getGroup());
 
@@ -2940,7 +3912,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         throws SQLException {
         PreparedStatement ps = null;
         try {
-            ps = conn.prepareStatement(rtp(INSERT_SCHEDULER_STATE));
+            ps = prepareStatement(conn, rtp(INSERT_SCHEDULER_STATE));
             ps.setString(1, theInstanceId);
             ps.setLong(2, checkInTime);
             ps.setLong(3, interval);
@@ -2955,7 +3927,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         throws SQLException {
         PreparedStatement ps = null;
         try {
-            ps = conn.prepareStatement(rtp(DELETE_SCHEDULER_STATE));
+            ps = prepareStatement(conn, rtp(DELETE_SCHEDULER_STATE));
             ps.setString(1, theInstanceId);
 
             return ps.executeUpdate();
@@ -2968,7 +3940,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         throws SQLException {
         PreparedStatement ps = null;
         try {
-            ps = conn.prepareStatement(rtp(UPDATE_SCHEDULER_STATE));
+            ps = prepareStatement(conn, rtp(UPDATE_SCHEDULER_STATE));
             ps.setLong(1, checkInTime);
             ps.setString(2, theInstanceId);
         
@@ -2986,10 +3958,10 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
             List<SchedulerStateRecord> lst = new LinkedList<SchedulerStateRecord>();
 
             if (theInstanceId != null) {
-                ps = conn.prepareStatement(rtp(SELECT_SCHEDULER_STATE));
+                ps = prepareStatement(conn, rtp(SELECT_SCHEDULER_STATE));
                 ps.setString(1, theInstanceId);
             } else {
-                ps = conn.prepareStatement(rtp(SELECT_SCHEDULER_STATES));
+                ps = prepareStatement(conn, rtp(SELECT_SCHEDULER_STATES));
             }
             rs = ps.executeQuery();
 
@@ -3026,7 +3998,42 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
      * @return the query, with proper table prefix substituted
      */
     protected final String rtp(String query) {
-        return Util.rtp(query, tablePrefix, getSchedulerNameLiteral());
+        String expanded = expandedQueries.get(query);
+        if (expanded == null) {
+            expanded = Util.rtp(query, tablePrefix, getSchedulerNameLiteral());
+            expandedQueries.put(query, expanded);
+        }
+        return expanded;
+    }
+
+    /**
+     * <p>
+     * Prepare the given (expanded) statement on the given connection, reusing
+     * the statement cached for the connection if the
+     * <code>cachePreparedStatements</code> setting is enabled.
+     * </p>
+     * 
+     * <p>
+     * The returned statement must be closed as usual once it is no longer
+     * needed.
+     * </p>
+     */
+    protected PreparedStatement prepareStatement(Connection conn, String sql) throws SQLException {
+        if (statementCache == null) {
+            return conn.prepareStatement(sql);
+        }
+        return statementCache.prepareStatement(conn, sql);
+    }
+
+    /**
+     * <p>
+     * Close any statements cached for the given connection.
+     * </p>
+     */
+    public void closeCachedStatements(Connection conn) {
+        if (statementCache != null) {
+            statementCache.closeStatements(conn);
+        }
     }
 
     private String schedNameLiteral = null;
@@ -3078,6 +4085,13 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         }
 
         try {
+            if (jobDataCodec != null) {
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                if (null != data) {
+                    jobDataCodec.encode(data.getWrappedMap(), baos);
+                }
+                return baos;
+            }
             return serializeObject(data);
         } catch (NotSerializableException e) {
             throw new NotSerializableException(
@@ -3228,7 +4242,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
      */
     protected Object getJobDataFromBlob(ResultSet rs, String colName)
         throws ClassNotFoundException, IOException, SQLException {
-        if (canUseProperties()) {
+        if (isJobDataReadAsStream()) {
             Blob blobLocator = rs.getBlob(colName);
             if (blobLocator != null) {
                 InputStream binaryInput = blobLocator.getBinaryStream();
@@ -3250,7 +4264,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
 
         HashSet<String> set = new HashSet<String>();
         try {
-            ps = conn.prepareStatement(rtp(SELECT_PAUSED_TRIGGER_GROUPS));
+            ps = prepareStatement(conn, rtp(SELECT_PAUSED_TRIGGER_GROUPS));
             rs = ps.executeQuery();
 
             while (rs.next()) {
@@ -68,6 +68,58 @@ public final class Util {
         return MessageFormat.format(query, new Object[]{tablePrefix, schedNameLiteral});
     }
 
+    /**
+     * <p>
+     * Build a predicate that matches any of <code>count</code> name/group
+     * pairs, e.g. <code>((NAME = ? AND GRP = ?) OR (NAME = ? AND GRP = ?))</code>.
+     * The parameters are expected to be bound name first, then group, for
+     * each key in turn.
+     * </p>
+     *
+     * @param nameColumn
+     *          the column holding the name part of the key
+     * @param groupColumn
+     *          the column holding the group part of the key
+     * @param count
+     *          the number of keys the predicate should match
+     * @return the predicate, enclosed in parentheses
+     */
+    public static String keysPredicate(String nameColumn, String groupColumn, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("At least one key is required.");
+        }
+        StringBuilder sb = new StringBuilder(count * (nameColumn.length() + groupColumn.length() + 24));
+        sb.append('(');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(" OR ");
+            }
+            sb.append('(').append(nameColumn).append(" = ? AND ")
+                .append(groupColumn).append(" = ?)");
+        }
+        sb.append(')');
+        return sb.toString();
+    }
+
+    /**
+     * <p>
+     * Sum the update counts returned by <code>Statement.executeBatch()</code>.
+     * Drivers that cannot report a count for an entry return
+     * <code>Statement.SUCCESS_NO_INFO</code>, which is counted as one row.
+     * </p>
+     */
+    public static int sumBatchUpdateCounts(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            if (count == Statement.SUCCESS_NO_INFO) {
+                total++;
+            } else if (count > 0) {
+                total += count;
+            }
+        }
+        return total;
+    }
+
     /**
      * <p>
      * Obtain a unique key for a given job.
@@ -19,9 +19,11 @@
 package org.quartz.impl.triggers;
 
 import java.util.Date;
+import java.util.NoSuchElementException;
 
 import org.quartz.Calendar;
 import org.quartz.CronTrigger;
+import org.quartz.FireTimeIterator;
 import org.quartz.JobDataMap;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
@@ -507,6 +509,95 @@ public abstract class AbstractTrigger<T extends Trigger> implements OperableTrig
      */
     public abstract Date computeFirstFireTime(Calendar calendar);
 
+    /**
+     * <p>
+     * Returns the times at which the <code>Trigger</code> would fire from
+     * now on, beginning with <code>getNextFireTime()</code> - or with the
+     * time <code>computeFirstFireTime(calendar)</code> would compute, if the
+     * next fire time is not yet set - and skipping the times excluded by the
+     * given calendar, as repeated calls of <code>triggered(calendar)</code>
+     * would.
+     * </p>
+     * 
+     * <p>
+     * The state of the <code>Trigger</code> is not altered.  The results
+     * are undefined if it is modified during the iteration.
+     * </p>
+     * 
+     * <p>
+     * This implementation fires a clone of the <code>Trigger</code>, so it
+     * allocates at each fire time.  Subclasses whose fire times can be
+     * computed arithmetically override it.
+     * </p>
+     * 
+     * @param calendar
+     *          the calendar to apply to the trigger's schedule, may be null.
+     * @see org.quartz.TriggerUtils#computeFireTimes(OperableTrigger, Calendar, int)
+     */
+    public FireTimeIterator getFireTimeIterator(Calendar calendar) {
+        OperableTrigger t = (OperableTrigger) clone();
+        if (t.getNextFireTime() == null) {
+            t.computeFirstFireTime(calendar);
+        }
+        return new TriggeringFireTimeIterator(t, calendar);
+    }
+
+    /**
+     * <p>
+     * Returns the first time at or after the given time at which the
+     * <code>Trigger</code> will fire, disregarding any calendar, or null if
+     * it will not fire at or after it.
+     * </p>
+     *
+     * <p>
+     * This implementation asks <code>getFireTimeAfter</code> for the fire
+     * time after the preceding millisecond; subclasses whose
+     * <code>getFireTimeAfter</code> skips further ahead override it.
+     * </p>
+     */
+    protected Date getFireTimeAtOrAfter(long time) {
+        return getFireTimeAfter(new Date(time - 1));
+    }
+
+    /**
+     * <p>
+     * Returns the fire time after the given one, which the given calendar
+     * excludes, skipping the fire times which fall within the same excluded
+     * range of the calendar.
+     * </p>
+     *
+     * <p>
+     * Rather than trying each fire time in turn, it leaps to the first fire
+     * time at or after the calendar's <code>getNextIncludedTime</code>, so
+     * that a calendar excluding hours does not cost a step per fire time of
+     * a trigger repeating every second.  The fire time it returns still has
+     * to be checked against the calendar.
+     * </p>
+     */
+    protected Date getFireTimeAfterExcluded(Date excludedFireTime, Calendar calendar) {
+        long excludedTime = excludedFireTime.getTime();
+        long includedTime = calendar.getNextIncludedTime(excludedTime);
+        if (includedTime > excludedTime) {
+            Date fireTime = getFireTimeAtOrAfter(includedTime);
+            if (fireTime == null || fireTime.getTime() > excludedTime) {
+                return fireTime;
+            }
+        }
+        return getFireTimeAfter(excludedFireTime);
+    }
+
+    /**
+     * Returns the first millisecond of the given year in the default time
+     * zone, as the bound past which the triggers give up looking for a fire
+     * time the calendar includes.
+     */
+    protected static long getStartOfYear(int year) {
+        java.util.Calendar c = java.util.Calendar.getInstance();
+        c.clear();
+        c.set(year, java.util.Calendar.JANUARY, 1);
+        return c.getTimeInMillis();
+    }
+
     /**
      * <p>
      * This method should not be used by the Quartz client.
@@ -863,7 +954,12 @@ public abstract class AbstractTrigger<T extends Trigger> implements OperableTrig
             // modifies a value object in this map from the cloned Trigger
             // they will also be modifying this Trigger. 
             if (jobDataMap != null) {
-                copy.jobDataMap = (JobDataMap)jobDataMap.clone();
+                if (jobDataMap.isEmpty() && !jobDataMap.isDirty()) {
+                    // nothing to copy - the copy creates its own map if it is ever asked for one
+                    copy.jobDataMap = null;
+                } else {
+                    copy.jobDataMap = (JobDataMap)jobDataMap.clone();
+                }
             }
 
         } catch (CloneNotSupportedException ex) {
@@ -886,4 +982,29 @@ public abstract class AbstractTrigger<T extends Trigger> implements OperableTrig
     }
 
     public abstract ScheduleBuilder<T> getScheduleBuilder();
+
+    private static class TriggeringFireTimeIterator implements FireTimeIterator {
+
+        private final OperableTrigger trigger;
+
+        private final Calendar calendar;
+
+        TriggeringFireTimeIterator(OperableTrigger trigger, Calendar calendar) {
+            this.trigger = trigger;
+            this.calendar = calendar;
+        }
+
+        public boolean hasNext() {
+            return trigger.getNextFireTime() != null;
+        }
+
+        public long next() {
+            Date next = trigger.getNextFireTime();
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            trigger.triggered(calendar);
+            return next.getTime();
+        }
+    }
 }
@@ -79,6 +79,8 @@ public class CalendarIntervalTriggerImpl extends AbstractTrigger<CalendarInterva
     
     private static final int YEAR_TO_GIVEUP_SCHEDULING_AT = java.util.Calendar.getInstance().get(java.util.Calendar.YEAR) + 100;
 
+    private static final long GIVE_UP_TIME = getStartOfYear(YEAR_TO_GIVEUP_SCHEDULING_AT + 1);
+
     /*
      * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
      * 
@@ -483,7 +485,7 @@ public class CalendarIntervalTriggerImpl extends AbstractTrigger<CalendarInterva
             Date newFireTime = getFireTimeAfter(new Date());
             while (newFireTime != null && cal != null
                     && !cal.isTimeIncluded(newFireTime.getTime())) {
-                newFireTime = getFireTimeAfter(newFireTime);
+                newFireTime = getFireTimeAfterExcluded(newFireTime, cal);
             }
             setNextFireTime(newFireTime);
         } else if (instr == MISFIRE_INSTRUCTION_FIRE_ONCE_NOW) { 
@@ -515,15 +517,13 @@ public class CalendarIntervalTriggerImpl extends AbstractTrigger<CalendarInterva
         while (nextFireTime != null && calendar != null
                 && !calendar.isTimeIncluded(nextFireTime.getTime())) {
             
-            nextFireTime = getFireTimeAfter(nextFireTime);
+            nextFireTime = getFireTimeAfterExcluded(nextFireTime, calendar);
 
             if(nextFireTime == null)
                 break;
             
             //avoid infinite loop
-            java.util.Calendar c = java.util.Calendar.getInstance();
-            c.setTime(nextFireTime);
-            if (c.get(java.util.Calendar.YEAR) > YEAR_TO_GIVEUP_SCHEDULING_AT) {
+            if (nextFireTime.getTime() >= GIVE_UP_TIME) {
                 nextFireTime = null;
             }
         }
@@ -546,15 +546,13 @@ public class CalendarIntervalTriggerImpl extends AbstractTrigger<CalendarInterva
         Date now = new Date();
         while (nextFireTime != null && !calendar.isTimeIncluded(nextFireTime.getTime())) {
 
-            nextFireTime = getFireTimeAfter(nextFireTime);
+            nextFireTime = getFireTimeAfterExcluded(nextFireTime, calendar);
 
             if(nextFireTime == null)
                 break;
             
             //avoid infinite loop
-            java.util.Calendar c = java.util.Calendar.getInstance();
-            c.setTime(nextFireTime);
-            if (c.get(java.util.Calendar.YEAR) > YEAR_TO_GIVEUP_SCHEDULING_AT) {
+            if (nextFireTime.getTime() >= GIVE_UP_TIME) {
                 nextFireTime = null;
             }
 
@@ -591,15 +589,13 @@ public class CalendarIntervalTriggerImpl extends AbstractTrigger<CalendarInterva
         while (nextFireTime != null && calendar != null
                 && !calendar.isTimeIncluded(nextFireTime.getTime())) {
             
-            nextFireTime = getFireTimeAfter(nextFireTime);
+            nextFireTime = getFireTimeAfterExcluded(nextFireTime, calendar);
             
             if(nextFireTime == null)
                 break;
 
             //avoid infinite loop
-            java.util.Calendar c = java.util.Calendar.getInstance();
-            c.setTime(nextFireTime);
-            if (c.get(java.util.Calendar.YEAR) > YEAR_TO_GIVEUP_SCHEDULING_AT) {
+            if (nextFireTime.getTime() >= GIVE_UP_TIME) {
                 return null;
             }
         }
@@ -20,11 +20,13 @@ package org.quartz.impl.triggers;
 import java.text.ParseException;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.NoSuchElementException;
 import java.util.TimeZone;
 
 import org.quartz.CronExpression;
 import org.quartz.CronScheduleBuilder;
 import org.quartz.CronTrigger;
+import org.quartz.FireTimeIterator;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.quartz.ScheduleBuilder;
@@ -63,6 +65,10 @@ public class CronTriggerImpl extends AbstractTrigger<CronTrigger> implements Cro
     private static final long serialVersionUID = -8644953146451592766L;
 
     protected static final int YEAR_TO_GIVEUP_SCHEDULING_AT = CronExpression.MAX_YEAR;
+
+    // Use gregorian only because the constant is based on Gregorian
+    private static final long GIVE_UP_TIME = new java.util.GregorianCalendar(
+            YEAR_TO_GIVEUP_SCHEDULING_AT + 1, java.util.Calendar.JANUARY, 1).getTimeInMillis();
     
     
     /*
@@ -617,7 +623,7 @@ public class CronTriggerImpl extends AbstractTrigger<CronTrigger> implements Cro
             Date newFireTime = getFireTimeAfter(new Date());
             while (newFireTime != null && cal != null
                     && !cal.isTimeIncluded(newFireTime.getTime())) {
-                newFireTime = getFireTimeAfter(newFireTime);
+                newFireTime = getFireTimeAfterExcluded(newFireTime, cal);
             }
             setNextFireTime(newFireTime);
         } else if (instr == MISFIRE_INSTRUCTION_FIRE_ONCE_NOW) {
@@ -716,7 +722,7 @@ public class CronTriggerImpl extends AbstractTrigger<CronTrigger> implements Cro
 
         while (nextFireTime != null && calendar != null
                 && !calendar.isTimeIncluded(nextFireTime.getTime())) {
-            nextFireTime = getFireTimeAfter(nextFireTime);
+            nextFireTime = getFireTimeAfterExcluded(nextFireTime, calendar);
         }
     }
 
@@ -736,16 +742,13 @@ public class CronTriggerImpl extends AbstractTrigger<CronTrigger> implements Cro
         Date now = new Date();
         while (nextFireTime != null && !calendar.isTimeIncluded(nextFireTime.getTime())) {
 
-            nextFireTime = getFireTimeAfter(nextFireTime);
+            nextFireTime = getFireTimeAfterExcluded(nextFireTime, calendar);
 
             if(nextFireTime == null)
                 break;
             
             //avoid infinite loop
-            // Use gregorian only because the constant is based on Gregorian
-            java.util.Calendar c = new java.util.GregorianCalendar(); 
-            c.setTime(nextFireTime);
-            if (c.get(java.util.Calendar.YEAR) > YEAR_TO_GIVEUP_SCHEDULING_AT) {
+            if (nextFireTime.getTime() >= GIVE_UP_TIME) {
                 nextFireTime = null;
             }
             
@@ -781,12 +784,37 @@ public class CronTriggerImpl extends AbstractTrigger<CronTrigger> implements Cro
 
         while (nextFireTime != null && calendar != null
                 && !calendar.isTimeIncluded(nextFireTime.getTime())) {
-            nextFireTime = getFireTimeAfter(nextFireTime);
+            nextFireTime = getFireTimeAfterExcluded(nextFireTime, calendar);
         }
 
         return nextFireTime;
     }
 
+    /**
+     * <p>
+     * Enumerates the fire times with the cron expression directly, without
+     * firing a clone of the trigger.
+     * </p>
+     * 
+     * @see AbstractTrigger#getFireTimeIterator(org.quartz.Calendar)
+     */
+    @Override
+    public FireTimeIterator getFireTimeIterator(org.quartz.Calendar calendar) {
+        // subclasses may compute their fire times differently
+        if (cronEx == null || getClass() != CronTriggerImpl.class) {
+            return super.getFireTimeIterator(calendar);
+        }
+
+        long startMillis = getStartTime().getTime() - 1000L;
+        long endMillis = (getEndTime() == null) ? Long.MAX_VALUE : getEndTime().getTime();
+        if (nextFireTime == null) {
+            return new CronFireTimeIterator(cronEx, cronEx.getFireTimesAfter(startMillis), calendar, endMillis);
+        }
+        long first = nextFireTime.getTime();
+        return new CronFireTimeIterator(first, cronEx,
+            cronEx.getFireTimesAfter(Math.max(first, startMillis)), calendar, endMillis);
+    }
+
     /* (non-Javadoc)
      * @see org.quartz.CronTriggerI#getExpressionSummary()
      */
@@ -842,6 +870,73 @@ public class CronTriggerImpl extends AbstractTrigger<CronTrigger> implements Cro
         return (cronEx == null) ? null : cronEx.getTimeBefore(eTime);
     }
 
-    
-}
+    /**
+     * The times of a cron expression that are not after the end time of the
+     * trigger, nor excluded by its calendar.
+     */
+    private static class CronFireTimeIterator implements FireTimeIterator {
+
+        private final CronExpression cronEx;
+
+        private FireTimeIterator cronTimes;
+
+        private final org.quartz.Calendar calendar;
 
+        private final long endMillis;
+
+        private long next;
+
+        private boolean hasNext;
+
+        CronFireTimeIterator(CronExpression cronEx, FireTimeIterator cronTimes, org.quartz.Calendar calendar, long endMillis) {
+            this.cronEx = cronEx;
+            this.cronTimes = cronTimes;
+            this.calendar = calendar;
+            this.endMillis = endMillis;
+            advance();
+        }
+
+        CronFireTimeIterator(long first, CronExpression cronEx, FireTimeIterator cronTimes, org.quartz.Calendar calendar, long endMillis) {
+            this.cronEx = cronEx;
+            this.cronTimes = cronTimes;
+            this.calendar = calendar;
+            this.endMillis = endMillis;
+            this.next = first;
+            this.hasNext = true;
+        }
+
+        private void advance() {
+            hasNext = false;
+            while (cronTimes.hasNext()) {
+                long time = cronTimes.next();
+                if (time > endMillis) {
+                    return;
+                }
+                if (calendar == null || calendar.isTimeIncluded(time)) {
+                    next = time;
+                    hasNext = true;
+                    return;
+                }
+                // leap over the rest of the excluded range, unless it ends
+                // before the next second the expression could fire at
+                long includedTime = calendar.getNextIncludedTime(time);
+                if (includedTime > time + 1000L) {
+                    cronTimes = cronEx.getFireTimesAfter(includedTime - 1);
+                }
+            }
+        }
+
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        public long next() {
+            if (!hasNext) {
+                throw new NoSuchElementException();
+            }
+            long time = next;
+            advance();
+            return time;
+        }
+    }
+}
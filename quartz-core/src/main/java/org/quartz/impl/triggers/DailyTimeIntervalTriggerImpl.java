@@ -85,6 +85,8 @@ public class DailyTimeIntervalTriggerImpl extends AbstractTrigger<DailyTimeInter
      */
     private static final int YEAR_TO_GIVEUP_SCHEDULING_AT = java.util.Calendar.getInstance().get(java.util.Calendar.YEAR) + 100;
 
+    private static final long GIVE_UP_TIME = getStartOfYear(YEAR_TO_GIVEUP_SCHEDULING_AT + 1);
+
     /*
      * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
      * 
@@ -451,7 +453,7 @@ public class DailyTimeIntervalTriggerImpl extends AbstractTrigger<DailyTimeInter
             Date newFireTime = getFireTimeAfter(new Date());
             while (newFireTime != null && cal != null
                     && !cal.isTimeIncluded(newFireTime.getTime())) {
-                newFireTime = getFireTimeAfter(newFireTime);
+                newFireTime = getFireTimeAfterExcluded(newFireTime, cal);
             }
             setNextFireTime(newFireTime);
         } else if (instr == MISFIRE_INSTRUCTION_FIRE_ONCE_NOW) { 
@@ -483,15 +485,13 @@ public class DailyTimeIntervalTriggerImpl extends AbstractTrigger<DailyTimeInter
         while (nextFireTime != null && calendar != null
                 && !calendar.isTimeIncluded(nextFireTime.getTime())) {
             
-            nextFireTime = getFireTimeAfter(nextFireTime);
+            nextFireTime = getFireTimeAfterExcluded(nextFireTime, calendar);
 
             if(nextFireTime == null)
                 break;
             
             //avoid infinite loop
-            java.util.Calendar c = java.util.Calendar.getInstance();
-            c.setTime(nextFireTime);
-            if (c.get(java.util.Calendar.YEAR) > YEAR_TO_GIVEUP_SCHEDULING_AT) {
+            if (nextFireTime.getTime() >= GIVE_UP_TIME) {
                 nextFireTime = null;
             }
         }
@@ -517,15 +517,13 @@ public class DailyTimeIntervalTriggerImpl extends AbstractTrigger<DailyTimeInter
         Date now = new Date();
         while (nextFireTime != null && !calendar.isTimeIncluded(nextFireTime.getTime())) {
 
-            nextFireTime = getFireTimeAfter(nextFireTime);
+            nextFireTime = getFireTimeAfterExcluded(nextFireTime, calendar);
 
             if(nextFireTime == null)
                 break;
             
             //avoid infinite loop
-            java.util.Calendar c = java.util.Calendar.getInstance();
-            c.setTime(nextFireTime);
-            if (c.get(java.util.Calendar.YEAR) > YEAR_TO_GIVEUP_SCHEDULING_AT) {
+            if (nextFireTime.getTime() >= GIVE_UP_TIME) {
                 nextFireTime = null;
             }
 
@@ -564,15 +562,13 @@ public class DailyTimeIntervalTriggerImpl extends AbstractTrigger<DailyTimeInter
       while (nextFireTime != null && calendar != null
               && !calendar.isTimeIncluded(nextFireTime.getTime())) {
           
-          nextFireTime = getFireTimeAfter(nextFireTime);
+          nextFireTime = getFireTimeAfterExcluded(nextFireTime, calendar);
           
           if(nextFireTime == null)
               break;
       
           //avoid infinite loop
-          java.util.Calendar c = java.util.Calendar.getInstance();
-          c.setTime(nextFireTime);
-          if (c.get(java.util.Calendar.YEAR) > YEAR_TO_GIVEUP_SCHEDULING_AT) {
+          if (nextFireTime.getTime() >= GIVE_UP_TIME) {
               return null;
           }
       }
@@ -642,6 +638,17 @@ public class DailyTimeIntervalTriggerImpl extends AbstractTrigger<DailyTimeInter
         this.previousFireTime = previousFireTime;
     }
 
+    /**
+     * <p>
+     * <code>getFireTimeAfter</code> looks for a fire time from a second after
+     * the given time, so this starts a second earlier.
+     * </p>
+     */
+    @Override
+    protected Date getFireTimeAtOrAfter(long time) {
+        return getFireTimeAfter(new Date(time - 1000L));
+    }
+
     /**
      * <p>
      * Returns the next time at which the <code>DailyTimeIntervalTrigger</code> will
@@ -19,9 +19,11 @@
 package org.quartz.impl.triggers;
 
 import java.util.Date;
+import java.util.NoSuchElementException;
 
 import org.quartz.Calendar;
 import org.quartz.CronTrigger;
+import org.quartz.FireTimeIterator;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.quartz.ScheduleBuilder;
@@ -66,6 +68,10 @@ public class SimpleTriggerImpl extends AbstractTrigger<SimpleTrigger> implements
     private static final long serialVersionUID = -3735980074222850397L;
 
     private static final int YEAR_TO_GIVEUP_SCHEDULING_AT = java.util.Calendar.getInstance().get(java.util.Calendar.YEAR) + 100;
+
+    private static final long GIVE_UP_TIME = getStartOfYear(YEAR_TO_GIVEUP_SCHEDULING_AT + 1);
+
+    private static final long NO_FIRE_TIME = Long.MIN_VALUE;
     
     /*
      * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
@@ -489,15 +495,13 @@ public class SimpleTriggerImpl extends AbstractTrigger<SimpleTrigger> implements
             Date newFireTime = getFireTimeAfter(new Date());
             while (newFireTime != null && cal != null
                     && !cal.isTimeIncluded(newFireTime.getTime())) {
-                newFireTime = getFireTimeAfter(newFireTime);
+                newFireTime = getFireTimeAfterExcluded(newFireTime, cal);
 
                 if(newFireTime == null)
                     break;
                 
                 //avoid infinite loop
-                java.util.Calendar c = java.util.Calendar.getInstance();
-                c.setTime(newFireTime);
-                if (c.get(java.util.Calendar.YEAR) > YEAR_TO_GIVEUP_SCHEDULING_AT) {
+                if (newFireTime.getTime() >= GIVE_UP_TIME) {
                     newFireTime = null;
                 }
             }
@@ -506,15 +510,13 @@ public class SimpleTriggerImpl extends AbstractTrigger<SimpleTrigger> implements
             Date newFireTime = getFireTimeAfter(new Date());
             while (newFireTime != null && cal != null
                     && !cal.isTimeIncluded(newFireTime.getTime())) {
-                newFireTime = getFireTimeAfter(newFireTime);
+                newFireTime = getFireTimeAfterExcluded(newFireTime, cal);
 
                 if(newFireTime == null)
                     break;
                 
                 //avoid infinite loop
-                java.util.Calendar c = java.util.Calendar.getInstance();
-                c.setTime(newFireTime);
-                if (c.get(java.util.Calendar.YEAR) > YEAR_TO_GIVEUP_SCHEDULING_AT) {
+                if (newFireTime.getTime() >= GIVE_UP_TIME) {
                     newFireTime = null;
                 }
             }
@@ -583,15 +585,13 @@ public class SimpleTriggerImpl extends AbstractTrigger<SimpleTrigger> implements
         while (nextFireTime != null && calendar != null
                 && !calendar.isTimeIncluded(nextFireTime.getTime())) {
             
-            nextFireTime = getFireTimeAfter(nextFireTime);
+            nextFireTime = getFireTimeAfterExcluded(nextFireTime, calendar);
 
             if(nextFireTime == null)
                 break;
             
             //avoid infinite loop
-            java.util.Calendar c = java.util.Calendar.getInstance();
-            c.setTime(nextFireTime);
-            if (c.get(java.util.Calendar.YEAR) > YEAR_TO_GIVEUP_SCHEDULING_AT) {
+            if (nextFireTime.getTime() >= GIVE_UP_TIME) {
                 nextFireTime = null;
             }
         }
@@ -612,15 +612,13 @@ public class SimpleTriggerImpl extends AbstractTrigger<SimpleTrigger> implements
         Date now = new Date();
         while (nextFireTime != null && !calendar.isTimeIncluded(nextFireTime.getTime())) {
 
-            nextFireTime = getFireTimeAfter(nextFireTime);
+            nextFireTime = getFireTimeAfterExcluded(nextFireTime, calendar);
 
             if(nextFireTime == null)
                 break;
             
             //avoid infinite loop
-            java.util.Calendar c = java.util.Calendar.getInstance();
-            c.setTime(nextFireTime);
-            if (c.get(java.util.Calendar.YEAR) > YEAR_TO_GIVEUP_SCHEDULING_AT) {
+            if (nextFireTime.getTime() >= GIVE_UP_TIME) {
                 nextFireTime = null;
             }
 
@@ -656,15 +654,13 @@ public class SimpleTriggerImpl extends AbstractTrigger<SimpleTrigger> implements
 
         while (nextFireTime != null && calendar != null
                 && !calendar.isTimeIncluded(nextFireTime.getTime())) {
-            nextFireTime = getFireTimeAfter(nextFireTime);
+            nextFireTime = getFireTimeAfterExcluded(nextFireTime, calendar);
             
             if(nextFireTime == null)
                 break;
             
             //avoid infinite loop
-            java.util.Calendar c = java.util.Calendar.getInstance();
-            c.setTime(nextFireTime);
-            if (c.get(java.util.Calendar.YEAR) > YEAR_TO_GIVEUP_SCHEDULING_AT) {
+            if (nextFireTime.getTime() >= GIVE_UP_TIME) {
                 return null;
             }
         }
@@ -672,6 +668,23 @@ public class SimpleTriggerImpl extends AbstractTrigger<SimpleTrigger> implements
         return nextFireTime;
     }
 
+    /**
+     * <p>
+     * Computes the fire times arithmetically, without firing a clone of the
+     * trigger.
+     * </p>
+     * 
+     * @see AbstractTrigger#getFireTimeIterator(Calendar)
+     */
+    @Override
+    public FireTimeIterator getFireTimeIterator(Calendar calendar) {
+        // subclasses may compute their fire times differently
+        if (getClass() != SimpleTriggerImpl.class) {
+            return super.getFireTimeIterator(calendar);
+        }
+        return new SimpleFireTimeIterator(calendar);
+    }
+
     /**
      * <p>
      * Returns the next time at which the <code>Trigger</code> is scheduled to fire. If
@@ -739,47 +752,56 @@ public class SimpleTriggerImpl extends AbstractTrigger<SimpleTrigger> implements
      */
     @Override
     public Date getFireTimeAfter(Date afterTime) {
+        if (afterTime == null) {
+            afterTime = new Date();
+        }
+
+        long time = getFireTimeAfter(afterTime.getTime(), timesTriggered);
+        return (time == NO_FIRE_TIME) ? null : new Date(time);
+    }
+
+    /**
+     * The fire time after the given time, once the trigger has fired the
+     * given number of times, or <code>NO_FIRE_TIME</code>.
+     */
+    private long getFireTimeAfter(long afterMillis, int timesTriggered) {
         if (complete) {
-            return null;
+            return NO_FIRE_TIME;
         }
 
         if ((timesTriggered > repeatCount)
                 && (repeatCount != REPEAT_INDEFINITELY)) {
-            return null;
+            return NO_FIRE_TIME;
         }
 
-        if (afterTime == null) {
-            afterTime = new Date();
-        }
+        long startMillis = getStartTime().getTime();
 
-        if (repeatCount == 0 && afterTime.compareTo(getStartTime()) >= 0) {
-            return null;
+        if (repeatCount == 0 && afterMillis >= startMillis) {
+            return NO_FIRE_TIME;
         }
 
-        long startMillis = getStartTime().getTime();
-        long afterMillis = afterTime.getTime();
         long endMillis = (getEndTime() == null) ? Long.MAX_VALUE : getEndTime()
                 .getTime();
 
         if (endMillis <= afterMillis) {
-            return null;
+            return NO_FIRE_TIME;
         }
 
         if (afterMillis < startMillis) {
-            return new Date(startMillis);
+            return startMillis;
         }
 
         long numberOfTimesExecuted = ((afterMillis - startMillis) / repeatInterval) + 1;
 
         if ((numberOfTimesExecuted > repeatCount) && 
             (repeatCount != REPEAT_INDEFINITELY)) {
-            return null;
+            return NO_FIRE_TIME;
         }
 
-        Date time = new Date(startMillis + (numberOfTimesExecuted * repeatInterval));
+        long time = startMillis + (numberOfTimesExecuted * repeatInterval);
 
-        if (endMillis <= time.getTime()) {
-            return null;
+        if (endMillis <= time) {
+            return NO_FIRE_TIME;
         }
 
         return time;
@@ -909,4 +931,54 @@ public class SimpleTriggerImpl extends AbstractTrigger<SimpleTrigger> implements
         return sb;
     }
 
+    private class SimpleFireTimeIterator implements FireTimeIterator {
+
+        private final Calendar calendar;
+
+        private int timesTriggered;
+
+        private long next;
+
+        SimpleFireTimeIterator(Calendar calendar) {
+            this.calendar = calendar;
+            this.timesTriggered = SimpleTriggerImpl.this.timesTriggered;
+            if (nextFireTime != null) {
+                next = nextFireTime.getTime();
+            } else {
+                next = skipExcluded(getStartTime().getTime());
+            }
+        }
+
+        private long skipExcluded(long time) {
+            while (time != NO_FIRE_TIME && calendar != null
+                    && !calendar.isTimeIncluded(time)) {
+                // leap to the first fire time the calendar may include
+                long includedTime = calendar.getNextIncludedTime(time);
+                long leapTime = (includedTime > time)
+                        ? getFireTimeAfter(includedTime - 1, timesTriggered) : time;
+                time = (leapTime == NO_FIRE_TIME || leapTime > time)
+                        ? leapTime : getFireTimeAfter(time, timesTriggered);
+
+                //avoid infinite loop
+                if (time != NO_FIRE_TIME && time >= GIVE_UP_TIME) {
+                    return NO_FIRE_TIME;
+                }
+            }
+            return time;
+        }
+
+        public boolean hasNext() {
+            return next != NO_FIRE_TIME;
+        }
+
+        public long next() {
+            if (next == NO_FIRE_TIME) {
+                throw new NoSuchElementException();
+            }
+            long time = next;
+            timesTriggered++;
+            next = skipExcluded(getFireTimeAfter(time, timesTriggered));
+            return time;
+        }
+    }
 }
@@ -0,0 +1,107 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz.listeners;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.JobListener;
+
+/**
+ * <p>
+ * Delivers the events of a delegate <code>{@link JobListener}</code> on the
+ * thread of a <code>{@link ListenerEventQueue}</code>, so that a slow
+ * listener does not delay the execution of jobs.
+ * </p>
+ *
+ * <p>
+ * The wrapper takes the name of its delegate, so it is registered, and
+ * matched, in the delegate's place.  The delegate sees each
+ * <code>JobExecutionContext</code> as it is when the event is delivered,
+ * which may be after the job has moved on.
+ * </p>
+ *
+ * @see AsyncTriggerListener
+ * @see AsyncSchedulerListener
+ */
+public class AsyncJobListener implements JobListener {
+
+    private final JobListener delegate;
+
+    private final ListenerEventQueue queue;
+
+    /**
+     * Construct an instance delivering through a queue of default capacity
+     * that blocks when full.
+     */
+    public AsyncJobListener(JobListener delegate) {
+        this(delegate, new ListenerEventQueue(delegate.getName()));
+    }
+
+    public AsyncJobListener(JobListener delegate, ListenerEventQueue queue) {
+        if(delegate == null || queue == null) {
+            throw new IllegalArgumentException("Delegate listener and queue cannot be null!");
+        }
+        this.delegate = delegate;
+        this.queue = queue;
+    }
+
+    public String getName() {
+        return delegate.getName();
+    }
+
+    public JobListener getDelegate() {
+        return delegate;
+    }
+
+    public ListenerEventQueue getEventQueue() {
+        return queue;
+    }
+
+    /**
+     * Stop queueing events, and wait for those already queued to be
+     * delivered.
+     */
+    public void shutdown() {
+        queue.shutdown(true);
+    }
+
+    public void jobToBeExecuted(final JobExecutionContext context) {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.jobToBeExecuted(context);
+            }
+        });
+    }
+
+    public void jobExecutionVetoed(final JobExecutionContext context) {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.jobExecutionVetoed(context);
+            }
+        });
+    }
+
+    public void jobWasExecuted(final JobExecutionContext context, final JobExecutionException jobException) {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.jobWasExecuted(context, jobException);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,238 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz.listeners;
+
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.SchedulerException;
+import org.quartz.SchedulerListener;
+import org.quartz.Trigger;
+import org.quartz.TriggerKey;
+
+/**
+ * <p>
+ * Delivers the events of a delegate <code>{@link SchedulerListener}</code>
+ * on the thread of a <code>{@link ListenerEventQueue}</code>, so that a slow
+ * listener does not delay the scheduler.
+ * </p>
+ *
+ * <p>
+ * The queue is shut down, after delivering the events queued before it,
+ * when the scheduler shuts down.
+ * </p>
+ *
+ * @see AsyncJobListener
+ * @see AsyncTriggerListener
+ */
+public class AsyncSchedulerListener implements SchedulerListener {
+
+    private final SchedulerListener delegate;
+
+    private final ListenerEventQueue queue;
+
+    /**
+     * Construct an instance delivering through a queue of default capacity
+     * that blocks when full.
+     */
+    public AsyncSchedulerListener(SchedulerListener delegate) {
+        this(delegate, new ListenerEventQueue(delegate.getClass().getSimpleName()));
+    }
+
+    public AsyncSchedulerListener(SchedulerListener delegate, ListenerEventQueue queue) {
+        if(delegate == null || queue == null) {
+            throw new IllegalArgumentException("Delegate listener and queue cannot be null!");
+        }
+        this.delegate = delegate;
+        this.queue = queue;
+    }
+
+    public SchedulerListener getDelegate() {
+        return delegate;
+    }
+
+    public ListenerEventQueue getEventQueue() {
+        return queue;
+    }
+
+    public void jobScheduled(final Trigger trigger) {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.jobScheduled(trigger);
+            }
+        });
+    }
+
+    public void jobUnscheduled(final TriggerKey triggerKey) {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.jobUnscheduled(triggerKey);
+            }
+        });
+    }
+
+    public void triggerFinalized(final Trigger trigger) {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.triggerFinalized(trigger);
+            }
+        });
+    }
+
+    public void triggerPaused(final TriggerKey triggerKey) {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.triggerPaused(triggerKey);
+            }
+        });
+    }
+
+    public void triggersPaused(final String triggerGroup) {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.triggersPaused(triggerGroup);
+            }
+        });
+    }
+
+    public void triggerResumed(final TriggerKey triggerKey) {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.triggerResumed(triggerKey);
+            }
+        });
+    }
+
+    public void triggersResumed(final String triggerGroup) {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.triggersResumed(triggerGroup);
+            }
+        });
+    }
+
+    public void jobAdded(final JobDetail jobDetail) {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.jobAdded(jobDetail);
+            }
+        });
+    }
+
+    public void jobDeleted(final JobKey jobKey) {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.jobDeleted(jobKey);
+            }
+        });
+    }
+
+    public void jobPaused(final JobKey jobKey) {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.jobPaused(jobKey);
+            }
+        });
+    }
+
+    public void jobsPaused(final String jobGroup) {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.jobsPaused(jobGroup);
+            }
+        });
+    }
+
+    public void jobResumed(final JobKey jobKey) {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.jobResumed(jobKey);
+            }
+        });
+    }
+
+    public void jobsResumed(final String jobGroup) {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.jobsResumed(jobGroup);
+            }
+        });
+    }
+
+    public void schedulerError(final String msg, final SchedulerException cause) {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.schedulerError(msg, cause);
+            }
+        });
+    }
+
+    public void schedulerInStandbyMode() {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.schedulerInStandbyMode();
+            }
+        });
+    }
+
+    public void schedulerStarted() {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.schedulerStarted();
+            }
+        });
+    }
+
+    public void schedulerStarting() {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.schedulerStarting();
+            }
+        });
+    }
+
+    public void schedulerShuttingdown() {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.schedulerShuttingdown();
+            }
+        });
+    }
+
+    public void schedulingDataCleared() {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.schedulingDataCleared();
+            }
+        });
+    }
+
+    /**
+     * Queue the event, then stop the queue's thread once it has delivered
+     * everything queued so far.  Any later events are delivered on the
+     * raising thread.
+     */
+    public void schedulerShutdown() {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.schedulerShutdown();
+            }
+        });
+        queue.shutdown(false);
+    }
+
+}
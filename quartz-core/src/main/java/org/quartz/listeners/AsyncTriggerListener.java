@@ -0,0 +1,120 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz.listeners;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.Trigger;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+import org.quartz.TriggerListener;
+
+/**
+ * <p>
+ * Delivers the events of a delegate <code>{@link TriggerListener}</code> on
+ * the thread of a <code>{@link ListenerEventQueue}</code>, so that a slow
+ * listener does not delay the firing of triggers.
+ * </p>
+ *
+ * <p>
+ * <code>{@link #vetoJobExecution(Trigger, JobExecutionContext)}</code> is
+ * always called on the firing thread, because the scheduler needs its answer
+ * at once - it may therefore reach the delegate before the corresponding
+ * <code>triggerFired</code> event.  Only listeners that do not veto, or whose
+ * veto does not depend on the other events, should be wrapped.
+ * </p>
+ *
+ * <p>
+ * The wrapper takes the name of its delegate, so it is registered, and
+ * matched, in the delegate's place.  The delegate sees each trigger and
+ * <code>JobExecutionContext</code> as it is when the event is delivered.
+ * </p>
+ *
+ * @see AsyncJobListener
+ * @see AsyncSchedulerListener
+ */
+public class AsyncTriggerListener implements TriggerListener {
+
+    private final TriggerListener delegate;
+
+    private final ListenerEventQueue queue;
+
+    /**
+     * Construct an instance delivering through a queue of default capacity
+     * that blocks when full.
+     */
+    public AsyncTriggerListener(TriggerListener delegate) {
+        this(delegate, new ListenerEventQueue(delegate.getName()));
+    }
+
+    public AsyncTriggerListener(TriggerListener delegate, ListenerEventQueue queue) {
+        if(delegate == null || queue == null) {
+            throw new IllegalArgumentException("Delegate listener and queue cannot be null!");
+        }
+        this.delegate = delegate;
+        this.queue = queue;
+    }
+
+    public String getName() {
+        return delegate.getName();
+    }
+
+    public TriggerListener getDelegate() {
+        return delegate;
+    }
+
+    public ListenerEventQueue getEventQueue() {
+        return queue;
+    }
+
+    /**
+     * Stop queueing events, and wait for those already queued to be
+     * delivered.
+     */
+    public void shutdown() {
+        queue.shutdown(true);
+    }
+
+    public void triggerFired(final Trigger trigger, final JobExecutionContext context) {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.triggerFired(trigger, context);
+            }
+        });
+    }
+
+    public boolean vetoJobExecution(Trigger trigger, JobExecutionContext context) {
+        return delegate.vetoJobExecution(trigger, context);
+    }
+
+    public void triggerMisfired(final Trigger trigger) {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.triggerMisfired(trigger);
+            }
+        });
+    }
+
+    public void triggerComplete(final Trigger trigger, final JobExecutionContext context,
+            final CompletedExecutionInstruction triggerInstructionCode) {
+        queue.add(new Runnable() {
+            public void run() {
+                delegate.triggerComplete(trigger, context, triggerInstructionCode);
+            }
+        });
+    }
+
+}
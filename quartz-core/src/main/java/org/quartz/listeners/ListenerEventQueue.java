@@ -0,0 +1,402 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz.listeners;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * A bounded ring buffer of listener events, delivered in batches by a
+ * dedicated daemon thread.
+ * </p>
+ *
+ * <p>
+ * Each of the asynchronous listener wrappers (<code>{@link AsyncJobListener}</code>,
+ * <code>{@link AsyncTriggerListener}</code> and <code>{@link AsyncSchedulerListener}</code>)
+ * owns one queue, so that a slow listener only delays its own events, and
+ * the statistics of the queue describe the lag of that one listener.
+ * </p>
+ *
+ * <p>
+ * What happens to an event raised while the queue is full is decided by the
+ * queue's <code>{@link OverflowPolicy}</code>.
+ * </p>
+ *
+ * @see #getEventTime()
+ */
+public class ListenerEventQueue {
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Constants.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    /**
+     * What to do with an event that is raised while the queue is full.
+     */
+    public enum OverflowPolicy {
+        /** Make the raising thread wait until there is room in the queue. */
+        BLOCK,
+        /** Discard the event being raised. */
+        DISCARD_NEWEST,
+        /** Discard the oldest event still waiting in the queue. */
+        DISCARD_OLDEST,
+        /**
+         * Deliver the event on the raising thread, ahead of the events still
+         * waiting in the queue.
+         */
+        DELIVER_SYNCHRONOUSLY
+    }
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Data members.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final String name;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final Runnable[] events;
+
+    private final long[] eventTimes;
+
+    private final int batchSize;
+
+    // the ring buffer state, guarded by 'this'
+    private int head;
+
+    private int count;
+
+    private boolean shutdown;
+
+    private final DispatcherThread dispatcher;
+
+    private final AtomicLong deliveredCount = new AtomicLong();
+
+    private final AtomicLong discardedCount = new AtomicLong();
+
+    private volatile long lastLag;
+
+    private volatile long maxLag;
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Constructors.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    /**
+     * Create a queue of <code>DEFAULT_CAPACITY</code> events that blocks the
+     * raising thread when full.
+     */
+    public ListenerEventQueue(String name) {
+        this(name, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * Create a queue and start its delivery thread.
+     *
+     * @param name the name of the queue, used to name its delivery thread.
+     * @param capacity the maximum number of events waiting for delivery.
+     * @param batchSize the maximum number of events the delivery thread
+     *          takes from the queue at once.
+     * @param overflowPolicy what to do with an event raised while the queue
+     *          is full.
+     */
+    public ListenerEventQueue(String name, int capacity, int batchSize, OverflowPolicy overflowPolicy) {
+        if (name == null) {
+            throw new IllegalArgumentException("Queue name cannot be null!");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be > 0");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be > 0");
+        }
+        if (overflowPolicy == null) {
+            throw new IllegalArgumentException("Overflow policy cannot be null!");
+        }
+        this.name = name;
+        this.overflowPolicy = overflowPolicy;
+        this.events = new Runnable[capacity];
+        this.eventTimes = new long[capacity];
+        this.batchSize = Math.min(batchSize, capacity);
+        this.dispatcher = new DispatcherThread(name + "_ListenerEventQueue");
+        this.dispatcher.start();
+    }
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Interface.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    /**
+     * <p>
+     * Get the time at which the event now being delivered was raised.
+     * </p>
+     *
+     * <p>
+     * Listeners that record when something happened should use this rather
+     * than the current time, which may be later if the event waited in a
+     * queue.  Outside of asynchronous delivery this is the current time.
+     * </p>
+     */
+    public static long getEventTime() {
+        Thread t = Thread.currentThread();
+        if (t instanceof DispatcherThread) {
+            return ((DispatcherThread) t).currentEventTime;
+        }
+        return System.currentTimeMillis();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public int getCapacity() {
+        return events.length;
+    }
+
+    /**
+     * <p>
+     * Queue the given event for delivery.
+     * </p>
+     *
+     * <p>
+     * Events raised after <code>{@link #shutdown(boolean)}</code> are
+     * delivered on the raising thread, as are events that the delivery
+     * thread itself raises into a full queue.
+     * </p>
+     */
+    public void add(Runnable event) {
+        long now = System.currentTimeMillis();
+        boolean interrupted = false;
+        try {
+            synchronized (this) {
+                while (count == events.length && !shutdown) {
+                    if (overflowPolicy == OverflowPolicy.BLOCK && Thread.currentThread() != dispatcher) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            // keep waiting, the event must not be lost
+                            interrupted = true;
+                        }
+                    } else if (overflowPolicy == OverflowPolicy.DISCARD_OLDEST) {
+                        events[head] = null;
+                        head = (head + 1) % events.length;
+                        count--;
+                        discardedCount.incrementAndGet();
+                    } else if (overflowPolicy == OverflowPolicy.DISCARD_NEWEST) {
+                        discardedCount.incrementAndGet();
+                        return;
+                    } else {
+                        break;
+                    }
+                }
+                if (count < events.length && !shutdown) {
+                    int tail = (head + count) % events.length;
+                    events[tail] = event;
+                    eventTimes[tail] = now;
+                    count++;
+                    if (count == 1) {
+                        notifyAll();
+                    }
+                    return;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        deliver(event, now);
+    }
+
+    /**
+     * <p>
+     * Stop accepting events into the queue.
+     * </p>
+     *
+     * @param waitForDelivery if <code>true</code>, wait until the events
+     *          already queued have been delivered.
+     */
+    public void shutdown(boolean waitForDelivery) {
+        synchronized (this) {
+            shutdown = true;
+            notifyAll();
+        }
+        if (waitForDelivery && Thread.currentThread() != dispatcher) {
+            try {
+                dispatcher.join();
+            } catch (InterruptedException ignore) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public synchronized boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * Get the number of events waiting for delivery.
+     */
+    public synchronized int getPendingEventCount() {
+        return count;
+    }
+
+    /**
+     * Get the number of events delivered so far, including those delivered
+     * on the raising thread.
+     */
+    public long getDeliveredEventCount() {
+        return deliveredCount.get();
+    }
+
+    /**
+     * Get the number of events discarded because the queue was full.
+     */
+    public long getDiscardedEventCount() {
+        return discardedCount.get();
+    }
+
+    /**
+     * Get how long, in milliseconds, the oldest event waiting for delivery
+     * has been waiting, or 0 if none is.
+     */
+    public long getCurrentLag() {
+        long oldest;
+        synchronized (this) {
+            if (count == 0) {
+                return 0;
+            }
+            oldest = eventTimes[head];
+        }
+        return Math.max(0, System.currentTimeMillis() - oldest);
+    }
+
+    /**
+     * Get how long, in milliseconds, the most recently delivered event
+     * waited for delivery.
+     */
+    public long getLastLag() {
+        return lastLag;
+    }
+
+    /**
+     * Get the longest time, in milliseconds, any event waited for delivery.
+     */
+    public long getMaxLag() {
+        return maxLag;
+    }
+
+    private void deliver(Runnable event, long eventTime) {
+        long lag = Math.max(0, System.currentTimeMillis() - eventTime);
+        lastLag = lag;
+        if (lag > maxLag) {
+            maxLag = lag;
+        }
+
+        try {
+            event.run();
+        } catch (Throwable t) {
+            log.error("Listener event of queue '" + name + "' threw exception: " + t.getMessage(), t);
+        }
+        deliveredCount.incrementAndGet();
+    }
+
+    /**
+     * Delivers the queued events in batches, until the queue is shut down
+     * and drained.
+     */
+    private class DispatcherThread extends Thread {
+
+        private final Runnable[] batch = new Runnable[batchSize];
+
+        private final long[] batchTimes = new long[batchSize];
+
+        private long currentEventTime;
+
+        DispatcherThread(String threadName) {
+            super(threadName);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                int taken;
+                synchronized (ListenerEventQueue.this) {
+                    while (count == 0 && !shutdown) {
+                        try {
+                            ListenerEventQueue.this.wait();
+                        } catch (InterruptedException ignore) {
+                            // check for events or shutdown again
+                        }
+                    }
+                    if (count == 0) {
+                        return;
+                    }
+                    taken = Math.min(count, batchSize);
+                    for (int i = 0; i < taken; i++) {
+                        batch[i] = events[head];
+                        batchTimes[i] = eventTimes[head];
+                        events[head] = null;
+                        head = (head + 1) % events.length;
+                    }
+                    boolean wasFull = count == events.length;
+                    count -= taken;
+                    if (wasFull) {
+                        ListenerEventQueue.this.notifyAll();
+                    }
+                }
+
+                for (int i = 0; i < taken; i++) {
+                    currentEventTime = batchTimes[i];
+                    deliver(batch[i], batchTimes[i]);
+                    batch[i] = null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,1241 @@
+/*
+ * Copyright 2001-2009 Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz.simpl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.quartz.Calendar;
+import org.quartz.Job;
+import org.quartz.JobDataMap;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.JobPersistenceException;
+import org.quartz.ObjectAlreadyExistsException;
+import org.quartz.Trigger;
+import org.quartz.TriggerKey;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+import org.quartz.Trigger.TriggerState;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.quartz.impl.matchers.StringMatcher;
+import org.quartz.spi.ClassLoadHelper;
+import org.quartz.spi.JobStore;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.SchedulerSignaler;
+import org.quartz.spi.TriggerFiredBundle;
+import org.quartz.spi.TriggerFiredResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * This class implements a <code>{@link org.quartz.spi.JobStore}</code> that,
+ * like the <code>{@link RAMJobStore}</code>, utilizes RAM as its storage
+ * device, but which is meant for large numbers of triggers that are
+ * scheduled and queried from many threads at once.
+ * </p>
+ *
+ * <p>
+ * Jobs, triggers and calendars are kept in concurrent maps, so that lookups
+ * such as <code>retrieveJob</code>, <code>checkExists</code> and
+ * <code>getTriggerState</code> take no store-wide lock.  The triggers that
+ * are waiting to fire are kept in a concurrent skip list ordered by next
+ * fire time, from which <code>acquireNextTriggers</code> takes them one by
+ * one.  The state of a trigger only changes while holding the monitor of
+ * that trigger (preceded by the monitor of its job, when the change depends
+ * on whether the job is blocked).  Only the operations that add or remove
+ * jobs, triggers, calendars or paused groups are serialized with one
+ * another.
+ * </p>
+ *
+ * <p>
+ * Monitors are always taken in the order: store structure, job, trigger.
+ * </p>
+ *
+ * <p>
+ * As with the <code>RAMJobStore</code>, the data is completely volatile.
+ * </p>
+ *
+ * @see RAMJobStore
+ */
+public class ConcurrentRAMJobStore implements JobStore {
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Data members.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    protected final ConcurrentHashMap<JobKey, JobWrapper> jobsByKey = new ConcurrentHashMap<JobKey, JobWrapper>(1000);
+
+    protected final ConcurrentHashMap<TriggerKey, TriggerWrapper> triggersByKey = new ConcurrentHashMap<TriggerKey, TriggerWrapper>(1000);
+
+    protected final ConcurrentHashMap<String, ConcurrentHashMap<JobKey, JobWrapper>> jobsByGroup = new ConcurrentHashMap<String, ConcurrentHashMap<JobKey, JobWrapper>>(25);
+
+    protected final ConcurrentHashMap<String, ConcurrentHashMap<TriggerKey, TriggerWrapper>> triggersByGroup = new ConcurrentHashMap<String, ConcurrentHashMap<TriggerKey, TriggerWrapper>>(25);
+
+    protected final ConcurrentHashMap<JobKey, Set<TriggerWrapper>> triggersByJob = new ConcurrentHashMap<JobKey, Set<TriggerWrapper>>(1000);
+
+    protected final ConcurrentSkipListSet<TriggerWrapper> timeTriggers = new ConcurrentSkipListSet<TriggerWrapper>(new TriggerWrapperComparator());
+
+    /**
+     * The triggers of each calendar, only used while holding the store
+     * structure monitor.
+     */
+    protected final HashMap<String, HashMap<TriggerKey, TriggerWrapper>> triggersByCalendar = new HashMap<String, HashMap<TriggerKey, TriggerWrapper>>(25);
+
+    protected final ConcurrentHashMap<String, Calendar> calendarsByName = new ConcurrentHashMap<String, Calendar>(25);
+
+    protected final Set<String> pausedTriggerGroups = newConcurrentSet();
+
+    protected final Set<String> pausedJobGroups = newConcurrentSet();
+
+    protected final Set<JobKey> blockedJobs = newConcurrentSet();
+
+    /**
+     * Serializes the operations that add or remove jobs, triggers, calendars
+     * or paused groups.
+     */
+    protected final Object structureLock = new Object();
+
+    protected volatile long misfireThreshold = 5000l;
+
+    protected SchedulerSignaler signaler;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private static final AtomicLong ftrCtr = new AtomicLong(System.currentTimeMillis());
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Constructors.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    /**
+     * <p>
+     * Create a new <code>ConcurrentRAMJobStore</code>.
+     * </p>
+     */
+    public ConcurrentRAMJobStore() {
+    }
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Interface.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    protected Logger getLog() {
+        return log;
+    }
+
+    public void initialize(ClassLoadHelper loadHelper, SchedulerSignaler schedSignaler) {
+
+        this.signaler = schedSignaler;
+
+        getLog().info("ConcurrentRAMJobStore initialized.");
+    }
+
+    public void schedulerStarted() {
+        // nothing to do
+    }
+
+    public void schedulerPaused() {
+        // nothing to do
+    }
+
+    public void schedulerResumed() {
+        // nothing to do
+    }
+
+    public long getMisfireThreshold() {
+        return misfireThreshold;
+    }
+
+    /**
+     * The number of milliseconds by which a trigger must have missed its
+     * next-fire-time, in order for it to be considered "misfired" and thus
+     * have its misfire instruction applied.
+     *
+     * @param misfireThreshold the new misfire threshold
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public void setMisfireThreshold(long misfireThreshold) {
+        if (misfireThreshold < 1) {
+            throw new IllegalArgumentException("Misfire threshold must be larger than 0");
+        }
+        this.misfireThreshold = misfireThreshold;
+    }
+
+    public void shutdown() {
+    }
+
+    public boolean supportsPersistence() {
+        return false;
+    }
+
+    /**
+     * Clear (delete!) all scheduling data - all {@link Job}s, {@link Trigger}s
+     * {@link Calendar}s.
+     */
+    public void clearAllSchedulingData() throws JobPersistenceException {
+
+        synchronized (structureLock) {
+            for (TriggerKey key : new ArrayList<TriggerKey>(triggersByKey.keySet())) {
+                removeTrigger(key);
+            }
+            for (JobKey key : new ArrayList<JobKey>(jobsByKey.keySet())) {
+                removeJob(key);
+            }
+            for (String name : new ArrayList<String>(calendarsByName.keySet())) {
+                removeCalendar(name);
+            }
+        }
+    }
+
+    public void storeJobAndTrigger(JobDetail newJob,
+            OperableTrigger newTrigger) throws JobPersistenceException {
+        storeJob(newJob, false);
+        storeTrigger(newTrigger, false);
+    }
+
+    public void storeJob(JobDetail newJob,
+            boolean replaceExisting) throws ObjectAlreadyExistsException {
+        JobWrapper jw = new JobWrapper((JobDetail)newJob.clone());
+
+        synchronized (structureLock) {
+            JobWrapper orig = jobsByKey.get(jw.key);
+            if (orig != null) {
+                if (!replaceExisting) {
+                    throw new ObjectAlreadyExistsException(newJob);
+                }
+                synchronized (orig) {
+                    orig.jobDetail = jw.jobDetail; // already cloned
+                }
+                return;
+            }
+
+            ConcurrentHashMap<JobKey, JobWrapper> grpMap = jobsByGroup.get(jw.key.getGroup());
+            if (grpMap == null) {
+                grpMap = new ConcurrentHashMap<JobKey, JobWrapper>(100);
+                jobsByGroup.put(jw.key.getGroup(), grpMap);
+            }
+            grpMap.put(jw.key, jw);
+            jobsByKey.put(jw.key, jw);
+        }
+    }
+
+    public boolean removeJob(JobKey jobKey) {
+
+        boolean found = false;
+
+        synchronized (structureLock) {
+            for (TriggerWrapper tw : new ArrayList<TriggerWrapper>(triggersOfJob(jobKey))) {
+                removeTrigger(tw.key);
+                found = true;
+            }
+
+            found = (jobsByKey.remove(jobKey) != null) | found;
+            if (found) {
+                ConcurrentHashMap<JobKey, JobWrapper> grpMap = jobsByGroup.get(jobKey.getGroup());
+                if (grpMap != null) {
+                    grpMap.remove(jobKey);
+                    if (grpMap.isEmpty()) {
+                        jobsByGroup.remove(jobKey.getGroup());
+                    }
+                }
+            }
+        }
+
+        return found;
+    }
+
+    public boolean removeJobs(List<JobKey> jobKeys)
+            throws JobPersistenceException {
+        boolean allFound = true;
+
+        synchronized (structureLock) {
+            for(JobKey key: jobKeys)
+                allFound = removeJob(key) && allFound;
+        }
+
+        return allFound;
+    }
+
+    public boolean removeTriggers(List<TriggerKey> triggerKeys)
+            throws JobPersistenceException {
+        boolean allFound = true;
+
+        synchronized (structureLock) {
+            for(TriggerKey key: triggerKeys)
+                allFound = removeTrigger(key) && allFound;
+        }
+
+        return allFound;
+    }
+
+    public void storeJobsAndTriggers(
+            Map<JobDetail, Set<? extends Trigger>> triggersAndJobs, boolean replace)
+            throws JobPersistenceException {
+
+        synchronized (structureLock) {
+            // make sure there are no collisions...
+            if(!replace) {
+                for(Entry<JobDetail, Set<? extends Trigger>> e: triggersAndJobs.entrySet()) {
+                    if(checkExists(e.getKey().getKey()))
+                        throw new ObjectAlreadyExistsException(e.getKey());
+                    for(Trigger trigger: e.getValue()) {
+                        if(checkExists(trigger.getKey()))
+                            throw new ObjectAlreadyExistsException(trigger);
+                    }
+                }
+            }
+            // do bulk add...
+            for(Entry<JobDetail, Set<? extends Trigger>> e: triggersAndJobs.entrySet()) {
+                storeJob(e.getKey(), true);
+                for(Trigger trigger: e.getValue()) {
+                    storeTrigger((OperableTrigger) trigger, true);
+                }
+            }
+        }
+    }
+
+    public void storeTrigger(OperableTrigger newTrigger,
+            boolean replaceExisting) throws JobPersistenceException {
+        TriggerWrapper tw = new TriggerWrapper((OperableTrigger)newTrigger.clone());
+
+        synchronized (structureLock) {
+            if (triggersByKey.get(tw.key) != null) {
+                if (!replaceExisting) {
+                    throw new ObjectAlreadyExistsException(newTrigger);
+                }
+
+                removeTrigger(tw.key, false);
+            }
+
+            JobWrapper jw = jobsByKey.get(tw.jobKey);
+            if (jw == null) {
+                throw new JobPersistenceException("The job ("
+                        + newTrigger.getJobKey()
+                        + ") referenced by the trigger does not exist.");
+            }
+
+            ConcurrentHashMap<TriggerKey, TriggerWrapper> grpMap = triggersByGroup.get(tw.key.getGroup());
+            if (grpMap == null) {
+                grpMap = new ConcurrentHashMap<TriggerKey, TriggerWrapper>(100);
+                triggersByGroup.put(tw.key.getGroup(), grpMap);
+            }
+            grpMap.put(tw.key, tw);
+
+            String calName = tw.trigger.getCalendarName();
+            if (calName != null) {
+                HashMap<TriggerKey, TriggerWrapper> calMap = triggersByCalendar.get(calName);
+                if (calMap == null) {
+                    calMap = new HashMap<TriggerKey, TriggerWrapper>(4);
+                    triggersByCalendar.put(calName, calMap);
+                }
+                calMap.put(tw.key, tw);
+            }
+
+            synchronized (jw) {
+                Set<TriggerWrapper> jobTriggers = triggersByJob.get(tw.jobKey);
+                if (jobTriggers == null) {
+                    jobTriggers = newConcurrentSet();
+                    triggersByJob.put(tw.jobKey, jobTriggers);
+                }
+                jobTriggers.add(tw);
+
+                synchronized (tw) {
+                    triggersByKey.put(tw.key, tw);
+
+                    if (pausedTriggerGroups.contains(tw.key.getGroup())
+                            || pausedJobGroups.contains(tw.jobKey.getGroup())) {
+                        tw.state = TriggerWrapper.STATE_PAUSED;
+                        if (blockedJobs.contains(tw.jobKey)) {
+                            tw.state = TriggerWrapper.STATE_PAUSED_BLOCKED;
+                        }
+                    } else if (blockedJobs.contains(tw.jobKey)) {
+                        tw.state = TriggerWrapper.STATE_BLOCKED;
+                    } else {
+                        timeTriggers.add(tw);
+                    }
+                }
+            }
+        }
+    }
+
+    public boolean removeTrigger(TriggerKey triggerKey) {
+        return removeTrigger(triggerKey, true);
+    }
+
+    private boolean removeTrigger(TriggerKey key, boolean removeOrphanedJob) {
+
+        synchronized (structureLock) {
+            TriggerWrapper tw = triggersByKey.get(key);
+            if (tw == null) {
+                return false;
+            }
+
+            ConcurrentHashMap<TriggerKey, TriggerWrapper> grpMap = triggersByGroup.get(key.getGroup());
+            if (grpMap != null) {
+                grpMap.remove(key);
+                if (grpMap.isEmpty()) {
+                    triggersByGroup.remove(key.getGroup());
+                }
+            }
+
+            String calName = tw.trigger.getCalendarName();
+            HashMap<TriggerKey, TriggerWrapper> calMap = (calName != null) ? triggersByCalendar.get(calName) : null;
+            if (calMap != null) {
+                calMap.remove(key);
+                if (calMap.isEmpty()) {
+                    triggersByCalendar.remove(calName);
+                }
+            }
+
+            JobWrapper jw = jobsByKey.get(tw.jobKey);
+            Object jobMonitor = (jw != null) ? jw : new Object();
+            synchronized (jobMonitor) {
+                Set<TriggerWrapper> jobTriggers = triggersByJob.get(tw.jobKey);
+                if (jobTriggers != null) {
+                    jobTriggers.remove(tw);
+                    if (jobTriggers.isEmpty()) {
+                        triggersByJob.remove(tw.jobKey);
+                    }
+                }
+
+                synchronized (tw) {
+                    triggersByKey.remove(key);
+                    timeTriggers.remove(tw);
+                }
+            }
+
+            if (removeOrphanedJob && jw != null && triggersOfJob(jw.key).isEmpty()
+                    && !getJobDetail(jw).isDurable()) {
+                if (removeJob(jw.key)) {
+                    signaler.notifySchedulerListenersJobDeleted(jw.key);
+                }
+            }
+        }
+
+        return true;
+    }
+
+    public boolean replaceTrigger(TriggerKey triggerKey, OperableTrigger newTrigger) throws JobPersistenceException {
+
+        synchronized (structureLock) {
+            TriggerWrapper tw = triggersByKey.get(triggerKey);
+            if (tw == null) {
+                return false;
+            }
+
+            if (!tw.getTrigger().getJobKey().equals(newTrigger.getJobKey())) {
+                throw new JobPersistenceException("New trigger is not related to the same job as the old trigger.");
+            }
+
+            removeTrigger(triggerKey, false);
+
+            try {
+                storeTrigger(newTrigger, false);
+            } catch(JobPersistenceException jpe) {
+                storeTrigger(tw.getTrigger(), false); // put previous trigger back...
+                throw jpe;
+            }
+        }
+
+        return true;
+    }
+
+    public JobDetail retrieveJob(JobKey jobKey) {
+        JobWrapper jw = jobsByKey.get(jobKey);
+        return (jw != null) ? (JobDetail)getJobDetail(jw).clone() : null;
+    }
+
+    public OperableTrigger retrieveTrigger(TriggerKey triggerKey) {
+        TriggerWrapper tw = triggersByKey.get(triggerKey);
+        if (tw == null) {
+            return null;
+        }
+        synchronized (tw) {
+            return (OperableTrigger)tw.getTrigger().clone();
+        }
+    }
+
+    public boolean checkExists(JobKey jobKey) throws JobPersistenceException {
+        return jobsByKey.containsKey(jobKey);
+    }
+
+    public boolean checkExists(TriggerKey triggerKey) throws JobPersistenceException {
+        return triggersByKey.containsKey(triggerKey);
+    }
+
+    public TriggerState getTriggerState(TriggerKey triggerKey) throws JobPersistenceException {
+        TriggerWrapper tw = triggersByKey.get(triggerKey);
+
+        if (tw == null) {
+            return TriggerState.NONE;
+        }
+
+        int state;
+        synchronized (tw) {
+            state = tw.state;
+        }
+
+        switch (state) {
+            case TriggerWrapper.STATE_COMPLETE:
+                return TriggerState.COMPLETE;
+            case TriggerWrapper.STATE_PAUSED:
+            case TriggerWrapper.STATE_PAUSED_BLOCKED:
+                return TriggerState.PAUSED;
+            case TriggerWrapper.STATE_BLOCKED:
+                return TriggerState.BLOCKED;
+            case TriggerWrapper.STATE_ERROR:
+                return TriggerState.ERROR;
+            default:
+                return TriggerState.NORMAL;
+        }
+    }
+
+    public void storeCalendar(String name,
+            Calendar calendar, boolean replaceExisting, boolean updateTriggers)
+        throws ObjectAlreadyExistsException {
+
+        calendar = (Calendar) calendar.clone();
+
+        synchronized (structureLock) {
+
+            Calendar obj = calendarsByName.get(name);
+
+            if (obj != null && !replaceExisting) {
+                throw new ObjectAlreadyExistsException(
+                    "Calendar with name '" + name + "' already exists.");
+            }
+
+            calendarsByName.put(name, calendar);
+
+            if(obj != null && updateTriggers) {
+                for (TriggerWrapper tw : getTriggerWrappersForCalendar(name)) {
+                    synchronized (tw) {
+                        boolean removed = timeTriggers.remove(tw);
+
+                        tw.getTrigger().updateWithNewCalendar(calendar, getMisfireThreshold());
+
+                        if (removed) {
+                            timeTriggers.add(tw);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public boolean removeCalendar(String calName)
+        throws JobPersistenceException {
+
+        synchronized (structureLock) {
+            if (!getTriggerWrappersForCalendar(calName).isEmpty()) {
+                throw new JobPersistenceException(
+                        "Calender cannot be removed if it referenced by a Trigger!");
+            }
+
+            return (calendarsByName.remove(calName) != null);
+        }
+    }
+
+    public Calendar retrieveCalendar(String calName) {
+        Calendar cal = calendarsByName.get(calName);
+        if(cal != null)
+            return (Calendar) cal.clone();
+        return null;
+    }
+
+    public int getNumberOfJobs() {
+        return jobsByKey.size();
+    }
+
+    public int getNumberOfTriggers() {
+        return triggersByKey.size();
+    }
+
+    public int getNumberOfCalendars() {
+        return calendarsByName.size();
+    }
+
+    public Set<JobKey> getJobKeys(GroupMatcher<JobKey> matcher) {
+        Set<JobKey> outList = new HashSet<JobKey>();
+
+        StringMatcher.StringOperatorName operator = matcher.getCompareWithOperator();
+        String compareToValue = matcher.getCompareToValue();
+
+        switch(operator) {
+            case EQUALS:
+                Map<JobKey, JobWrapper> grpMap = jobsByGroup.get(compareToValue);
+                if (grpMap != null) {
+                    outList.addAll(grpMap.keySet());
+                }
+                break;
+
+            default:
+                for (Map.Entry<String, ConcurrentHashMap<JobKey, JobWrapper>> entry : jobsByGroup.entrySet()) {
+                    if(operator.evaluate(entry.getKey(), compareToValue)) {
+                        outList.addAll(entry.getValue().keySet());
+                    }
+                }
+        }
+
+        return outList;
+    }
+
+    public Set<TriggerKey> getTriggerKeys(GroupMatcher<TriggerKey> matcher) {
+        Set<TriggerKey> outList = new HashSet<TriggerKey>();
+
+        StringMatcher.StringOperatorName operator = matcher.getCompareWithOperator();
+        String compareToValue = matcher.getCompareToValue();
+
+        switch(operator) {
+            case EQUALS:
+                Map<TriggerKey, TriggerWrapper> grpMap = triggersByGroup.get(compareToValue);
+                if (grpMap != null) {
+                    outList.addAll(grpMap.keySet());
+                }
+                break;
+
+            default:
+                for (Map.Entry<String, ConcurrentHashMap<TriggerKey, TriggerWrapper>> entry : triggersByGroup.entrySet()) {
+                    if(operator.evaluate(entry.getKey(), compareToValue)) {
+                        outList.addAll(entry.getValue().keySet());
+                    }
+                }
+        }
+
+        return outList;
+    }
+
+    public List<String> getJobGroupNames() {
+        return new LinkedList<String>(jobsByGroup.keySet());
+    }
+
+    public List<String> getTriggerGroupNames() {
+        return new LinkedList<String>(triggersByGroup.keySet());
+    }
+
+    public List<String> getCalendarNames() {
+        return new LinkedList<String>(calendarsByName.keySet());
+    }
+
+    public List<OperableTrigger> getTriggersForJob(JobKey jobKey) {
+        ArrayList<OperableTrigger> trigList = new ArrayList<OperableTrigger>();
+
+        for (TriggerWrapper tw : triggersOfJob(jobKey)) {
+            synchronized (tw) {
+                trigList.add((OperableTrigger) tw.getTrigger().clone());
+            }
+        }
+
+        return trigList;
+    }
+
+    public void pauseTrigger(TriggerKey triggerKey) {
+        TriggerWrapper tw = triggersByKey.get(triggerKey);
+        if (tw == null) {
+            return;
+        }
+
+        synchronized (tw) {
+            // if the trigger is "complete" pausing it does not make sense...
+            if (tw.state == TriggerWrapper.STATE_COMPLETE) {
+                return;
+            }
+
+            if(tw.state == TriggerWrapper.STATE_BLOCKED) {
+                tw.state = TriggerWrapper.STATE_PAUSED_BLOCKED;
+            } else {
+                tw.state = TriggerWrapper.STATE_PAUSED;
+            }
+
+            timeTriggers.remove(tw);
+        }
+    }
+
+    public List<String> pauseTriggers(GroupMatcher<TriggerKey> matcher) {
+
+        List<String> pausedGroups = new LinkedList<String>();
+        synchronized (structureLock) {
+
+            StringMatcher.StringOperatorName operator = matcher.getCompareWithOperator();
+            switch (operator) {
+                case EQUALS:
+                    if(pausedTriggerGroups.add(matcher.getCompareToValue())) {
+                        pausedGroups.add(matcher.getCompareToValue());
+                    }
+                    break;
+                default :
+                    for (String group : triggersByGroup.keySet()) {
+                        if(operator.evaluate(group, matcher.getCompareToValue())) {
+                            if(pausedTriggerGroups.add(group)) {
+                                pausedGroups.add(group);
+                            }
+                        }
+                    }
+            }
+
+            for (String pausedGroup : pausedGroups) {
+                for (TriggerKey key: getTriggerKeys(GroupMatcher.triggerGroupEquals(pausedGroup))) {
+                    pauseTrigger(key);
+                }
+            }
+        }
+
+        return pausedGroups;
+    }
+
+    public void pauseJob(JobKey jobKey) {
+        for (TriggerWrapper tw : triggersOfJob(jobKey)) {
+            pauseTrigger(tw.key);
+        }
+    }
+
+    public List<String> pauseJobs(GroupMatcher<JobKey> matcher) {
+        List<String> pausedGroups = new LinkedList<String>();
+        synchronized (structureLock) {
+
+            StringMatcher.StringOperatorName operator = matcher.getCompareWithOperator();
+            switch (operator) {
+                case EQUALS:
+                    if (pausedJobGroups.add(matcher.getCompareToValue())) {
+                        pausedGroups.add(matcher.getCompareToValue());
+                    }
+                    break;
+                default :
+                    for (String group : jobsByGroup.keySet()) {
+                        if(operator.evaluate(group, matcher.getCompareToValue())) {
+                            if (pausedJobGroups.add(group)) {
+                                pausedGroups.add(group);
+                            }
+                        }
+                    }
+            }
+
+            for (String groupName : pausedGroups) {
+                for (JobKey jobKey: getJobKeys(GroupMatcher.jobGroupEquals(groupName))) {
+                    pauseJob(jobKey);
+                }
+            }
+        }
+
+        return pausedGroups;
+    }
+
+    public void resumeTrigger(TriggerKey triggerKey) {
+        TriggerWrapper tw = triggersByKey.get(triggerKey);
+        if (tw == null) {
+            return;
+        }
+        JobWrapper jw = jobsByKey.get(tw.jobKey);
+        if (jw == null) {
+            return;
+        }
+
+        synchronized (jw) {
+            synchronized (tw) {
+                if (!isStored(tw)) {
+                    return;
+                }
+
+                // if the trigger is not paused resuming it does not make sense...
+                if (tw.state != TriggerWrapper.STATE_PAUSED &&
+                        tw.state != TriggerWrapper.STATE_PAUSED_BLOCKED) {
+                    return;
+                }
+
+                if(blockedJobs.contains(tw.jobKey)) {
+                    tw.state = TriggerWrapper.STATE_BLOCKED;
+                } else {
+                    tw.state = TriggerWrapper.STATE_WAITING;
+                }
+
+                applyMisfire(tw);
+
+                if (tw.state == TriggerWrapper.STATE_WAITING) {
+                    timeTriggers.add(tw);
+                }
+            }
+        }
+    }
+
+    public List<String> resumeTriggers(GroupMatcher<TriggerKey> matcher) {
+        Set<String> groups = new HashSet<String>();
+
+        synchronized (structureLock) {
+            for (TriggerKey triggerKey: getTriggerKeys(matcher)) {
+                groups.add(triggerKey.getGroup());
+                TriggerWrapper tw = triggersByKey.get(triggerKey);
+                if(tw != null && pausedJobGroups.contains(tw.jobKey.getGroup())) {
+                    continue;
+                }
+                resumeTrigger(triggerKey);
+            }
+            for (String group : groups) {
+                pausedTriggerGroups.remove(group);
+            }
+        }
+
+        return new ArrayList<String>(groups);
+    }
+
+    public void resumeJob(JobKey jobKey) {
+        for (TriggerWrapper tw : triggersOfJob(jobKey)) {
+            resumeTrigger(tw.key);
+        }
+    }
+
+    public Collection<String> resumeJobs(GroupMatcher<JobKey> matcher) {
+        Set<String> resumedGroups = new HashSet<String>();
+        synchronized (structureLock) {
+            Set<JobKey> keys = getJobKeys(matcher);
+
+            for (String pausedJobGroup : pausedJobGroups) {
+                if(matcher.getCompareWithOperator().evaluate(pausedJobGroup, matcher.getCompareToValue())) {
+                    resumedGroups.add(pausedJobGroup);
+                }
+            }
+
+            for (String resumedGroup : resumedGroups) {
+                pausedJobGroups.remove(resumedGroup);
+            }
+
+            for (JobKey key: keys) {
+                resumeJob(key);
+            }
+        }
+        return resumedGroups;
+    }
+
+    public void pauseAll() {
+
+        synchronized (structureLock) {
+            for (String name: getTriggerGroupNames()) {
+                pauseTriggers(GroupMatcher.triggerGroupEquals(name));
+            }
+        }
+    }
+
+    public void resumeAll() {
+
+        synchronized (structureLock) {
+            pausedJobGroups.clear();
+            resumeTriggers(GroupMatcher.anyTriggerGroup());
+        }
+    }
+
+    /**
+     * Apply the misfire instruction of the given trigger if it has misfired.
+     * The caller must hold the monitor of the trigger, which must not be in
+     * <code>timeTriggers</code>.
+     */
+    protected boolean applyMisfire(TriggerWrapper tw) {
+
+        long misfireTime = System.currentTimeMillis();
+        if (getMisfireThreshold() > 0) {
+            misfireTime -= getMisfireThreshold();
+        }
+
+        Date tnft = tw.trigger.getNextFireTime();
+        if (tnft == null || tnft.getTime() > misfireTime
+                || tw.trigger.getMisfireInstruction() == Trigger.MISFIRE_INSTRUCTION_IGNORE_MISFIRE_POLICY) {
+            return false;
+        }
+
+        Calendar cal = null;
+        if (tw.trigger.getCalendarName() != null) {
+            cal = retrieveCalendar(tw.trigger.getCalendarName());
+        }
+
+        signaler.notifyTriggerListenersMisfired((OperableTrigger)tw.trigger.clone());
+
+        tw.trigger.updateAfterMisfire(cal);
+
+        if (tw.trigger.getNextFireTime() == null) {
+            tw.state = TriggerWrapper.STATE_COMPLETE;
+            signaler.notifySchedulerListenersFinalized(tw.trigger);
+        } else if (tnft.equals(tw.trigger.getNextFireTime())) {
+            return false;
+        }
+
+        return true;
+    }
+
+    protected String getFiredTriggerRecordId() {
+        return String.valueOf(ftrCtr.incrementAndGet());
+    }
+
+    /**
+     * <p>
+     * Get a handle to the next trigger to be fired, and mark it as 'reserved'
+     * by the calling scheduler.
+     * </p>
+     *
+     * <p>
+     * Triggers are taken off the time index one at a time, so other threads
+     * may keep scheduling, pausing and querying triggers meanwhile.
+     * </p>
+     *
+     * @see #releaseAcquiredTrigger(OperableTrigger)
+     */
+    public List<OperableTrigger> acquireNextTriggers(long noLaterThan, int maxCount, long timeWindow) {
+        List<OperableTrigger> result = new ArrayList<OperableTrigger>();
+        Set<JobKey> acquiredJobKeysForNoConcurrentExec = new HashSet<JobKey>();
+        List<TriggerWrapper> excludedTriggers = new ArrayList<TriggerWrapper>();
+
+        try {
+            while (true) {
+                TriggerWrapper tw = timeTriggers.pollFirst();
+                if (tw == null) {
+                    break;
+                }
+
+                JobWrapper jw = jobsByKey.get(tw.jobKey);
+                if (jw == null) {
+                    continue; // the trigger is being removed along with its job
+                }
+                boolean concurrentExecutionDisallowed = getJobDetail(jw).isConcurrentExectionDisallowed();
+
+                synchronized (tw) {
+                    // it may have been paused and resumed since it was polled
+                    timeTriggers.remove(tw);
+
+                    if (tw.state != TriggerWrapper.STATE_WAITING || !isStored(tw)
+                            || tw.trigger.getNextFireTime() == null) {
+                        continue;
+                    }
+
+                    if (applyMisfire(tw)) {
+                        if (tw.trigger.getNextFireTime() != null) {
+                            timeTriggers.add(tw);
+                        }
+                        continue;
+                    }
+
+                    if (tw.getTrigger().getNextFireTime().getTime() > noLaterThan + timeWindow) {
+                        timeTriggers.add(tw);
+                        break;
+                    }
+
+                    // If trigger's job is set as @DisallowConcurrentExecution, and it has already been added to result, then
+                    // put it back into the timeTriggers set and continue to search for next trigger.
+                    if (concurrentExecutionDisallowed) {
+                        if (!acquiredJobKeysForNoConcurrentExec.add(tw.jobKey)) {
+                            excludedTriggers.add(tw);
+                            continue;
+                        }
+                    }
+
+                    tw.state = TriggerWrapper.STATE_ACQUIRED;
+                    tw.trigger.setFireInstanceId(getFiredTriggerRecordId());
+                    result.add((OperableTrigger) tw.trigger.clone());
+                }
+
+                if (result.size() == maxCount) {
+                    break;
+                }
+            }
+        } finally {
+            // put back the triggers excluded due to DisallowConcurrentExecution
+            for (TriggerWrapper tw : excludedTriggers) {
+                synchronized (tw) {
+                    if (tw.state == TriggerWrapper.STATE_WAITING && isStored(tw)) {
+                        timeTriggers.add(tw);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    public void releaseAcquiredTrigger(OperableTrigger trigger) {
+        TriggerWrapper tw = triggersByKey.get(trigger.getKey());
+        if (tw == null) {
+            return;
+        }
+        synchronized (tw) {
+            if (tw.state == TriggerWrapper.STATE_ACQUIRED && isStored(tw)) {
+                tw.state = TriggerWrapper.STATE_WAITING;
+                timeTriggers.add(tw);
+            }
+        }
+    }
+
+    public List<TriggerFiredResult> triggersFired(List<OperableTrigger> firedTriggers) {
+
+        List<TriggerFiredResult> results = new ArrayList<TriggerFiredResult>();
+
+        for (OperableTrigger trigger : firedTriggers) {
+            TriggerWrapper tw = triggersByKey.get(trigger.getKey());
+            // was the trigger deleted since being acquired?
+            if (tw == null) {
+                continue;
+            }
+            JobWrapper jw = jobsByKey.get(tw.jobKey);
+            if (jw == null) {
+                continue;
+            }
+
+            Calendar cal = null;
+            if (trigger.getCalendarName() != null) {
+                cal = retrieveCalendar(trigger.getCalendarName());
+                if(cal == null)
+                    continue;
+            }
+
+            TriggerFiredBundle bndle = triggerFired(jw, tw, trigger, cal);
+            if (bndle != null) {
+                results.add(new TriggerFiredResult(bndle));
+            }
+        }
+        return results;
+    }
+
+    private TriggerFiredBundle triggerFired(JobWrapper jw, TriggerWrapper tw,
+            OperableTrigger trigger, Calendar cal) {
+        synchronized (jw) {
+            JobDetail job = (JobDetail) jw.jobDetail.clone();
+            TriggerFiredBundle bndle;
+
+            synchronized (tw) {
+                // was the trigger removed, completed, paused, blocked, etc. since being acquired?
+                if (!isStored(tw) || tw.state != TriggerWrapper.STATE_ACQUIRED) {
+                    return null;
+                }
+
+                Date prevFireTime = trigger.getPreviousFireTime();
+                // in case trigger was replaced between acquiring and firing
+                timeTriggers.remove(tw);
+                // call triggered on our copy, and the scheduler's copy
+                tw.trigger.triggered(cal);
+                trigger.triggered(cal);
+                tw.state = TriggerWrapper.STATE_WAITING;
+
+                bndle = new TriggerFiredBundle(job, trigger, cal,
+                        false, new Date(), trigger.getPreviousFireTime(), prevFireTime,
+                        trigger.getNextFireTime());
+
+                if (!job.isConcurrentExectionDisallowed() && tw.trigger.getNextFireTime() != null) {
+                    timeTriggers.add(tw);
+                }
+            }
+
+            if (job.isConcurrentExectionDisallowed()) {
+                for (TriggerWrapper ttw : triggersOfJob(job.getKey())) {
+                    synchronized (ttw) {
+                        // triggers acquired by other threads must not fire
+                        // either, as with the JDBC job stores
+                        if (ttw.state == TriggerWrapper.STATE_WAITING
+                                || ttw.state == TriggerWrapper.STATE_ACQUIRED) {
+                            ttw.state = TriggerWrapper.STATE_BLOCKED;
+                        }
+                        if (ttw.state == TriggerWrapper.STATE_PAUSED) {
+                            ttw.state = TriggerWrapper.STATE_PAUSED_BLOCKED;
+                        }
+                        timeTriggers.remove(ttw);
+                    }
+                }
+                blockedJobs.add(job.getKey());
+            }
+
+            return bndle;
+        }
+    }
+
+    public void triggeredJobComplete(OperableTrigger trigger,
+            JobDetail jobDetail, CompletedExecutionInstruction triggerInstCode) {
+
+        JobWrapper jw = jobsByKey.get(jobDetail.getKey());
+
+        // It's possible that the job is null if:
+        //   1- it was deleted during execution
+        //   2- ConcurrentRAMJobStore is being used only for volatile jobs / triggers
+        //      from the JDBC job store
+        if (jw != null) {
+            boolean unblocked = false;
+            synchronized (jw) {
+                JobDetail jd = jw.jobDetail;
+
+                if (jd.isPersistJobDataAfterExecution()) {
+                    JobDataMap newData = jobDetail.getJobDataMap();
+                    if (newData != null) {
+                        newData = (JobDataMap)newData.clone();
+                        newData.clearDirtyFlag();
+                    }
+                    jd = jd.getJobBuilder().setJobData(newData).build();
+                    jw.jobDetail = jd;
+                }
+                if (jd.isConcurrentExectionDisallowed()) {
+                    blockedJobs.remove(jd.getKey());
+                    for (TriggerWrapper ttw : triggersOfJob(jd.getKey())) {
+                        synchronized (ttw) {
+                            if (ttw.state == TriggerWrapper.STATE_BLOCKED) {
+                                ttw.state = TriggerWrapper.STATE_WAITING;
+                                timeTriggers.add(ttw);
+                            }
+                            if (ttw.state == TriggerWrapper.STATE_PAUSED_BLOCKED) {
+                                ttw.state = TriggerWrapper.STATE_PAUSED;
+                            }
+                        }
+                    }
+                    unblocked = true;
+                }
+            }
+            if (unblocked) {
+                signaler.signalSchedulingChange(0L);
+            }
+        } else { // even if it was deleted, there may be cleanup to do
+            blockedJobs.remove(jobDetail.getKey());
+        }
+
+        // check for trigger deleted during execution...
+        TriggerWrapper tw = triggersByKey.get(trigger.getKey());
+        if (tw != null) {
+            if (triggerInstCode == CompletedExecutionInstruction.DELETE_TRIGGER) {
+
+                if(trigger.getNextFireTime() == null) {
+                    // double check for possible reschedule within job
+                    // execution, which would cancel the need to delete...
+                    boolean noNextFireTime;
+                    synchronized (tw) {
+                        noNextFireTime = (tw.getTrigger().getNextFireTime() == null);
+                    }
+                    if(noNextFireTime) {
+                        removeTrigger(trigger.getKey());
+                    }
+                } else {
+                    removeTrigger(trigger.getKey());
+                    signaler.signalSchedulingChange(0L);
+                }
+            } else if (triggerInstCode == CompletedExecutionInstruction.SET_TRIGGER_COMPLETE) {
+                setTriggerState(tw, TriggerWrapper.STATE_COMPLETE);
+                signaler.signalSchedulingChange(0L);
+            } else if(triggerInstCode == CompletedExecutionInstruction.SET_TRIGGER_ERROR) {
+                getLog().info("Trigger " + trigger.getKey() + " set to ERROR state.");
+                setTriggerState(tw, TriggerWrapper.STATE_ERROR);
+                signaler.signalSchedulingChange(0L);
+            } else if (triggerInstCode == CompletedExecutionInstruction.SET_ALL_JOB_TRIGGERS_ERROR) {
+                getLog().info("All triggers of Job "
+                        + trigger.getJobKey() + " set to ERROR state.");
+                setAllTriggersOfJobToState(trigger.getJobKey(), TriggerWrapper.STATE_ERROR);
+                signaler.signalSchedulingChange(0L);
+            } else if (triggerInstCode == CompletedExecutionInstruction.SET_ALL_JOB_TRIGGERS_COMPLETE) {
+                setAllTriggersOfJobToState(trigger.getJobKey(), TriggerWrapper.STATE_COMPLETE);
+                signaler.signalSchedulingChange(0L);
+            }
+        }
+    }
+
+    protected void setAllTriggersOfJobToState(JobKey jobKey, int state) {
+        for (TriggerWrapper tw : triggersOfJob(jobKey)) {
+            setTriggerState(tw, state);
+        }
+    }
+
+    private void setTriggerState(TriggerWrapper tw, int state) {
+        synchronized (tw) {
+            tw.state = state;
+            if (state != TriggerWrapper.STATE_WAITING) {
+                timeTriggers.remove(tw);
+            }
+        }
+    }
+
+    public Set<String> getPausedTriggerGroups() throws JobPersistenceException {
+        return new HashSet<String>(pausedTriggerGroups);
+    }
+
+    public void setInstanceId(String schedInstId) {
+        //
+    }
+
+    public void setInstanceName(String schedName) {
+        //
+    }
+
+    public void setThreadPoolSize(final int poolSize) {
+        //
+    }
+
+    public long getEstimatedTimeToReleaseAndAcquireTrigger() {
+        return 5;
+    }
+
+    public boolean isClustered() {
+        return false;
+    }
+
+    /**
+     * The triggers of the given job.  The returned set is live, and must only
+     * be iterated over (weakly consistently) - changes to it are made while
+     * holding both the store structure monitor and the monitor of the job.
+     */
+    protected Set<TriggerWrapper> triggersOfJob(JobKey jobKey) {
+        Set<TriggerWrapper> jobTriggers = triggersByJob.get(jobKey);
+        return (jobTriggers != null) ? jobTriggers : Collections.<TriggerWrapper>emptySet();
+    }
+
+    protected ArrayList<TriggerWrapper> getTriggerWrappersForCalendar(String calName) {
+        synchronized (structureLock) {
+            HashMap<TriggerKey, TriggerWrapper> calMap = triggersByCalendar.get(calName);
+            return (calMap != null) ? new ArrayList<TriggerWrapper>(calMap.values()) : new ArrayList<TriggerWrapper>();
+        }
+    }
+
+    /**
+     * Whether the given wrapper is (still) the one stored for its key.  Must
+     * be called while holding the monitor of the trigger.
+     */
+    private boolean isStored(TriggerWrapper tw) {
+        return triggersByKey.get(tw.key) == tw;
+    }
+
+    private static JobDetail getJobDetail(JobWrapper jw) {
+        synchronized (jw) {
+            return jw.jobDetail;
+        }
+    }
+
+    private static <T> Set<T> newConcurrentSet() {
+        return Collections.newSetFromMap(new ConcurrentHashMap<T, Boolean>());
+    }
+}
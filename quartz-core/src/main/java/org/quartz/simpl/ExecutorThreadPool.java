@@ -0,0 +1,612 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz.simpl;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.quartz.SchedulerConfigException;
+import org.quartz.spi.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * An implementation of the <code>{@link org.quartz.spi.ThreadPool}</code>
+ * interface that runs the <code>Runnable</code>s on a
+ * <code>java.util.concurrent.ThreadPoolExecutor</code>, as an alternative to
+ * the <code>{@link SimpleThreadPool}</code> for schedulers with many
+ * threads.
+ * </p>
+ *
+ * <p>
+ * The number of available threads is kept in a <code>Semaphore</code>, whose
+ * permits are taken by <code>{@link #runInThread(Runnable)}</code> and given
+ * back as soon as the <code>Runnable</code> completes, so handing work to the
+ * pool and waiting in <code>{@link #blockForAvailableThreads()}</code> does
+ * not synchronize on a shared monitor, and
+ * <code>blockForAvailableThreads()</code> never counts a thread that has
+ * been promised to another <code>Runnable</code>.
+ * </p>
+ *
+ * <p>
+ * Unlike the <code>SimpleThreadPool</code>, the number of threads can be
+ * changed with <code>{@link #setThreadCount(int)}</code> while the pool is
+ * in use.  When the pool shrinks, threads that are running a job finish it
+ * before they are retired.
+ * </p>
+ *
+ * <p>
+ * It is configured like the <code>SimpleThreadPool</code>, e.g.:
+ * </p>
+ *
+ * <pre>
+ * org.quartz.threadPool.class = org.quartz.simpl.ExecutorThreadPool
+ * org.quartz.threadPool.threadCount = 200
+ * </pre>
+ *
+ * @see SimpleThreadPool
+ */
+public class ExecutorThreadPool implements ThreadPool {
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Data members.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+
+    private volatile int count = -1;
+
+    private int prio = Thread.NORM_PRIORITY;
+
+    private volatile boolean isShutdown = false;
+
+    private boolean inheritLoader = false;
+
+    private boolean inheritGroup = true;
+
+    private boolean makeThreadsDaemons = false;
+
+    private ThreadGroup threadGroup;
+
+    private String threadNamePrefix;
+
+    private String schedulerInstanceName;
+
+    private ThreadPoolExecutor executor;
+
+    private final ResizableSemaphore availableThreads = new ResizableSemaphore();
+
+    private final Object resizeLock = new Object();
+
+    private final AtomicLong dispatchedCount = new AtomicLong();
+
+    private final AtomicLong completedCount = new AtomicLong();
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Constructors.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    /**
+     * <p>
+     * Create a new (unconfigured) <code>ExecutorThreadPool</code>.
+     * </p>
+     *
+     * @see #setThreadCount(int)
+     * @see #setThreadPriority(int)
+     */
+    public ExecutorThreadPool() {
+    }
+
+    /**
+     * <p>
+     * Create a new <code>ExecutorThreadPool</code> with the specified number
+     * of <code>Thread</code> s that have the given priority.
+     * </p>
+     *
+     * @param threadCount
+     *          the number of worker <code>Threads</code> in the pool, must
+     *          be > 0.
+     * @param threadPriority
+     *          the thread priority for the worker threads.
+     */
+    public ExecutorThreadPool(int threadCount, int threadPriority) {
+        setThreadCount(threadCount);
+        setThreadPriority(threadPriority);
+    }
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Interface.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    public Logger getLog() {
+        return log;
+    }
+
+    public int getPoolSize() {
+        return getThreadCount();
+    }
+
+    /**
+     * <p>
+     * Set the number of worker threads in the pool.  After
+     * <code>initialize()</code> has been called, the pool is resized: new
+     * threads are available right away, and when shrinking, the pool stops
+     * handing out threads until enough of the busy ones have completed their
+     * <code>Runnable</code>.
+     * </p>
+     */
+    public void setThreadCount(int count) {
+        synchronized (resizeLock) {
+            if (executor == null) {
+                this.count = count;
+                return;
+            }
+            if (count <= 0) {
+                throw new IllegalArgumentException("Thread count must be > 0");
+            }
+
+            int delta = count - this.count;
+            if (delta > 0) {
+                executor.setMaximumPoolSize(count);
+                executor.setCorePoolSize(count);
+                executor.prestartAllCoreThreads();
+                availableThreads.release(delta);
+            } else if (delta < 0) {
+                availableThreads.reducePermits(-delta);
+                executor.setCorePoolSize(count);
+                executor.setMaximumPoolSize(count);
+            }
+            this.count = count;
+            getLog().info("Thread pool resized to " + count + " threads.");
+        }
+    }
+
+    /**
+     * <p>
+     * Get the number of worker threads in the pool.
+     * </p>
+     */
+    public int getThreadCount() {
+        return count;
+    }
+
+    /**
+     * <p>
+     * Set the thread priority of worker threads in the pool - has no effect
+     * after <code>initialize()</code> has been called.
+     * </p>
+     */
+    public void setThreadPriority(int prio) {
+        this.prio = prio;
+    }
+
+    /**
+     * <p>
+     * Get the thread priority of worker threads in the pool.
+     * </p>
+     */
+    public int getThreadPriority() {
+        return prio;
+    }
+
+    public void setThreadNamePrefix(String prfx) {
+        this.threadNamePrefix = prfx;
+    }
+
+    public String getThreadNamePrefix() {
+        return threadNamePrefix;
+    }
+
+    public boolean isThreadsInheritContextClassLoaderOfInitializingThread() {
+        return inheritLoader;
+    }
+
+    public void setThreadsInheritContextClassLoaderOfInitializingThread(
+            boolean inheritLoader) {
+        this.inheritLoader = inheritLoader;
+    }
+
+    public boolean isThreadsInheritGroupOfInitializingThread() {
+        return inheritGroup;
+    }
+
+    public void setThreadsInheritGroupOfInitializingThread(
+            boolean inheritGroup) {
+        this.inheritGroup = inheritGroup;
+    }
+
+    public boolean isMakeThreadsDaemons() {
+        return makeThreadsDaemons;
+    }
+
+    public void setMakeThreadsDaemons(boolean makeThreadsDaemons) {
+        this.makeThreadsDaemons = makeThreadsDaemons;
+    }
+
+    public void setInstanceId(String schedInstId) {
+    }
+
+    public void setInstanceName(String schedName) {
+        schedulerInstanceName = schedName;
+    }
+
+    /**
+     * <p>
+     * The number of threads that are neither running a <code>Runnable</code>
+     * nor promised to one.  It may briefly be negative after the pool was
+     * shrunk.
+     * </p>
+     */
+    public int getAvailableThreadCount() {
+        return availableThreads.availablePermits();
+    }
+
+    /**
+     * <p>
+     * The number of <code>Runnable</code>s that were handed to the pool and
+     * have not completed yet.
+     * </p>
+     */
+    public int getBusyThreadCount() {
+        return (int) (dispatchedCount.get() - completedCount.get());
+    }
+
+    /**
+     * <p>
+     * The number of <code>Runnable</code>s that were handed to the pool, but
+     * that no thread has picked up yet.  This is normally 0, except for the
+     * short moment between a thread completing a <code>Runnable</code> and
+     * going back to wait for the next one.
+     * </p>
+     */
+    public int getQueueSize() {
+        ThreadPoolExecutor ex = executor;
+        return (ex == null) ? 0 : ex.getQueue().size();
+    }
+
+    /**
+     * <p>
+     * The share of the threads of the pool that are busy, between 0 and 1.
+     * </p>
+     */
+    public double getUtilization() {
+        int threads = count;
+        return (threads <= 0) ? 0.0 : Math.min(1.0, ((double) getBusyThreadCount()) / threads);
+    }
+
+    /**
+     * <p>
+     * The largest number of threads the pool ever had at the same time.
+     * </p>
+     */
+    public int getLargestPoolSize() {
+        ThreadPoolExecutor ex = executor;
+        return (ex == null) ? 0 : ex.getLargestPoolSize();
+    }
+
+    /**
+     * <p>
+     * The number of <code>Runnable</code>s handed to the pool so far.
+     * </p>
+     */
+    public long getDispatchedCount() {
+        return dispatchedCount.get();
+    }
+
+    /**
+     * <p>
+     * The number of <code>Runnable</code>s that have completed so far.
+     * </p>
+     */
+    public long getCompletedCount() {
+        return completedCount.get();
+    }
+
+    public void initialize() throws SchedulerConfigException {
+
+        synchronized (resizeLock) {
+            if (executor != null) // already initialized...
+                return;
+
+            if (count <= 0) {
+                throw new SchedulerConfigException(
+                        "Thread count must be > 0");
+            }
+            if (prio <= 0 || prio > 9) {
+                throw new SchedulerConfigException(
+                        "Thread priority must be > 0 and <= 9");
+            }
+
+            if (isThreadsInheritGroupOfInitializingThread()) {
+                threadGroup = Thread.currentThread().getThreadGroup();
+            } else {
+                // follow the threadGroup tree to the root thread group.
+                threadGroup = Thread.currentThread().getThreadGroup();
+                ThreadGroup parent = threadGroup;
+                while ( !parent.getName().equals("main") ) {
+                    threadGroup = parent;
+                    parent = threadGroup.getParent();
+                }
+                threadGroup = new ThreadGroup(parent, schedulerInstanceName + "-ExecutorThreadPool");
+                if (isMakeThreadsDaemons()) {
+                    threadGroup.setDaemon(true);
+                }
+            }
+
+            if (isThreadsInheritContextClassLoaderOfInitializingThread()) {
+                getLog().info(
+                        "Job execution threads will use class loader of thread: "
+                                + Thread.currentThread().getName());
+            }
+
+            String threadPrefix = getThreadNamePrefix();
+            if (threadPrefix == null) {
+                threadPrefix = schedulerInstanceName + "_Worker";
+            }
+            ClassLoader loader = isThreadsInheritContextClassLoaderOfInitializingThread()
+                    ? Thread.currentThread().getContextClassLoader() : null;
+
+            executor = new ThreadPoolExecutor(count, count,
+                    KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(),
+                    new WorkerThreadFactory(threadGroup, threadPrefix, loader));
+            executor.prestartAllCoreThreads();
+            availableThreads.release(count);
+        }
+    }
+
+    /**
+     * <p>
+     * Terminate the worker threads of this pool.
+     * </p>
+     *
+     * <p>
+     * Jobs currently in progress will complete.
+     * </p>
+     */
+    public void shutdown() {
+        shutdown(true);
+    }
+
+    /**
+     * <p>
+     * Terminate the worker threads of this pool.
+     * </p>
+     *
+     * <p>
+     * Jobs currently in progress will complete.
+     * </p>
+     */
+    public void shutdown(boolean waitForJobsToComplete) {
+        getLog().debug("Shutting down threadpool...");
+
+        ThreadPoolExecutor ex;
+        synchronized (resizeLock) {
+            isShutdown = true;
+            ex = executor;
+        }
+
+        if (ex == null) // case where the pool wasn't even initialize()ed
+            return;
+
+        ex.shutdown();
+
+        if (waitForJobsToComplete) {
+            boolean interrupted = false;
+            try {
+                while (!ex.isTerminated()) {
+                    try {
+                        getLog().debug(
+                                "Waiting for " + ex.getActiveCount()
+                                        + " threads to shut down");
+
+                        // note: with waiting infinite time the
+                        // application may appear to 'hang'.
+                        ex.awaitTermination(2000, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException _) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            getLog().debug("No executing jobs remaining, all threads stopped.");
+        }
+        getLog().debug("Shutdown of threadpool complete.");
+    }
+
+    /**
+     * <p>
+     * Run the given <code>Runnable</code> object in the next available
+     * <code>Thread</code>. If while waiting the thread pool is asked to
+     * shut down, the Runnable is executed immediately within a new additional
+     * thread.
+     * </p>
+     *
+     * @param runnable
+     *          the <code>Runnable</code> to be added.
+     */
+    public boolean runInThread(Runnable runnable) {
+        if (runnable == null) {
+            return false;
+        }
+
+        // Wait until a worker thread is available
+        boolean acquired = false;
+        while (!acquired && !isShutdown) {
+            try {
+                acquired = availableThreads.tryAcquire(500, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ignore) {
+            }
+        }
+
+        if (acquired) {
+            dispatchedCount.incrementAndGet();
+            try {
+                executor.execute(new WorkerRunnable(runnable));
+                return true;
+            } catch (RejectedExecutionException shutDownMeanwhile) {
+                completedCount.incrementAndGet();
+                availableThreads.release();
+            }
+        }
+
+        // If the thread pool is going down, execute the Runnable
+        // within a new additional worker thread (no thread from the pool).
+        Thread lastJob = new Thread(threadGroup, new WorkerRunnable(runnable), "WorkerThread-LastJob");
+        lastJob.setPriority(prio);
+        lastJob.setDaemon(isMakeThreadsDaemons());
+        dispatchedCount.incrementAndGet();
+        availableThreads.reducePermits(1);
+        lastJob.start();
+
+        return true;
+    }
+
+    public int blockForAvailableThreads() {
+        while (!isShutdown) {
+            int available = availableThreads.availablePermits();
+            if (available > 0) {
+                return available;
+            }
+            try {
+                // wait for a thread to be given back, without keeping it
+                if (availableThreads.tryAcquire(500, TimeUnit.MILLISECONDS)) {
+                    availableThreads.release();
+                }
+            } catch (InterruptedException ignore) {
+            }
+        }
+
+        return Math.max(0, availableThreads.availablePermits());
+    }
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Helper Classes.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    /**
+     * Runs a <code>Runnable</code> handed to the pool, and gives its thread
+     * back to the pool afterwards.
+     */
+    private class WorkerRunnable implements Runnable {
+
+        private final Runnable runnable;
+
+        WorkerRunnable(Runnable runnable) {
+            this.runnable = runnable;
+        }
+
+        public void run() {
+            try {
+                runnable.run();
+            } catch (Throwable exceptionInRunnable) {
+                try {
+                    getLog().error("Error while executing the Runnable: ",
+                        exceptionInRunnable);
+                } catch(Exception e) {
+                    // ignore to help with a tomcat glitch
+                }
+            } finally {
+                // repair the thread in case the runnable mucked it up...
+                Thread thread = Thread.currentThread();
+                if (thread.getPriority() != prio) {
+                    thread.setPriority(prio);
+                }
+                // clear the interrupt flag so it does not leak into the next job
+                Thread.interrupted();
+
+                availableThreads.release();
+                completedCount.incrementAndGet();
+            }
+        }
+    }
+
+    private class WorkerThreadFactory implements ThreadFactory {
+
+        private final ThreadGroup group;
+
+        private final String namePrefix;
+
+        private final ClassLoader contextClassLoader;
+
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        WorkerThreadFactory(ThreadGroup group, String namePrefix, ClassLoader contextClassLoader) {
+            this.group = group;
+            this.namePrefix = namePrefix;
+            this.contextClassLoader = contextClassLoader;
+        }
+
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(group, r, namePrefix + "-" + threadNumber.getAndIncrement());
+            thread.setPriority(prio);
+            thread.setDaemon(isMakeThreadsDaemons());
+            if (contextClassLoader != null) {
+                thread.setContextClassLoader(contextClassLoader);
+            }
+            return thread;
+        }
+    }
+
+    /**
+     * A <code>Semaphore</code> whose permits can be taken away, which is what
+     * shrinking the pool needs.
+     */
+    private static class ResizableSemaphore extends Semaphore {
+
+        private static final long serialVersionUID = -8285424311467851287L;
+
+        ResizableSemaphore() {
+            super(0);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+}
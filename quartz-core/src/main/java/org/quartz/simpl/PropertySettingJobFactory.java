@@ -20,10 +20,14 @@ import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
+import java.lang.ref.SoftReference;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Locale;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 import org.quartz.Job;
 import org.quartz.JobDataMap;
@@ -62,6 +66,10 @@ import org.quartz.spi.TriggerFiredBundle;
 public class PropertySettingJobFactory extends SimpleJobFactory {
     private boolean warnIfNotFound = false;
     private boolean throwIfNotFound = false;
+    // the plans refer to their class through its setters, so they are held
+    // softly to let the class be unloaded
+    private final Map<Class<?>, SoftReference<InjectionPlan>> injectionPlans = 
+        new WeakHashMap<Class<?>, SoftReference<InjectionPlan>>();
     
     @Override
     public Job newJob(TriggerFiredBundle bundle, Scheduler scheduler) throws SchedulerException {
@@ -80,105 +88,42 @@ public class PropertySettingJobFactory extends SimpleJobFactory {
     
     protected void setBeanProps(Object obj, JobDataMap data) throws SchedulerException {
 
-        BeanInfo bi = null;
-        try {
-            bi = Introspector.getBeanInfo(obj.getClass());
-        } catch (IntrospectionException e) {
-            handleError("Unable to introspect Job class.", e);
+        InjectionPlan plan = getInjectionPlan(obj.getClass());
+        if (plan == null) {
+            return;
         }
         
-        PropertyDescriptor[] propDescs = bi.getPropertyDescriptors();
-        
         // Get the wrapped entry set so don't have to incur overhead of wrapping for
         // dirty flag checking since this is read only access
         for (Iterator<?> entryIter = data.getWrappedMap().entrySet().iterator(); entryIter.hasNext();) {
             Map.Entry<?,?> entry = (Map.Entry<?,?>)entryIter.next();
             
             String name = (String)entry.getKey();
-            String c = name.substring(0, 1).toUpperCase(Locale.US);
-            String methName = "set" + c + name.substring(1);
-        
-            java.lang.reflect.Method setMeth = getSetMethod(methName, propDescs);
+            PropertySetter setter = plan.getSetter(name);
         
             Class<?> paramType = null;
             Object o = null;
             
             try {
-                if (setMeth == null) {
+                if (setter == null) {
                     handleError(
                         "No setter on Job class " + obj.getClass().getName() + 
                         " for property '" + name + "'");
                     continue;
                 }
                 
-                paramType = setMeth.getParameterTypes()[0];
+                paramType = setter.paramType;
                 o = entry.getValue();
                 
-                Object parm = null;
-                if (paramType.isPrimitive()) {
-                    if (o == null) {
-                        handleError(
-                            "Cannot set primitive property '" + name + 
-                            "' on Job class " + obj.getClass().getName() + 
-                            " to null.");
-                        continue;
-                    }
-
-                    if (paramType.equals(int.class)) {
-                        if (o instanceof String) {                            
-                            parm = Integer.valueOf((String)o);
-                        } else if (o instanceof Integer) {
-                            parm = o;
-                        }
-                    } else if (paramType.equals(long.class)) {
-                        if (o instanceof String) {
-                            parm = Long.valueOf((String)o);
-                        } else if (o instanceof Long) {
-                            parm = o;
-                        }
-                    } else if (paramType.equals(float.class)) {
-                        if (o instanceof String) {
-                            parm = Float.valueOf((String)o);
-                        } else if (o instanceof Float) {
-                            parm = o;
-                        }
-                    } else if (paramType.equals(double.class)) {
-                        if (o instanceof String) {
-                            parm = Double.valueOf((String)o);
-                        } else if (o instanceof Double) {
-                            parm = o;
-                        }
-                    } else if (paramType.equals(boolean.class)) {
-                        if (o instanceof String) {
-                            parm = Boolean.valueOf((String)o);
-                        } else if (o instanceof Boolean) {
-                            parm = o;
-                        }
-                    } else if (paramType.equals(byte.class)) {
-                        if (o instanceof String) {
-                            parm = Byte.valueOf((String)o);
-                        } else if (o instanceof Byte) {
-                            parm = o;
-                        }
-                    } else if (paramType.equals(short.class)) {
-                        if (o instanceof String) {
-                            parm = Short.valueOf((String)o);
-                        } else if (o instanceof Short) {
-                            parm = o;
-                        }
-                    } else if (paramType.equals(char.class)) {
-                        if (o instanceof String) {
-                            String str = (String)o;
-                            if (str.length() == 1) {
-                                parm = Character.valueOf(str.charAt(0));
-                            }
-                        } else if (o instanceof Character) {
-                            parm = o;
-                        }
-                    }
-                } else if ((o != null) && (paramType.isAssignableFrom(o.getClass()))) {
-                    parm = o;
+                if (o == null && paramType.isPrimitive()) {
+                    handleError(
+                        "Cannot set primitive property '" + name + 
+                        "' on Job class " + obj.getClass().getName() + 
+                        " to null.");
+                    continue;
                 }
+
+                Object parm = setter.convert(o);
                 
                 // If the parameter wasn't originally null, but we didn't find a 
                 // matching parameter, then we are stuck.
@@ -191,7 +136,7 @@ public class PropertySettingJobFactory extends SimpleJobFactory {
                     continue;
                 }
                                 
-                setMeth.invoke(obj, new Object[]{ parm });
+                setter.method.invoke(obj, parm);
             } catch (NumberFormatException nfe) {
                 handleError(
                     "The setter on Job class " + obj.getClass().getName() + 
@@ -217,6 +162,36 @@ public class PropertySettingJobFactory extends SimpleJobFactory {
             }
         }
     }
+
+    /**
+     * Get the injection plan of the given class, introspecting it the first
+     * time the class is seen.
+     * 
+     * @return the plan, or <code>null</code> if the class could not be
+     * introspected (and the error was not thrown). 
+     */
+    private InjectionPlan getInjectionPlan(Class<?> jobClass) throws SchedulerException {
+        synchronized (injectionPlans) {
+            SoftReference<InjectionPlan> ref = injectionPlans.get(jobClass);
+            InjectionPlan plan = (ref == null) ? null : ref.get();
+            if (plan != null) {
+                return plan;
+            }
+        }
+
+        BeanInfo bi;
+        try {
+            bi = Introspector.getBeanInfo(jobClass);
+        } catch (IntrospectionException e) {
+            handleError("Unable to introspect Job class.", e);
+            return null;
+        }
+        InjectionPlan plan = new InjectionPlan(bi.getPropertyDescriptors());
+        synchronized (injectionPlans) {
+            injectionPlans.put(jobClass, new SoftReference<InjectionPlan>(plan));
+        }
+        return plan;
+    }
      
     private void handleError(String message) throws SchedulerException {
         handleError(message, null);
@@ -236,25 +211,175 @@ public class PropertySettingJobFactory extends SimpleJobFactory {
         }
     }
     
-    private java.lang.reflect.Method getSetMethod(String name,
-            PropertyDescriptor[] props) {
-        for (int i = 0; i < props.length; i++) {
-            java.lang.reflect.Method wMeth = props[i].getWriteMethod();
+    /**
+     * The setters of one job class, looked up by <code>JobDataMap</code> key.
+     * They are all found from the class's bean properties up front, so that
+     * setting a property is a map lookup and a direct invocation, and keys
+     * without a setter are not remembered.
+     */
+    private static final class InjectionPlan {
         
-            if(wMeth == null) {
-                continue;
-            }
+        // by property name, which is what the keys usually are
+        private final Map<String, PropertySetter> settersByProperty = 
+            new HashMap<String, PropertySetter>();
+
+        // by method name, for keys that only match once capitalized
+        private final Map<String, PropertySetter> settersByMethod = 
+            new HashMap<String, PropertySetter>();
+
+        InjectionPlan(PropertyDescriptor[] props) {
+            for (int i = 0; i < props.length; i++) {
+                Method wMeth = props[i].getWriteMethod();
             
-            if(wMeth.getParameterTypes().length != 1) {
-                continue;
+                if(wMeth == null) {
+                    continue;
+                }
+                
+                if(wMeth.getParameterTypes().length != 1) {
+                    continue;
+                }
+                
+                if (!settersByMethod.containsKey(wMeth.getName())) {
+                    PropertySetter setter = new PropertySetter(wMeth);
+                    settersByMethod.put(wMeth.getName(), setter);
+                    settersByProperty.put(props[i].getName(), setter);
+                }
             }
-            
-            if (wMeth.getName().equals(name)) {
-                return wMeth;
+        }
+
+        /**
+         * @return the setter for the given key, or <code>null</code> if the
+         * class has none.
+         */
+        PropertySetter getSetter(String name) {
+            PropertySetter setter = settersByProperty.get(name);
+            if (setter == null && name.length() > 0) {
+                String c = name.substring(0, 1).toUpperCase(Locale.US);
+                setter = settersByMethod.get("set" + c + name.substring(1));
             }
+            return setter;
         }
+    }
+
+    /**
+     * A property setter, along with the conversion of values to its
+     * parameter type.
+     */
+    private static final class PropertySetter {
         
-        return null;
+        final Method method;
+
+        final Class<?> paramType;
+
+        private final PrimitiveConverter converter;
+
+        PropertySetter(Method method) {
+            this.method = method;
+            this.paramType = method.getParameterTypes()[0];
+            this.converter = PrimitiveConverter.forType(paramType);
+        }
+
+        /**
+         * @return the given value as an argument of the setter, or 
+         * <code>null</code> if it cannot be converted.
+         */
+        Object convert(Object o) {
+            if (o == null) {
+                return null;
+            }
+            if (converter != null) {
+                return converter.convert(o);
+            }
+            return paramType.isInstance(o) ? o : null;
+        }
+    }
+
+    /**
+     * Converts values to the wrapper of a primitive parameter type, parsing
+     * strings.
+     */
+    private static enum PrimitiveConverter {
+        INT(int.class, Integer.class) {
+            @Override
+            Object parse(String str) {
+                return Integer.valueOf(str);
+            }
+        },
+        LONG(long.class, Long.class) {
+            @Override
+            Object parse(String str) {
+                return Long.valueOf(str);
+            }
+        },
+        FLOAT(float.class, Float.class) {
+            @Override
+            Object parse(String str) {
+                return Float.valueOf(str);
+            }
+        },
+        DOUBLE(double.class, Double.class) {
+            @Override
+            Object parse(String str) {
+                return Double.valueOf(str);
+            }
+        },
+        BOOLEAN(boolean.class, Boolean.class) {
+            @Override
+            Object parse(String str) {
+                return Boolean.valueOf(str);
+            }
+        },
+        BYTE(byte.class, Byte.class) {
+            @Override
+            Object parse(String str) {
+                return Byte.valueOf(str);
+            }
+        },
+        SHORT(short.class, Short.class) {
+            @Override
+            Object parse(String str) {
+                return Short.valueOf(str);
+            }
+        },
+        CHAR(char.class, Character.class) {
+            @Override
+            Object parse(String str) {
+                return (str.length() == 1) ? Character.valueOf(str.charAt(0)) : null;
+            }
+        };
+
+        private final Class<?> primitiveType;
+
+        private final Class<?> wrapperType;
+
+        private PrimitiveConverter(Class<?> primitiveType, Class<?> wrapperType) {
+            this.primitiveType = primitiveType;
+            this.wrapperType = wrapperType;
+        }
+
+        abstract Object parse(String str);
+
+        Object convert(Object o) {
+            if (wrapperType.isInstance(o)) {
+                return o;
+            }
+            if (o instanceof String) {
+                return parse((String) o);
+            }
+            return null;
+        }
+
+        static PrimitiveConverter forType(Class<?> type) {
+            if (!type.isPrimitive()) {
+                return null;
+            }
+            for (PrimitiveConverter converter : values()) {
+                if (converter.primitiveType == type) {
+                    return converter;
+                }
+            }
+            return null;
+        }
     }
 
     /**
@@ -20,11 +20,11 @@ package org.quartz.simpl;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -44,7 +44,6 @@ import org.quartz.Trigger;
 import org.quartz.TriggerKey;
 import org.quartz.Trigger.CompletedExecutionInstruction;
 import org.quartz.Trigger.TriggerState;
-import org.quartz.Trigger.TriggerTimeComparator;
 import org.quartz.impl.JobDetailImpl;
 import org.quartz.impl.matchers.GroupMatcher;
 import org.quartz.impl.matchers.StringMatcher;
@@ -98,7 +97,9 @@ public class RAMJobStore implements JobStore {
 
     protected HashMap<String, Calendar> calendarsByName = new HashMap<String, Calendar>(25);
 
-    protected ArrayList<TriggerWrapper> triggers = new ArrayList<TriggerWrapper>(1000);
+    protected HashMap<JobKey, HashMap<TriggerKey, TriggerWrapper>> triggersByJob = new HashMap<JobKey, HashMap<TriggerKey, TriggerWrapper>>(1000);
+
+    protected HashMap<String, HashMap<TriggerKey, TriggerWrapper>> triggersByCalendar = new HashMap<String, HashMap<TriggerKey, TriggerWrapper>>(25);
 
     protected final Object lock = new Object();
 
@@ -110,6 +111,11 @@ public class RAMJobStore implements JobStore {
     
     protected long misfireThreshold = 5000l;
 
+    // scratch space of acquireNextTriggers(), only used while holding the lock
+    private final HashSet<JobKey> acquiredJobKeysForNoConcurrentExec = new HashSet<JobKey>();
+
+    private final ArrayList<TriggerWrapper> excludedTriggers = new ArrayList<TriggerWrapper>();
+
     protected SchedulerSignaler signaler;
 
     private final Logger log = LoggerFactory.getLogger(getClass());
@@ -424,8 +430,11 @@ public class RAMJobStore implements JobStore {
                         + ") referenced by the trigger does not exist.");
             }
 
-            // add to triggers array
-            triggers.add(tw);
+            // add to triggers by job and calendar
+            addToIndex(triggersByJob, tw.jobKey, tw);
+            if (tw.trigger.getCalendarName() != null) {
+                addToIndex(triggersByCalendar, tw.trigger.getCalendarName(), tw);
+            }
             // add to triggers by group
             HashMap<TriggerKey, TriggerWrapper> grpMap = triggersByGroup.get(newTrigger.getKey().getGroup());
             if (grpMap == null) {
@@ -469,9 +478,9 @@ public class RAMJobStore implements JobStore {
 
         synchronized (lock) {
             // remove from triggers by FQN map
-            found = (triggersByKey.remove(key) != null);
+            TriggerWrapper tw = triggersByKey.remove(key);
+            found = (tw != null);
             if (found) {
-                TriggerWrapper tw = null;
                 // remove from triggers by group
                 HashMap<TriggerKey, TriggerWrapper> grpMap = triggersByGroup.get(key.getGroup());
                 if (grpMap != null) {
@@ -480,21 +489,13 @@ public class RAMJobStore implements JobStore {
                         triggersByGroup.remove(key.getGroup());
                     }
                 }
-                // remove from triggers array
-                Iterator<TriggerWrapper> tgs = triggers.iterator();
-                while (tgs.hasNext()) {
-                    tw = tgs.next();
-                    if (key.equals(tw.key)) {
-                        tgs.remove();
-                        break;
-                    }
-                }
+                // remove from triggers by job and calendar
+                removeFromIndexes(tw);
                 timeTriggers.remove(tw);
 
                 if (removeOrphanedJob) {
                     JobWrapper jw = jobsByKey.get(tw.jobKey);
-                    List<OperableTrigger> trigs = getTriggersForJob(tw.jobKey);
-                    if ((trigs == null || trigs.size() == 0) && !jw.jobDetail.isDurable()) {
+                    if (!triggersByJob.containsKey(tw.jobKey) && !jw.jobDetail.isDurable()) {
                         if (removeJob(jw.key)) {
                             signaler.notifySchedulerListenersJobDeleted(jw.key);
                         }
@@ -525,7 +526,6 @@ public class RAMJobStore implements JobStore {
                     throw new JobPersistenceException("New trigger is not related to the same job as the old trigger.");
                 }
 
-                tw = null;
                 // remove from triggers by group
                 HashMap<TriggerKey, TriggerWrapper> grpMap = triggersByGroup.get(triggerKey.getGroup());
                 if (grpMap != null) {
@@ -534,15 +534,8 @@ public class RAMJobStore implements JobStore {
                         triggersByGroup.remove(triggerKey.getGroup());
                     }
                 }
-                // remove from triggers array
-                Iterator<TriggerWrapper> tgs = triggers.iterator();
-                while (tgs.hasNext()) {
-                    tw = tgs.next();
-                    if (triggerKey.equals(tw.key)) {
-                        tgs.remove();
-                        break;
-                    }
-                }
+                // remove from triggers by job and calendar
+                removeFromIndexes(tw);
                 timeTriggers.remove(tw);
 
                 try {
@@ -734,24 +727,14 @@ public class RAMJobStore implements JobStore {
      */
     public boolean removeCalendar(String calName)
         throws JobPersistenceException {
-        int numRefs = 0;
-
         synchronized (lock) {
-            for (TriggerWrapper trigger : triggers) {
-                OperableTrigger trigg = trigger.trigger;
-                if (trigg.getCalendarName() != null
-                        && trigg.getCalendarName().equals(calName)) {
-                    numRefs++;
-                }
+            if (triggersByCalendar.containsKey(calName)) {
+                throw new JobPersistenceException(
+                        "Calender cannot be removed if it referenced by a Trigger!");
             }
-        }
 
-        if (numRefs > 0) {
-            throw new JobPersistenceException(
-                    "Calender cannot be removed if it referenced by a Trigger!");
+            return (calendarsByName.remove(calName) != null);
         }
-
-        return (calendarsByName.remove(calName) != null);
     }
 
     /**
@@ -793,7 +776,7 @@ public class RAMJobStore implements JobStore {
      */
     public int getNumberOfTriggers() {
         synchronized (lock) {
-            return triggers.size();
+            return triggersByKey.size();
         }
     }
 
@@ -965,8 +948,9 @@ public class RAMJobStore implements JobStore {
         ArrayList<OperableTrigger> trigList = new ArrayList<OperableTrigger>();
 
         synchronized (lock) {
-            for (TriggerWrapper tw : triggers) {
-                if (tw.jobKey.equals(jobKey)) {
+            HashMap<TriggerKey, TriggerWrapper> jobTriggers = triggersByJob.get(jobKey);
+            if (jobTriggers != null) {
+                for (TriggerWrapper tw : jobTriggers.values()) {
                     trigList.add((OperableTrigger) tw.trigger.clone());
                 }
             }
@@ -976,32 +960,47 @@ public class RAMJobStore implements JobStore {
     }
 
     protected ArrayList<TriggerWrapper> getTriggerWrappersForJob(JobKey jobKey) {
-        ArrayList<TriggerWrapper> trigList = new ArrayList<TriggerWrapper>();
-
         synchronized (lock) {
-            for (TriggerWrapper trigger : triggers) {
-                if (trigger.jobKey.equals(jobKey)) {
-                    trigList.add(trigger);
-                }
-            }
+            return getIndexed(triggersByJob, jobKey);
         }
-
-        return trigList;
     }
 
     protected ArrayList<TriggerWrapper> getTriggerWrappersForCalendar(String calName) {
-        ArrayList<TriggerWrapper> trigList = new ArrayList<TriggerWrapper>();
-
         synchronized (lock) {
-            for (TriggerWrapper tw : triggers) {
-                String tcalName = tw.getTrigger().getCalendarName();
-                if (tcalName != null && tcalName.equals(calName)) {
-                    trigList.add(tw);
-                }
+            return getIndexed(triggersByCalendar, calName);
+        }
+    }
+
+    private static <K> void addToIndex(HashMap<K, HashMap<TriggerKey, TriggerWrapper>> index, K key, TriggerWrapper tw) {
+        HashMap<TriggerKey, TriggerWrapper> indexed = index.get(key);
+        if (indexed == null) {
+            // linked, so that the triggers of a job are listed in the order they were stored
+            indexed = new LinkedHashMap<TriggerKey, TriggerWrapper>(4);
+            index.put(key, indexed);
+        }
+        indexed.put(tw.key, tw);
+    }
+
+    private static <K> void removeFromIndex(HashMap<K, HashMap<TriggerKey, TriggerWrapper>> index, K key, TriggerWrapper tw) {
+        HashMap<TriggerKey, TriggerWrapper> indexed = index.get(key);
+        if (indexed != null) {
+            indexed.remove(tw.key);
+            if (indexed.size() == 0) {
+                index.remove(key);
             }
         }
+    }
 
-        return trigList;
+    private static <K> ArrayList<TriggerWrapper> getIndexed(HashMap<K, HashMap<TriggerKey, TriggerWrapper>> index, K key) {
+        HashMap<TriggerKey, TriggerWrapper> indexed = index.get(key);
+        return (indexed != null) ? new ArrayList<TriggerWrapper>(indexed.values()) : new ArrayList<TriggerWrapper>();
+    }
+
+    private void removeFromIndexes(TriggerWrapper tw) {
+        removeFromIndex(triggersByJob, tw.jobKey, tw);
+        if (tw.trigger.getCalendarName() != null) {
+            removeFromIndex(triggersByCalendar, tw.trigger.getCalendarName(), tw);
+        }
     }
 
     /**
@@ -1335,10 +1334,7 @@ public class RAMJobStore implements JobStore {
 
     protected boolean applyMisfire(TriggerWrapper tw) {
 
-        long misfireTime = System.currentTimeMillis();
-        if (getMisfireThreshold() > 0) {
-            misfireTime -= getMisfireThreshold();
-        }
+        long misfireTime = getMisfireTime();
 
         Date tnft = tw.trigger.getNextFireTime();
         if (tnft == null || tnft.getTime() > misfireTime 
@@ -1368,6 +1364,14 @@ public class RAMJobStore implements JobStore {
         return true;
     }
 
+    private long getMisfireTime() {
+        long misfireTime = System.currentTimeMillis();
+        if (getMisfireThreshold() > 0) {
+            misfireTime -= getMisfireThreshold();
+        }
+        return misfireTime;
+    }
+
     private static final AtomicLong ftrCtr = new AtomicLong(System.currentTimeMillis());
 
     protected String getFiredTriggerRecordId() {
@@ -1380,74 +1384,96 @@ public class RAMJobStore implements JobStore {
      * by the calling scheduler.
      * </p>
      *
+     * <p>
+     * Triggers are examined in place in <code>timeTriggers</code>: only those
+     * that are acquired, misfired or have no next fire time are taken out of
+     * it, while those that are skipped because their job is already being
+     * acquired (and disallows concurrent execution) are left untouched.
+     * </p>
+     *
      * @see #releaseAcquiredTrigger(OperableTrigger)
      */
     public List<OperableTrigger> acquireNextTriggers(long noLaterThan, int maxCount, long timeWindow) {
         synchronized (lock) {
-            List<OperableTrigger> result = new ArrayList<OperableTrigger>();
-            Set<JobKey> acquiredJobKeysForNoConcurrentExec = new HashSet<JobKey>();
-            Set<TriggerWrapper> excludedTriggers = new HashSet<TriggerWrapper>();
-            long firstAcquiredTriggerFireTime = 0;
-            
             // return empty list if store has no triggers.
-            if (timeTriggers.size() == 0)
-                return result;
-            
-            while (true) {
-                TriggerWrapper tw;
+            if (timeTriggers.isEmpty())
+                return Collections.emptyList();
+
+            List<OperableTrigger> result = new ArrayList<OperableTrigger>(Math.min(maxCount, timeTriggers.size()));
+            Set<JobKey> acquiredJobKeysForNoConcurrentExec = this.acquiredJobKeysForNoConcurrentExec;
+            List<TriggerWrapper> excludedTriggers = this.excludedTriggers;
+            long misfireTime = getMisfireTime();
+
+            try {
+                // the last trigger examined whose fire time was left as is,
+                // everything up to it is done with
+                TriggerWrapper examined = null;
+                Iterator<TriggerWrapper> it = timeTriggers.iterator();
+                while (it.hasNext()) {
+                    TriggerWrapper tw = it.next();
+
+                    if (tw.trigger.getNextFireTime() == null) {
+                        it.remove();
+                        continue;
+                    }
 
-                try {
-                    tw = timeTriggers.first();
-                    if (tw == null)
+                    boolean removed = false;
+                    if (tw.trigger.getNextFireTime().getTime() <= misfireTime
+                            && tw.trigger.getMisfireInstruction() != Trigger.MISFIRE_INSTRUCTION_IGNORE_MISFIRE_POLICY) {
+                        // its position in the set may be about to change
+                        it.remove();
+                        removed = true;
+                        if (applyMisfire(tw)) {
+                            if (tw.trigger.getNextFireTime() != null) {
+                                timeTriggers.add(tw);
+                            }
+                            // it moved later, resume after the triggers already examined
+                            it = (examined == null) ? timeTriggers.iterator()
+                                    : timeTriggers.tailSet(examined, false).iterator();
+                            continue;
+                        }
+                    }
+                    examined = tw;
+
+                    if (tw.getTrigger().getNextFireTime().getTime() > noLaterThan + timeWindow) {
+                        if (removed) {
+                            timeTriggers.add(tw);
+                        }
                         break;
-                    timeTriggers.remove(tw);
-                } catch (java.util.NoSuchElementException nsee) {
-                    break;
-                }
+                    }
 
-                if (tw.trigger.getNextFireTime() == null) {
-                    continue;
-                }
+                    // If trigger's job is set as @DisallowConcurrentExecution, and it has already been added to result, then
+                    // leave it in the timeTriggers set and continue to search for next trigger.
+                    JobKey jobKey = tw.jobKey;
+                    JobDetail job = jobsByKey.get(jobKey).jobDetail;
+                    if (job.isConcurrentExectionDisallowed()) {
+                        if (!acquiredJobKeysForNoConcurrentExec.add(jobKey)) {
+                            if (removed) {
+                                excludedTriggers.add(tw);
+                            }
+                            continue; // go to next trigger in store.
+                        }
+                    }
 
-                if (applyMisfire(tw)) {
-                    if (tw.trigger.getNextFireTime() != null) {
-                        timeTriggers.add(tw);
+                    if (!removed) {
+                        it.remove();
                     }
-                    continue;
-                }
+                    tw.state = TriggerWrapper.STATE_ACQUIRED;
+                    tw.trigger.setFireInstanceId(getFiredTriggerRecordId());
+                    result.add((OperableTrigger) tw.trigger.clone());
 
-                if (tw.getTrigger().getNextFireTime().getTime() > noLaterThan + timeWindow) {
-                    timeTriggers.add(tw);
-                    break;
+                    if (result.size() == maxCount)
+                        break;
                 }
-                
-                // If trigger's job is set as @DisallowConcurrentExecution, and it has already been added to result, then
-                // put it back into the timeTriggers set and continue to search for next trigger.
-                JobKey jobKey = tw.trigger.getJobKey();
-                JobDetail job = jobsByKey.get(tw.trigger.getJobKey()).jobDetail;
-                if (job.isConcurrentExectionDisallowed()) {
-                    if (acquiredJobKeysForNoConcurrentExec.contains(jobKey)) {
-                        excludedTriggers.add(tw);
-                        continue; // go to next trigger in store.
-                    } else {
-                        acquiredJobKeysForNoConcurrentExec.add(jobKey);
-                    }
+            } finally {
+                acquiredJobKeysForNoConcurrentExec.clear();
+                // put back the misfired triggers that were excluded due to DisallowConcurrentExecution
+                if (!excludedTriggers.isEmpty()) {
+                    timeTriggers.addAll(excludedTriggers);
+                    excludedTriggers.clear();
                 }
-
-                tw.state = TriggerWrapper.STATE_ACQUIRED;
-                tw.trigger.setFireInstanceId(getFiredTriggerRecordId());
-                OperableTrigger trig = (OperableTrigger) tw.trigger.clone();
-                result.add(trig);
-                if(firstAcquiredTriggerFireTime == 0)
-                    firstAcquiredTriggerFireTime = tw.trigger.getNextFireTime().getTime();
-
-                if (result.size() == maxCount)
-                    break;
             }
-            
-            // If we did excluded triggers to prevent ACQUIRE state due to DisallowConcurrentExecution, we need to add them back to store.
-            if (excludedTriggers.size() > 0)
-                timeTriggers.addAll(excludedTriggers);
+
             return result;
         }
     }
@@ -1688,117 +1714,3 @@ public class RAMJobStore implements JobStore {
     }
 
 }
-
-/*******************************************************************************
- * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
- * 
- * Helper Classes. * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
- */
-
-class TriggerWrapperComparator implements Comparator<TriggerWrapper>, java.io.Serializable {
-  
-    private static final long serialVersionUID = 8809557142191514261L;
-
-    TriggerTimeComparator ttc = new TriggerTimeComparator();
-    
-    public int compare(TriggerWrapper trig1, TriggerWrapper trig2) {
-        return ttc.compare(trig1.trigger, trig2.trigger);
-    }
-
-    @Override
-    public boolean equals(Object obj) {
-        return (obj instanceof TriggerWrapperComparator);
-    }
-
-    @Override
-    public int hashCode() {
-        return super.hashCode();
-    }
-}
-
-class JobWrapper {
-
-    public JobKey key;
-
-    public JobDetail jobDetail;
-
-    JobWrapper(JobDetail jobDetail) {
-        this.jobDetail = jobDetail;
-        key = jobDetail.getKey();
-    }
-
-    @Override
-    public boolean equals(Object obj) {
-        if (obj instanceof JobWrapper) {
-            JobWrapper jw = (JobWrapper) obj;
-            if (jw.key.equals(this.key)) {
-                return true;
-            }
-        }
-
-        return false;
-    }
-    
-    @Override
-    public int hashCode() {
-        return key.hashCode(); 
-    }
-}
-
-class TriggerWrapper {
-
-    public final TriggerKey key;
-
-    public final JobKey jobKey;
-
-    public final OperableTrigger trigger;
-
-    public int state = STATE_WAITING;
-
-    public static final int STATE_WAITING = 0;
-
-    public static final int STATE_ACQUIRED = 1;
-
-    @SuppressWarnings("UnusedDeclaration")
-    public static final int STATE_EXECUTING = 2;
-
-    public static final int STATE_COMPLETE = 3;
-
-    public static final int STATE_PAUSED = 4;
-
-    public static final int STATE_BLOCKED = 5;
-
-    public static final int STATE_PAUSED_BLOCKED = 6;
-
-    public static final int STATE_ERROR = 7;
-    
-    TriggerWrapper(OperableTrigger trigger) {
-        if(trigger == null)
-            throw new IllegalArgumentException("Trigger cannot be null!");
-        this.trigger = trigger;
-        key = trigger.getKey();
-        this.jobKey = trigger.getJobKey();
-    }
-
-    @Override
-    public boolean equals(Object obj) {
-        if (obj instanceof TriggerWrapper) {
-            TriggerWrapper tw = (TriggerWrapper) obj;
-            if (tw.key.equals(this.key)) {
-                return true;
-            }
-        }
-
-        return false;
-    }
-
-    @Override
-    public int hashCode() {
-        return key.hashCode(); 
-    }
-
-    
-    public OperableTrigger getTrigger() {
-        return this.trigger;
-    }
-}
@@ -89,6 +89,19 @@ public class DirtyFlagMap<K,V> implements Map<K,V>, Cloneable, java.io.Serializa
         map = new HashMap<K,V>(initialCapacity, loadFactor);
     }
 
+    /**
+     * <p>
+     * Create a DirtyFlagMap that 'wraps' the given <code>Map</code>, which
+     * must not be shared with other code that modifies it.
+     * </p>
+     */
+    protected DirtyFlagMap(final Map<K,V> map) {
+        if (map == null) {
+            throw new IllegalArgumentException("Wrapped map cannot be null!");
+        }
+        this.map = map;
+    }
+
     /*
      * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
      *
@@ -210,6 +223,8 @@ public class DirtyFlagMap<K,V> implements Map<K,V>, Cloneable, java.io.Serializa
             copy = (DirtyFlagMap<K,V>) super.clone();
             if (map instanceof HashMap) {
                 copy.map = (Map<K,V>)((HashMap<K,V>)map).clone();
+            } else {
+                copy.map = new HashMap<K,V>(map);
             }
         } catch (CloneNotSupportedException ex) {
             throw new IncompatibleClassChangeError("Not Cloneable.");
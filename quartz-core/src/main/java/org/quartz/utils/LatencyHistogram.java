@@ -0,0 +1,203 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz.utils;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * A histogram of non-negative <code>long</code> values - typically latencies
+ * in milliseconds - that can be recorded into from many threads without
+ * locking.
+ * </p>
+ *
+ * <p>
+ * Values below 128 are counted exactly.  Larger values are counted in
+ * buckets that each span 1/64th of a power of two, so that the values
+ * reported for percentiles are within about 1.6% of the recorded ones,
+ * whatever their magnitude.  The histogram takes a fixed amount of memory
+ * (about 30 KB), regardless of the number of values recorded.
+ * </p>
+ *
+ * <p>
+ * Reading while values are being recorded gives a consistent-enough view
+ * for monitoring, but not an atomic snapshot.
+ * </p>
+ */
+public class LatencyHistogram implements Serializable {
+
+    private static final long serialVersionUID = 4587413284312520451L;
+
+    // number of bits of precision kept within each power of two
+    private static final int SUB_BUCKET_BITS = 6;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    // values below this are counted exactly
+    private static final int EXACT_LIMIT = SUB_BUCKET_COUNT << 1;
+
+    private static final int EXACT_BITS = SUB_BUCKET_BITS + 1;
+
+    private static final int BUCKET_COUNT = EXACT_LIMIT + (63 - EXACT_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    private final AtomicLong totalCount = new AtomicLong();
+
+    private final AtomicLong totalValue = new AtomicLong();
+
+    private final AtomicLong maxValue = new AtomicLong();
+
+    /**
+     * Record a value.  Negative values are recorded as 0.
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(bucketIndex(value));
+        totalCount.incrementAndGet();
+        totalValue.addAndGet(value);
+
+        long max = maxValue.get();
+        while (value > max && !maxValue.compareAndSet(max, value)) {
+            max = maxValue.get();
+        }
+    }
+
+    /**
+     * Add all of the values recorded by the given histogram to this one.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.addAndGet(other.totalCount.get());
+        totalValue.addAndGet(other.totalValue.get());
+
+        long otherMax = other.maxValue.get();
+        long max = maxValue.get();
+        while (otherMax > max && !maxValue.compareAndSet(max, otherMax)) {
+            max = maxValue.get();
+        }
+    }
+
+    /**
+     * Forget all of the recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalValue.set(0);
+        maxValue.set(0);
+    }
+
+    /**
+     * The number of values recorded.
+     */
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * The largest value recorded, or 0 if there are none.
+     */
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    /**
+     * The mean of the values recorded, or 0 if there are none.
+     */
+    public double getMean() {
+        long count = totalCount.get();
+        return (count == 0) ? 0.0 : ((double) totalValue.get()) / count;
+    }
+
+    /**
+     * The value below or at which the given percentage of the recorded values
+     * fall - e.g. <code>getValueAtPercentile(99.9)</code>.  The value returned
+     * is the highest value counted in the same bucket, but never more than
+     * the largest recorded value.
+     *
+     * @param percentile between 0 and 100
+     * @return the value, or 0 if no values were recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0.0 || percentile > 100.0) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil((percentile / 100.0) * count);
+        if (rank < 1) {
+            rank = 1;
+        }
+
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueInBucket(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount()
+            + " mean=" + String.format("%.2f", getMean())
+            + " p50=" + getValueAtPercentile(50.0)
+            + " p90=" + getValueAtPercentile(90.0)
+            + " p99=" + getValueAtPercentile(99.0)
+            + " p99.9=" + getValueAtPercentile(99.9)
+            + " max=" + getMax();
+    }
+
+    static int bucketIndex(long value) {
+        if (value < EXACT_LIMIT) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return EXACT_LIMIT + (magnitude - EXACT_BITS) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long highestValueInBucket(int index) {
+        if (index < EXACT_LIMIT) {
+            return index;
+        }
+        int magnitudeOffset = (index - EXACT_LIMIT) / SUB_BUCKET_COUNT;
+        long subBucket = ((index - EXACT_LIMIT) % SUB_BUCKET_COUNT) + SUB_BUCKET_COUNT;
+        int shift = magnitudeOffset + EXACT_BITS - SUB_BUCKET_BITS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
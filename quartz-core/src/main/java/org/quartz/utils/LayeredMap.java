@@ -0,0 +1,270 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz.utils;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <p>
+ * A <code>Map</code> that presents the entries of an upper map over those
+ * of a lower map, without copying either.
+ * </p>
+ *
+ * <p>
+ * Reads go through to the two maps, so changes made to them show through
+ * until the view is first modified.  At that point the merged entries are
+ * copied into a private <code>HashMap</code> and the view no longer refers
+ * to the layers, which are never modified through it.
+ * </p>
+ *
+ * <p>
+ * Like <code>HashMap</code>, this class is not thread-safe.  A layered map
+ * is serialized as a <code>HashMap</code> of its merged entries.
+ * </p>
+ *
+ * @see org.quartz.JobDataMap#newMergedView(Map, Map)
+ */
+public class LayeredMap<K, V> extends AbstractMap<K, V> implements Serializable {
+
+    private static final long serialVersionUID = 8361284672069234741L;
+
+    private Map<K, V> lower;
+
+    private Map<K, V> upper;
+
+    private HashMap<K, V> copy;
+
+    private transient Set<Map.Entry<K, V>> entrySet;
+
+    /**
+     * Create a view of the entries of <code>upper</code> over those of
+     * <code>lower</code>.
+     */
+    public LayeredMap(Map<K, V> lower, Map<K, V> upper) {
+        if (lower == null || upper == null) {
+            throw new IllegalArgumentException("Layers cannot be null!");
+        }
+        this.lower = lower;
+        this.upper = upper;
+    }
+
+    /**
+     * Determine whether the view has been modified, and so copied its
+     * layers.
+     */
+    public boolean isCopied() {
+        return copy != null;
+    }
+
+    private HashMap<K, V> materialize() {
+        if (copy == null) {
+            copy = new HashMap<K, V>(Math.max((int) ((lower.size() + upper.size()) / .75f) + 1, 16));
+            copy.putAll(lower);
+            copy.putAll(upper);
+            lower = null;
+            upper = null;
+        }
+        return copy;
+    }
+
+    @Override
+    public V get(Object key) {
+        if (copy != null) {
+            return copy.get(key);
+        }
+        V value = upper.get(key);
+        if (value != null || upper.containsKey(key)) {
+            return value;
+        }
+        return lower.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (copy != null) {
+            return copy.containsKey(key);
+        }
+        return upper.containsKey(key) || lower.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        if (copy != null) {
+            return copy.size();
+        }
+        if (lower.isEmpty()) {
+            return upper.size();
+        }
+        if (upper.isEmpty()) {
+            return lower.size();
+        }
+        int size = upper.size();
+        for (K key : lower.keySet()) {
+            if (!upper.containsKey(key)) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        if (copy != null) {
+            return copy.isEmpty();
+        }
+        return upper.isEmpty() && lower.isEmpty();
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return materialize().put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        if (!m.isEmpty()) {
+            materialize().putAll(m);
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (copy == null && !containsKey(key)) {
+            return null;
+        }
+        return materialize().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        if (copy != null) {
+            copy.clear();
+        } else {
+            copy = new HashMap<K, V>();
+            lower = null;
+            upper = null;
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private Object writeReplace() {
+        return new HashMap<K, V>(this);
+    }
+
+    private class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            if (copy != null) {
+                return copy.entrySet().iterator();
+            }
+            return new LayeredIterator();
+        }
+
+        @Override
+        public int size() {
+            return LayeredMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            LayeredMap.this.clear();
+        }
+    }
+
+    /**
+     * Iterates the entries of the upper layer, then those of the lower layer
+     * that it does not hide.  Modifying an entry, or removing it, copies the
+     * layers first.
+     */
+    private class LayeredIterator implements Iterator<Map.Entry<K, V>> {
+
+        private final Iterator<Map.Entry<K, V>> upperIter = upper.entrySet().iterator();
+
+        private final Iterator<Map.Entry<K, V>> lowerIter = lower.entrySet().iterator();
+
+        private final Map<K, V> upperLayer = upper;
+
+        private Map.Entry<K, V> next;
+
+        private Map.Entry<K, V> last;
+
+        public boolean hasNext() {
+            if (next == null) {
+                if (upperIter.hasNext()) {
+                    next = upperIter.next();
+                } else {
+                    while (lowerIter.hasNext()) {
+                        Map.Entry<K, V> candidate = lowerIter.next();
+                        if (!upperLayer.containsKey(candidate.getKey())) {
+                            next = candidate;
+                            break;
+                        }
+                    }
+                }
+            }
+            return next != null;
+        }
+
+        public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = new LayeredEntry(next.getKey(), next.getValue());
+            next = null;
+            return last;
+        }
+
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            materialize().remove(last.getKey());
+            last = null;
+        }
+    }
+
+    private class LayeredEntry extends AbstractMap.SimpleEntry<K, V> {
+
+        private static final long serialVersionUID = -2513540287631874217L;
+
+        LayeredEntry(K key, V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(V value) {
+            materialize().put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package org.quartz.utils;
 
 import java.io.Serializable;
+import java.util.Map;
 
 /**
  * <p>
@@ -50,6 +51,10 @@ public class StringKeyDirtyFlagMap extends DirtyFlagMap<String, Object> {
         super(initialCapacity, loadFactor);
     }
 
+    protected StringKeyDirtyFlagMap(Map<String, Object> map) {
+        super(map);
+    }
+
     @Override
     public boolean equals(Object obj) {
         return super.equals(obj);
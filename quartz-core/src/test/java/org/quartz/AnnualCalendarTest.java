@@ -163,4 +163,38 @@ public class AnnualCalendarTest extends SerializationTestSupport {
         assertTrue("The day 23 June is not expected to be excluded but it is", ! annualCalendar.isDayExcluded(day));
     }
 
+    public void testGetNextIncludedTimeSkipsExcludedDays() {
+        AnnualCalendar annualCalendar = new AnnualCalendar(EST_TIME_ZONE);
+        Calendar day = Calendar.getInstance(EST_TIME_ZONE, Locale.US);
+        day.clear();
+        for (int dayOfMonth = 24; dayOfMonth <= 31; dayOfMonth++) {
+            day.set(2000, Calendar.DECEMBER, dayOfMonth);
+            annualCalendar.setDayExcluded((Calendar) day.clone(), true);
+        }
+        day.set(2000, Calendar.JANUARY, 1);
+        annualCalendar.setDayExcluded((Calendar) day.clone(), true);
+
+        day.set(2016, Calendar.DECEMBER, 23, 10, 0, 0);
+        assertTrue(annualCalendar.isTimeIncluded(day.getTimeInMillis()));
+        assertEquals(day.getTimeInMillis(), annualCalendar.getNextIncludedTime(day.getTimeInMillis()));
+
+        day.set(2016, Calendar.DECEMBER, 24, 10, 0, 0);
+        assertFalse(annualCalendar.isTimeIncluded(day.getTimeInMillis()));
+        long nextIncludedTime = annualCalendar.getNextIncludedTime(day.getTimeInMillis());
+        day.set(2017, Calendar.JANUARY, 2, 0, 0, 0);
+        assertEquals(day.getTimeInMillis(), nextIncludedTime);
+    }
+
+    public void testGetNextIncludedTimeWhenEveryDayIsExcluded() {
+        AnnualCalendar annualCalendar = new AnnualCalendar(EST_TIME_ZONE);
+        Calendar day = Calendar.getInstance(EST_TIME_ZONE, Locale.US);
+        day.clear();
+        day.set(2000, Calendar.JANUARY, 1);
+        while (day.get(Calendar.YEAR) == 2000) {
+            annualCalendar.setDayExcluded((Calendar) day.clone(), true);
+            day.add(Calendar.DATE, 1);
+        }
+
+        assertEquals(0, annualCalendar.getNextIncludedTime(day.getTimeInMillis()));
+    }
 }
@@ -265,6 +265,120 @@ public class CronExpressionTest extends SerializationTestSupport {
         assertEquals(nonDefault, copyCronExpression.getTimeZone());
     }
     
+    public void testDaylightSavingTimeGapIsSkipped() throws ParseException {
+        CronExpression cronExpression = new CronExpression("0 30 2 * * ?");
+        cronExpression.setTimeZone(EST_TIME_ZONE);
+
+        Calendar cal = Calendar.getInstance(EST_TIME_ZONE);
+        cal.clear();
+        cal.set(2020, Calendar.MARCH, 7, 12, 0, 0);
+
+        // 2:30 does not exist on March 8th 2020
+        Date next = cronExpression.getTimeAfter(cal.getTime());
+        cal.set(2020, Calendar.MARCH, 9, 2, 30, 0);
+        assertEquals(cal.getTime(), next);
+    }
+
+    public void testDaylightSavingTimeGapOfHalfAnHourIsSkipped() throws ParseException {
+        TimeZone lordHowe = TimeZone.getTimeZone("Australia/Lord_Howe");
+        CronExpression cronExpression = new CronExpression("48,47 22/2 23,2 ? 10 *");
+        cronExpression.setTimeZone(lordHowe);
+
+        // 2:00 to 2:30 does not exist on October 1st 2023, the search carries
+        // on from 2:30 rather than from where 2:22:47 resolves to
+        Date next = cronExpression.getTimeAfter(new Date(1679287961741L));
+        Calendar cal = Calendar.getInstance(lordHowe);
+        cal.clear();
+        cal.set(2023, Calendar.OCTOBER, 1, 2, 30, 47);
+        assertEquals(cal.getTime(), next);
+    }
+
+    public void testDaylightSavingTimeOverlapFiresOnce() throws ParseException {
+        CronExpression cronExpression = new CronExpression("0 30 1 * * ?");
+        cronExpression.setTimeZone(EST_TIME_ZONE);
+
+        Calendar cal = Calendar.getInstance(EST_TIME_ZONE);
+        cal.clear();
+        cal.set(2020, Calendar.OCTOBER, 31, 12, 0, 0);
+
+        // 1:30 happens twice on November 1st 2020, the standard time one fires
+        Date first = cronExpression.getTimeAfter(cal.getTime());
+        cal.set(2020, Calendar.NOVEMBER, 1, 1, 30, 0);
+        assertEquals(cal.getTime(), first);
+        assertEquals(0, EST_TIME_ZONE.getOffset(first.getTime()) - EST_TIME_ZONE.getRawOffset());
+
+        Date second = cronExpression.getTimeAfter(first);
+        cal.set(2020, Calendar.NOVEMBER, 2, 1, 30, 0);
+        assertEquals(cal.getTime(), second);
+    }
+
+    public void testInstancesOfSameExpressionAreIndependent() throws ParseException {
+        CronExpression est = new CronExpression("0 0 12 ? * 2#3");
+        est.setTimeZone(EST_TIME_ZONE);
+        CronExpression utc = new CronExpression("0 0 12 ? * 2#3");
+        utc.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        Calendar cal = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        cal.clear();
+        cal.set(2016, Calendar.JANUARY, 1, 0, 0, 0);
+        Date start = cal.getTime();
+
+        cal.set(2016, Calendar.JANUARY, 18, 12, 0, 0); // third monday
+        assertEquals(cal.getTime(), utc.getTimeAfter(start));
+        cal.set(2016, Calendar.JANUARY, 18, 17, 0, 0); // noon EST
+        assertEquals(cal.getTime(), est.getTimeAfter(start));
+        assertEquals(utc.getExpressionSummary(), est.getExpressionSummary());
+    }
+
+    public void testFireTimesAfterMatchGetTimeAfter() throws ParseException {
+        CronExpression cronExpression = new CronExpression("0 15 10 ? * MON-FRI 2016-2017");
+        cronExpression.setTimeZone(EST_TIME_ZONE);
+        Calendar cal = Calendar.getInstance(EST_TIME_ZONE);
+        cal.clear();
+        cal.set(2016, Calendar.JANUARY, 1, 0, 0, 0);
+
+        Date time = cal.getTime();
+        FireTimeIterator fireTimes = cronExpression.getFireTimesAfter(time.getTime());
+        int count = 0;
+        while ((time = cronExpression.getTimeAfter(time)) != null) {
+            assertTrue(fireTimes.hasNext());
+            assertEquals(time.getTime(), fireTimes.next());
+            count++;
+        }
+        assertFalse(fireTimes.hasNext());
+        assertEquals(521, count);
+    }
+
+    public void testGetNextInvalidTimeAfter() throws ParseException {
+        CronExpression cronExpression = new CronExpression("* * 0-7 ? * MON-FRI");
+        cronExpression.setTimeZone(EST_TIME_ZONE);
+        Calendar cal = Calendar.getInstance(EST_TIME_ZONE);
+        cal.clear();
+        cal.set(2016, Calendar.MARCH, 7, 0, 0, 30); // a monday
+        Date time = cal.getTime();
+
+        cal.set(2016, Calendar.MARCH, 7, 8, 0, 0);
+        assertEquals(cal.getTime(), cronExpression.getNextInvalidTimeAfter(time));
+
+        // seconds that do not match
+        cronExpression = new CronExpression("0-29 * 0-7 ? * MON-FRI");
+        cronExpression.setTimeZone(EST_TIME_ZONE);
+        cal.set(2016, Calendar.MARCH, 7, 0, 0, 31);
+        assertEquals(cal.getTime(), cronExpression.getNextInvalidTimeAfter(time));
+        cal.set(2016, Calendar.MARCH, 7, 0, 0, 10);
+        Date matchingTime = cal.getTime();
+        cal.set(2016, Calendar.MARCH, 7, 0, 0, 30);
+        assertEquals(cal.getTime(), cronExpression.getNextInvalidTimeAfter(matchingTime));
+
+        // whole days that match, across the daylight saving change of March 13th
+        cronExpression = new CronExpression("* * * ? * MON-FRI,SUN");
+        cronExpression.setTimeZone(EST_TIME_ZONE);
+        cal.set(2016, Calendar.MARCH, 13, 0, 0, 30); // a sunday
+        time = cal.getTime();
+        cal.set(2016, Calendar.MARCH, 19, 0, 0, 0);
+        assertEquals(cal.getTime(), cronExpression.getNextInvalidTimeAfter(time));
+    }
+
     // execute with version number to generate a new version's serialized form
     public static void main(String[] args) throws Exception {
         new CronExpressionTest().writeJobDataFile("1.5.2");
@@ -16,8 +16,14 @@
 package org.quartz;
 
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 
+import org.quartz.impl.calendar.WeeklyCalendar;
+import org.quartz.impl.triggers.AbstractTrigger;
 import org.quartz.impl.triggers.CronTriggerImpl;
+import org.quartz.spi.OperableTrigger;
 
 /**
  * Unit test for CronTrigger.
@@ -103,6 +109,48 @@ public class CronTriggerTest extends SerializationTestSupport {
         assertEquals( "Cloning failed", trigger, trigger2 );
     }
 
+    public void testFireTimeIteratorMatchesTriggering() throws ParseException {
+        CronTriggerImpl trigger = new CronTriggerImpl();
+        trigger.setCronExpression("0 0/20 8-17 * * ?");
+        trigger.setStartTime(new Date(1451606400000L)); // 2016-01-01T00:00:00Z
+        trigger.setEndTime(new Date(1456790400000L)); // 2016-03-01T00:00:00Z
+        WeeklyCalendar weekdays = new WeeklyCalendar();
+
+        assertEquals(fireTimesByTriggering(trigger, null), fireTimes(trigger, null));
+        assertEquals(fireTimesByTriggering(trigger, weekdays), fireTimes(trigger, weekdays));
+
+        // continues from the next fire time, which is not re-checked
+        trigger.computeFirstFireTime(null);
+        trigger.triggered(null);
+        trigger.setNextFireTime(new Date(1451678400000L)); // a saturday
+        List<Long> times = fireTimes(trigger, weekdays);
+        assertEquals(fireTimesByTriggering(trigger, weekdays), times);
+        assertEquals(Long.valueOf(1451678400000L), times.get(0));
+        assertEquals(new Date(1451678400000L), trigger.getNextFireTime());
+    }
+
+    private static List<Long> fireTimes(AbstractTrigger<?> trigger, Calendar cal) {
+        List<Long> times = new ArrayList<Long>();
+        FireTimeIterator fireTimes = trigger.getFireTimeIterator(cal);
+        while (fireTimes.hasNext()) {
+            times.add(fireTimes.next());
+        }
+        return times;
+    }
+
+    private static List<Long> fireTimesByTriggering(OperableTrigger trigger, Calendar cal) {
+        List<Long> times = new ArrayList<Long>();
+        OperableTrigger t = (OperableTrigger) trigger.clone();
+        if (t.getNextFireTime() == null) {
+            t.computeFirstFireTime(cal);
+        }
+        while (t.getNextFireTime() != null) {
+            times.add(t.getNextFireTime().getTime());
+            t.triggered(cal);
+        }
+        return times;
+    }
+
     public void testMisfireInstructionValidity() throws ParseException {
         CronTriggerImpl trigger = new CronTriggerImpl();
 
@@ -0,0 +1,117 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.quartz;
+
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import junit.framework.TestCase;
+
+import org.quartz.impl.calendar.DailyCalendar;
+import org.quartz.impl.calendar.HolidayCalendar;
+import org.quartz.impl.calendar.WeeklyCalendar;
+
+/**
+ * Unit test for HolidayCalendar.
+ */
+public class HolidayCalendarTest extends TestCase {
+
+    private static final TimeZone EST_TIME_ZONE = TimeZone.getTimeZone("America/New_York");
+
+    private Calendar day;
+
+    @Override
+    protected void setUp() throws Exception {
+        day = Calendar.getInstance(EST_TIME_ZONE, Locale.US);
+        day.clear();
+    }
+
+    public void testExcludedDates() {
+        HolidayCalendar holidayCalendar = new HolidayCalendar(EST_TIME_ZONE);
+        day.set(2016, Calendar.DECEMBER, 25, 15, 30, 0);
+        holidayCalendar.addExcludedDate(day.getTime());
+
+        assertFalse(holidayCalendar.isTimeIncluded(day.getTimeInMillis()));
+        day.set(2016, Calendar.DECEMBER, 25, 0, 0, 0);
+        assertFalse(holidayCalendar.isTimeIncluded(day.getTimeInMillis()));
+        assertEquals(day.getTime(), holidayCalendar.getExcludedDates().first());
+        day.set(2016, Calendar.DECEMBER, 26, 0, 0, 0);
+        assertTrue(holidayCalendar.isTimeIncluded(day.getTimeInMillis()));
+        day.set(2016, Calendar.DECEMBER, 24, 23, 59, 59);
+        assertTrue(holidayCalendar.isTimeIncluded(day.getTimeInMillis()));
+
+        holidayCalendar.removeExcludedDate(day.getTime());
+        day.set(2016, Calendar.DECEMBER, 25, 12, 0, 0);
+        assertFalse(holidayCalendar.isTimeIncluded(day.getTimeInMillis()));
+        holidayCalendar.removeExcludedDate(day.getTime());
+        assertTrue(holidayCalendar.isTimeIncluded(day.getTimeInMillis()));
+    }
+
+    public void testGetNextIncludedTimeSkipsRunsOfHolidays() {
+        HolidayCalendar holidayCalendar = new HolidayCalendar(EST_TIME_ZONE);
+        // a run of holidays across a daylight saving change
+        day.set(2016, Calendar.OCTOBER, 20, 0, 0, 0);
+        for (int i = 0; i < 30; i++) {
+            holidayCalendar.addExcludedDate(day.getTime());
+            day.add(Calendar.DATE, 1);
+        }
+
+        day.set(2016, Calendar.OCTOBER, 25, 10, 0, 0);
+        long nextIncludedTime = holidayCalendar.getNextIncludedTime(day.getTimeInMillis());
+        day.set(2016, Calendar.NOVEMBER, 19, 0, 0, 0);
+        assertEquals(day.getTimeInMillis(), nextIncludedTime);
+    }
+
+    public void testGetNextIncludedTimeWithBaseCalendar() {
+        // weekends are excluded by the base calendar
+        HolidayCalendar holidayCalendar = new HolidayCalendar(new WeeklyCalendar(null, EST_TIME_ZONE), EST_TIME_ZONE);
+        day.set(2016, Calendar.DECEMBER, 26, 0, 0, 0); // a monday
+        holidayCalendar.addExcludedDate(day.getTime());
+
+        day.set(2016, Calendar.DECEMBER, 24, 10, 0, 0); // a saturday
+        long nextIncludedTime = holidayCalendar.getNextIncludedTime(day.getTimeInMillis());
+        day.set(2016, Calendar.DECEMBER, 27, 0, 0, 0);
+        assertEquals(day.getTimeInMillis(), nextIncludedTime);
+    }
+
+    public void testGetNextIncludedTimeWithTimeOfDayBaseCalendar() {
+        // the base calendar excludes the start of every day
+        DailyCalendar nights = new DailyCalendar("00:00", "07:59:59:999");
+        nights.setTimeZone(EST_TIME_ZONE);
+        HolidayCalendar holidayCalendar = new HolidayCalendar(nights, EST_TIME_ZONE);
+        day.set(2016, Calendar.DECEMBER, 26, 0, 0, 0);
+        holidayCalendar.addExcludedDate(day.getTime());
+
+        day.set(2016, Calendar.DECEMBER, 26, 10, 0, 0);
+        long nextIncludedTime = holidayCalendar.getNextIncludedTime(day.getTimeInMillis());
+        day.set(2016, Calendar.DECEMBER, 27, 8, 0, 0);
+        assertEquals(day.getTimeInMillis(), nextIncludedTime);
+        assertTrue(holidayCalendar.isTimeIncluded(nextIncludedTime));
+    }
+
+    public void testCloneIsIndependent() {
+        HolidayCalendar holidayCalendar = new HolidayCalendar(EST_TIME_ZONE);
+        day.set(2016, Calendar.DECEMBER, 25, 0, 0, 0);
+        holidayCalendar.addExcludedDate(day.getTime());
+        assertFalse(holidayCalendar.isTimeIncluded(day.getTimeInMillis()));
+
+        HolidayCalendar clone = (HolidayCalendar) holidayCalendar.clone();
+        clone.removeExcludedDate(day.getTime());
+        assertTrue(clone.isTimeIncluded(day.getTimeInMillis()));
+        assertFalse(holidayCalendar.isTimeIncluded(day.getTimeInMillis()));
+    }
+}
@@ -16,11 +16,17 @@
 package org.quartz;
 
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
 import java.util.TimeZone;
 
+import org.quartz.impl.calendar.DailyCalendar;
+import org.quartz.impl.calendar.WeeklyCalendar;
+import org.quartz.impl.triggers.AbstractTrigger;
 import org.quartz.impl.triggers.SimpleTriggerImpl;
+import org.quartz.spi.OperableTrigger;
 
 
 /**
@@ -128,6 +134,98 @@ public class SimpleTriggerTest extends SerializationTestSupport {
         assertEquals(40, fireTimeAfter.getTime());
     }
     
+    public void testFireTimeIteratorMatchesTriggering() {
+        SimpleTriggerImpl trigger = new SimpleTriggerImpl();
+        trigger.setStartTime(new Date(1451606400000L)); // 2016-01-01T00:00:00Z
+        trigger.setRepeatInterval(7 * 60 * 60 * 1000L);
+        trigger.setRepeatCount(500);
+        WeeklyCalendar weekdays = new WeeklyCalendar();
+
+        assertEquals(fireTimesByTriggering(trigger, null), fireTimes(trigger, null));
+        assertEquals(501, fireTimes(trigger, null).size());
+        assertEquals(fireTimesByTriggering(trigger, weekdays), fireTimes(trigger, weekdays));
+
+        // the repeat count is counted from the times already triggered
+        trigger.computeFirstFireTime(weekdays);
+        for (int i = 0; i < 10; i++) {
+            trigger.triggered(weekdays);
+        }
+        assertEquals(fireTimesByTriggering(trigger, weekdays), fireTimes(trigger, weekdays));
+        assertEquals(10, trigger.getTimesTriggered());
+
+        trigger.setEndTime(new Date(1454284800000L)); // 2016-02-01T00:00:00Z
+        assertEquals(fireTimesByTriggering(trigger, weekdays), fireTimes(trigger, weekdays));
+    }
+
+    public void testTriggeredLeapsOverExcludedRange() {
+        SimpleTriggerImpl trigger = new SimpleTriggerImpl();
+        trigger.setStartTime(new Date(1451635198000L)); // 2016-01-01T07:59:58Z
+        trigger.setRepeatInterval(1000L);
+        trigger.setRepeatCount(SimpleTrigger.REPEAT_INDEFINITELY);
+        CountingDailyCalendar cal = new CountingDailyCalendar();
+
+        assertEquals(new Date(1451635198000L), trigger.computeFirstFireTime(cal));
+        trigger.triggered(cal);
+        assertEquals(new Date(1451635199000L), trigger.getNextFireTime());
+        cal.timesChecked = 0;
+        trigger.triggered(cal);
+        assertEquals(new Date(1451678400000L), trigger.getNextFireTime()); // 2016-01-01T20:00:00Z
+        assertTrue(cal.timesChecked < 10);
+
+        FireTimeIterator fireTimes = trigger.getFireTimeIterator(cal);
+        assertEquals(1451678400000L, fireTimes.next());
+        assertEquals(1451678401000L, fireTimes.next());
+
+        // the calendar excludes the start of each day
+        trigger.setStartTime(new Date(1451692798000L)); // 2016-01-01T23:59:58Z
+        trigger.setNextFireTime(null);
+        fireTimes = trigger.getFireTimeIterator(cal);
+        assertEquals(1451692798000L, fireTimes.next());
+        assertEquals(1451692799000L, fireTimes.next());
+        assertEquals(1451692801000L, fireTimes.next()); // 2016-01-02T00:00:01Z
+    }
+
+    /**
+     * Excludes 08:00 to 20:00 UTC, counting the times it is asked about.
+     */
+    private static class CountingDailyCalendar extends DailyCalendar {
+
+        int timesChecked;
+
+        CountingDailyCalendar() {
+            super("08:00", "19:59:59:999");
+            setTimeZone(TimeZone.getTimeZone("UTC"));
+        }
+
+        @Override
+        public boolean isTimeIncluded(long timeInMillis) {
+            timesChecked++;
+            return super.isTimeIncluded(timeInMillis);
+        }
+    }
+
+    private static List<Long> fireTimes(AbstractTrigger<?> trigger, org.quartz.Calendar cal) {
+        List<Long> times = new ArrayList<Long>();
+        FireTimeIterator fireTimes = trigger.getFireTimeIterator(cal);
+        while (fireTimes.hasNext()) {
+            times.add(fireTimes.next());
+        }
+        return times;
+    }
+
+    private static List<Long> fireTimesByTriggering(OperableTrigger trigger, org.quartz.Calendar cal) {
+        List<Long> times = new ArrayList<Long>();
+        OperableTrigger t = (OperableTrigger) trigger.clone();
+        if (t.getNextFireTime() == null) {
+            t.computeFirstFireTime(cal);
+        }
+        while (t.getNextFireTime() != null) {
+            times.add(t.getNextFireTime().getTime());
+            t.triggered(cal);
+        }
+        return times;
+    }
+
     public void testClone() {
         SimpleTriggerImpl simpleTrigger = new SimpleTriggerImpl();
         
@@ -0,0 +1,98 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.quartz.core;
+
+import java.util.Date;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.quartz.Job;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobKey;
+import org.quartz.TriggerBuilder;
+import org.quartz.impl.JobExecutionContextImpl;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.TriggerFiredBundle;
+
+/**
+ * Unit test for ExecutingJobsManager.
+ */
+public class ExecutingJobsManagerTest extends TestCase {
+
+    public static class NoOpJob implements Job {
+        public void execute(JobExecutionContext context) {
+        }
+    }
+
+    private final ExecutingJobsManager jobMgr = new ExecutingJobsManager();
+
+    private JobExecutionContext context(String jobName, String fireInstanceId) {
+        JobDetail jobDetail = JobBuilder.newJob(NoOpJob.class).withIdentity(jobName).build();
+        OperableTrigger trigger = (OperableTrigger) TriggerBuilder.newTrigger().forJob(jobDetail).build();
+        trigger.setFireInstanceId(fireInstanceId);
+        TriggerFiredBundle bundle = new TriggerFiredBundle(jobDetail, trigger, null, false, 
+                new Date(), new Date(), null, null);
+        return new JobExecutionContextImpl(null, bundle, new NoOpJob());
+    }
+
+    public void testIndexes() {
+        JobExecutionContext a1 = context("a", "1");
+        JobExecutionContext a2 = context("a", "2");
+        JobExecutionContext b3 = context("b", "3");
+        jobMgr.jobToBeExecuted(a1);
+        jobMgr.jobToBeExecuted(a2);
+        jobMgr.jobToBeExecuted(b3);
+
+        assertEquals(3, jobMgr.getNumJobsCurrentlyExecuting());
+        assertEquals(3, jobMgr.getNumJobsFired());
+        assertSame(a2, jobMgr.getExecutingJob("2"));
+        assertNull(jobMgr.getExecutingJob("4"));
+        assertEquals(2, jobMgr.getExecutingJobs(JobKey.jobKey("a")).size());
+        assertTrue(jobMgr.getExecutingJobs(JobKey.jobKey("c")).isEmpty());
+
+        jobMgr.jobWasExecuted(a1, null);
+        jobMgr.jobWasExecuted(a2, null);
+        assertEquals(1, jobMgr.getNumJobsCurrentlyExecuting());
+        assertTrue(jobMgr.getExecutingJobs(JobKey.jobKey("a")).isEmpty());
+        assertFalse(jobMgr.executingJobsByKey.containsKey(JobKey.jobKey("a")));
+
+        jobMgr.jobToBeExecuted(a1);
+        assertEquals(1, jobMgr.getExecutingJobs(JobKey.jobKey("a")).size());
+        assertEquals(2, jobMgr.getExecutingJobs().size());
+    }
+
+    public void testPaging() {
+        for (int i = 0; i < 7; i++) {
+            jobMgr.jobToBeExecuted(context("job" + i, "fire" + i));
+        }
+
+        List<JobExecutionContext> page = jobMgr.getExecutingJobs(null, 3);
+        assertEquals(3, page.size());
+        assertEquals("fire0", page.get(0).getFireInstanceId());
+        assertEquals("fire2", page.get(2).getFireInstanceId());
+
+        page = jobMgr.getExecutingJobs("fire2", 3);
+        assertEquals("fire3", page.get(0).getFireInstanceId());
+        assertEquals(3, page.size());
+
+        page = jobMgr.getExecutingJobs("fire5", 3);
+        assertEquals(1, page.size());
+        assertEquals("fire6", page.get(0).getFireInstanceId());
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.quartz.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import junit.framework.TestCase;
+
+import org.quartz.SchedulerFiringStatistics;
+
+/**
+ * Unit test for FiringStatistics.
+ */
+public class FiringStatisticsTest extends TestCase {
+
+    public void testEmptyAcquisitionsAreCounted() {
+        FiringStatistics stats = new FiringStatistics();
+        stats.recordAcquisition(100, 0);
+        stats.recordAcquisition(200, 3);
+        stats.recordAcquisition(50, 0);
+
+        assertEquals(3, stats.getAcquisitionTime().getCount());
+        assertEquals(2, stats.getEmptyAcquisitionCount());
+        assertEquals(200, stats.getAcquisitionTime().getMax());
+    }
+
+    public void testSnapshotIsIndependent() {
+        FiringStatistics stats = new FiringStatistics();
+        stats.recordFireLag(5);
+        stats.recordThreadWait(10);
+        stats.recordTriggersFired(20);
+        stats.recordAcquisition(30, 0);
+
+        FiringStatistics snapshot = stats.snapshot();
+        stats.recordFireLag(1000);
+        stats.reset();
+
+        assertEquals(0, stats.getFireLag().getCount());
+        assertEquals(0, stats.getEmptyAcquisitionCount());
+        assertEquals(1, snapshot.getFireLag().getCount());
+        assertEquals(5, snapshot.getFireLag().getMax());
+        assertEquals(10, snapshot.getThreadWaitTime().getMax());
+        assertEquals(20, snapshot.getTriggersFiredTime().getMax());
+        assertEquals(1, snapshot.getEmptyAcquisitionCount());
+    }
+
+    public void testLazySnapshotCopiesHistogramsWhenFirstRead() throws Exception {
+        FiringStatistics stats = new FiringStatistics();
+        stats.recordFireLag(5);
+        stats.recordThreadWait(10);
+        stats.recordAcquisition(30, 0);
+
+        SchedulerFiringStatistics snapshot = stats.lazySnapshot();
+        stats.recordAcquisition(40, 0);
+        stats.recordFireLag(7);
+
+        assertEquals(2, snapshot.getFireLag().getCount());
+        stats.recordFireLag(1000);
+        stats.recordThreadWait(20);
+        assertSame(snapshot.getFireLag(), snapshot.getFireLag());
+        assertEquals(2, snapshot.getFireLag().getCount());
+        assertEquals(7, snapshot.getFireLag().getMax());
+        assertEquals(2, snapshot.getThreadWaitTime().getCount());
+        assertEquals(1, snapshot.getEmptyAcquisitionCount());
+
+        assertEquals(2, snapshot.getAcquisitionTime().getCount());
+        stats.reset();
+        assertEquals(2, snapshot.getAcquisitionTime().getCount());
+        assertEquals(2, snapshot.getFireLag().getCount());
+        assertEquals(0, stats.getAcquisitionTime().getCount());
+    }
+
+    public void testLazySnapshotIsSerializedWithItsHistograms() throws Exception {
+        FiringStatistics stats = new FiringStatistics();
+        stats.recordFireLag(5);
+        stats.recordTriggersFired(20);
+        SchedulerFiringStatistics snapshot = stats.lazySnapshot();
+        assertEquals(1, snapshot.getFireLag().getCount());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(snapshot);
+        out.close();
+        stats.recordFireLag(6);
+        SchedulerFiringStatistics copy = (SchedulerFiringStatistics) new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())).readObject();
+
+        assertEquals(1, copy.getFireLag().getCount());
+        assertEquals(20, copy.getTriggersFiredTime().getMax());
+    }
+}
@@ -19,15 +19,20 @@ import static org.quartz.impl.matchers.GroupMatcher.jobGroupEquals;
 import static org.quartz.impl.matchers.GroupMatcher.triggerGroupEquals;
 import static org.quartz.impl.matchers.NameMatcher.jobNameContains;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
 import junit.framework.TestCase;
 
+import org.quartz.JobKey;
 import org.quartz.JobListener;
 import org.quartz.SchedulerListener;
 import org.quartz.TriggerKey;
 import org.quartz.TriggerListener;
+import org.quartz.Matcher;
+import org.quartz.impl.matchers.KeyMatcher;
 import org.quartz.impl.matchers.NameMatcher;
 import org.quartz.listeners.JobListenerSupport;
 import org.quartz.listeners.SchedulerListenerSupport;
@@ -154,6 +159,69 @@ public class ListenerManagerTest extends TestCase {
     }
 
 
+    public void testJobListenerRoutes() throws Exception {
+
+        JobListener all = new TestJobListener("all");
+        JobListener group = new TestJobListener("group");
+        JobListener key = new TestJobListener("key");
+        JobListener name = new TestJobListener("name");
+
+        ListenerManagerImpl manager = new ListenerManagerImpl();
+        manager.addJobListener(all);
+        manager.addJobListener(group, jobGroupEquals("foo"));
+        manager.addJobListener(key, KeyMatcher.keyEquals(new JobKey("job", "bar")));
+        manager.addJobListener(name, jobNameContains("ob"));
+
+        ListenerRoutingTable<JobKey, JobListener> routes = manager.getJobListenerRoutes();
+        assertEquals(4, routes.size());
+        assertSame(all, routes.getListener(0));
+        assertSame(group, routes.getListener(1));
+        assertSame(key, routes.getListener(2));
+        assertSame(name, routes.getListener(3));
+
+        JobKey fooJob = new JobKey("job", "foo");
+        JobKey barJob = new JobKey("job", "bar");
+        JobKey bazOther = new JobKey("other", "baz");
+        assertTrue(routes.isMatch(0, bazOther));
+        assertTrue(routes.isMatch(1, fooJob));
+        assertFalse(routes.isMatch(1, barJob));
+        assertTrue(routes.isMatch(2, barJob));
+        assertFalse(routes.isMatch(2, fooJob));
+        assertTrue(routes.isMatch(3, fooJob));
+        assertFalse(routes.isMatch(3, bazOther));
+
+        // changes to listeners and matchers publish a new table
+        manager.addJobListenerMatcher("group", jobGroupEquals("baz"));
+        assertNotSame(routes, manager.getJobListenerRoutes());
+        routes = manager.getJobListenerRoutes();
+        assertTrue(routes.isMatch(1, bazOther));
+
+        manager.setJobListenerMatchers("key", Collections.<Matcher<JobKey>>emptyList());
+        routes = manager.getJobListenerRoutes();
+        assertFalse(routes.isMatch(2, barJob));
+
+        manager.removeJobListener("all");
+        routes = manager.getJobListenerRoutes();
+        assertEquals(3, routes.size());
+        assertSame(group, routes.getListener(0));
+
+        // appended listeners use the matchers registered under their names
+        JobListener internal = new TestJobListener("internal");
+        JobListener named = new TestJobListener("group");
+        ListenerRoutingTable<JobKey, JobListener> appended = routes.append(Arrays.asList(internal, named),
+            new ListenerRoutingTable.ListenerNamer<JobListener>() {
+                public String getName(JobListener listener) {
+                    return listener.getName();
+                }
+            });
+        assertSame(routes, appended.getBase());
+        assertEquals(5, appended.size());
+        assertSame(internal, appended.getListener(3));
+        assertTrue(appended.isMatch(3, barJob));
+        assertTrue(appended.isMatch(4, fooJob));
+        assertFalse(appended.isMatch(4, barJob));
+    }
+
     public void testManagementOfSchedulerListeners() throws Exception {
         
         SchedulerListener tl1 = new TestSchedulerListener();
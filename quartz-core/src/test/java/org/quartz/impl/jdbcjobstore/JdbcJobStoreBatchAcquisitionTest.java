@@ -0,0 +1,102 @@
+package org.quartz.impl.jdbcjobstore;
+
+import static org.quartz.impl.jdbcjobstore.JdbcJobStoreTest.createJdbcJobStore;
+import static org.quartz.impl.jdbcjobstore.JdbcJobStoreTest.destroyJdbcJobStore;
+import static org.quartz.impl.jdbcjobstore.JdbcJobStoreTest.initializeJdbcJobStore;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.quartz.AbstractJobStoreTest.MyJob;
+import org.quartz.AbstractJobStoreTest.SampleSignaler;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.Trigger.TriggerState;
+import org.quartz.TriggerBuilder;
+import org.quartz.TriggerKey;
+import org.quartz.spi.OperableTrigger;
+
+/**
+ * Tests a JDBC store that acquires triggers with set-based queries.
+ */
+public class JdbcJobStoreBatchAcquisitionTest extends TestCase {
+
+    public void testKeysPredicate() {
+        assertEquals("((TRIGGER_NAME = ? AND TRIGGER_GROUP = ?))",
+                Util.keysPredicate("TRIGGER_NAME", "TRIGGER_GROUP", 1));
+        assertEquals("((N = ? AND G = ?) OR (N = ? AND G = ?))",
+                Util.keysPredicate("N", "G", 2));
+    }
+
+    public void testAcquireTriggersInBatch() throws Exception {
+        JobStoreSupport store = createJdbcJobStore("testAcquireTriggersInBatch");
+        store.setUseBatchAcquisitionQueries(true);
+        try {
+            initializeJdbcJobStore(store, new SampleSignaler());
+
+            JobDetail job = JobBuilder.newJob(MyJob.class).withIdentity("job").storeDurably().build();
+            JobDetail serialJob = JobBuilder.newJob(SerialJob.class).withIdentity("serialJob").storeDurably().build();
+            store.storeJob(job, false);
+            store.storeJob(serialJob, false);
+
+            long base = System.currentTimeMillis() + 1000L;
+            OperableTrigger first = createTrigger("first", job, base);
+            OperableTrigger serial1 = createTrigger("serial1", serialJob, base + 1);
+            OperableTrigger serial2 = createTrigger("serial2", serialJob, base + 2);
+            OperableTrigger paused = createTrigger("paused", job, base + 3);
+            OperableTrigger last = createTrigger("last", job, base + 4);
+            OperableTrigger later = createTrigger("later", job, base + 60000L);
+            for (OperableTrigger trigger : Arrays.asList(first, serial1, serial2, paused, last, later)) {
+                store.storeTrigger(trigger, false);
+            }
+            store.pauseTrigger(paused.getKey());
+
+            // one trigger per non-concurrent job, and none that are paused or not yet due
+            List<OperableTrigger> acquired = store.acquireNextTriggers(base + 1000L, 10, 1000L);
+            assertEquals(Arrays.asList(first.getKey(), serial1.getKey(), last.getKey()), keysOf(acquired));
+            for (OperableTrigger trigger : acquired) {
+                assertNotNull(trigger.getFireInstanceId());
+            }
+            assertEquals(TriggerState.NORMAL, store.getTriggerState(serial2.getKey()));
+            assertEquals(TriggerState.PAUSED, store.getTriggerState(paused.getKey()));
+
+            acquired = store.acquireNextTriggers(base + 1000L, 10, 1000L);
+            assertEquals(Arrays.asList(serial2.getKey()), keysOf(acquired));
+            assertTrue(store.acquireNextTriggers(base + 1000L, 10, 1000L).isEmpty());
+
+            // released triggers can be acquired again
+            store.releaseAcquiredTrigger(acquired.get(0));
+            assertEquals(Arrays.asList(serial2.getKey()),
+                    keysOf(store.acquireNextTriggers(base + 1000L, 10, 1000L)));
+        } finally {
+            destroyJdbcJobStore(store);
+        }
+    }
+
+    private static OperableTrigger createTrigger(String name, JobDetail job, long startTime) {
+        OperableTrigger trigger = (OperableTrigger) TriggerBuilder.newTrigger()
+                .withIdentity(name).forJob(job).startAt(new Date(startTime)).build();
+        trigger.computeFirstFireTime(null);
+        return trigger;
+    }
+
+    private static List<TriggerKey> keysOf(List<OperableTrigger> triggers) {
+        TriggerKey[] keys = new TriggerKey[triggers.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = triggers.get(i).getKey();
+        }
+        return Arrays.asList(keys);
+    }
+
+    @DisallowConcurrentExecution
+    public static class SerialJob implements Job {
+        public void execute(JobExecutionContext context) {
+        }
+    }
+}
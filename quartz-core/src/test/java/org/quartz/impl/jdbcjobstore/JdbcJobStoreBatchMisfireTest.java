@@ -0,0 +1,153 @@
+package org.quartz.impl.jdbcjobstore;
+
+import static org.quartz.impl.jdbcjobstore.JdbcJobStoreTest.createJdbcJobStore;
+import static org.quartz.impl.jdbcjobstore.JdbcJobStoreTest.destroyJdbcJobStore;
+import static org.quartz.impl.jdbcjobstore.JdbcJobStoreTest.initializeJdbcJobStore;
+import static org.quartz.impl.jdbcjobstore.JdbcJobStoreTest.openJdbcJobStore;
+
+import java.util.Date;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.quartz.AbstractJobStoreTest.MyJob;
+import org.quartz.AbstractJobStoreTest.SampleSignaler;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobBuilder;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobKey;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.quartz.Trigger.TriggerState;
+import org.quartz.TriggerKey;
+import org.quartz.spi.OperableTrigger;
+
+/**
+ * Tests a JDBC store that recovers misfired triggers in batches.
+ */
+public class JdbcJobStoreBatchMisfireTest extends TestCase {
+
+    private static JobStoreSupport createJobStore(String name) {
+        JobStoreSupport jdbcJobStore = createJdbcJobStore(name);
+        jdbcJobStore.setUseBatchMisfireRecovery(true);
+        jdbcJobStore.setMaxMisfiresToHandleAtATime(4);
+        return jdbcJobStore;
+    }
+
+    public void testRecoverMisfiresInBatches() throws Exception {
+        final int[] misfired = new int[1];
+        JobStoreSupport store = createJobStore("testRecoverMisfiresInBatches");
+        initializeJdbcJobStore(store, new SampleSignaler() {
+            @Override
+            public void notifyTriggerListenersMisfired(Trigger trigger) {
+                misfired[0]++;
+            }
+        });
+
+        try {
+            JobKey jobKey = JobKey.jobKey("job");
+            store.storeJob(JobBuilder.newJob(MyJob.class).withIdentity(jobKey).storeDurably().build(), false);
+
+            long now = System.currentTimeMillis();
+            Date anHourAgo = new Date(now - 60L * 60L * 1000L);
+            for (int i = 0; i < 5; i++) {
+                OperableTrigger once = (OperableTrigger) TriggerBuilder.newTrigger()
+                        .withIdentity("once" + i).forJob(jobKey).startAt(anHourAgo).build();
+                once.computeFirstFireTime(null);
+                store.storeTrigger(once, false);
+            }
+            OperableTrigger repeating = (OperableTrigger) TriggerBuilder.newTrigger()
+                    .withIdentity("repeating").forJob(jobKey).startAt(anHourAgo)
+                    .withSchedule(SimpleScheduleBuilder.repeatMinutelyForever()).build();
+            repeating.computeFirstFireTime(null);
+            store.storeTrigger(repeating, false);
+
+            JobStoreSupport.RecoverMisfiredJobsResult result = store.doRecoverMisfires();
+            assertEquals(4, result.getProcessedMisfiredTriggerCount());
+            assertTrue(result.hasMoreMisfiredTriggers());
+            assertEquals(2, store.getPendingMisfireCount());
+
+            result = store.doRecoverMisfires();
+            assertEquals(2, result.getProcessedMisfiredTriggerCount());
+            assertFalse(result.hasMoreMisfiredTriggers());
+            assertEquals(0, store.getPendingMisfireCount());
+            assertEquals(6, store.getRecoveredMisfireCount());
+            assertEquals(6, misfired[0]);
+
+            assertEquals(0, store.doRecoverMisfires().getProcessedMisfiredTriggerCount());
+
+            for (int i = 0; i < 5; i++) {
+                Trigger once = store.retrieveTrigger(TriggerKey.triggerKey("once" + i));
+                assertTrue(once.getNextFireTime().getTime() >= now);
+            }
+            OperableTrigger recovered = store.retrieveTrigger(TriggerKey.triggerKey("repeating"));
+            assertTrue(recovered.getNextFireTime().getTime() > now);
+            assertTrue(((org.quartz.SimpleTrigger) recovered).getTimesTriggered() >= 60);
+        } finally {
+            destroyJdbcJobStore(store);
+        }
+    }
+
+    public void testRecoveryIgnoresFiredTriggersOfThePreviousRun() throws Exception {
+        assertRecoveryIgnoresFiredTriggersOfThePreviousRun("testRecoveryIgnoresFiredTriggersInBatches", true);
+    }
+
+    public void testRecoveryOneByOneIgnoresFiredTriggersOfThePreviousRun() throws Exception {
+        assertRecoveryIgnoresFiredTriggersOfThePreviousRun("testRecoveryIgnoresFiredTriggersOneByOne", false);
+    }
+
+    /**
+     * Restart a store over a database left with the fired record of a
+     * non-concurrent job, and check that recovering the misfired trigger of
+     * that job leaves it waiting, whether misfires are recovered in batches
+     * or one by one.
+     */
+    private void assertRecoveryIgnoresFiredTriggersOfThePreviousRun(String name, boolean inBatches)
+            throws Exception {
+        JobStoreSupport store = createJobStore(name);
+        store.setUseBatchMisfireRecovery(inBatches);
+        initializeJdbcJobStore(store, new SampleSignaler());
+
+        try {
+            JobKey jobKey = JobKey.jobKey("serial");
+            store.storeJob(JobBuilder.newJob(SerialJob.class).withIdentity(jobKey).storeDurably().build(), false);
+
+            long now = System.currentTimeMillis();
+            OperableTrigger current = (OperableTrigger) TriggerBuilder.newTrigger()
+                    .withIdentity("current").forJob(jobKey).startAt(new Date(now)).build();
+            current.computeFirstFireTime(null);
+            store.storeTrigger(current, false);
+            OperableTrigger misfired = (OperableTrigger) TriggerBuilder.newTrigger()
+                    .withIdentity("misfired").forJob(jobKey).startAt(new Date(now - 60L * 60L * 1000L))
+                    .withSchedule(SimpleScheduleBuilder.repeatMinutelyForever()).build();
+            misfired.computeFirstFireTime(null);
+            store.storeTrigger(misfired, false);
+
+            // leave a fired record behind, as a crashed instance would
+            List<OperableTrigger> acquired = store.acquireNextTriggers(now + 60000L, 1, 0L);
+            assertEquals(1, acquired.size());
+            assertEquals(current.getKey(), acquired.get(0).getKey());
+            store.triggersFired(acquired);
+            assertEquals(TriggerState.BLOCKED, store.getTriggerState(misfired.getKey()));
+
+            JobStoreTX restarted = openJdbcJobStore(name, "SINGLE_NODE_TEST");
+            restarted.setUseBatchMisfireRecovery(inBatches);
+            restarted.setMaxMisfiresToHandleAtATime(4);
+            initializeJdbcJobStore(restarted, new SampleSignaler());
+            restarted.recoverJobs();
+
+            assertEquals(TriggerState.NORMAL, restarted.getTriggerState(misfired.getKey()));
+            assertTrue(restarted.retrieveTrigger(misfired.getKey()).getNextFireTime().getTime() >= now);
+        } finally {
+            destroyJdbcJobStore(store);
+        }
+    }
+
+    @DisallowConcurrentExecution
+    public static class SerialJob implements Job {
+        public void execute(JobExecutionContext context) {
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.quartz.impl.jdbcjobstore;
+
+import static org.quartz.impl.jdbcjobstore.JdbcJobStoreTest.destroyJdbcJobStore;
+import static org.quartz.impl.jdbcjobstore.JdbcJobStoreTest.initializeJdbcJobStore;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Date;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.quartz.AbstractJobStoreTest.MyJob;
+import org.quartz.AbstractJobStoreTest.SampleSignaler;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+import org.quartz.Trigger.TriggerState;
+import org.quartz.TriggerBuilder;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.TriggerFiredResult;
+
+/**
+ * Tests a JDBC store whose delegate only implements {@link DriverDelegate},
+ * like one written before {@link ExtendedDriverDelegate} existed.
+ */
+public class JdbcJobStoreLegacyDelegateTest extends TestCase {
+
+    public void testFeaturesNeedingExtendedDelegateAreIgnored() throws Exception {
+        JdbcQuartzTestUtilities.createDatabase("testLegacyDelegate");
+        JobStoreTX store = new LegacyDelegateJobStore();
+        store.setDataSource("testLegacyDelegate");
+        store.setTablePrefix("QRTZ_");
+        store.setInstanceId("SINGLE_NODE_TEST");
+        store.setInstanceName("testLegacyDelegate");
+        store.setUseDBLocks(true);
+        store.setUseBatchAcquisitionQueries(true);
+        store.setUseBatchMisfireRecovery(true);
+        store.setUseRevisionCache(true);
+        store.setUsePipelinedFiring(true);
+        store.setTriggerAccessPartitions(4);
+        try {
+            initializeJdbcJobStore(store, new SampleSignaler());
+            assertFalse(store.getUseBatchAcquisitionQueries());
+            assertFalse(store.getUseBatchMisfireRecovery());
+            assertFalse(store.getUseRevisionCache());
+            assertFalse(store.getUsePipelinedFiring());
+            assertEquals(1, store.getTriggerAccessPartitions());
+
+            JobDetail job = JobBuilder.newJob(MyJob.class).withIdentity("job").storeDurably().build();
+            store.storeJob(job, false);
+            long base = System.currentTimeMillis() + 1000L;
+            OperableTrigger trigger = (OperableTrigger) TriggerBuilder.newTrigger()
+                    .withIdentity("trigger").forJob(job).startAt(new Date(base)).build();
+            trigger.computeFirstFireTime(null);
+            store.storeTrigger(trigger, false);
+
+            List<OperableTrigger> acquired = store.acquireNextTriggers(base + 1000L, 10, 1000L);
+            assertEquals(1, acquired.size());
+            List<TriggerFiredResult> fired = store.triggersFired(acquired);
+            assertEquals(1, fired.size());
+            assertNotNull(fired.get(0).getTriggerFiredBundle());
+            store.triggeredJobComplete(acquired.get(0), job, CompletedExecutionInstruction.NOOP);
+            assertEquals(TriggerState.COMPLETE, store.getTriggerState(trigger.getKey()));
+        } finally {
+            destroyJdbcJobStore(store);
+        }
+    }
+
+    /**
+     * A store whose delegate only offers the operations of
+     * <code>{@link DriverDelegate}</code>, forwarding them to the standard one.
+     */
+    private static class LegacyDelegateJobStore extends JobStoreTX {
+
+        private DriverDelegate legacyDelegate;
+
+        @Override
+        protected synchronized DriverDelegate getDelegate() throws NoSuchDelegateException {
+            if (legacyDelegate == null) {
+                final DriverDelegate delegate = super.getDelegate();
+                legacyDelegate = (DriverDelegate) Proxy.newProxyInstance(DriverDelegate.class.getClassLoader(),
+                        new Class<?>[] { DriverDelegate.class }, new InvocationHandler() {
+                            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                                try {
+                                    return method.invoke(delegate, args);
+                                } catch (InvocationTargetException e) {
+                                    throw e.getCause();
+                                }
+                            }
+                        });
+            }
+            return legacyDelegate;
+        }
+    }
+}
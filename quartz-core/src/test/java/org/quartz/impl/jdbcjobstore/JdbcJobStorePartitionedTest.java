@@ -0,0 +1,353 @@
+package org.quartz.impl.jdbcjobstore;
+
+import static org.quartz.impl.jdbcjobstore.JdbcJobStoreTest.createJdbcJobStore;
+import static org.quartz.impl.jdbcjobstore.JdbcJobStoreTest.destroyJdbcJobStore;
+import static org.quartz.impl.jdbcjobstore.JdbcJobStoreTest.initializeJdbcJobStore;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+
+import org.quartz.AbstractJobStoreTest.MyJob;
+import org.quartz.AbstractJobStoreTest.SampleSignaler;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobKey;
+import org.quartz.JobPersistenceException;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+import org.quartz.Trigger.TriggerState;
+import org.quartz.TriggerBuilder;
+import org.quartz.TriggerKey;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.TriggerFiredBundle;
+import org.quartz.spi.TriggerFiredResult;
+
+/**
+ * Tests a JDBC store whose trigger access lock is split into partitions.
+ */
+public class JdbcJobStorePartitionedTest extends TestCase {
+
+    private static JobStoreSupport createJobStore(String name) {
+        JobStoreSupport jdbcJobStore = createJdbcJobStore(name);
+        jdbcJobStore.setTriggerAccessPartitions(4);
+        return jdbcJobStore;
+    }
+
+    public void testAcquireFireAndCompleteAcrossPartitions() throws Exception {
+        JobStoreSupport store = createJobStore("testAcquireFireAndCompleteAcrossPartitions");
+        initializeJdbcJobStore(store, new SampleSignaler());
+
+        try {
+            Date aSecondAgo = new Date(System.currentTimeMillis() - 1000L);
+            Set<TriggerKey> stored = new HashSet<TriggerKey>();
+            Set<Integer> partitions = new HashSet<Integer>();
+            for (int i = 0; i < 8; i++) {
+                JobDetail job = JobBuilder.newJob(MyJob.class).withIdentity("job" + i).build();
+                OperableTrigger trigger = (OperableTrigger) TriggerBuilder.newTrigger()
+                        .withIdentity("trigger" + i).forJob(job).startAt(aSecondAgo).build();
+                trigger.computeFirstFireTime(null);
+                store.storeJobAndTrigger(job, trigger);
+                stored.add(trigger.getKey());
+                partitions.add(store.getTriggerAccessPartition(job.getKey()));
+            }
+            assertTrue(partitions.size() > 1);
+
+            long noLaterThan = System.currentTimeMillis() + 1000L;
+            Set<TriggerKey> acquired = new HashSet<TriggerKey>();
+            List<OperableTrigger> triggers;
+            while (!(triggers = store.acquireNextTriggers(noLaterThan, 1, 0L)).isEmpty()) {
+                assertEquals(1, triggers.size());
+                OperableTrigger trigger = triggers.get(0);
+                assertTrue(acquired.add(trigger.getKey()));
+
+                List<TriggerFiredResult> results = store.triggersFired(triggers);
+                assertEquals(1, results.size());
+                assertNotNull(results.get(0).getTriggerFiredBundle());
+
+                store.triggeredJobComplete(trigger, results.get(0).getTriggerFiredBundle().getJobDetail(),
+                        CompletedExecutionInstruction.NOOP);
+            }
+            assertEquals(stored, acquired);
+        } finally {
+            destroyJdbcJobStore(store);
+        }
+    }
+
+    public void testNonConcurrentJobFiredFromTwoThreads() throws Exception {
+        final JobStoreSupport store = createJobStore("testNonConcurrentJobFiredFromTwoThreads");
+        store.setAcquireTriggersWithinLock(true);
+        // Derby releases the row locks of SELECT ... FOR UPDATE early
+        UpdateLockRowSemaphore lockHandler = new UpdateLockRowSemaphore();
+        lockHandler.setSchedName("testNonConcurrentJobFiredFromTwoThreads");
+        store.setLockHandler(lockHandler);
+        initializeJdbcJobStore(store, new SampleSignaler());
+
+        try {
+            JobKey serialKey = JobKey.jobKey("serial");
+            JobKey otherKey = null;
+            for (int i = 0; otherKey == null; i++) {
+                JobKey candidate = JobKey.jobKey("other" + i);
+                if (store.getTriggerAccessPartition(candidate) != store.getTriggerAccessPartition(serialKey)) {
+                    otherKey = candidate;
+                }
+            }
+
+            JobDetail serialJob = JobBuilder.newJob(SerialJob.class).withIdentity(serialKey).storeDurably().build();
+            store.storeJob(serialJob, false);
+            Date aSecondAgo = new Date(System.currentTimeMillis() - 1000L);
+            final Set<TriggerKey> stored = new HashSet<TriggerKey>();
+            for (int i = 0; i < 2; i++) {
+                OperableTrigger trigger = (OperableTrigger) TriggerBuilder.newTrigger()
+                        .withIdentity("serial" + i).forJob(serialJob).startAt(aSecondAgo)
+                        .withSchedule(SimpleScheduleBuilder.repeatMinutelyForever()).build();
+                trigger.computeFirstFireTime(null);
+                store.storeTrigger(trigger, false);
+                stored.add(trigger.getKey());
+            }
+
+            // another partition stays locked throughout
+            final String otherLock = store.getTriggerAccessLock(otherKey);
+            final CountDownLatch otherLocked = new CountDownLatch(1);
+            final CountDownLatch releaseOther = new CountDownLatch(1);
+            final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+            Thread holder = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        store.executeInNonManagedTXLock(otherLock, new JobStoreSupport.TransactionCallback<Void>() {
+                            public Void execute(Connection conn) throws JobPersistenceException {
+                                otherLocked.countDown();
+                                try {
+                                    releaseOther.await();
+                                } catch (InterruptedException e) {
+                                    throw new JobPersistenceException("Interrupted", e);
+                                }
+                                return null;
+                            }
+                        }, null);
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    }
+                }
+            };
+            holder.setDaemon(true);
+            holder.start();
+            assertTrue(otherLocked.await(10, TimeUnit.SECONDS));
+
+            final long noLaterThan = System.currentTimeMillis() + 1000L;
+            final CyclicBarrier barrier = new CyclicBarrier(2);
+            final List<OperableTrigger> acquired = Collections.synchronizedList(new ArrayList<OperableTrigger>());
+            final List<TriggerFiredBundle> bundles = Collections.synchronizedList(new ArrayList<TriggerFiredBundle>());
+            List<Thread> firers = new ArrayList<Thread>();
+            for (int t = 0; t < 2; t++) {
+                Thread firer = new Thread() {
+                    @Override
+                    public void run() {
+                        try {
+                            barrier.await();
+                            List<OperableTrigger> triggers = store.acquireNextTriggers(noLaterThan, 1, 0L);
+                            acquired.addAll(triggers);
+                            barrier.await();
+                            for (TriggerFiredResult result : store.triggersFired(triggers)) {
+                                if (result.getTriggerFiredBundle() != null) {
+                                    bundles.add(result.getTriggerFiredBundle());
+                                }
+                            }
+                        } catch (Throwable t) {
+                            failure.compareAndSet(null, t);
+                        }
+                    }
+                };
+                firer.setDaemon(true);
+                firer.start();
+                firers.add(firer);
+            }
+            for (Thread firer : firers) {
+                firer.join(30000L);
+                assertFalse(firer.isAlive());
+            }
+            assertNull(failure.get());
+
+            // each thread acquired one of the triggers, but only one fired
+            assertEquals(2, acquired.size());
+            Set<TriggerKey> acquiredKeys = new HashSet<TriggerKey>();
+            for (OperableTrigger trigger : acquired) {
+                acquiredKeys.add(trigger.getKey());
+            }
+            assertEquals(stored, acquiredKeys);
+            assertEquals(1, bundles.size());
+            TriggerFiredBundle bundle = bundles.get(0);
+            TriggerKey blocked = null;
+            for (TriggerKey key : stored) {
+                if (!key.equals(bundle.getTrigger().getKey())) {
+                    blocked = key;
+                }
+            }
+            assertEquals(TriggerState.BLOCKED, store.getTriggerState(blocked));
+
+            store.triggeredJobComplete(bundle.getTrigger(), bundle.getJobDetail(),
+                    CompletedExecutionInstruction.NOOP);
+            assertEquals(TriggerState.NORMAL, store.getTriggerState(blocked));
+
+            releaseOther.countDown();
+            holder.join(10000L);
+            assertFalse(holder.isAlive());
+            assertNull(failure.get());
+        } finally {
+            destroyJdbcJobStore(store);
+        }
+    }
+
+    public void testPipelinedCompletionsLockTheirPartitionsOnly() throws Exception {
+        final JobStoreSupport store = createJobStore("testPipelinedCompletionsLockTheirPartitionsOnly");
+        store.setUsePipelinedFiring(true);
+        store.setPipelinedCompletionWindow(200L);
+        initializeJdbcJobStore(store, new SampleSignaler());
+
+        try {
+            JobKey first = JobKey.jobKey("job0");
+            JobKey other = null;
+            for (int i = 1; other == null; i++) {
+                JobKey candidate = JobKey.jobKey("job" + i);
+                if (store.getTriggerAccessPartition(candidate) != store.getTriggerAccessPartition(first)) {
+                    other = candidate;
+                }
+            }
+
+            Date aSecondAgo = new Date(System.currentTimeMillis() - 1000L);
+            for (JobKey jobKey : Arrays.asList(first, other)) {
+                JobDetail job = JobBuilder.newJob(MyJob.class).withIdentity(jobKey).build();
+                OperableTrigger trigger = (OperableTrigger) TriggerBuilder.newTrigger()
+                        .withIdentity(jobKey.getName()).forJob(job).startAt(aSecondAgo).build();
+                trigger.computeFirstFireTime(null);
+                store.storeJobAndTrigger(job, trigger);
+            }
+            List<OperableTrigger> acquired = store.acquireNextTriggers(System.currentTimeMillis() + 1000L, 2, 0L);
+            assertEquals(2, acquired.size());
+            List<TriggerFiredResult> results = store.triggersFired(acquired);
+
+            final List<String> obtained = Collections.synchronizedList(new ArrayList<String>());
+            final Semaphore lockHandler = store.getLockHandler();
+            store.setLockHandler(new Semaphore() {
+                public boolean obtainLock(Connection conn, String lockName) throws LockException {
+                    obtained.add(lockName);
+                    return lockHandler.obtainLock(conn, lockName);
+                }
+
+                public void releaseLock(String lockName) throws LockException {
+                    lockHandler.releaseLock(lockName);
+                }
+
+                public boolean requiresConnection() {
+                    return lockHandler.requiresConnection();
+                }
+            });
+
+            final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+            List<Thread> completers = new ArrayList<Thread>();
+            for (TriggerFiredResult result : results) {
+                final TriggerFiredBundle bundle = result.getTriggerFiredBundle();
+                Thread completer = new Thread() {
+                    @Override
+                    public void run() {
+                        try {
+                            store.triggeredJobComplete(bundle.getTrigger(), bundle.getJobDetail(),
+                                    CompletedExecutionInstruction.DELETE_TRIGGER);
+                        } catch (Throwable t) {
+                            failure.compareAndSet(null, t);
+                        }
+                    }
+                };
+                completer.setDaemon(true);
+                completer.start();
+                completers.add(completer);
+            }
+            for (Thread completer : completers) {
+                completer.join(30000L);
+                assertFalse(completer.isAlive());
+            }
+            assertNull(failure.get());
+
+            assertEquals(new HashSet<String>(Arrays.asList(store.getTriggerAccessLock(first), store.getTriggerAccessLock(other))),
+                    new HashSet<String>(obtained));
+            assertEquals(0, store.getNumberOfTriggers());
+        } finally {
+            destroyJdbcJobStore(store);
+        }
+    }
+
+    public void testTriggerAccessLockOfJobs() throws Exception {
+        JobStoreSupport store = createJobStore("testTriggerAccessLockOfJobs");
+        initializeJdbcJobStore(store, new SampleSignaler());
+
+        try {
+            JobKey first = JobKey.jobKey("job0");
+            JobKey other = null;
+            for (int i = 1; other == null; i++) {
+                JobKey candidate = JobKey.jobKey("job" + i);
+                if (store.getTriggerAccessPartition(candidate) != store.getTriggerAccessPartition(first)) {
+                    other = candidate;
+                }
+            }
+
+            assertEquals("TRIGGER_ACCESS_" + store.getTriggerAccessPartition(first),
+                    store.getTriggerAccessLock(first));
+            assertEquals("TRIGGER_ACCESS", store.getTriggerAccessLock(Arrays.asList(first, other)));
+        } finally {
+            destroyJdbcJobStore(store);
+        }
+    }
+
+    public void testTriggerAccessLockObtainsAllPartitions() throws Exception {
+        final List<String> calls = new ArrayList<String>();
+        Semaphore recording = new Semaphore() {
+            public boolean obtainLock(Connection conn, String lockName) {
+                calls.add("obtain " + lockName);
+                return true;
+            }
+
+            public void releaseLock(String lockName) {
+                calls.add("release " + lockName);
+            }
+
+            public boolean requiresConnection() {
+                return false;
+            }
+        };
+        Semaphore semaphore = new PartitionedTriggerAccessSemaphore(recording, "TRIGGER_ACCESS",
+                new String[] {"TRIGGER_ACCESS_0", "TRIGGER_ACCESS_1"});
+
+        semaphore.obtainLock(null, "TRIGGER_ACCESS");
+        semaphore.releaseLock("TRIGGER_ACCESS");
+        semaphore.obtainLock(null, "TRIGGER_ACCESS_1");
+        semaphore.releaseLock("TRIGGER_ACCESS_1");
+        semaphore.obtainLock(null, "STATE_ACCESS");
+
+        assertEquals(Arrays.asList(
+                "obtain TRIGGER_ACCESS_0", "obtain TRIGGER_ACCESS_1",
+                "release TRIGGER_ACCESS_1", "release TRIGGER_ACCESS_0",
+                "obtain TRIGGER_ACCESS_1", "release TRIGGER_ACCESS_1",
+                "obtain STATE_ACCESS"), calls);
+    }
+
+    @DisallowConcurrentExecution
+    public static class SerialJob implements Job {
+        public void execute(JobExecutionContext context) {
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package org.quartz.impl.jdbcjobstore;
+
+import static org.quartz.JobBuilder.newJob;
+import static org.quartz.SimpleScheduleBuilder.simpleSchedule;
+import static org.quartz.TriggerBuilder.newTrigger;
+import static org.quartz.impl.jdbcjobstore.JdbcJobStoreTest.createJdbcJobStore;
+import static org.quartz.impl.jdbcjobstore.JdbcJobStoreTest.destroyJdbcJobStore;
+import static org.quartz.impl.jdbcjobstore.JdbcJobStoreTest.initializeJdbcJobStore;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+
+import org.quartz.AbstractJobStoreTest.MyJob;
+import org.quartz.AbstractJobStoreTest.SampleSignaler;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.PersistJobDataAfterExecution;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+import org.quartz.Trigger.TriggerState;
+import org.quartz.spi.JobStore;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.TriggerFiredBundle;
+import org.quartz.spi.TriggerFiredResult;
+import org.quartz.utils.DBConnectionManager;
+
+/**
+ * Tests a JDBC store that fires triggers, and records the completion of
+ * their jobs, with batched statements.
+ */
+public class JdbcJobStorePipelinedFiringTest extends TestCase {
+
+    private static JobStoreSupport createJobStore(String name) {
+        JobStoreSupport jdbcJobStore = createJdbcJobStore(name);
+        jdbcJobStore.setUsePipelinedFiring(true);
+        return jdbcJobStore;
+    }
+
+    public void testTriggersFiredAndCompleted() throws Exception {
+        JobStoreSupport store = createJobStore("PipelinedFiringTest");
+        try {
+            initializeJdbcJobStore(store, new SampleSignaler());
+            store.schedulerStarted();
+
+            JobDetail job = newJob(MyJob.class).withIdentity("job", "pipelined").storeDurably().build();
+            JobDetail serialJob = newJob(SerialJob.class).withIdentity("serialJob", "pipelined").storeDurably().build();
+            store.storeJob(job, false);
+            store.storeJob(serialJob, false);
+
+            long base = System.currentTimeMillis() + 1000L;
+            OperableTrigger repeating = createTrigger("repeating", job, base, 2);
+            OperableTrigger once = createTrigger("once", job, base + 1, 0);
+            OperableTrigger serial1 = createTrigger("serial1", serialJob, base + 2, 2);
+            OperableTrigger serial2 = createTrigger("serial2", serialJob, base + 3, 2);
+            store.storeTrigger(repeating, false);
+            store.storeTrigger(once, false);
+            store.storeTrigger(serial1, false);
+            store.storeTrigger(serial2, false);
+
+            List<OperableTrigger> acquired = store.acquireNextTriggers(base + 10000L, 10, 0L);
+            assertEquals(3, acquired.size());
+
+            List<TriggerFiredResult> results = store.triggersFired(acquired);
+            assertEquals(3, results.size());
+            List<OperableTrigger> fired = new ArrayList<OperableTrigger>();
+            for (int i = 0; i < results.size(); i++) {
+                assertNotNull(results.get(i).getTriggerFiredBundle());
+                OperableTrigger trigger = results.get(i).getTriggerFiredBundle().getTrigger();
+                assertEquals(acquired.get(i).getKey(), trigger.getKey());
+                fired.add(trigger);
+            }
+
+            // triggers of the same job do not share its data map
+            JobDetail firedJob1 = results.get(0).getTriggerFiredBundle().getJobDetail();
+            JobDetail firedJob2 = results.get(1).getTriggerFiredBundle().getJobDetail();
+            assertEquals(job.getKey(), firedJob1.getKey());
+            assertEquals(job.getKey(), firedJob2.getKey());
+            assertNotSame(firedJob1, firedJob2);
+            assertNotSame(firedJob1.getJobDataMap(), firedJob2.getJobDataMap());
+
+            assertEquals(TriggerState.NORMAL, store.getTriggerState(repeating.getKey()));
+            assertEquals(TriggerState.COMPLETE, store.getTriggerState(once.getKey()));
+            assertEquals(TriggerState.BLOCKED, store.getTriggerState(serial1.getKey()));
+            assertEquals(TriggerState.BLOCKED, store.getTriggerState(serial2.getKey()));
+
+            // triggers that are no longer acquired are not fired again
+            assertNull(store.triggersFired(acquired).get(0).getTriggerFiredBundle());
+
+            for (OperableTrigger trigger : fired) {
+                JobDetail firedJob = trigger.getJobKey().equals(job.getKey()) ? job : serialJob;
+                store.triggeredJobComplete(trigger, firedJob, CompletedExecutionInstruction.NOOP);
+            }
+
+            assertEquals(TriggerState.NORMAL, store.getTriggerState(serial1.getKey()));
+            assertEquals(TriggerState.NORMAL, store.getTriggerState(serial2.getKey()));
+        } finally {
+            destroyJdbcJobStore(store);
+        }
+    }
+
+    public void testFailingCompletionDoesNotHoldUpItsGroup() throws Exception {
+        JobStoreSupport store = createJobStore("PipelinedFailingCompletionTest");
+        try {
+            store.setPipelinedCompletionWindow(500L);
+            store.setDbRetryInterval(50L);
+            initializeJdbcJobStore(store, new SampleSignaler());
+            store.schedulerStarted();
+
+            long base = System.currentTimeMillis() + 1000L;
+            List<OperableTrigger> serialTriggers = new ArrayList<OperableTrigger>();
+            for (int i = 0; i < 3; i++) {
+                JobDetail serialJob = newJob(SerialJob.class).withIdentity("serialJob" + i, "pipelined").storeDurably().build();
+                store.storeJob(serialJob, false);
+                OperableTrigger trigger = createTrigger("serial" + i, serialJob, base + i, 2);
+                store.storeTrigger(trigger, false);
+                serialTriggers.add(trigger);
+            }
+            JobDetail persistentJob = newJob(PersistentJob.class).withIdentity("persistentJob", "pipelined").storeDurably().build();
+            store.storeJob(persistentJob, false);
+            store.storeTrigger(createTrigger("persistent", persistentJob, base + 3, 2), false);
+
+            List<OperableTrigger> acquired = store.acquireNextTriggers(base + 10000L, 10, 0L);
+            assertEquals(4, acquired.size());
+            List<TriggerFiredBundle> bundles = new ArrayList<TriggerFiredBundle>();
+            for (TriggerFiredResult result : store.triggersFired(acquired)) {
+                bundles.add(result.getTriggerFiredBundle());
+            }
+            for (OperableTrigger trigger : serialTriggers) {
+                assertEquals(TriggerState.BLOCKED, store.getTriggerState(trigger.getKey()));
+            }
+
+            // the job data of this completion can't be stored
+            bundles.get(3).getJobDetail().getJobDataMap().put("unserializable", new Object());
+
+            CountDownLatch start = new CountDownLatch(1);
+            CountDownLatch completed = new CountDownLatch(3);
+            AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+            List<Thread> threads = new ArrayList<Thread>();
+            for (TriggerFiredBundle bundle : bundles) {
+                Thread thread = new CompletionThread(store, start, completed, failure, bundle);
+                thread.start();
+                threads.add(thread);
+            }
+            start.countDown();
+
+            assertTrue(completed.await(30, TimeUnit.SECONDS));
+            for (OperableTrigger trigger : serialTriggers) {
+                assertEquals(TriggerState.NORMAL, store.getTriggerState(trigger.getKey()));
+            }
+            assertEquals(1, countFiredTriggers("PipelinedFailingCompletionTest"));
+            assertTrue(threads.get(3).isAlive());
+
+            // the failing completion is retried until the store shuts down
+            store.shutdown();
+            for (Thread thread : threads) {
+                thread.join(10000L);
+                assertFalse(thread.isAlive());
+            }
+            assertTrue(failure.get() instanceof IllegalStateException);
+        } finally {
+            destroyJdbcJobStore(store);
+        }
+    }
+
+    public void testConcurrentCompletions() throws Exception {
+        JobStoreSupport store = createJobStore("PipelinedConcurrentCompletionTest");
+        try {
+            initializeJdbcJobStore(store, new SampleSignaler());
+            store.schedulerStarted();
+
+            JobDetail job = newJob(MyJob.class).withIdentity("job", "pipelined").storeDurably().build();
+            store.storeJob(job, false);
+            long base = System.currentTimeMillis() + 1000L;
+            List<OperableTrigger> serialTriggers = new ArrayList<OperableTrigger>();
+            for (int i = 0; i < 20; i++) {
+                JobDetail serialJob = newJob(SerialJob.class).withIdentity("serialJob" + i, "pipelined").storeDurably().build();
+                store.storeJob(serialJob, false);
+                OperableTrigger trigger = createTrigger("serial" + i, serialJob, base + i, 2);
+                store.storeTrigger(trigger, false);
+                serialTriggers.add(trigger);
+                store.storeTrigger(createTrigger("concurrent" + i, job, base + i, 2), false);
+            }
+
+            List<OperableTrigger> acquired = store.acquireNextTriggers(base + 10000L, 40, 0L);
+            assertEquals(40, acquired.size());
+            List<TriggerFiredResult> results = store.triggersFired(acquired);
+            assertEquals(40, countFiredTriggers("PipelinedConcurrentCompletionTest"));
+
+            CountDownLatch start = new CountDownLatch(1);
+            CountDownLatch completed = new CountDownLatch(results.size());
+            AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+            for (TriggerFiredResult result : results) {
+                new CompletionThread(store, start, completed, failure, result.getTriggerFiredBundle()).start();
+            }
+            start.countDown();
+
+            assertTrue(completed.await(30, TimeUnit.SECONDS));
+            assertNull(failure.get());
+            assertEquals(0, countFiredTriggers("PipelinedConcurrentCompletionTest"));
+            for (OperableTrigger trigger : serialTriggers) {
+                assertEquals(TriggerState.NORMAL, store.getTriggerState(trigger.getKey()));
+            }
+        } finally {
+            destroyJdbcJobStore(store);
+        }
+    }
+
+    private static int countFiredTriggers(String name) throws SQLException {
+        Connection conn = DBConnectionManager.getInstance().getConnection(name);
+        try {
+            Statement statement = conn.createStatement();
+            ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM QRTZ_FIRED_TRIGGERS");
+            rs.next();
+            return rs.getInt(1);
+        } finally {
+            conn.close();
+        }
+    }
+
+    private static OperableTrigger createTrigger(String name, JobDetail job, long startTime, int repeatCount) {
+        OperableTrigger trigger = (OperableTrigger) newTrigger()
+                .withIdentity(name, "pipelined")
+                .forJob(job)
+                .startAt(new Date(startTime))
+                .withSchedule(simpleSchedule().withIntervalInSeconds(60).withRepeatCount(repeatCount))
+                .build();
+        trigger.computeFirstFireTime(null);
+        return trigger;
+    }
+
+    @DisallowConcurrentExecution
+    public static class SerialJob implements Job {
+        public void execute(JobExecutionContext context) throws JobExecutionException {
+        }
+    }
+
+    @PersistJobDataAfterExecution
+    public static class PersistentJob implements Job {
+        public void execute(JobExecutionContext context) throws JobExecutionException {
+        }
+    }
+
+    private static class CompletionThread extends Thread {
+        private final JobStore store;
+        private final CountDownLatch start;
+        private final CountDownLatch completed;
+        private final AtomicReference<Throwable> failure;
+        private final TriggerFiredBundle bundle;
+
+        CompletionThread(JobStore store, CountDownLatch start, CountDownLatch completed,
+                AtomicReference<Throwable> failure, TriggerFiredBundle bundle) {
+            this.store = store;
+            this.start = start;
+            this.completed = completed;
+            this.failure = failure;
+            this.bundle = bundle;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                start.await();
+                store.triggeredJobComplete(bundle.getTrigger(), bundle.getJobDetail(),
+                        CompletedExecutionInstruction.NOOP);
+                completed.countDown();
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            }
+        }
+    }
+}
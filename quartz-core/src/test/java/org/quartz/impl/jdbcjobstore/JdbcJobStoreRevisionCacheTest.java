@@ -0,0 +1,66 @@
+package org.quartz.impl.jdbcjobstore;
+
+import static org.quartz.impl.jdbcjobstore.JdbcJobStoreTest.createJdbcJobStore;
+import static org.quartz.impl.jdbcjobstore.JdbcJobStoreTest.destroyJdbcJobStore;
+import static org.quartz.impl.jdbcjobstore.JdbcJobStoreTest.initializeJdbcJobStore;
+import static org.quartz.impl.jdbcjobstore.JdbcJobStoreTest.openJdbcJobStore;
+
+import junit.framework.TestCase;
+
+import org.quartz.AbstractJobStoreTest.MyJob;
+import org.quartz.AbstractJobStoreTest.SampleSignaler;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.impl.calendar.BaseCalendar;
+
+/**
+ * Tests a JDBC store that caches job details and calendars by the revision
+ * of their rows.
+ */
+public class JdbcJobStoreRevisionCacheTest extends TestCase {
+
+    public void testChangesOfOtherNodeAreSeen() throws Exception {
+        JobStoreSupport store = createJdbcJobStore("testChangesOfOtherNodeAreSeen");
+        store.setUseRevisionCache(true);
+        JobStoreTX otherNode = openJdbcJobStore("testChangesOfOtherNodeAreSeen", "OTHER_NODE_TEST");
+        otherNode.setUseRevisionCache(true);
+
+        try {
+            initializeJdbcJobStore(store, new SampleSignaler());
+            initializeJdbcJobStore(otherNode, new SampleSignaler());
+
+            JobKey jobKey = JobKey.jobKey("job", "group");
+            store.storeJob(JobBuilder.newJob(MyJob.class).withIdentity(jobKey)
+                    .usingJobData("version", 1).storeDurably().build(), false);
+
+            JobDetail first = store.retrieveJob(jobKey);
+            first.getJobDataMap().put("version", 100);
+            JobDetail second = store.retrieveJob(jobKey);
+            assertNotSame(first, second);
+            assertEquals(1, second.getJobDataMap().getInt("version"));
+
+            otherNode.storeJob(JobBuilder.newJob(MyJob.class).withIdentity(jobKey)
+                    .usingJobData("version", 2).storeDurably().build(), true);
+            assertEquals(2, store.retrieveJob(jobKey).getJobDataMap().getInt("version"));
+
+            BaseCalendar calendar = new BaseCalendar();
+            calendar.setDescription("one");
+            store.storeCalendar("calendar", calendar, false, false);
+            assertSame(store.retrieveCalendar("calendar"), store.retrieveCalendar("calendar"));
+
+            BaseCalendar changed = new BaseCalendar();
+            changed.setDescription("two");
+            otherNode.storeCalendar("calendar", changed, true, false);
+            assertEquals("two", store.retrieveCalendar("calendar").getDescription());
+
+            otherNode.removeCalendar("calendar");
+            assertNull(store.retrieveCalendar("calendar"));
+            otherNode.removeJob(jobKey);
+            assertNull(store.retrieveJob(jobKey));
+        } finally {
+            otherNode.shutdown();
+            destroyJdbcJobStore(store);
+        }
+    }
+}
@@ -4,42 +4,73 @@ import java.sql.SQLException;
 import java.util.HashMap;
 
 import org.quartz.AbstractJobStoreTest;
+import org.quartz.SchedulerException;
+import org.quartz.simpl.CascadingClassLoadHelper;
+import org.quartz.spi.ClassLoadHelper;
 import org.quartz.spi.JobStore;
+import org.quartz.spi.SchedulerSignaler;
 
 public class JdbcJobStoreTest extends AbstractJobStoreTest {
 
 	private HashMap<String, JobStoreSupport> stores = new HashMap<String, JobStoreSupport>();
-	
+
     public void testNothing() {
         // nothing
     }
 
     @Override
     protected JobStore createJobStore(String name) {
+        JobStoreSupport jdbcJobStore = createJdbcJobStore(name);
+        stores.put(name, jdbcJobStore);
+        return jdbcJobStore;
+    }
+
+    @Override
+    protected void destroyJobStore(String name) {
+        destroyJdbcJobStore(stores.remove(name));
+    }
+
+    /**
+     * Create a job store over a new in-memory database of the given name.
+     */
+    static JobStoreTX createJdbcJobStore(String name) {
         try {
             JdbcQuartzTestUtilities.createDatabase(name);
-            JobStoreTX jdbcJobStore = new JobStoreTX();
-            jdbcJobStore.setDataSource(name);
-            jdbcJobStore.setTablePrefix("QRTZ_");
-            jdbcJobStore.setInstanceId("SINGLE_NODE_TEST");
-            jdbcJobStore.setInstanceName(name);
-            jdbcJobStore.setUseDBLocks(true);
-
-            stores.put(name, jdbcJobStore);
-            
-            return jdbcJobStore;
         } catch (SQLException e) {
             throw new AssertionError(e);
         }
+        return openJdbcJobStore(name, "SINGLE_NODE_TEST");
     }
 
-    @Override
-    protected void destroyJobStore(String name) {
+    /**
+     * Create a job store over the existing database of the given name, as
+     * another node of the cluster, or a restarted scheduler, would.
+     */
+    static JobStoreTX openJdbcJobStore(String name, String instanceId) {
+        JobStoreTX jdbcJobStore = new JobStoreTX();
+        jdbcJobStore.setDataSource(name);
+        jdbcJobStore.setTablePrefix("QRTZ_");
+        jdbcJobStore.setInstanceId(instanceId);
+        jdbcJobStore.setInstanceName(name);
+        jdbcJobStore.setUseDBLocks(true);
+        return jdbcJobStore;
+    }
+
+    static void initializeJdbcJobStore(JobStoreSupport jdbcJobStore, SchedulerSignaler signaler)
+            throws SchedulerException {
+        ClassLoadHelper loadHelper = new CascadingClassLoadHelper();
+        loadHelper.initialize();
+        jdbcJobStore.initialize(loadHelper, signaler);
+    }
+
+    /**
+     * Shut the given job store down and drop its database.
+     */
+    static void destroyJdbcJobStore(JobStoreSupport jdbcJobStore) {
         try {
-        	JobStoreSupport jdbcJobStore = stores.remove(name);
-        	jdbcJobStore.shutdown();
-        	
-            JdbcQuartzTestUtilities.destroyDatabase(name);
+            jdbcJobStore.shutdown();
+
+            JdbcQuartzTestUtilities.destroyDatabase(jdbcJobStore.getDataSource());
         } catch (SQLException e) {
             throw new AssertionError(e);
         }
@@ -18,18 +18,32 @@ package org.quartz.impl.jdbcjobstore;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.NotSerializableException;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.mockito.ArgumentCaptor;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
 import org.quartz.JobPersistenceException;
 import org.quartz.TriggerKey;
+import org.quartz.impl.triggers.SimpleTriggerImpl;
 import org.quartz.spi.OperableTrigger;
 import org.slf4j.LoggerFactory;
 import org.quartz.JobDataMap;
@@ -63,6 +77,80 @@ public class StdJDBCDelegateTest extends TestCase {
         }
     }
 
+    public void testSerializeJobDataWithBinaryCodec() throws Exception {
+        StdJDBCDelegate delegate = new StdJDBCDelegate();
+        delegate.initialize(LoggerFactory.getLogger(getClass()), "QRTZ_", "TESTSCHED", "INSTANCE", new SimpleClassLoadHelper(), false, "jobDataCodec=binary");
+
+        Map<String, Object> nested = new HashMap<String, Object>();
+        nested.put("inner", Integer.valueOf(-7));
+        List<Object> list = new ArrayList<Object>();
+        list.add("a");
+        list.add(Long.valueOf(Long.MIN_VALUE));
+        list.add(null);
+
+        JobDataMap jdm = new JobDataMap();
+        jdm.put("string", "value \u00e9");
+        jdm.put("int", 42);
+        jdm.put("long", Long.MAX_VALUE);
+        jdm.put("boolean", true);
+        jdm.put("double", 1.5d);
+        jdm.put("float", -0.25f);
+        jdm.put("char", 'c');
+        jdm.put("date", new Date(1234567890123L));
+        jdm.put("null", null);
+        jdm.put("map", nested);
+        jdm.put("list", list);
+        jdm.put("decimal", new BigDecimal("12.345"));
+
+        ByteArrayOutputStream baos = delegate.serializeJobData(jdm);
+        byte[] bytes = baos.toByteArray();
+        assertEquals('Q', bytes[0]);
+        assertEquals('J', bytes[1]);
+
+        Map<?, ?> decoded = delegate.decodeJobData(new ByteArrayInputStream(bytes));
+        assertEquals(jdm.getWrappedMap(), decoded);
+        assertSame(Date.class, decoded.get("date").getClass());
+
+        JobDataMap small = new JobDataMap();
+        small.put("key1", "value1");
+        small.put("key2", "value2");
+        small.put("key3", "value3");
+        StdJDBCDelegate legacy = new StdJDBCDelegate();
+        legacy.initialize(LoggerFactory.getLogger(getClass()), "QRTZ_", "TESTSCHED", "INSTANCE", new SimpleClassLoadHelper(), false, "");
+        assertTrue(delegate.serializeJobData(small).size() * 4 < legacy.serializeJobData(small).size());
+
+        jdm.put("object", new Object());
+        try {
+            delegate.serializeJobData(jdm);
+            fail();
+        } catch (NotSerializableException e) {
+            assertTrue(e.getMessage().indexOf("object") >= 0);
+        }
+    }
+
+    public void testDecodeJobDataOfEarlierFormats() throws Exception {
+        StdJDBCDelegate legacy = new StdJDBCDelegate();
+        legacy.initialize(LoggerFactory.getLogger(getClass()), "QRTZ_", "TESTSCHED", "INSTANCE", new SimpleClassLoadHelper(), false, "");
+        StdJDBCDelegate delegate = new StdJDBCDelegate();
+        delegate.initialize(LoggerFactory.getLogger(getClass()), "QRTZ_", "TESTSCHED", "INSTANCE", new SimpleClassLoadHelper(), false,
+            "jobDataCodec=binary|jobDataCompressionThreshold=16");
+
+        JobDataMap jdm = new JobDataMap();
+        for (int i = 0; i < 20; i++) {
+            jdm.put("key" + i, "value of entry " + i);
+        }
+
+        // Java serialized before the codec was configured
+        byte[] serialized = legacy.serializeJobData(jdm).toByteArray();
+        assertEquals(jdm, delegate.decodeJobData(new ByteArrayInputStream(serialized)));
+
+        byte[] deflated = delegate.serializeJobData(jdm).toByteArray();
+        assertEquals(BinaryJobDataCodec.FLAG_DEFLATED, deflated[3]);
+        assertEquals(jdm.getWrappedMap(), delegate.decodeJobData(new ByteArrayInputStream(deflated)));
+
+        assertNull(delegate.decodeJobData(new ByteArrayInputStream(new byte[0])));
+    }
+
     public void testSelectBlobTriggerWithNoBlobContent() throws JobPersistenceException, SQLException, IOException, ClassNotFoundException {
         StdJDBCDelegate jdbcDelegate = new StdJDBCDelegate();
         jdbcDelegate.initialize(LoggerFactory.getLogger(getClass()), "QRTZ_", "TESTSCHED", "INSTANCE", new SimpleClassLoadHelper(), false, "");
@@ -135,6 +223,84 @@ public class StdJDBCDelegateTest extends TestCase {
         verify(persistenceDelegate).loadExtendedTriggerProperties(any(Connection.class), any(TriggerKey.class));
     }
 
+    public void testCachedPreparedStatementsAreReused() throws NoSuchDelegateException, SQLException {
+        StdJDBCDelegate jdbcDelegate = new StdJDBCDelegate();
+        jdbcDelegate.initialize(LoggerFactory.getLogger(getClass()), "QRTZ_", "TESTSCHED", "INSTANCE", new SimpleClassLoadHelper(), false, "cachePreparedStatements=true");
+
+        Connection conn = mock(Connection.class);
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+
+        when(conn.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(false);
+
+        assertEquals(Constants.STATE_DELETED, jdbcDelegate.selectTriggerState(conn, TriggerKey.triggerKey("test")));
+        assertEquals(Constants.STATE_DELETED, jdbcDelegate.selectTriggerState(conn, TriggerKey.triggerKey("test")));
+
+        verify(conn, times(1)).prepareStatement(anyString());
+        verify(preparedStatement, times(2)).clearParameters();
+        verify(preparedStatement, never()).close();
+
+        jdbcDelegate.closeCachedStatements(conn);
+        verify(preparedStatement, times(1)).close();
+    }
+
+    public void testUpdateTriggerFireTimesSkipsJobData() throws Exception {
+        StdJDBCDelegate jdbcDelegate = new StdJDBCDelegate();
+        jdbcDelegate.initialize(LoggerFactory.getLogger(getClass()), "QRTZ_", "TESTSCHED", "INSTANCE", new SimpleClassLoadHelper(), false, "");
+
+        Connection conn = mock(Connection.class);
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        when(conn.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeBatch()).thenReturn(new int[] {1});
+
+        SimpleTriggerImpl trigger = new SimpleTriggerImpl("fired", "group", new Date());
+        trigger.setJobKey(JobKey.jobKey("job"));
+        trigger.triggered(null);
+        List<OperableTrigger> triggers = new ArrayList<OperableTrigger>();
+        triggers.add(trigger);
+
+        assertEquals(1, jdbcDelegate.updateTriggerFireTimes(conn, triggers, Constants.STATE_COMPLETE,
+                new HashMap<JobKey, JobDetail>()));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(conn, times(2)).prepareStatement(sql.capture());
+        assertTrue(sql.getAllValues().get(0).contains(Constants.COL_NEXT_FIRE_TIME));
+        assertTrue(sql.getAllValues().get(1).contains(Constants.COL_TIMES_TRIGGERED));
+        for (String statement : sql.getAllValues()) {
+            assertFalse(statement, statement.contains(Constants.COL_JOB_DATAMAP));
+            assertFalse(statement, statement.contains(Constants.COL_REPEAT_INTERVAL));
+        }
+        verify(preparedStatement).setInt(1, 1);
+        verify(preparedStatement).setString(3, Constants.STATE_COMPLETE);
+    }
+
+    public void testUpdateTriggerFireTimesWritesDirtyJobData() throws Exception {
+        StdJDBCDelegate jdbcDelegate = new StdJDBCDelegate();
+        jdbcDelegate.initialize(LoggerFactory.getLogger(getClass()), "QRTZ_", "TESTSCHED", "INSTANCE", new SimpleClassLoadHelper(), false, "");
+
+        Connection conn = mock(Connection.class);
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        when(conn.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+
+        SimpleTriggerImpl trigger = new SimpleTriggerImpl("fired", "group", new Date());
+        trigger.setJobKey(JobKey.jobKey("job"));
+        trigger.getJobDataMap().put("changed", "yes");
+        trigger.triggered(null);
+        List<OperableTrigger> triggers = new ArrayList<OperableTrigger>();
+        triggers.add(trigger);
+
+        assertEquals(1, jdbcDelegate.updateTriggerFireTimes(conn, triggers, Constants.STATE_COMPLETE,
+                new HashMap<JobKey, JobDetail>()));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(conn, times(2)).prepareStatement(sql.capture());
+        assertTrue(sql.getAllValues().get(0).contains(Constants.COL_JOB_DATAMAP));
+        verify(preparedStatement, never()).executeBatch();
+    }
+
     static class TestStdJDBCDelegate extends StdJDBCDelegate {
 
         private final TriggerPersistenceDelegate testDelegate;
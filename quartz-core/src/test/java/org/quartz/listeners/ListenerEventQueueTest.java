@@ -0,0 +1,185 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.quartz.listeners;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.Trigger;
+import org.quartz.listeners.ListenerEventQueue.OverflowPolicy;
+
+/**
+ * Unit test for ListenerEventQueue and the asynchronous listener wrappers.
+ */
+public class ListenerEventQueueTest extends TestCase {
+
+    private final List<Integer> delivered = Collections.synchronizedList(new ArrayList<Integer>());
+
+    private Runnable record(final int i) {
+        return new Runnable() {
+            public void run() {
+                delivered.add(Integer.valueOf(i));
+            }
+        };
+    }
+
+    private Runnable await(final CountDownLatch latch) {
+        return new Runnable() {
+            public void run() {
+                try {
+                    latch.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+    }
+
+    public void testDeliversInOrder() throws Exception {
+        ListenerEventQueue queue = new ListenerEventQueue("ordered", 4, 3, OverflowPolicy.BLOCK);
+        for (int i = 0; i < 100; i++) {
+            queue.add(record(i));
+        }
+        queue.shutdown(true);
+
+        assertEquals(100, delivered.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, delivered.get(i).intValue());
+        }
+        assertEquals(100, queue.getDeliveredEventCount());
+        assertEquals(0, queue.getDiscardedEventCount());
+        assertEquals(0, queue.getPendingEventCount());
+    }
+
+    public void testDiscardNewest() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        ListenerEventQueue queue = new ListenerEventQueue("newest", 2, 1, OverflowPolicy.DISCARD_NEWEST);
+        queue.add(await(latch));
+        waitForPending(queue, 0);
+        for (int i = 0; i < 5; i++) {
+            queue.add(record(i));
+        }
+        assertEquals(2, queue.getPendingEventCount());
+        assertEquals(3, queue.getDiscardedEventCount());
+        latch.countDown();
+        queue.shutdown(true);
+
+        assertEquals(2, delivered.size());
+        assertEquals(0, delivered.get(0).intValue());
+        assertEquals(1, delivered.get(1).intValue());
+    }
+
+    public void testDiscardOldest() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        ListenerEventQueue queue = new ListenerEventQueue("oldest", 2, 1, OverflowPolicy.DISCARD_OLDEST);
+        queue.add(await(latch));
+        waitForPending(queue, 0);
+        for (int i = 0; i < 5; i++) {
+            queue.add(record(i));
+        }
+        assertEquals(3, queue.getDiscardedEventCount());
+        assertTrue(queue.getCurrentLag() >= 0);
+        latch.countDown();
+        queue.shutdown(true);
+
+        assertEquals(2, delivered.size());
+        assertEquals(3, delivered.get(0).intValue());
+        assertEquals(4, delivered.get(1).intValue());
+    }
+
+    public void testDeliverSynchronouslyWhenFull() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        ListenerEventQueue queue = new ListenerEventQueue("sync", 1, 1, OverflowPolicy.DELIVER_SYNCHRONOUSLY);
+        queue.add(await(latch));
+        waitForPending(queue, 0);
+        queue.add(record(0));
+        queue.add(record(1));
+
+        // the second event did not fit, and ran on this thread
+        assertEquals(1, delivered.size());
+        assertEquals(1, delivered.get(0).intValue());
+        latch.countDown();
+        queue.shutdown(true);
+        assertEquals(2, delivered.size());
+        assertEquals(0, queue.getDiscardedEventCount());
+    }
+
+    public void testEventTime() throws Exception {
+        final long[] eventTime = new long[1];
+        CountDownLatch latch = new CountDownLatch(1);
+        ListenerEventQueue queue = new ListenerEventQueue("time");
+        queue.add(await(latch));
+        long before = System.currentTimeMillis();
+        queue.add(new Runnable() {
+            public void run() {
+                eventTime[0] = ListenerEventQueue.getEventTime();
+            }
+        });
+        long after = System.currentTimeMillis();
+        Thread.sleep(50);
+        latch.countDown();
+        queue.shutdown(true);
+
+        assertTrue(eventTime[0] >= before && eventTime[0] <= after);
+        assertTrue(queue.getMaxLag() >= 50);
+    }
+
+    public void testAsyncTriggerListenerVetoesSynchronously() throws Exception {
+        final Thread caller = Thread.currentThread();
+        final List<Thread> vetoThreads = new ArrayList<Thread>();
+        final List<Thread> firedThreads = Collections.synchronizedList(new ArrayList<Thread>());
+        AsyncTriggerListener listener = new AsyncTriggerListener(new TriggerListenerSupport() {
+            public String getName() {
+                return "vetoer";
+            }
+
+            @Override
+            public void triggerFired(Trigger trigger, JobExecutionContext context) {
+                firedThreads.add(Thread.currentThread());
+            }
+
+            @Override
+            public boolean vetoJobExecution(Trigger trigger, JobExecutionContext context) {
+                vetoThreads.add(Thread.currentThread());
+                return true;
+            }
+        });
+        assertEquals("vetoer", listener.getName());
+
+        listener.triggerFired(null, null);
+        assertTrue(listener.vetoJobExecution(null, null));
+        listener.shutdown();
+
+        assertEquals(1, vetoThreads.size());
+        assertSame(caller, vetoThreads.get(0));
+        assertEquals(1, firedThreads.size());
+        assertNotSame(caller, firedThreads.get(0));
+    }
+
+    private void waitForPending(ListenerEventQueue queue, int count) throws InterruptedException {
+        for (int i = 0; i < 1000 && queue.getPendingEventCount() != count; i++) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, queue.getPendingEventCount());
+    }
+}
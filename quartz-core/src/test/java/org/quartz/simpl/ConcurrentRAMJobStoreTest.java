@@ -0,0 +1,166 @@
+/*
+ * Copyright 2001-2009 Terracotta, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.quartz.simpl;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.quartz.AbstractJobStoreTest;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobKey;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+import org.quartz.TriggerKey;
+import org.quartz.impl.triggers.SimpleTriggerImpl;
+import org.quartz.spi.JobStore;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.TriggerFiredBundle;
+import org.quartz.spi.TriggerFiredResult;
+
+public class ConcurrentRAMJobStoreTest extends AbstractJobStoreTest {
+
+    private static final int THREADS = 8;
+
+    private static final int TRIGGERS_PER_JOB = 25;
+
+    private static final int FIRES_PER_TRIGGER = 20;
+
+    @Override
+    protected JobStore createJobStore(String name) {
+        ConcurrentRAMJobStore rs = new ConcurrentRAMJobStore();
+        return rs;
+    }
+
+    @Override
+    protected void destroyJobStore(String name) {
+
+    }
+
+    @SuppressWarnings("deprecation")
+    public void testConcurrentAcquireFireAndComplete() throws Exception {
+        final ConcurrentRAMJobStore store = new ConcurrentRAMJobStore();
+        store.initialize(new CascadingClassLoadHelper(), new SampleSignaler());
+        store.setMisfireThreshold(60000L);
+        store.schedulerStarted();
+
+        JobDetail concurrentJob = JobBuilder.newJob(MyJob.class)
+            .withIdentity("concurrent").storeDurably().build();
+        final JobDetail serialJob = JobBuilder.newJob(SerialJob.class)
+            .withIdentity("serial").storeDurably().build();
+        store.storeJob(concurrentJob, false);
+        store.storeJob(serialJob, false);
+
+        long start = System.currentTimeMillis();
+        for (JobDetail job : new JobDetail[] { concurrentJob, serialJob }) {
+            for (int i = 0; i < TRIGGERS_PER_JOB; i++) {
+                SimpleTriggerImpl trigger = new SimpleTriggerImpl(job.getKey().getName() + i, "group",
+                    new Date(start + i), null, FIRES_PER_TRIGGER - 1, 1L);
+                trigger.setJobKey(job.getKey());
+                trigger.computeFirstFireTime(null);
+                store.storeTrigger(trigger, false);
+            }
+        }
+
+        final int expectedFires = 2 * TRIGGERS_PER_JOB * FIRES_PER_TRIGGER;
+        final AtomicInteger fires = new AtomicInteger();
+        final ConcurrentHashMap<TriggerKey, AtomicInteger> firesByTrigger = new ConcurrentHashMap<TriggerKey, AtomicInteger>();
+        final Set<String> fireInstances = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        final Set<JobKey> executing = Collections.newSetFromMap(new ConcurrentHashMap<JobKey, Boolean>());
+        final AtomicReference<String> failure = new AtomicReference<String>();
+        final long deadline = start + 30000L;
+        final CountDownLatch done = new CountDownLatch(THREADS);
+
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread("ConcurrentRAMJobStoreTest-" + t) {
+                @Override
+                public void run() {
+                    try {
+                        while (fires.get() < expectedFires && failure.get() == null
+                                && System.currentTimeMillis() < deadline) {
+                            List<OperableTrigger> triggers = store.acquireNextTriggers(
+                                System.currentTimeMillis() + 60000L, 3, 0L);
+                            for (TriggerFiredResult result : store.triggersFired(triggers)) {
+                                TriggerFiredBundle bundle = result.getTriggerFiredBundle();
+                                if (bundle == null) {
+                                    continue;
+                                }
+
+                                // each fire time of a trigger is fired by one thread only
+                                TriggerKey key = bundle.getTrigger().getKey();
+                                if (!fireInstances.add(key + "@" + bundle.getScheduledFireTime().getTime())) {
+                                    failure.compareAndSet(null, key + " fired twice at " + bundle.getScheduledFireTime());
+                                }
+
+                                JobDetail job = bundle.getJobDetail();
+                                boolean serial = job.isConcurrentExectionDisallowed();
+                                if (serial && !executing.add(job.getKey())) {
+                                    failure.compareAndSet(null, job.getKey() + " executed concurrently");
+                                }
+                                AtomicInteger count = firesByTrigger.get(key);
+                                if (count == null) {
+                                    firesByTrigger.putIfAbsent(key, new AtomicInteger());
+                                    count = firesByTrigger.get(key);
+                                }
+                                count.incrementAndGet();
+                                fires.incrementAndGet();
+                                if (serial) {
+                                    Thread.yield();
+                                    executing.remove(job.getKey());
+                                }
+
+                                store.triggeredJobComplete(bundle.getTrigger(), job,
+                                    bundle.getTrigger().mayFireAgain()
+                                        ? CompletedExecutionInstruction.NOOP
+                                        : CompletedExecutionInstruction.DELETE_TRIGGER);
+                            }
+                        }
+                    } catch (Exception e) {
+                        failure.compareAndSet(null, e.toString());
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            };
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        assertNull(failure.get());
+        assertEquals(expectedFires, fires.get());
+        assertEquals(2 * TRIGGERS_PER_JOB, firesByTrigger.size());
+        for (AtomicInteger count : firesByTrigger.values()) {
+            assertEquals(FIRES_PER_TRIGGER, count.get());
+        }
+        assertEquals(0, store.getNumberOfTriggers());
+    }
+
+    @DisallowConcurrentExecution
+    public static class SerialJob implements Job {
+        public void execute(JobExecutionContext context) {
+        }
+    }
+}
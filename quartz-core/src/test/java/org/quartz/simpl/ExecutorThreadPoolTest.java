@@ -0,0 +1,123 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.quartz.simpl;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for ExecutorThreadPool.
+ */
+public class ExecutorThreadPoolTest extends TestCase {
+
+    private ExecutorThreadPool threadPool;
+
+    @Override
+    protected void setUp() throws Exception {
+        threadPool = new ExecutorThreadPool(2, Thread.NORM_PRIORITY);
+        threadPool.setInstanceName("ExecutorThreadPoolTest");
+        threadPool.setMakeThreadsDaemons(true);
+        threadPool.initialize();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        threadPool.shutdown(true);
+    }
+
+    public void testAvailabilityAccounting() throws Exception {
+        assertEquals(2, threadPool.blockForAvailableThreads());
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        assertTrue(threadPool.runInThread(new BlockingRunnable(started, release)));
+        assertEquals(1, threadPool.getAvailableThreadCount());
+        assertTrue(threadPool.runInThread(new BlockingRunnable(started, release)));
+        assertEquals(0, threadPool.getAvailableThreadCount());
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(2, threadPool.getBusyThreadCount());
+        assertEquals(1.0, threadPool.getUtilization(), 0.0);
+
+        release.countDown();
+        assertTrue(threadPool.blockForAvailableThreads() > 0);
+        waitForCompleted(2);
+        assertEquals(2, threadPool.blockForAvailableThreads());
+        assertEquals(0, threadPool.getBusyThreadCount());
+        assertEquals(2, threadPool.getDispatchedCount());
+    }
+
+    public void testResize() throws Exception {
+        threadPool.setThreadCount(4);
+        assertEquals(4, threadPool.getPoolSize());
+        assertEquals(4, threadPool.blockForAvailableThreads());
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(threadPool.runInThread(new BlockingRunnable(started, release)));
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // shrinking below the number of busy threads leaves none available
+        threadPool.setThreadCount(1);
+        assertEquals(-2, threadPool.getAvailableThreadCount());
+
+        release.countDown();
+        waitForCompleted(3);
+        assertEquals(1, threadPool.blockForAvailableThreads());
+    }
+
+    public void testExceptionInRunnableGivesThreadBack() throws Exception {
+        threadPool.runInThread(new Runnable() {
+            public void run() {
+                throw new RuntimeException("expected");
+            }
+        });
+        waitForCompleted(1);
+        assertEquals(2, threadPool.blockForAvailableThreads());
+    }
+
+    private void waitForCompleted(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (threadPool.getCompletedCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, threadPool.getCompletedCount());
+    }
+
+    private static class BlockingRunnable implements Runnable {
+
+        private final CountDownLatch started;
+
+        private final CountDownLatch release;
+
+        BlockingRunnable(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        public void run() {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -162,6 +162,39 @@ public class PropertySettingJobFactoryTest extends TestCase {
         assertEquals((byte)6, myBean.getByteValue());
     }
 
+    public void testSetBeanPropsReusesInjectionPlan() throws SchedulerException {
+        JobDataMap jobDataMap = new JobDataMap();
+        jobDataMap.put("intValue", "1");
+        jobDataMap.put("stringValue", "S1");
+        factory.setBeanProps(new TestBean(), jobDataMap);
+
+        jobDataMap.put("intValue", Integer.valueOf(2));
+        jobDataMap.put("charValue", "b");
+        TestBean myBean = new TestBean();
+        factory.setBeanProps(myBean, jobDataMap);
+        assertEquals(2, myBean.getIntValue());
+        assertEquals('b', myBean.getCharValue());
+        assertEquals("S1", myBean.getStringValue());
+
+        // a key without a setter is reported every time
+        jobDataMap.put("bogusValue", Integer.valueOf(1));
+        for (int i = 0; i < 2; i++) {
+            try {
+                factory.setBeanProps(new TestBean(), jobDataMap);
+                fail();
+            } catch (SchedulerException ignore) { // ignore 
+            }
+        }
+    }
+
+    public void testSetBeanPropsMatchesCapitalizedKeys() throws SchedulerException {
+        JobDataMap jobDataMap = new JobDataMap();
+        jobDataMap.put("IntValue", "3");
+        TestBean myBean = new TestBean();
+        factory.setBeanProps(myBean, jobDataMap);
+        assertEquals(3, myBean.getIntValue());
+    }
+    
     private static final class TestBean {
         private int intValue;
         private long longValue;
@@ -15,8 +15,23 @@
  */
 package org.quartz.simpl;
 
+import static org.quartz.JobBuilder.newJob;
+import static org.quartz.SimpleScheduleBuilder.simpleSchedule;
+import static org.quartz.TriggerBuilder.newTrigger;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
 import org.quartz.AbstractJobStoreTest;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobDetail;
+import org.quartz.JobPersistenceException;
+import org.quartz.Trigger;
+import org.quartz.TriggerKey;
+import org.quartz.impl.calendar.BaseCalendar;
 import org.quartz.spi.JobStore;
+import org.quartz.spi.OperableTrigger;
 
 public class RAMJobStoreTest extends AbstractJobStoreTest {
 
@@ -30,4 +45,147 @@ public class RAMJobStoreTest extends AbstractJobStoreTest {
     protected void destroyJobStore(String name) {
 
     }
+
+    public void testTriggersForJobKeepTheirStoreOrder() throws Exception {
+        RAMJobStore store = new RAMJobStore();
+        store.initialize(null, null);
+
+        JobDetail job = newJob(MyJob.class).withIdentity("orderedJob").storeDurably().build();
+        store.storeJob(job, false);
+        List<TriggerKey> keys = new ArrayList<TriggerKey>();
+        for (String name : new String[] {"t5", "t3", "t9", "t1", "t7", "t2", "t8", "t4", "t6"}) {
+            OperableTrigger trigger = (OperableTrigger) newTrigger().withIdentity(name).forJob(job).build();
+            store.storeTrigger(trigger, false);
+            keys.add(trigger.getKey());
+        }
+        assertEquals(keys, keysOf(store.getTriggersForJob(job.getKey())));
+
+        // a replaced trigger is stored again, so it moves to the end
+        OperableTrigger replacement = (OperableTrigger) newTrigger().withIdentity("t9").forJob(job).build();
+        assertTrue(store.replaceTrigger(replacement.getKey(), replacement));
+        keys.remove(replacement.getKey());
+        keys.add(replacement.getKey());
+        assertEquals(keys, keysOf(store.getTriggersForJob(job.getKey())));
+    }
+
+    private static List<TriggerKey> keysOf(List<OperableTrigger> triggers) {
+        List<TriggerKey> keys = new ArrayList<TriggerKey>();
+        for (OperableTrigger trigger : triggers) {
+            keys.add(trigger.getKey());
+        }
+        return keys;
+    }
+
+    public void testTriggerIndexesFollowStoreAndRemove() throws Exception {
+        RAMJobStore store = new RAMJobStore();
+        store.initialize(null, null);
+
+        JobDetail job = newJob(MyJob.class).withIdentity("indexedJob").storeDurably().build();
+        store.storeJob(job, false);
+        store.storeCalendar("indexedCal", new BaseCalendar(), false, false);
+
+        OperableTrigger t1 = (OperableTrigger) newTrigger().withIdentity("t1").forJob(job).modifiedByCalendar("indexedCal").build();
+        OperableTrigger t2 = (OperableTrigger) newTrigger().withIdentity("t2").forJob(job).build();
+        store.storeTrigger(t1, false);
+        store.storeTrigger(t2, false);
+
+        assertEquals(2, store.getTriggersForJob(job.getKey()).size());
+        assertEquals(1, store.getTriggerWrappersForCalendar("indexedCal").size());
+        try {
+            store.removeCalendar("indexedCal");
+            fail("Calendar referenced by a trigger should not be removable");
+        } catch (JobPersistenceException expected) {
+        }
+
+        // replacing a trigger drops its old calendar reference
+        OperableTrigger t1b = (OperableTrigger) newTrigger().withIdentity("t1").forJob(job).build();
+        assertTrue(store.replaceTrigger(t1.getKey(), t1b));
+        assertEquals(2, store.getTriggersForJob(job.getKey()).size());
+        assertTrue(store.getTriggerWrappersForCalendar("indexedCal").isEmpty());
+        assertTrue(store.removeCalendar("indexedCal"));
+
+        assertTrue(store.removeTrigger(t2.getKey()));
+        assertEquals(1, store.getTriggersForJob(job.getKey()).size());
+        assertEquals(1, store.getNumberOfTriggers());
+    }
+
+    public void testAcquireNextTriggersLeavesExcludedTriggersInPlace() throws Exception {
+        RAMJobStore store = new RAMJobStore();
+        store.initialize(null, new SampleSignaler());
+
+        JobDetail job = newJob(MyJob.class).withIdentity("concurrentJob").storeDurably().build();
+        JobDetail serialJob = newJob(SerialJob.class).withIdentity("serialJob").storeDurably().build();
+        store.storeJob(job, false);
+        store.storeJob(serialJob, false);
+
+        long now = System.currentTimeMillis();
+        // misfired, and fired right away by its (smart) misfire policy
+        store.storeTrigger(createTrigger("misfired", job, now - 60000L), false);
+        store.storeTrigger(createTrigger("serial1", serialJob, now + 1000L), false);
+        store.storeTrigger(createTrigger("serial2", serialJob, now + 2000L), false);
+        store.storeTrigger(createTrigger("later", job, now + 3000L), false);
+        store.storeTrigger(createTrigger("tooLate", job, now + 60000L), false);
+
+        List<OperableTrigger> acquired = store.acquireNextTriggers(now + 10000L, 10, 0L);
+        assertEquals(3, acquired.size());
+        assertEquals("misfired", acquired.get(0).getKey().getName());
+        assertEquals("serial1", acquired.get(1).getKey().getName());
+        assertEquals("later", acquired.get(2).getKey().getName());
+
+        acquired = store.acquireNextTriggers(now + 10000L, 10, 0L);
+        assertEquals(1, acquired.size());
+        assertEquals("serial2", acquired.get(0).getKey().getName());
+
+        assertTrue(store.acquireNextTriggers(now + 10000L, 10, 0L).isEmpty());
+        assertEquals("tooLate", store.acquireNextTriggers(now + 60000L, 10, 0L).get(0).getKey().getName());
+    }
+
+    public void testAcquireNextTriggersContinuesAfterMisfires() throws Exception {
+        RAMJobStore store = new RAMJobStore();
+        store.initialize(null, new SampleSignaler());
+
+        JobDetail job = newJob(MyJob.class).withIdentity("concurrentJob").storeDurably().build();
+        JobDetail serialJob = newJob(SerialJob.class).withIdentity("serialJob").storeDurably().build();
+        store.storeJob(job, false);
+        store.storeJob(serialJob, false);
+
+        long now = System.currentTimeMillis();
+        // overdue, but not handled as misfires, and all but the first skipped
+        for (int i = 0; i < 5; i++) {
+            OperableTrigger serial = createTrigger("serial" + i, serialJob, now - 120000L + i);
+            serial.setMisfireInstruction(Trigger.MISFIRE_INSTRUCTION_IGNORE_MISFIRE_POLICY);
+            store.storeTrigger(serial, false);
+        }
+        // misfired behind them, and moved to now by their (smart) misfire policy
+        for (int i = 0; i < 5; i++) {
+            store.storeTrigger(createTrigger("misfired" + i, job, now - 60000L + i), false);
+        }
+
+        List<OperableTrigger> acquired = store.acquireNextTriggers(now + 10000L, 10, 0L);
+        assertEquals(6, acquired.size());
+        assertEquals("serial0", acquired.get(0).getKey().getName());
+        for (int i = 1; i < 6; i++) {
+            assertTrue(acquired.get(i).getKey().getName().startsWith("misfired"));
+            assertTrue(acquired.get(i).getNextFireTime().getTime() >= now);
+        }
+
+        acquired = store.acquireNextTriggers(now + 10000L, 10, 0L);
+        assertEquals(1, acquired.size());
+        assertEquals("serial1", acquired.get(0).getKey().getName());
+    }
+
+    private static OperableTrigger createTrigger(String name, JobDetail job, long startTime) {
+        OperableTrigger trigger = (OperableTrigger) newTrigger()
+                .withIdentity(name)
+                .forJob(job)
+                .startAt(new Date(startTime))
+                .withSchedule(simpleSchedule().withIntervalInHours(1).withRepeatCount(1))
+                .build();
+        trigger.computeFirstFireTime(null);
+        return trigger;
+    }
+
+    @DisallowConcurrentExecution
+    public static class SerialJob extends MyJob {
+    }
 }
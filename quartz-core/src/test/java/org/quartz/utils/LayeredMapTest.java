@@ -0,0 +1,139 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.quartz.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.quartz.JobDataMap;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for LayeredMap and the merged JobDataMap view built on it.
+ */
+public class LayeredMapTest extends TestCase {
+
+    private Map<String, Object> lower;
+    private Map<String, Object> upper;
+
+    @Override
+    protected void setUp() throws Exception {
+        lower = new HashMap<String, Object>();
+        lower.put("a", "lowerA");
+        lower.put("b", "lowerB");
+        upper = new HashMap<String, Object>();
+        upper.put("b", "upperB");
+        upper.put("c", null);
+    }
+
+    public void testReadsThrough() {
+        LayeredMap<String, Object> map = new LayeredMap<String, Object>(lower, upper);
+        assertEquals("lowerA", map.get("a"));
+        assertEquals("upperB", map.get("b"));
+        assertNull(map.get("c"));
+        assertTrue(map.containsKey("c"));
+        assertFalse(map.containsKey("d"));
+        assertEquals(3, map.size());
+
+        Map<String, Object> expected = new HashMap<String, Object>(lower);
+        expected.putAll(upper);
+        assertEquals(expected, map);
+        assertEquals(expected, new HashMap<String, Object>(map));
+        assertFalse(map.isCopied());
+
+        lower.put("d", "lowerD");
+        assertEquals("lowerD", map.get("d"));
+    }
+
+    public void testCopiesOnWrite() {
+        LayeredMap<String, Object> map = new LayeredMap<String, Object>(lower, upper);
+        map.put("a", "newA");
+        assertTrue(map.isCopied());
+        assertEquals("newA", map.get("a"));
+        assertEquals("upperB", map.get("b"));
+        assertEquals("lowerA", lower.get("a"));
+
+        lower.put("d", "lowerD");
+        assertFalse(map.containsKey("d"));
+    }
+
+    public void testRemoveAndSetValueThroughIterator() {
+        LayeredMap<String, Object> map = new LayeredMap<String, Object>(lower, upper);
+        assertNull(map.remove("d"));
+        assertFalse(map.isCopied());
+
+        for (Iterator<Map.Entry<String, Object>> iter = map.entrySet().iterator(); iter.hasNext();) {
+            Map.Entry<String, Object> entry = iter.next();
+            if (entry.getKey().equals("a")) {
+                iter.remove();
+            } else if (entry.getKey().equals("b")) {
+                entry.setValue("newB");
+            }
+        }
+        assertEquals(2, map.size());
+        assertFalse(map.containsKey("a"));
+        assertEquals("newB", map.get("b"));
+        assertEquals(2, lower.size());
+        assertEquals("upperB", upper.get("b"));
+    }
+
+    public void testClear() {
+        LayeredMap<String, Object> map = new LayeredMap<String, Object>(lower, upper);
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(2, lower.size());
+        assertEquals(2, upper.size());
+    }
+
+    public void testMergedJobDataMap() throws Exception {
+        JobDataMap jobData = new JobDataMap();
+        jobData.put("count", 1);
+        jobData.put("name", "job");
+        JobDataMap triggerData = new JobDataMap();
+        triggerData.put("count", "2");
+
+        JobDataMap merged = JobDataMap.newMergedView(jobData, triggerData);
+        assertEquals(2, merged.getIntValue("count"));
+        assertEquals("job", merged.getString("name"));
+        assertEquals(2, merged.size());
+
+        JobDataMap clone = (JobDataMap) merged.clone();
+        clone.put("name", "clone");
+        assertEquals("job", merged.getString("name"));
+
+        merged.put("name", "merged");
+        assertTrue(merged.isDirty());
+        assertEquals("job", jobData.getString("name"));
+        assertEquals("clone", clone.getString("name"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(JobDataMap.newMergedView(jobData, triggerData));
+        out.close();
+        JobDataMap deserialized = (JobDataMap) new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        assertTrue(deserialized.getWrappedMap() instanceof HashMap);
+        assertEquals("2", deserialized.getString("count"));
+        assertEquals("job", deserialized.getString("name"));
+    }
+}
@@ -50,6 +50,7 @@ is_nonconcurrent varchar(5) not null,
 is_update_data varchar(5) not null,
 requests_recovery varchar(5) not null,
 job_data blob,
+revision bigint default 0 not null,
 primary key (sched_name,job_name,job_group)
 );
 
@@ -70,6 +71,7 @@ end_time bigint,
 calendar_name varchar(200),
 misfire_instr smallint,
 job_data blob,
+access_partition integer default 0 not null,
 primary key (sched_name,trigger_name,trigger_group),
 foreign key (sched_name,job_name,job_group) references qrtz_job_details(sched_name,job_name,job_group)
 );
@@ -129,6 +131,7 @@ create table qrtz_calendars(
 sched_name varchar(120) not null,
 calendar_name varchar(200) not null,
 calendar blob not null,
+revision bigint default 0 not null,
 primary key (sched_name,calendar_name)
 );
 
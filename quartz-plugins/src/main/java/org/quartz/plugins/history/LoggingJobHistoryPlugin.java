@@ -22,14 +22,19 @@ import org.slf4j.LoggerFactory;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.quartz.Scheduler;
+import org.quartz.SchedulerConfigException;
 import org.quartz.SchedulerException;
 import org.quartz.Trigger;
 import org.quartz.JobListener;
 import org.quartz.impl.matchers.EverythingMatcher;
+import org.quartz.listeners.AsyncJobListener;
+import org.quartz.listeners.ListenerEventQueue;
+import org.quartz.listeners.ListenerEventQueue.OverflowPolicy;
 import org.quartz.spi.ClassLoadHelper;
 import org.quartz.spi.SchedulerPlugin;
 
 import java.text.MessageFormat;
+import java.util.Locale;
 
 /**
  * Logs a history of all job executions (and execution vetos) via the 
@@ -269,6 +274,16 @@ import java.text.MessageFormat;
  * </p>
  * 
  * 
+ * <p>
+ * Setting the <code>asynchronous</code> property to <code>true</code> moves
+ * the logging off the scheduler's threads, so that a slow log does not delay
+ * job executions.  The events then wait in a queue of <code>asyncQueueSize</code>
+ * entries (default 1024), and <code>asyncOverflowPolicy</code> names the
+ * <code>{@link OverflowPolicy}</code> applied when it is full (default
+ * <code>BLOCK</code>).  The logged current time is still the time of the
+ * event.
+ * </p>
+ * 
  * @author James House
  */
 public class LoggingJobHistoryPlugin implements SchedulerPlugin, JobListener {
@@ -291,6 +306,14 @@ public class LoggingJobHistoryPlugin implements SchedulerPlugin, JobListener {
 
     private String jobWasVetoedMessage = "Job {1}.{0} was vetoed.  It was to be fired (by trigger {4}.{3}) at: {2, date, HH:mm:ss MM/dd/yyyy}";
 
+    private boolean asynchronous = false;
+
+    private int asyncQueueSize = ListenerEventQueue.DEFAULT_CAPACITY;
+
+    private String asyncOverflowPolicy = OverflowPolicy.BLOCK.name();
+
+    private AsyncJobListener asyncListener;
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     /*
@@ -390,6 +413,54 @@ public class LoggingJobHistoryPlugin implements SchedulerPlugin, JobListener {
         this.jobWasVetoedMessage = jobWasVetoedMessage;
     }
 
+    /**
+     * Whether events are logged by a separate thread, rather than by the
+     * scheduler thread that raised them.
+     */
+    public boolean isAsynchronous() {
+        return asynchronous;
+    }
+
+    /**
+     * Set whether events are logged by a separate thread, rather than by the
+     * scheduler thread that raised them.  Default is <code>false</code>.
+     */
+    public void setAsynchronous(boolean asynchronous) {
+        this.asynchronous = asynchronous;
+    }
+
+    public int getAsyncQueueSize() {
+        return asyncQueueSize;
+    }
+
+    /**
+     * Set the maximum number of events waiting to be logged when
+     * <code>asynchronous</code>.
+     */
+    public void setAsyncQueueSize(int asyncQueueSize) {
+        this.asyncQueueSize = asyncQueueSize;
+    }
+
+    public String getAsyncOverflowPolicy() {
+        return asyncOverflowPolicy;
+    }
+
+    /**
+     * Set the name of the <code>{@link OverflowPolicy}</code> applied to an
+     * event raised while the queue is full, when <code>asynchronous</code>.
+     */
+    public void setAsyncOverflowPolicy(String asyncOverflowPolicy) {
+        this.asyncOverflowPolicy = asyncOverflowPolicy;
+    }
+
+    /**
+     * Get the queue events wait in before they are logged, or
+     * <code>null</code> if not <code>asynchronous</code>.
+     */
+    public ListenerEventQueue getEventQueue() {
+        return asyncListener == null ? null : asyncListener.getEventQueue();
+    }
+
     /*
      * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
      * 
@@ -410,7 +481,12 @@ public class LoggingJobHistoryPlugin implements SchedulerPlugin, JobListener {
     public void initialize(String pname, Scheduler scheduler,ClassLoadHelper classLoadHelper)
         throws SchedulerException {
         this.name = pname;
-        scheduler.getListenerManager().addJobListener(this, EverythingMatcher.allJobs());
+        JobListener listener = this;
+        if (asynchronous) {
+            asyncListener = new AsyncJobListener(this, createEventQueue());
+            listener = asyncListener;
+        }
+        scheduler.getListenerManager().addJobListener(listener, EverythingMatcher.allJobs());
     }
 
     public void start() {
@@ -425,7 +501,25 @@ public class LoggingJobHistoryPlugin implements SchedulerPlugin, JobListener {
      * </p>
      */
     public void shutdown() {
-        // nothing to do...
+        if (asyncListener != null) {
+            asyncListener.shutdown();
+        }
+    }
+
+    private ListenerEventQueue createEventQueue() throws SchedulerException {
+        OverflowPolicy overflowPolicy;
+        try {
+            overflowPolicy = OverflowPolicy.valueOf(asyncOverflowPolicy.trim().toUpperCase(Locale.US));
+        } catch (IllegalArgumentException e) {
+            throw new SchedulerConfigException(
+                    "Unknown asyncOverflowPolicy '" + asyncOverflowPolicy + "' for plugin '" + name + "'", e);
+        }
+        if (asyncQueueSize <= 0) {
+            throw new SchedulerConfigException(
+                    "asyncQueueSize must be > 0 for plugin '" + name + "'");
+        }
+        return new ListenerEventQueue(name, asyncQueueSize,
+                ListenerEventQueue.DEFAULT_BATCH_SIZE, overflowPolicy);
     }
 
     /*
@@ -460,7 +554,7 @@ public class LoggingJobHistoryPlugin implements SchedulerPlugin, JobListener {
 
         Object[] args = {
             context.getJobDetail().getKey().getName(),
-            context.getJobDetail().getKey().getGroup(), new java.util.Date(),
+            context.getJobDetail().getKey().getGroup(), new java.util.Date(ListenerEventQueue.getEventTime()),
             trigger.getKey().getName(), trigger.getKey().getGroup(),
             trigger.getPreviousFireTime(), trigger.getNextFireTime(),
             Integer.valueOf(context.getRefireCount())
@@ -488,7 +582,7 @@ public class LoggingJobHistoryPlugin implements SchedulerPlugin, JobListener {
             args = 
                 new Object[] {
                     context.getJobDetail().getKey().getName(),
-                    context.getJobDetail().getKey().getGroup(), new java.util.Date(),
+                    context.getJobDetail().getKey().getGroup(), new java.util.Date(ListenerEventQueue.getEventTime()),
                     trigger.getKey().getName(), trigger.getKey().getGroup(),
                     trigger.getPreviousFireTime(), trigger.getNextFireTime(),
                     Integer.valueOf(context.getRefireCount()), errMsg
@@ -504,7 +598,7 @@ public class LoggingJobHistoryPlugin implements SchedulerPlugin, JobListener {
             args =
                 new Object[] {
                     context.getJobDetail().getKey().getName(),
-                    context.getJobDetail().getKey().getGroup(), new java.util.Date(),
+                    context.getJobDetail().getKey().getGroup(), new java.util.Date(ListenerEventQueue.getEventTime()),
                     trigger.getKey().getName(), trigger.getKey().getGroup(),
                     trigger.getPreviousFireTime(), trigger.getNextFireTime(),
                     Integer.valueOf(context.getRefireCount()), result
@@ -527,7 +621,7 @@ public class LoggingJobHistoryPlugin implements SchedulerPlugin, JobListener {
 
         Object[] args = {
             context.getJobDetail().getKey().getName(),
-            context.getJobDetail().getKey().getGroup(), new java.util.Date(),
+            context.getJobDetail().getKey().getGroup(), new java.util.Date(ListenerEventQueue.getEventTime()),
             trigger.getKey().getName(), trigger.getKey().getGroup(),
             trigger.getPreviousFireTime(), trigger.getNextFireTime(),
             Integer.valueOf(context.getRefireCount())
@@ -18,16 +18,21 @@
 package org.quartz.plugins.history;
 
 import java.text.MessageFormat;
+import java.util.Locale;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.quartz.JobExecutionContext;
 import org.quartz.Scheduler;
+import org.quartz.SchedulerConfigException;
 import org.quartz.SchedulerException;
 import org.quartz.Trigger;
 import org.quartz.TriggerListener;
 import org.quartz.Trigger.CompletedExecutionInstruction;
 import org.quartz.impl.matchers.EverythingMatcher;
+import org.quartz.listeners.AsyncTriggerListener;
+import org.quartz.listeners.ListenerEventQueue;
+import org.quartz.listeners.ListenerEventQueue.OverflowPolicy;
 import org.quartz.spi.ClassLoadHelper;
 import org.quartz.spi.SchedulerPlugin;
 
@@ -207,6 +212,16 @@ import org.quartz.spi.SchedulerPlugin;
  * code: {9}"</i>
  * </p>
  * 
+ * <p>
+ * Setting the <code>asynchronous</code> property to <code>true</code> moves
+ * the logging off the scheduler's threads, so that a slow log does not delay
+ * trigger firings.  The events then wait in a queue of <code>asyncQueueSize</code>
+ * entries (default 1024), and <code>asyncOverflowPolicy</code> names the
+ * <code>{@link OverflowPolicy}</code> applied when it is full (default
+ * <code>BLOCK</code>).  The logged current time is still the time of the
+ * event.
+ * </p>
+ * 
  * @author James House
  */
 public class LoggingTriggerHistoryPlugin implements SchedulerPlugin,
@@ -228,6 +243,14 @@ public class LoggingTriggerHistoryPlugin implements SchedulerPlugin,
 
     private String triggerCompleteMessage = "Trigger {1}.{0} completed firing job {6}.{5} at {4, date, HH:mm:ss MM/dd/yyyy} with resulting trigger instruction code: {9}";
 
+    private boolean asynchronous = false;
+
+    private int asyncQueueSize = ListenerEventQueue.DEFAULT_CAPACITY;
+
+    private String asyncOverflowPolicy = OverflowPolicy.BLOCK.name();
+
+    private AsyncTriggerListener asyncListener;
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     /*
@@ -312,6 +335,54 @@ public class LoggingTriggerHistoryPlugin implements SchedulerPlugin,
         this.triggerMisfiredMessage = triggerMisfiredMessage;
     }
 
+    /**
+     * Whether events are logged by a separate thread, rather than by the
+     * scheduler thread that raised them.
+     */
+    public boolean isAsynchronous() {
+        return asynchronous;
+    }
+
+    /**
+     * Set whether events are logged by a separate thread, rather than by the
+     * scheduler thread that raised them.  Default is <code>false</code>.
+     */
+    public void setAsynchronous(boolean asynchronous) {
+        this.asynchronous = asynchronous;
+    }
+
+    public int getAsyncQueueSize() {
+        return asyncQueueSize;
+    }
+
+    /**
+     * Set the maximum number of events waiting to be logged when
+     * <code>asynchronous</code>.
+     */
+    public void setAsyncQueueSize(int asyncQueueSize) {
+        this.asyncQueueSize = asyncQueueSize;
+    }
+
+    public String getAsyncOverflowPolicy() {
+        return asyncOverflowPolicy;
+    }
+
+    /**
+     * Set the name of the <code>{@link OverflowPolicy}</code> applied to an
+     * event raised while the queue is full, when <code>asynchronous</code>.
+     */
+    public void setAsyncOverflowPolicy(String asyncOverflowPolicy) {
+        this.asyncOverflowPolicy = asyncOverflowPolicy;
+    }
+
+    /**
+     * Get the queue events wait in before they are logged, or
+     * <code>null</code> if not <code>asynchronous</code>.
+     */
+    public ListenerEventQueue getEventQueue() {
+        return asyncListener == null ? null : asyncListener.getEventQueue();
+    }
+
     /*
      * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
      * 
@@ -333,7 +404,12 @@ public class LoggingTriggerHistoryPlugin implements SchedulerPlugin,
         throws SchedulerException {
         this.name = pname;
 
-        scheduler.getListenerManager().addTriggerListener(this,  EverythingMatcher.allTriggers());
+        TriggerListener listener = this;
+        if (asynchronous) {
+            asyncListener = new AsyncTriggerListener(this, createEventQueue());
+            listener = asyncListener;
+        }
+        scheduler.getListenerManager().addTriggerListener(listener,  EverythingMatcher.allTriggers());
     }
 
     public void start() {
@@ -348,7 +424,25 @@ public class LoggingTriggerHistoryPlugin implements SchedulerPlugin,
      * </p>
      */
     public void shutdown() {
-        // nothing to do...
+        if (asyncListener != null) {
+            asyncListener.shutdown();
+        }
+    }
+
+    private ListenerEventQueue createEventQueue() throws SchedulerException {
+        OverflowPolicy overflowPolicy;
+        try {
+            overflowPolicy = OverflowPolicy.valueOf(asyncOverflowPolicy.trim().toUpperCase(Locale.US));
+        } catch (IllegalArgumentException e) {
+            throw new SchedulerConfigException(
+                    "Unknown asyncOverflowPolicy '" + asyncOverflowPolicy + "' for plugin '" + name + "'", e);
+        }
+        if (asyncQueueSize <= 0) {
+            throw new SchedulerConfigException(
+                    "asyncQueueSize must be > 0 for plugin '" + name + "'");
+        }
+        return new ListenerEventQueue(name, asyncQueueSize,
+                ListenerEventQueue.DEFAULT_BATCH_SIZE, overflowPolicy);
     }
 
     /*
@@ -379,7 +473,7 @@ public class LoggingTriggerHistoryPlugin implements SchedulerPlugin,
         Object[] args = {
             trigger.getKey().getName(), trigger.getKey().getGroup(),
             trigger.getPreviousFireTime(), trigger.getNextFireTime(),
-            new java.util.Date(), context.getJobDetail().getKey().getName(),
+            new java.util.Date(ListenerEventQueue.getEventTime()), context.getJobDetail().getKey().getName(),
             context.getJobDetail().getKey().getGroup(),
             Integer.valueOf(context.getRefireCount())
         };
@@ -395,7 +489,7 @@ public class LoggingTriggerHistoryPlugin implements SchedulerPlugin,
         Object[] args = {
             trigger.getKey().getName(), trigger.getKey().getGroup(),
             trigger.getPreviousFireTime(), trigger.getNextFireTime(),
-            new java.util.Date(), trigger.getJobKey().getName(),
+            new java.util.Date(ListenerEventQueue.getEventTime()), trigger.getJobKey().getName(),
             trigger.getJobKey().getGroup()
         };
 
@@ -424,7 +518,7 @@ public class LoggingTriggerHistoryPlugin implements SchedulerPlugin,
         Object[] args = {
             trigger.getKey().getName(), trigger.getKey().getGroup(),
             trigger.getPreviousFireTime(), trigger.getNextFireTime(),
-            new java.util.Date(), context.getJobDetail().getKey().getName(),
+            new java.util.Date(ListenerEventQueue.getEventTime()), context.getJobDetail().getKey().getName(),
             context.getJobDetail().getKey().getGroup(),
             Integer.valueOf(context.getRefireCount()),
             triggerInstructionCode.toString(), instrCode
@@ -89,7 +89,7 @@ public class WebLogicDelegate extends StdJDBCDelegate {
     protected Object getJobDataFromBlob(ResultSet rs, String colName)
         throws ClassNotFoundException, IOException, SQLException {
         
-        if (canUseProperties()) {
+        if (isJobDataReadAsStream()) {
             Blob blobLocator = rs.getBlob(colName);
             InputStream binaryInput = null;
             try {